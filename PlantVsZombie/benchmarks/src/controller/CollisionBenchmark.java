@@ -0,0 +1,110 @@
+package controller;
+
+import model.Bullet;
+import model.CommandCenter;
+import model.CrazyZombie;
+import model.Peashooter;
+import model.Sprite;
+import model.Zombie;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures GameController.checkCollisions for different numbers of bullets and foes.
+ * Foes are spread along the four playable lanes. Half the bullets sit on a foe of their lane, so
+ * every pass has hits to resolve; the other half fly on the left of the lawn and hit nothing.
+ * Hits take health, kill foes and queue removals, so the lawn is built afresh before every
+ * invocation and each pass sees the same state. What is measured is the lane index update, the
+ * per-bullet and per-plant queries, the hits and the loop overhead.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CollisionBenchmark {
+
+    private final static int FOE_MIN_X = 150;
+    private final static int BULLET_MAX_X = 350;
+
+    @Param({"10", "100", "1000"})
+    public int nBullets;
+
+    @Param({"10", "100", "1000"})
+    public int nFoes;
+
+    private GameController controller;
+
+    /**
+     * Creates the headless controller the passes run on.
+     *
+     * @throws IOException if the controller cannot be created.
+     */
+    @Setup(Level.Trial)
+    public void setUpTrial() throws IOException {
+        controller = new GameController(true);
+        CommandCenter.setPlaying(true);
+    }
+
+    /**
+     * Builds the lawn: foes in the four playable lanes, a peashooter per lane and the bullets,
+     * half of them on top of a foe.
+     */
+    @Setup(Level.Invocation)
+    public void setUp() {
+        CommandCenter.initGame();
+        GameController.setTick(1); // checkCollisions asks for a GC on every 300th tick
+
+        Random random = new Random(42);
+        Point[] pntFoes = new Point[nFoes];
+        for (int nC = 0; nC < nFoes; nC++) {
+            int y = laneY(nC);
+            Sprite foe = nC % 3 == 0 ? new CrazyZombie(y) : new Zombie(y);
+            pntFoes[nC] = new Point(FOE_MIN_X + random.nextInt(CommandCenter.WORLD_WIDTH - 50 - FOE_MIN_X), y);
+            foe.setPointCenter(pntFoes[nC]);
+            CommandCenter.getMovFoes().add(foe);
+        }
+        Peashooter[] peashooters = new Peashooter[4];
+        for (int nC = 0; nC < peashooters.length; nC++) {
+            peashooters[nC] = new Peashooter(60, laneY(nC));
+            CommandCenter.getMovPlants().add(peashooters[nC]);
+        }
+        for (int nC = 0; nC < nBullets; nC++) {
+            Bullet bullet = new Bullet(peashooters[nC % peashooters.length]);
+            if (nC % 2 == 0) {
+                // a modulus that is a multiple of 4 keeps the foe in the bullet's lane
+                Point pntFoe = pntFoes[nC % (nFoes - nFoes % 4)];
+                bullet.setPointCenter(new Point(pntFoe.x - 10, laneY(nC)));
+            } else {
+                bullet.setPointCenter(new Point(120 + random.nextInt(BULLET_MAX_X - 120), laneY(nC)));
+            }
+            CommandCenter.getMovBullets().add(bullet);
+        }
+        CommandCenter.flushAll();
+    }
+
+    private static int laneY(int nC) {
+        return (nC % 4) * 100 + 200;
+    }
+
+    /**
+     * Runs one collision pass over the whole lawn.
+     */
+    @Benchmark
+    public void checkCollisions() {
+        controller.checkCollisions();
+    }
+
+    /**
+     * Leaves a clean game state for the next trial.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        CommandCenter.initGame();
+    }
+}
@@ -0,0 +1,91 @@
+package model;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the churn of CommandCenter's entity lists: queuing adds and removes the way a busy
+ * simulation step does and applying them with flushAll, at different list sizes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CommandCenterBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int nEntities;
+
+    private Bullet[] bullets;
+    private int nNext;
+
+    /**
+     * Fills movBullets and keeps a spare set of bullets to rotate through.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        CommandCenter.initGame();
+        Peashooter peashooter = new Peashooter(100, 300);
+        bullets = new Bullet[nEntities * 2];
+        for (int nC = 0; nC < bullets.length; nC++) {
+            bullets[nC] = new Bullet(peashooter);
+        }
+        for (int nC = 0; nC < nEntities; nC++) {
+            CommandCenter.getMovBullets().add(bullets[nC]);
+        }
+        CommandCenter.flushAll();
+        nNext = nEntities;
+    }
+
+    /**
+     * Replaces a tenth of the bullets: one step where many bullets hit and as many are fired.
+     */
+    @Benchmark
+    public void replaceTenth() {
+        int nReplace = Math.max(1, nEntities / 10);
+        for (int nC = 0; nC < nReplace; nC++) {
+            int nOut = (nNext + nEntities) % bullets.length;
+            CommandCenter.getMovBullets().remove(bullets[nOut]);
+            CommandCenter.getMovBullets().add(bullets[nNext]);
+            nNext = (nNext + 1) % bullets.length;
+        }
+        CommandCenter.flushAll();
+    }
+
+    /**
+     * Adds and removes a single bullet: the common case of one shot fired and one spent.
+     */
+    @Benchmark
+    public void replaceOne() {
+        int nOut = (nNext + nEntities) % bullets.length;
+        CommandCenter.getMovBullets().remove(bullets[nOut]);
+        CommandCenter.getMovBullets().add(bullets[nNext]);
+        nNext = (nNext + 1) % bullets.length;
+        CommandCenter.flushAll();
+    }
+
+    /**
+     * Iterates the list once, as each of the simulation and rendering passes does.
+     *
+     * @return A value depending on every element, so the loop is not optimized away.
+     */
+    @Benchmark
+    public int iterate() {
+        int nSum = 0;
+        for (Movable mov : CommandCenter.getMovBullets()) {
+            nSum += mov.getRadius();
+        }
+        return nSum;
+    }
+
+    /**
+     * Leaves a clean game state for the next trial.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        CommandCenter.initGame();
+    }
+}
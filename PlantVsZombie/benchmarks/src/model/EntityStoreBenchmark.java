@@ -0,0 +1,98 @@
+package model;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares an EntityStore against the CopyOnWriteArrayList lists it replaced. Every step iterates
+ * all entities, then removes and adds 5% of them one at a time, the way bullets and foes churn
+ * during a busy level.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EntityStoreBenchmark {
+
+    private final static double CHURN = 0.05;
+
+    @Param({"1000", "10000"})
+    public int nEntities;
+
+    private Bullet[] bullets;
+    private int nNext;
+    private CopyOnWriteArrayList<Movable> movList;
+    private EntityStore store;
+    private final ArrayList<Movable> movLeaving = new ArrayList<>();
+
+    /**
+     * Fills both containers with the same bullets and keeps a spare set to rotate through.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        Peashooter peashooter = new Peashooter(100, 300);
+        bullets = new Bullet[nEntities * 2];
+        for (int nC = 0; nC < bullets.length; nC++) {
+            bullets[nC] = new Bullet(peashooter);
+        }
+        movList = new CopyOnWriteArrayList<>();
+        store = new EntityStore();
+        for (int nC = 0; nC < nEntities; nC++) {
+            movList.add(bullets[nC]);
+            store.add(bullets[nC]);
+        }
+        store.flush();
+        nNext = nEntities;
+    }
+
+    /**
+     * One step on a CopyOnWriteArrayList, where each add and remove copies the array.
+     *
+     * @return A value depending on every element, so the loop is not optimized away.
+     */
+    @Benchmark
+    public int copyOnWriteStep() {
+        int nChurn = (int) (nEntities * CHURN);
+        int nSum = 0;
+        movLeaving.clear();
+        for (Movable mov : movList) {
+            nSum += mov.getRadius();
+            if (movLeaving.size() < nChurn) {
+                movLeaving.add(mov);
+            }
+        }
+        for (Movable mov : movLeaving) {
+            movList.remove(mov);
+            movList.add(bullets[nNext]);
+            nNext = (nNext + 1) % bullets.length;
+        }
+        return nSum;
+    }
+
+    /**
+     * The same step on an EntityStore, flushed once at its end.
+     *
+     * @return A value depending on every element, so the loop is not optimized away.
+     */
+    @Benchmark
+    public int entityStoreStep() {
+        int nChurn = (int) (nEntities * CHURN);
+        int nSum = 0;
+        int nLeft = 0;
+        for (Movable mov : store) {
+            nSum += mov.getRadius();
+            if (nLeft++ < nChurn) {
+                store.remove(mov);
+                store.add(bullets[nNext]);
+                nNext = (nNext + 1) % bullets.length;
+            }
+        }
+        store.flush();
+        return nSum;
+    }
+}
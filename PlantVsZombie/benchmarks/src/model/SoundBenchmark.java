@@ -0,0 +1,41 @@
+package model;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures decoding a WAV into PCM, which SoundEngine does once per file, and a cached lookup,
+ * which is what every later Sound.playSound costs on the caller's side.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SoundBenchmark {
+
+    @Param({"music/woodchopping.wav", "music/gameover.wav", "music/level1.wav"})
+    public String strPath;
+
+    /**
+     * Decodes the file from scratch.
+     *
+     * @return The decoded sample.
+     */
+    @Benchmark
+    public SoundEngine.Sample decode() {
+        return SoundEngine.decode(strPath);
+    }
+
+    /**
+     * Looks the file up in the decoded sample cache.
+     *
+     * @return The cached sample.
+     */
+    @Benchmark
+    public SoundEngine.Sample cachedLookup() {
+        return SoundEngine.getSample(strPath);
+    }
+}
@@ -0,0 +1,136 @@
+package view;
+
+import model.Bullet;
+import model.CommandCenter;
+import model.CrazyZombie;
+import model.Movable;
+import model.Peashooter;
+import model.Sprite;
+import model.SpriteAtlas;
+import model.Sun;
+import model.Zombie;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures drawing sprites into an offscreen BufferedImage, one sprite at a time and a whole frame
+ * through GamePanel.iterateMovables, with the sprite atlas turned on and off.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class RenderBenchmark {
+
+    @Param({"true", "false"})
+    public boolean bAtlas;
+
+    @Param({"200"})
+    public int nSprites;
+
+    private BufferedImage img;
+    private Graphics2D g2;
+    private Zombie zombie;
+    private CrazyZombie crazyZombie;
+    private Peashooter peashooter;
+    private Sun sun;
+
+    /**
+     * Creates the image, a sprite of each kind and a populated lawn for the frame benchmark.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        SpriteAtlas.setEnabled(bAtlas);
+        SpriteAtlas.clear();
+        img = new BufferedImage(CommandCenter.WORLD_WIDTH, CommandCenter.WORLD_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        g2 = img.createGraphics();
+
+        zombie = new Zombie(300);
+        crazyZombie = new CrazyZombie(400);
+        peashooter = new Peashooter(200, 300);
+        sun = new Sun(600, 200);
+
+        CommandCenter.initGame();
+        Random random = new Random(42);
+        for (int nC = 0; nC < nSprites; nC++) {
+            int y = (nC % 4) * 100 + 200;
+            CommandCenter.getMovFoes().add(nC % 3 == 0 ? new CrazyZombie(y) : new Zombie(y));
+            CommandCenter.getMovSun().add(new Sun(random.nextInt(CommandCenter.WORLD_WIDTH), random.nextInt(600)));
+            if (nC % 4 == 0) {
+                Peashooter plant = new Peashooter(100 + random.nextInt(200), y);
+                CommandCenter.getMovPlants().add(plant);
+                CommandCenter.getMovBullets().add(new Bullet(plant));
+            }
+        }
+        CommandCenter.flushAll();
+        for (Movable movFoe : CommandCenter.getMovFoes()) {
+            Point pnt = movFoe.getPointCenter();
+            ((Sprite) movFoe).setPointCenter(new Point(300 + random.nextInt(850), pnt.y));
+        }
+    }
+
+    /**
+     * Draws a zombie through Zombie.draw, i.e. from the atlas when it is enabled.
+     */
+    @Benchmark
+    public void zombieDraw() {
+        zombie.draw(g2);
+    }
+
+    /**
+     * Draws a zombie from its Java2D primitives, including the Sprite.draw polygon computation.
+     */
+    @Benchmark
+    public void zombieDrawPrimitives() {
+        zombie.drawPrimitives(g2);
+    }
+
+    /**
+     * Draws a crazy zombie.
+     */
+    @Benchmark
+    public void crazyZombieDraw() {
+        crazyZombie.draw(g2);
+    }
+
+    /**
+     * Draws a peashooter.
+     */
+    @Benchmark
+    public void peashooterDraw() {
+        peashooter.draw(g2);
+    }
+
+    /**
+     * Draws a sun.
+     */
+    @Benchmark
+    public void sunDraw() {
+        sun.draw(g2);
+    }
+
+    /**
+     * Draws every movable on the lawn, interpolated halfway between the last two simulation steps.
+     */
+    @Benchmark
+    public void iterateMovables() {
+        GamePanel.iterateMovables(g2, 0.5, CommandCenter.getMovPlants(), CommandCenter.getMovFoes(),
+                CommandCenter.getMovBullets(), CommandCenter.getMovSun());
+    }
+
+    /**
+     * Releases the graphics context and resets the game state.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        g2.dispose();
+        CommandCenter.initGame();
+        SpriteAtlas.setEnabled(true);
+    }
+}
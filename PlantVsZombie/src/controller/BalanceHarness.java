@@ -0,0 +1,403 @@
+package controller;
+
+import model.CommandCenter;
+import model.GameRandom;
+import model.GameWorld;
+import model.LawnGrid;
+import model.Movable;
+import model.SpawnSettings;
+
+import java.awt.Point;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The BalanceHarness class tunes difficulty by simulation instead of hand-play: it plays thousands
+ * of headless games with a scripted bot for every combination of spawn settings in a sweep and
+ * reports how long the bot survives, what it scores and how crowded the lawn gets.
+ * <p>
+ * Games run in parallel on a ForkJoin pool, one worker per core, each game in a GameWorld of its
+ * own, so games share nothing. Every setting is played with the same list of seeds, derived from
+ * the harness seed, so differences between settings come from the settings and not from luck,
+ * and a sweep gives the same numbers on any number of cores.
+ */
+public class BalanceHarness {
+
+    // fields of a game's result
+    public final static int TICKS = 0; // steps survived, at most the tick limit
+    public final static int SCORE = 1;
+    public final static int LEVEL = 2;
+    public final static int PEAK_FOES = 3;
+    public final static int PEAK_BULLETS = 4;
+    public final static int LOST = 5; // 1 if the game ended before the tick limit
+    public final static int RESULT_FIELDS = 6;
+
+    public final static int BOT_INTERVAL = 10; // ticks between the bot's moves
+
+    /**
+     * The aggregated outcome of every game played with one setting.
+     */
+    public static class Result {
+        private final SpawnSettings settings;
+        private final long[][] lGames;
+        private final int nMaxTicks;
+
+        private Result(SpawnSettings settings, long[][] lGames, int nMaxTicks) {
+            this.settings = settings;
+            this.lGames = lGames;
+            this.nMaxTicks = nMaxTicks;
+        }
+
+        /**
+         * Returns the setting the games were played with.
+         *
+         * @return The spawn settings.
+         */
+        public SpawnSettings getSettings() {
+            return settings;
+        }
+
+        /**
+         * Returns the number of games played.
+         *
+         * @return The game count.
+         */
+        public int getGames() {
+            return lGames.length;
+        }
+
+        /**
+         * Returns one game's result.
+         *
+         * @param nGame The game number.
+         * @return The result fields, indexed by TICKS, SCORE and so on.
+         */
+        public long[] getGame(int nGame) {
+            return lGames[nGame].clone();
+        }
+
+        /**
+         * Returns the mean of a result field over all games.
+         *
+         * @param nField A result field, e.g. SCORE.
+         * @return The mean.
+         */
+        public double mean(int nField) {
+            long lSum = 0;
+            for (long[] lGame : lGames) {
+                lSum += lGame[nField];
+            }
+            return lGames.length == 0 ? 0 : lSum / (double) lGames.length;
+        }
+
+        /**
+         * Returns the largest value of a result field over all games.
+         *
+         * @param nField A result field, e.g. PEAK_FOES.
+         * @return The maximum.
+         */
+        public long max(int nField) {
+            long lMax = 0;
+            for (long[] lGame : lGames) {
+                lMax = Math.max(lMax, lGame[nField]);
+            }
+            return lMax;
+        }
+
+        /**
+         * Returns the median number of ticks survived.
+         *
+         * @return The median survival time in ticks.
+         */
+        public long medianTicks() {
+            if (lGames.length == 0) {
+                return 0;
+            }
+            long[] lTicks = new long[lGames.length];
+            for (int nC = 0; nC < lGames.length; nC++) {
+                lTicks[nC] = lGames[nC][TICKS];
+            }
+            Arrays.sort(lTicks);
+            return lTicks[lTicks.length / 2];
+        }
+
+        /**
+         * Returns the share of games the bot survived until the tick limit.
+         *
+         * @return The survival rate, from 0 to 1.
+         */
+        public double survivalRate() {
+            return 1 - mean(LOST);
+        }
+
+        /**
+         * Returns a one-line report of the setting and its outcome.
+         *
+         * @return The report line.
+         */
+        @Override
+        public String toString() {
+            return String.format("%s | games=%d survived=%.0f%% ticks(mean=%.0f median=%d of %d) score=%.1f level=%.2f"
+                            + " peakFoes(mean=%.1f max=%d) peakBullets=%d",
+                    settings, getGames(), survivalRate() * 100, mean(TICKS), medianTicks(), nMaxTicks,
+                    mean(SCORE), mean(LEVEL), mean(PEAK_FOES), max(PEAK_FOES), max(PEAK_BULLETS));
+        }
+    }
+
+    private final int nGames;
+    private final int nMaxTicks;
+    private final long[] lSeeds;
+    private final int nThreads;
+
+    /**
+     * Constructs a harness.
+     *
+     * @param nGames    The number of games played per setting.
+     * @param nMaxTicks The tick limit of a game; a bot still alive then has survived.
+     * @param lSeed     The seed the games' seeds are derived from.
+     * @param nThreads  The number of workers, usually the number of cores.
+     */
+    public BalanceHarness(int nGames, int nMaxTicks, long lSeed, int nThreads) {
+        if (nGames <= 0 || nMaxTicks <= 0 || nThreads <= 0) {
+            throw new IllegalArgumentException("Games, ticks and threads must be positive");
+        }
+        this.nGames = nGames;
+        this.nMaxTicks = nMaxTicks;
+        this.nThreads = nThreads;
+        GameRandom random = new GameRandom(lSeed);
+        lSeeds = new long[nGames];
+        for (int nC = 0; nC < nGames; nC++) {
+            lSeeds[nC] = random.split().getSeed();
+        }
+    }
+
+    /**
+     * Plays every game of every setting and aggregates the results.
+     *
+     * @param settings The settings to compare.
+     * @return One result per setting, in the same order.
+     */
+    public List<Result> sweep(List<SpawnSettings> settings) {
+        final SpawnSettings[] nSettings = settings.toArray(new SpawnSettings[0]);
+        final long[][] lResults = new long[nSettings.length * nGames][];
+
+        ForkJoinPool pool = new ForkJoinPool(nThreads);
+        try {
+            pool.invoke(new Games(nSettings, lResults, 0, lResults.length));
+        } finally {
+            pool.shutdown();
+        }
+
+        List<Result> results = new ArrayList<>();
+        for (int nC = 0; nC < nSettings.length; nC++) {
+            results.add(new Result(settings.get(nC),
+                    Arrays.copyOfRange(lResults, nC * nGames, (nC + 1) * nGames), nMaxTicks));
+        }
+        return results;
+    }
+
+    /**
+     * Plays a range of games, splitting it in halves until single games are left.
+     * Game j is seed j % games of setting j / games.
+     */
+    private class Games extends RecursiveAction {
+        private final SpawnSettings[] nSettings;
+        private final long[][] lResults;
+        private final int nFrom;
+        private final int nTo;
+
+        Games(SpawnSettings[] nSettings, long[][] lResults, int nFrom, int nTo) {
+            this.nSettings = nSettings;
+            this.lResults = lResults;
+            this.nFrom = nFrom;
+            this.nTo = nTo;
+        }
+
+        @Override
+        protected void compute() {
+            if (nTo - nFrom > 1) {
+                int nMid = (nFrom + nTo) >>> 1;
+                invokeAll(new Games(nSettings, lResults, nFrom, nMid), new Games(nSettings, lResults, nMid, nTo));
+                return;
+            }
+            lResults[nFrom] = playInNewWorld(nSettings[nFrom / nGames], lSeeds[nFrom % nGames], nMaxTicks);
+        }
+    }
+
+    // plays one game in a world of its own, leaving the calling thread's world alone
+    private static long[] playInNewWorld(SpawnSettings settings, long lSeed, int nMaxTicks) {
+        GameWorld previous = new GameWorld(lSeed).enter();
+        try {
+            return play(settings, lSeed, nMaxTicks);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            GameWorld.exit(previous);
+        }
+    }
+
+    /**
+     * Plays one headless game with the scripted bot in the calling thread's world, which it resets.
+     *
+     * @param settings  The spawn settings.
+     * @param lSeed     The seed of the game.
+     * @param nMaxTicks The tick limit.
+     * @return The result fields, indexed by TICKS, SCORE and so on.
+     * @throws IOException if the headless controller cannot be created.
+     */
+    public static long[] play(SpawnSettings settings, long lSeed, int nMaxTicks) throws IOException {
+        SpawnSettings previous = CommandCenter.getSpawnSettings();
+        CommandCenter.setSpawnSettings(settings);
+        try {
+            HeadlessRunner runner = new HeadlessRunner(lSeed);
+            Bot bot = new Bot(runner.getController());
+            while (runner.getTicksRun() < nMaxTicks && !CommandCenter.isGameOver()) {
+                runner.run(Math.min(BOT_INTERVAL, nMaxTicks - runner.getTicksRun()));
+                bot.act();
+            }
+            long[] lResult = new long[RESULT_FIELDS];
+            lResult[TICKS] = runner.getTicksRun();
+            lResult[SCORE] = CommandCenter.getScore();
+            lResult[LEVEL] = CommandCenter.getLevel();
+            lResult[PEAK_FOES] = runner.getPeakFoes();
+            lResult[PEAK_BULLETS] = runner.getPeakBullets();
+            lResult[LOST] = CommandCenter.isGameOver() ? 1 : 0;
+            return lResult;
+        } finally {
+            CommandCenter.setSpawnSettings(previous);
+        }
+    }
+
+    /**
+     * A scripted player: it collects every sun on screen and, whenever it can afford a peashooter,
+     * plants one in the lane of the zombie closest to the house, as far left as the lane allows.
+     * It plays through the same inputs as a person, so its games can be recorded and replayed.
+     */
+    static class Bot {
+        private final static int FIRST_LANE_Y = 200;
+        private final static int LAST_LANE_Y = 500;
+        private final GameController controller;
+        private final ArrayList<Movable> movSuns = new ArrayList<>();
+        private int nNextLane; // for planting while no zombie is in a lane
+
+        /**
+         * Constructs a bot playing through a controller.
+         *
+         * @param controller The controller that receives the bot's input.
+         */
+        Bot(GameController controller) {
+            this.controller = controller;
+        }
+
+        /**
+         * Makes the bot's moves for the current tick.
+         */
+        void act() {
+            movSuns.clear();
+            for (Movable mov : CommandCenter.getMovSun()) {
+                movSuns.add(mov);
+            }
+            for (Movable mov : movSuns) {
+                controller.submit(Replay.CLICK, mov.getPointCenter().x, mov.getPointCenter().y);
+            }
+            if (CommandCenter.getSunCredit() < CommandCenter.seedTray.getCost(0)) {
+                return;
+            }
+            int nLaneY = threatenedLane();
+            for (int x = LawnGrid.CELL_SIZE; x < CommandCenter.WORLD_WIDTH - LawnGrid.CELL_SIZE; x += LawnGrid.CELL_SIZE) {
+                Point pnt = new Point(x, nLaneY);
+                if (!CommandCenter.getLawn().isOccupied(pnt)) {
+                    Point pntSlot = CommandCenter.seedTray.getSlot(0).getPointCenter();
+                    controller.submit(Replay.PRESS, pntSlot.x, pntSlot.y);
+                    controller.submit(Replay.DRAG, pnt.x, pnt.y);
+                    controller.submit(Replay.RELEASE, pnt.x, pnt.y);
+                    return;
+                }
+            }
+        }
+
+        // the lane of the leftmost zombie on the lawn, or the next lane in turn if there is none
+        private int threatenedLane() {
+            int nBestX = Integer.MAX_VALUE;
+            int nLaneY = -1;
+            for (Movable mov : CommandCenter.getMovFoes()) {
+                int y = LawnGrid.snap(mov.getPointCenter().y);
+                if (y >= FIRST_LANE_Y && y <= LAST_LANE_Y && mov.getPointCenter().x < nBestX) {
+                    nBestX = mov.getPointCenter().x;
+                    nLaneY = y;
+                }
+            }
+            if (nLaneY < 0) {
+                int nLanes = (LAST_LANE_Y - FIRST_LANE_Y) / LawnGrid.CELL_SIZE + 1;
+                nLaneY = FIRST_LANE_Y + (nNextLane++ % nLanes) * LawnGrid.CELL_SIZE;
+            }
+            return nLaneY;
+        }
+    }
+
+    /**
+     * Builds every combination of the given values, starting from a base setting.
+     *
+     * @param base    The values of parameters that are not swept.
+     * @param strAxes Sweeps of the form name=v1,v2,..., e.g. "sun=9,13,17"; names are SpawnSettings.NAMES.
+     * @return The settings, the last axis varying fastest.
+     */
+    public static List<SpawnSettings> grid(SpawnSettings base, String... strAxes) {
+        List<SpawnSettings> settings = new ArrayList<>();
+        settings.add(base);
+        for (String strAxis : strAxes) {
+            int nEquals = strAxis.indexOf('=');
+            if (nEquals < 0) {
+                throw new IllegalArgumentException("Expected name=v1,v2,... but got " + strAxis);
+            }
+            int nParam = SpawnSettings.indexOf(strAxis.substring(0, nEquals));
+            List<SpawnSettings> next = new ArrayList<>();
+            for (SpawnSettings setting : settings) {
+                for (String strValue : strAxis.substring(nEquals + 1).split(",")) {
+                    next.add(setting.with(nParam, Integer.parseInt(strValue.trim())));
+                }
+            }
+            settings = next;
+        }
+        return settings;
+    }
+
+    /**
+     * Runs a sweep and prints one line per setting.
+     * Usage: java controller.BalanceHarness [games] [ticks] [seed] [name=v1,v2,...]...
+     * e.g. java controller.BalanceHarness 1000 20000 1 sun=9,13,17 zombie=30,50
+     *
+     * @param args the games per setting (default 1000), the tick limit (default 20000), the seed
+     *             (default -Dpvz.seed or a fresh one), then the parameters to sweep; without any,
+     *             only the default setting is played.
+     */
+    public static void main(String[] args) {
+        List<String> numbers = new ArrayList<>();
+        List<String> axes = new ArrayList<>();
+        for (String arg : args) {
+            (arg.contains("=") ? axes : numbers).add(arg);
+        }
+        int nGames = numbers.size() > 0 ? Integer.parseInt(numbers.get(0)) : 1000;
+        int nTicks = numbers.size() > 1 ? Integer.parseInt(numbers.get(1)) : 20_000;
+        long lSeed = numbers.size() > 2 ? Long.parseLong(numbers.get(2)) : GameRandom.defaultSeed();
+        int nThreads = Runtime.getRuntime().availableProcessors();
+        if (System.getProperty("pvz.log.level") == null) {
+            System.setProperty("pvz.log.level", "WARN"); // thousands of games would log every level-up
+        }
+
+        List<SpawnSettings> settings = grid(SpawnSettings.DEFAULT, axes.toArray(new String[0]));
+        System.out.printf("seed=%d settings=%d games=%d ticks=%d threads=%d%n",
+                lSeed, settings.size(), nGames, nTicks, nThreads);
+        long lStart = System.nanoTime();
+        for (Result result : new BalanceHarness(nGames, nTicks, lSeed, nThreads).sweep(settings)) {
+            System.out.println(result);
+        }
+        System.out.printf("%d games in %.1fs%n", settings.size() * nGames, (System.nanoTime() - lStart) / 1e9);
+        System.exit(0);
+    }
+}
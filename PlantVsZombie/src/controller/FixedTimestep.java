@@ -0,0 +1,78 @@
+package controller;
+
+/**
+ * The FixedTimestep class turns elapsed wall-clock time into a whole number of
+ * fixed-length simulation steps. Leftover time is kept in an accumulator and
+ * exposed as an interpolation factor so the renderer can blend between the last
+ * two simulation states.
+ */
+public class FixedTimestep {
+
+    private final long lStepNanos;
+    private final int nMaxCatchUp;
+
+    private long lAccumulator;
+    private long lDroppedSteps;
+
+    /**
+     * Constructs a FixedTimestep running at the given rate.
+     *
+     * @param dHz         the number of simulation steps per second.
+     * @param nMaxCatchUp the largest number of steps returned by a single call to advance.
+     */
+    public FixedTimestep(double dHz, int nMaxCatchUp) {
+        if (dHz <= 0 || nMaxCatchUp <= 0) {
+            throw new IllegalArgumentException("Rate and catch-up cap must be positive.");
+        }
+        this.lStepNanos = Math.round(1_000_000_000L / dHz);
+        this.nMaxCatchUp = nMaxCatchUp;
+    }
+
+    /**
+     * Adds elapsed time to the accumulator and returns how many steps should run now.
+     * If the simulation has fallen more than the catch-up cap behind, the extra time
+     * is discarded so the game slows down instead of spiralling.
+     *
+     * @param lElapsedNanos the time passed since the previous call, in nanoseconds.
+     * @return the number of simulation steps to run.
+     */
+    public int advance(long lElapsedNanos) {
+        lAccumulator += Math.max(0, lElapsedNanos);
+
+        int nSteps = (int) Math.min(lAccumulator / lStepNanos, nMaxCatchUp);
+        lAccumulator -= nSteps * lStepNanos;
+
+        if (lAccumulator >= lStepNanos) {
+            lDroppedSteps += lAccumulator / lStepNanos;
+            lAccumulator %= lStepNanos;
+        }
+        return nSteps;
+    }
+
+    /**
+     * Returns how far the current time lies between the last step and the next one.
+     *
+     * @return a value in [0, 1) used to interpolate rendered positions.
+     */
+    public double getAlpha() {
+        return (double) lAccumulator / lStepNanos;
+    }
+
+    /**
+     * Returns the length of a single simulation step.
+     *
+     * @return the step length in nanoseconds.
+     */
+    public long getStepNanos() {
+        return lStepNanos;
+    }
+
+    /**
+     * Returns the number of steps thrown away because the catch-up cap was reached.
+     *
+     * @return the total dropped step count.
+     */
+    public long getDroppedSteps() {
+        return lDroppedSteps;
+    }
+}
@@ -0,0 +1,164 @@
+package controller;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import model.LatencyHistogram;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * The FrameStats class keeps a latency histogram for each phase of the game loop: the parts of a
+ * simulation step, drawing a frame, showing it, how far the simulation thread oversleeps its step
+ * period and the JVM's garbage collection pauses. The game screen can show them as an overlay (T key), and
+ * they can be written as CSV, e.g. on exit with -Dpvz.timings=frame-timings.csv.
+ * <p>
+ * Each controller records its steps into its own FrameStats, so hosted or headless games stepping on
+ * many threads never share a histogram. DEFAULT belongs to the windowed game: the one shown by the
+ * overlay, written on exit, and the one drawing, presenting and garbage collection are recorded in.
+ */
+public class FrameStats {
+
+    public final static int TICK = 0;
+    public final static int COLLISIONS = 1;
+    public final static int MOVE = 2;
+    public final static int STEP = 3;
+    public final static int RENDER = 4;
+    public final static int PRESENT = 5;
+    public final static int OVERSHOOT = 6;
+    public final static int GC = 7;
+    public final static int PHASES = 8;
+
+    public final static FrameStats DEFAULT = new FrameStats();
+
+    private final LatencyHistogram[] histograms = {
+            new LatencyHistogram("tick"),
+            new LatencyHistogram("collisions"),
+            new LatencyHistogram("move"),
+            new LatencyHistogram("step"),
+            new LatencyHistogram("render"),
+            new LatencyHistogram("present"),
+            new LatencyHistogram("sleepOvershoot"),
+            new LatencyHistogram("gc")
+    };
+
+    private static volatile boolean bOverlay;
+    private static boolean bGcListening;
+    private static boolean bDumpHooked;
+
+    /**
+     * Records how long a phase took.
+     *
+     * @param nPhase One of the phase constants.
+     * @param lNanos The duration in nanoseconds.
+     */
+    public void record(int nPhase, long lNanos) {
+        histograms[nPhase].record(lNanos);
+    }
+
+    /**
+     * Returns the histogram of a phase.
+     *
+     * @param nPhase One of the phase constants.
+     * @return The histogram.
+     */
+    public LatencyHistogram get(int nPhase) {
+        return histograms[nPhase];
+    }
+
+    /**
+     * Shows or hides the timing overlay on the game screen.
+     */
+    public static void toggleOverlay() {
+        bOverlay = !bOverlay;
+    }
+
+    /**
+     * Returns whether the timing overlay is shown.
+     *
+     * @return True if the overlay is visible.
+     */
+    public static boolean isOverlayVisible() {
+        return bOverlay;
+    }
+
+    /**
+     * Starts recording garbage collection pauses into the GC histogram of DEFAULT. Only the first call has an effect.
+     */
+    public static synchronized void listenToGc() {
+        if (bGcListening) {
+            return;
+        }
+        bGcListening = true;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (bean instanceof NotificationEmitter) {
+                ((NotificationEmitter) bean).addNotificationListener((notification, handback) -> {
+                    if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                        GarbageCollectionNotificationInfo info =
+                                GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                        DEFAULT.record(GC, info.getGcInfo().getDuration() * 1_000_000L);
+                    }
+                }, null, null);
+            }
+        }
+    }
+
+    /**
+     * Writes the timings of the windowed game to the file named by -Dpvz.timings when the game exits. Does nothing without
+     * the property, and only the first call has an effect.
+     */
+    public static synchronized void dumpOnExit() {
+        final String strPath = System.getProperty("pvz.timings");
+        if (strPath == null || bDumpHooked) {
+            return;
+        }
+        bDumpHooked = true;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try (Writer writer = Files.newBufferedWriter(Paths.get(strPath), StandardCharsets.UTF_8)) {
+                DEFAULT.writeCsv(writer);
+            } catch (IOException e) {
+                System.err.println(e.getMessage());
+            }
+        }, "timings-dump"));
+    }
+
+    /**
+     * Writes one CSV row per phase: count, min, mean, p50, p90, p99, p99.9 and max, in microseconds.
+     *
+     * @param writer Where to write; not closed.
+     */
+    public void writeCsv(Writer writer) {
+        PrintWriter out = new PrintWriter(writer);
+        out.println("phase,count,min_us,mean_us,p50_us,p90_us,p99_us,p999_us,max_us");
+        for (LatencyHistogram histogram : histograms) {
+            out.printf(Locale.ROOT, "%s,%d,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f%n",
+                    histogram.getName(),
+                    histogram.getCount(),
+                    histogram.getMin() / 1e3,
+                    histogram.getMean() / 1e3,
+                    histogram.getPercentile(50) / 1e3,
+                    histogram.getPercentile(90) / 1e3,
+                    histogram.getPercentile(99) / 1e3,
+                    histogram.getPercentile(99.9) / 1e3,
+                    histogram.getMax() / 1e3);
+        }
+        out.flush();
+    }
+
+    /**
+     * Forgets every recorded timing.
+     */
+    public void reset() {
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+    }
+}
@@ -3,6 +3,7 @@ package controller;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import model.*;
+import view.DirtyRenderer;
 import view.GamePanel;
 
 import javax.sound.sampled.Clip;
@@ -11,8 +12,11 @@ import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Random;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * The GameController class handles the core game mechanics, including animation, event handling,
@@ -22,23 +26,49 @@ import java.util.Random;
  */
 public class GameController implements Runnable, MouseListener, MouseMotionListener {
 
-    private Thread thread;
+    private volatile Thread thread;
+    private volatile Thread simThread;
+    // the world this controller plays, bound on the threads it starts
+    private final GameWorld world = GameWorld.current();
     private final GamePanel gamePanel;
+    // the timings of this controller's steps; the windowed game's are FrameStats.DEFAULT
+    private final FrameStats frameStats;
 
     // track screen update
-    private boolean isIntroScreen = true;
+    private volatile boolean isIntroScreen = true;
 
-    public static final Random randomNum = new Random();
-    private static int nTick = 0;
-    public final static int ANI_DELAY = 45; // milliseconds between screen updates (animation)
+    public final static int ANI_DELAY = 45; // milliseconds between simulation steps at the default rate
+    public final static int MAX_CATCH_UP = 5; // most simulation steps run back to back after a stall
+    public final static int MAX_INTERPOLATION = 100; // larger jumps (wrap-around, dragging) are not blended
+    private final static GameLog.Site LOG_PRESS = GameLog.site("GameController.checkValidPress", 10);
+
+    // simulation and render rates can be tuned independently, e.g. -Dpvz.simHz=30 -Dpvz.fps=120
+    private final double dSimHz = Double.parseDouble(System.getProperty("pvz.simHz", String.valueOf(1000.0 / ANI_DELAY)));
+    private final int nRenderDelay = 1000 / Math.max(1, Integer.getInteger("pvz.fps", 60));
+    private final FixedTimestep timestep = new FixedTimestep(dSimHz, MAX_CATCH_UP);
+
+    // System.nanoTime() at which the latest simulation state was due, read by the render thread
+    private volatile long lStateNanos = System.nanoTime();
     private ArrayList<Tuple> tupMarkForRemovals;
+    private final ArrayList<Movable> movNearbyFoes = new ArrayList<>(); // reused for every lane query
+    private final ArrayList<Movable> movNearbyPlants = new ArrayList<>(); // reused for every lawn query
+
+    // inputs from the event thread, applied by the simulation thread at the next tick boundary
+    private final ConcurrentLinkedQueue<Replay.Input> inputs = new ConcurrentLinkedQueue<>();
+    private volatile Replay recording; // receives every applied input, or null
+    private Replay playback; // feeds inputs instead of the player, or null
+    private List<Replay.Input> inpPlayback;
+    private int nPlaybackCursor;
+    // work that must see the game between steps, e.g. saving and loading, run with the inputs
+    private final ConcurrentLinkedQueue<Runnable> boundaryTasks = new ConcurrentLinkedQueue<>();
+    private final static GameLog.Site LOG_SAVE = GameLog.site("GameController.save", 5);
 
     private Clip clpThrust;
-    public static Clip clpMusicBackground;
-    public static Clip clpLevel1;
 
     /**
-     * Starts the animation thread and begins the game loop.
+     * Starts the animation threads and runs the render loop.
+     * The simulation advances on its own thread at a fixed rate, while this loop draws as often as
+     * the render rate allows, blending positions between the last two simulation states.
      */
     @Override
     public void run() {
@@ -50,6 +80,10 @@ public class GameController implements Runnable, MouseListener, MouseMotionListe
             e.printStackTrace();
         }
 
+        if (gamePanel == null) {
+            return; // headless: only the simulation thread runs
+        }
+
         System.out.println("Updating in Game.....");
 
         // lower this thread's priority; let the "main" aka 'Event Dispatch'
@@ -59,22 +93,25 @@ public class GameController implements Runnable, MouseListener, MouseMotionListe
         // and get the current time
         long lStartTime = System.currentTimeMillis();
 
-        // this thread animates the scene
+        // this thread draws the scene
         while (Thread.currentThread() == thread) {
             if (isIntroScreen) {
-                drawIntroScreen(gamePanel.getGraphics());
+                Graphics g = gamePanel.getGraphics();
+                if (g != null) {
+                    drawIntroScreen(g);
+                    g.dispose();
+                }
             } else {
-                tick();
-                generateCandidatePlants(); // candidate plant always appear on screen
-                checkCollisions();
-                gamePanel.update(gamePanel.getGraphics()); // update takes the graphics context we must
+                double dAlpha = (System.nanoTime() - lStateNanos) / (double) timestep.getStepNanos();
+                gamePanel.setInterpolation(Math.max(0, Math.min(1, dAlpha)));
+                gamePanel.present(); // draws into the back buffer and shows it
             }
 
             try {
-                // The total amount of time is guaranteed to be at least ANI_DELAY long. If processing (update)
-                // between frames takes longer than ANI_DELAY, then the difference between lStartTime -
+                // The total amount of time is guaranteed to be at least nRenderDelay long. If drawing
+                // takes longer than nRenderDelay, then the difference between lStartTime -
                 // System.currentTimeMillis() will be negative, then zero will be the sleep time
-                lStartTime += ANI_DELAY;
+                lStartTime += nRenderDelay;
                 Thread.sleep(Math.max(0, lStartTime - System.currentTimeMillis()));
             } catch (InterruptedException e) {
                 // just skip this frame -- no big deal
@@ -83,6 +120,293 @@ public class GameController implements Runnable, MouseListener, MouseMotionListe
         }
     }
 
+    /**
+     * Runs the fixed-timestep simulation loop. Elapsed time is accumulated and consumed in whole steps,
+     * so the game keeps its speed when rendering stalls; after a long stall at most MAX_CATCH_UP steps
+     * are replayed and the rest of the backlog is dropped. No steps run while the game is paused.
+     */
+    private void runSimulation() {
+        long lLastTime = System.nanoTime();
+
+        while (Thread.currentThread() == simThread) {
+            long lNow = System.nanoTime();
+            int nSteps = timestep.advance(lNow - lLastTime);
+            lLastTime = lNow;
+
+            for (int nC = 0; nC < nSteps; nC++) {
+                if (!isIntroScreen && !CommandCenter.isPaused()) {
+                    step();
+                }
+            }
+            if (!isIntroScreen && CommandCenter.isPaused()) {
+                feedPlayback(); // a replay resumes itself: its unpause is recorded at the paused tick
+                applyInputs(); // e.g. suns collected or the game resumed while paused
+            }
+            long lLeftover = (long) (timestep.getAlpha() * timestep.getStepNanos());
+            lStateNanos = lNow - lLeftover;
+
+            long lSleepMillis = Math.max(0, (timestep.getStepNanos() - lLeftover) / 1_000_000);
+            long lSleepStart = System.nanoTime();
+            try {
+                Thread.sleep(lSleepMillis);
+            } catch (InterruptedException e) {
+                // wake up early and account for the time on the next pass
+                continue;
+            }
+            frameStats.record(FrameStats.OVERSHOOT, System.nanoTime() - lSleepStart - lSleepMillis * 1_000_000);
+        }
+    }
+
+    /**
+     * Advances the game by exactly one simulation step: spawning, collisions, movement and expiry.
+     * The gameplay events published during the step are delivered at its end, and entities added or
+     * removed during the step only appear or disappear once the step is over.
+     */
+    void step() {
+        long lStart = System.nanoTime();
+        feedPlayback();
+        applyInputs();
+        saveMovablePositions(CommandCenter.getMovPlants(),
+                CommandCenter.getMovBullets(),
+                CommandCenter.getMovDebris(),
+                CommandCenter.getMovTemp(),
+                CommandCenter.getMovSun());
+        CommandCenter.getFoeStore().savePositions();
+
+        tick();
+        CommandCenter.getScheduler().tick(); // delayed actions run on the game clock
+        long lTicked = System.nanoTime();
+        frameStats.record(FrameStats.TICK, lTicked - lStart);
+
+        checkCollisions();
+        long lCollided = System.nanoTime();
+        frameStats.record(FrameStats.COLLISIONS, lCollided - lTicked);
+
+        CommandCenter.getFoeStore().moveAll(); // foes are moved as one sweep over the foe store
+        updateMovables(CommandCenter.getMovPlants(),
+                CommandCenter.getMovBullets(),
+                CommandCenter.getMovDebris(),
+                CommandCenter.getMovTemp(),
+                CommandCenter.getMovSun());
+
+        CommandCenter.getEvents().drain(); // score, debris, sounds: everything the step set off
+        CommandCenter.getSounds().flush(); // one voice per sample asked for during the step
+        CommandCenter.flushAll(); // tick boundary: apply every add and remove queued during this step
+        long lEnd = System.nanoTime();
+        frameStats.record(FrameStats.MOVE, lEnd - lCollided);
+        frameStats.record(FrameStats.STEP, lEnd - lStart);
+    }
+
+    /**
+     * Starts a game from a clean state: the entity stores, tick counter and random streams are reset,
+     * so a recording or a replay of it starts from exactly the same point.
+     * @param lSeed the seed for every random stream.
+     */
+    void startGame(long lSeed) {
+        CommandCenter.initGame();
+        CommandCenter.getRandom().reseed(lSeed);
+        CommandCenter.setPlaying(true);
+        setTick(0);
+        inputs.clear();
+        isIntroScreen = false;
+    }
+
+    /**
+     * Starts recording every input applied from now on. Call it right after the game started.
+     * @param replay the replay to append to; its seed must be the one the game started from.
+     */
+    public void setRecording(Replay replay) {
+        recording = replay;
+    }
+
+    /**
+     * Returns the replay being recorded.
+     * @return the recording, or null.
+     */
+    public Replay getRecording() {
+        return recording;
+    }
+
+    /**
+     * Returns the timings of this controller's simulation steps.
+     * @return FrameStats.DEFAULT for the windowed game, stats of its own for a headless controller.
+     */
+    public FrameStats getFrameStats() {
+        return frameStats;
+    }
+
+    /**
+     * Plays a replay's inputs instead of the player's, each at the tick it was recorded at.
+     * Call it right after the game was started from the replay's seed.
+     * @param replay the replay to play, or null to give control back to the player.
+     */
+    public void setPlayback(Replay replay) {
+        inpPlayback = replay == null ? null : replay.getInputs();
+        nPlaybackCursor = 0;
+        playback = replay;
+    }
+
+    /**
+     * Returns whether every input of the replay being played has been applied.
+     * @return true if there is no playback or it is finished.
+     */
+    public boolean isPlaybackDone() {
+        return playback == null || nPlaybackCursor >= inpPlayback.size();
+    }
+
+    /**
+     * Takes an input from the player. While the simulation thread runs, the input is queued and
+     * applied at the next tick boundary, so it lands at the same point of the game on replay;
+     * without a simulation thread (headless, tests) it is applied right away. Player input is
+     * ignored while a replay is playing.
+     * @param nType the input type, e.g. Replay.CLICK.
+     * @param x the x-coordinate, or the key code.
+     * @param y the y-coordinate.
+     */
+    public void submit(byte nType, int x, int y) {
+        if (playback != null) {
+            return;
+        }
+        Replay.Input input = new Replay.Input(getTick(), nType, x, y);
+        if (simThread == null) {
+            apply(input);
+        } else {
+            inputs.add(input);
+        }
+    }
+
+    // runs on the simulation thread: queues the replay's inputs that belong to the current tick
+    private void feedPlayback() {
+        if (playback == null) {
+            return;
+        }
+        while (nPlaybackCursor < inpPlayback.size() && inpPlayback.get(nPlaybackCursor).getTick() <= getTick()) {
+            inputs.add(inpPlayback.get(nPlaybackCursor++));
+        }
+    }
+
+    // runs on the simulation thread, at a tick boundary
+    private void applyInputs() {
+        Replay.Input input;
+        while ((input = inputs.poll()) != null) {
+            apply(input);
+        }
+        Runnable task;
+        while ((task = boundaryTasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    // runs a task at the next tick boundary, or right away without a simulation thread
+    private void atBoundary(Runnable task) {
+        if (simThread == null) {
+            task.run();
+        } else {
+            boundaryTasks.add(task);
+        }
+    }
+
+    /**
+     * Saves the game to a file. The snapshot is taken at the next tick boundary and written on a
+     * background thread, so saving never holds up a frame.
+     * @param path the file.
+     */
+    public void saveGame(final Path path) {
+        atBoundary(() -> {
+            final SaveState state = SaveState.capture();
+            Thread writer = new Thread(() -> {
+                try {
+                    state.write(path);
+                    LOG_SAVE.log(GameLog.INFO, "Saved tick {} to {}", state.getTick(), path);
+                } catch (IOException e) {
+                    LOG_SAVE.log(GameLog.ERROR, "Could not save: {}", e.getMessage(), null);
+                }
+            }, "save");
+            writer.setDaemon(true);
+            writer.start();
+        });
+    }
+
+    /**
+     * Loads a game saved by saveGame, replacing the current one at the next tick boundary. A file
+     * that is missing, damaged or from another version is reported and leaves the game untouched.
+     * Loading is ignored while a replay plays or is recorded, since the loaded game would not
+     * follow from the replay's seed.
+     * @param path the file.
+     */
+    public void loadGame(final Path path) {
+        if (playback != null || recording != null) {
+            LOG_SAVE.warn("Loading is disabled while a replay plays or is recorded");
+            return;
+        }
+        final SaveState state;
+        try {
+            state = SaveState.read(path); // read and validated off the simulation thread
+        } catch (IOException e) {
+            LOG_SAVE.log(GameLog.ERROR, "Could not load: {}", e.getMessage(), null);
+            return;
+        }
+        atBoundary(state::restore);
+    }
+
+    /**
+     * Applies one input to the game and records it, stamped with the current tick.
+     * @param input the input.
+     */
+    void apply(Replay.Input input) {
+        Replay replay = recording;
+        if (replay != null) {
+            replay.add(new Replay.Input(getTick(), input.getType(), input.getX(), input.getY()));
+        }
+        Point pnt = new Point(input.getX(), input.getY());
+        switch (input.getType()) {
+            case Replay.CLICK:
+                checkValidClick(pnt);
+                break;
+            case Replay.PRESS:
+                checkValidPress(pnt);
+                break;
+            case Replay.DRAG:
+                CommandCenter.setPlantPosition(pnt);
+                break;
+            case Replay.RELEASE:
+                checkValidRelease(pnt);
+                break;
+            case Replay.KEY:
+                if (input.getX() == KeyEvent.VK_P) {
+                    CommandCenter.setPaused(!CommandCenter.isPaused());
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Records the current position of every movable so the renderer can interpolate from it.
+     * @param movMovz one or more lists of movable entities.
+     */
+    private static void saveMovablePositions(EntityStore... movMovz) {
+        for (EntityStore movMovs : movMovz) {
+            for (Movable mov : movMovs) {
+                mov.savePrevPointCenter();
+            }
+        }
+    }
+
+    /**
+     * Moves and expires every movable entity for one simulation step.
+     * @param movMovz one or more lists of movable entities.
+     */
+    private static void updateMovables(EntityStore... movMovz) {
+        for (EntityStore movMovs : movMovz) {
+            for (Movable mov : movMovs) {
+                mov.move();
+                mov.expire();
+            }
+        }
+    }
+
     /**
      * Draws the introductory screen with game instructions.
      * @param g the Graphics object used to draw on the screen.
@@ -107,81 +431,61 @@ public class GameController implements Runnable, MouseListener, MouseMotionListe
     }
 
     /**
-     * Initializes the animation thread to continuously update the game state.
+     * Initializes the render and simulation threads to continuously update the game state.
      */
     private void fireUpAnimThread() {
-        if (thread == null) {
-            thread = new Thread(this);
+        if (thread == null && gamePanel != null) {
+            thread = new Thread(() -> {
+                world.enter();
+                run();
+            }, "render");
             thread.start();
         }
-    }
-
-    /**
-     * Increments the tick count and generates new game entities (suns, zombies, etc.).
-     */
-    public static void tick() {
-        if (nTick == Integer.MAX_VALUE) {
-            nTick = 0;
-        }
-        nTick++;
-        generateNewSun();
-        generateNewZombie();
-
-        if (CommandCenter.getLevel() >= 2) {
-            generateNewCrazyZombie();
+        if (simThread == null) {
+            simThread = new Thread(() -> {
+                world.enter();
+                runSimulation();
+            }, "simulation");
+            simThread.start();
         }
     }
 
     /**
-     * Returns the current tick count.
-     * @return the current tick count.
+     * Stops the render and simulation threads after their current pass; run() starts them again.
      */
-    public static int getTick() {
-        return nTick;
-    }
-
-    /**
-     * Generates a new sun at random positions on the screen.
-     */
-    private static void generateNewSun() {
-        int currentTick = getTick();
-        if (currentTick % 13 == 0) {
-            int tempTick = (int) (Math.random() * 5);
-            if (tempTick % 4 == 0) {
-                int randomX = (int) (Math.random() * GamePanel.SCREEN_WIDTH);
-                CommandCenter.movSun.add(new Sun(randomX));
+    public void stop() {
+        Thread sim = simThread;
+        Thread render = thread;
+        simThread = null;
+        thread = null;
+        for (Thread t : new Thread[]{sim, render}) {
+            if (t != null && t != Thread.currentThread()) {
+                t.interrupt();
+                try {
+                    t.join(1000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
             }
         }
     }
 
     /**
-     * Generates a new zombie at random positions on the screen.
+     * Increments the tick count and spawns the suns and zombies the wave schedule has due on the new tick.
      */
-    private static void generateNewZombie() {
-        int tick = getTick();
-        int n = CommandCenter.getLevel() <= 1 ? 50 : 20;
-
-        if (tick % n == 0) {
-            int tempTick = (int) (Math.random() * 10);
-            if (tempTick % 7 == 0) {
-                int randomY = (GameController.randomNum.nextInt() % 4) * 100 + 200;
-                CommandCenter.movFoes.add(new Zombie(randomY));
-            }
-        }
+    public static void tick() {
+        GameWorld world = GameWorld.current();
+        world.setTick(world.getTick() == Integer.MAX_VALUE ? 1 : world.getTick() + 1);
+        world.spawnTimeline.spawnDue(world.getTick());
     }
 
     /**
-     * Generates a new crazy zombie at random positions on the screen.
+     * Returns the current tick count.
+     * @return the current tick count.
      */
-    private static void generateNewCrazyZombie() {
-        int tick = getTick();
-        if (tick % 15 == 0) {
-            int tempTick = (int) (Math.random() * 10);
-            if (tempTick % 7 == 0) {
-                int randomY = (GameController.randomNum.nextInt() % 4) * 100 + 200;
-                CommandCenter.movFoes.add(new CrazyZombie(randomY));
-            }
-        }
+    public static int getTick() {
+        return GameWorld.current().getTick();
     }
 
     /**
@@ -189,20 +493,18 @@ public class GameController implements Runnable, MouseListener, MouseMotionListe
      * @param newPoint the point where the Peashooter will be placed.
      */
     private void generateNewPeashooter(Point newPoint) {
-        if (CommandCenter.plantType == 0) {
-            CommandCenter.movPlants.add(new Peashooter(newPoint));
-        } else if (CommandCenter.plantType == 1) {
-            CommandCenter.movPlants.add(new IcePeashooter(newPoint));
+        Peashooter plant;
+        if (CommandCenter.getPlantType() == 0) {
+            plant = new Peashooter(newPoint);
+        } else if (CommandCenter.getPlantType() == 1) {
+            plant = new IcePeashooter(newPoint);
+        } else {
+            return;
         }
-        Sound.playSound("music/plantingpeashooter.wav");
-    }
-
-    /**
-     * Generates candidate plants for the player to select.
-     */
-    private void generateCandidatePlants() {
-        CommandCenter.movCandidate.add(new CandidatePeashooter(250 - 20, 600 + 50));
-        CommandCenter.movCandidate.add(new CandidateIcePeashooter(500 - 20 - 10, 600 + 50));
+        // claim the cell now, so a second drop before the next flush finds it taken
+        CommandCenter.getLawn().place(plant);
+        CommandCenter.getMovPlants().add(plant);
+        CommandCenter.getEvents().publish(GameEvents.PLANT_PLACED, plant, newPoint.x, newPoint.y, CommandCenter.getPlantType());
     }
 
     /**
@@ -211,68 +513,65 @@ public class GameController implements Runnable, MouseListener, MouseMotionListe
      * @return true if the position is valid, false otherwise.
      */
     private boolean checkNoDuplicatePeashooter(Point candidatePos) {
-        Point pntPlantCenter, pntFoeCenter;
-        int x = (int) candidatePos.getX();
-        int y = (int) candidatePos.getY();
-
-        int modX = x % 100;
-        int modY = y % 100;
-
-        x = modX < 50 ? x - modX : x + 100 - modX;
-        y = modY < 50 ? y - modY : y + 100 - modY;
-
-        pntFoeCenter = new Point(x, y);
-
-        for (Movable movPlant : CommandCenter.movPlants) {
-            pntPlantCenter = movPlant.getPointCenter();
-            if (pntPlantCenter.distance(pntFoeCenter) == 0) {
-                CommandCenter.gameGuide = "A peashooter has been there. Each slot can only have one peashooter.";
-                return false;
-            }
+        if (CommandCenter.getLawn().isOccupied(candidatePos)) {
+            CommandCenter.setGameGuide("A peashooter has been there. Each slot can only have one peashooter.");
+            return false;
         }
-
         return true;
     }
 
     /**
      * Checks for collisions between bullets, plants, and foes, and handles the removal of entities if necessary.
+     * Foes are looked up through the lane index, so each bullet and plant is only tested against the foes
+     * in its own lane and x-range rather than against every foe on the lawn.
      */
-    private void checkCollisions() {
+    void checkCollisions() {
         tupMarkForRemovals = new ArrayList<Tuple>();
 
-        Point pntBulletCenter, pntFoeCenter, pntPlantCenter;
+        CommandCenter.getFoeLanes().update();
+        int nMaxFoeRadius = CommandCenter.getFoeLanes().getMaxRadius();
+
+        Point pntBulletCenter, pntPlantCenter;
         int nBulletRadius, nFoeRadius, nPlantRadius;
+        int nFoeX, nFoeY; // foes are read straight from the FoeStore, without making a Point
 
-        for (Movable movBullet : CommandCenter.movBullets) {
+        for (Movable movBullet : CommandCenter.getMovBullets()) {
             int offset = 0;
-            for (Movable movFoe : CommandCenter.movFoes) {
-                pntBulletCenter = movBullet.getPointCenter();
-                pntFoeCenter = movFoe.getPointCenter();
-                nBulletRadius = movBullet.getRadius();
+            pntBulletCenter = movBullet.getPointCenter();
+            nBulletRadius = movBullet.getRadius();
+            CommandCenter.getFoeLanes().query(pntBulletCenter, nBulletRadius + nMaxFoeRadius - 20 + 15, movNearbyFoes);
+
+            for (Movable movFoe : movNearbyFoes) {
+                nFoeX = Foe.centerXOf(movFoe);
+                nFoeY = Foe.centerYOf(movFoe);
                 nFoeRadius = movFoe.getRadius();
 
-                if (pntBulletCenter.distance(pntFoeCenter) < (nBulletRadius + nFoeRadius - 20 + offset)) {
+                if (isWithin(pntBulletCenter.x, pntBulletCenter.y, nFoeX, nFoeY, nBulletRadius + nFoeRadius - 20 + offset)) {
                     if ((movBullet instanceof Bullet)) {
                         offset = 15;
-                        tupMarkForRemovals.add(new Tuple(CommandCenter.movBullets, movBullet));
-                        Bullet.bulletSoundEffect();
+                        tupMarkForRemovals.add(new Tuple(CommandCenter.getMovBullets(), movBullet));
                         hitFoe(movBullet, movFoe);
                     }
                 }
             }
         }
 
-        for (Movable movPlant : CommandCenter.movPlants) {
-            for (Movable movFoe : CommandCenter.movFoes) {
+        // plants are looked up in the lawn cells each foe can reach
+        int nMaxPlantRadius = CommandCenter.getLawn().getMaxRadius();
+        for (Movable movFoe : CommandCenter.getMovFoes()) {
+            nFoeX = Foe.centerXOf(movFoe);
+            nFoeY = Foe.centerYOf(movFoe);
+            nFoeRadius = movFoe.getRadius();
+            CommandCenter.getLawn().query(nFoeX, nFoeY, nFoeRadius + nMaxPlantRadius - 80, movNearbyPlants);
+
+            for (Movable movPlant : movNearbyPlants) {
                 pntPlantCenter = movPlant.getPointCenter();
-                pntFoeCenter = movFoe.getPointCenter();
                 nPlantRadius = movPlant.getRadius();
-                nFoeRadius = movFoe.getRadius();
 
-                if (pntPlantCenter.distance(pntFoeCenter) < (nPlantRadius + nFoeRadius - 80)) {
+                if (isWithin(pntPlantCenter.x, pntPlantCenter.y, nFoeX, nFoeY, nPlantRadius + nFoeRadius - 80)) {
                     if ((movPlant instanceof Peashooter)) {
-                        CommandCenter.gameGuide = "It's very dangerous. More and more zombies are coming.";
-                        tupMarkForRemovals.add(new Tuple(CommandCenter.movPlants, movPlant));
+                        CommandCenter.getEvents().publish(GameEvents.PLANT_EATEN, movPlant, pntPlantCenter.x, pntPlantCenter.y, 0);
+                        tupMarkForRemovals.add(new Tuple(CommandCenter.getMovPlants(), movPlant));
                     }
                 }
             }
@@ -282,67 +581,76 @@ public class GameController implements Runnable, MouseListener, MouseMotionListe
             tup.removeMovable();
         }
 
-        if (nTick % 300 == 0) {
+        if (getTick() % 300 == 0) {
             System.gc();
         }
     }
 
     /**
-     * Handles the interaction between a bullet and a foe, including updating the game state and removing the foe if needed.
+     * Returns whether two centers are closer than the given distance, without taking a square root.
+     * @param nAx the x-coordinate of the first center.
+     * @param nAy the y-coordinate of the first center.
+     * @param nBx the x-coordinate of the second center.
+     * @param nBy the y-coordinate of the second center.
+     * @param nDistance the distance the centers must be within.
+     * @return true if the centers are strictly closer than nDistance.
+     */
+    private static boolean isWithin(int nAx, int nAy, int nBx, int nBy, int nDistance) {
+        if (nDistance <= 0) {
+            return false;
+        }
+        long lDx = nAx - nBx;
+        long lDy = nAy - nBy;
+        return lDx * lDx + lDy * lDy < (long) nDistance * nDistance;
+    }
+
+    /**
+     * Handles the interaction between a bullet and a foe: the foe takes the hit or, on its last hit, is removed.
+     * What follows from it, the score, the debris and the sound, is left to the subscribers of the
+     * HIT and KILL events.
      * @param movBullet the bullet that hits the foe.
      * @param movFoe the foe that is hit by the bullet.
      */
     private void hitFoe(Movable movBullet, Movable movFoe) {
-        if (movFoe instanceof Zombie) {
-            Zombie astExploded = (Zombie) movFoe;
-            Bullet bullet = (Bullet) movBullet;
-
-            if (astExploded.getSize() == 1) {
-                tupMarkForRemovals.add(new Tuple(CommandCenter.movFoes, movFoe));
-                CommandCenter.addScore(100);
-            } else {
-                astExploded.isHit(bullet.bulletType);
-                if (astExploded.getSize() == 1) {
-                    CommandCenter.movDebris.add(new ExplodingHead(new Point(astExploded.getPointCenter()), astExploded.mainColor));
-                }
-            }
-        } else if (movFoe instanceof CrazyZombie) {
-            CrazyZombie astExploded = (CrazyZombie) movFoe;
-            Bullet bullet = (Bullet) movBullet;
+        if (movFoe instanceof Foe) {
+            Foe foe = (Foe) movFoe;
 
-            if (astExploded.getSize() == 1) {
-                tupMarkForRemovals.add(new Tuple(CommandCenter.movFoes, movFoe));
-                CommandCenter.addScore(100);
+            if (foe.getSize() == 1) {
+                tupMarkForRemovals.add(new Tuple(CommandCenter.getMovFoes(), movFoe));
+                CommandCenter.getEvents().publish(GameEvents.KILL, foe, foe.getCenterX(), foe.getCenterY(), 100);
             } else {
-                astExploded.isHit(bullet.bulletType);
+                foe.isHit(((Bullet) movBullet).bulletType);
+                CommandCenter.getEvents().publish(GameEvents.HIT, foe, foe.getCenterX(), foe.getCenterY(), foe.getSize());
             }
         }
     }
 
     /**
-     * Stops the specified looping sound clips.
+     * Stops the specified looping sound clips. Missing clips (headless or no audio device) are skipped.
      * @param clpClips the sound clips to stop.
      */
     public static void stopLoopingSounds(Clip... clpClips) {
         for (Clip clp : clpClips) {
-            clp.stop();
+            if (clp != null) {
+                clp.stop();
+            }
         }
     }
 
     /**
      * Handles the click event to collect suns and add sun credits to the player's total.
-     * @param e the MouseEvent that triggered the click.
+     * @param pntFoeCenter the point that was clicked.
      */
-    private void checkValidClick(MouseEvent e) {
-        Point pntFoeCenter = e.getPoint();
+    private void checkValidClick(Point pntFoeCenter) {
         int nFoeRadius = 20;
 
-        for (Movable movSun : CommandCenter.movSun) {
+        for (Movable movSun : CommandCenter.getMovSun()) {
+            // remove() is false if the sun was already collected or expired earlier in this step
             if (movSun instanceof Sun &&
-                    pntFoeCenter.distance(movSun.getPointCenter()) < movSun.getRadius() + nFoeRadius) {
+                    pntFoeCenter.distance(movSun.getPointCenter()) < movSun.getRadius() + nFoeRadius &&
+                    CommandCenter.getMovSun().remove(movSun)) {
                 CommandCenter.addSunCredit(((Sun) movSun).getCredit());
-                Sound.playSound("music/select.wav");
-                CommandCenter.movSun.remove(movSun);
+                CommandCenter.getEvents().publish(GameEvents.SUN_COLLECTED, movSun, pntFoeCenter.x, pntFoeCenter.y, ((Sun) movSun).getCredit());
                 break;
             }
         }
@@ -350,14 +658,22 @@ public class GameController implements Runnable, MouseListener, MouseMotionListe
 
     @Override
     public void mouseClicked(MouseEvent e) {
-        checkValidClick(e);
+        submit(Replay.CLICK, e.getX(), e.getY());
     }
 
     @Override
     public void mouseReleased(MouseEvent e) {
-        if (CommandCenter.isPlanting && e.getY() < 550 && e.getY() > 51 && e.getX() > 51 && e.getX() < 1150) {
-            if (checkNoDuplicatePeashooter(new Point(e.getX(), e.getY()))) {
-                generateNewPeashooter(new Point(e.getX(), e.getY()));
+        submit(Replay.RELEASE, e.getX(), e.getY());
+    }
+
+    /**
+     * Handles dropping the plant being placed: it is planted if the point is on the lawn and the cell is free.
+     * @param pnt the point where the mouse was released.
+     */
+    private void checkValidRelease(Point pnt) {
+        if (CommandCenter.isPlanting() && pnt.y < 550 && pnt.y > 51 && pnt.x > 51 && pnt.x < 1150) {
+            if (checkNoDuplicatePeashooter(pnt)) {
+                generateNewPeashooter(pnt);
             }
         }
         CommandCenter.clearMovTemp();
@@ -370,31 +686,26 @@ public class GameController implements Runnable, MouseListener, MouseMotionListe
     public void mouseExited(MouseEvent e) {}
 
     /**
-     * Handles the mouse press event to select a plant type based on the candidate's position.
-     * @param e the MouseEvent that triggered the press.
+     * Handles the mouse press event to select a plant type from the seed tray slot under the mouse.
+     * @param pnt the point that was pressed.
      */
-    private void checkValidPress(MouseEvent e) {
-        Point pntFoeCenter = e.getPoint();
-        int nFoeRadius = 10;
-
-        for (Movable movCandidate : CommandCenter.movCandidate) {
-            if (pntFoeCenter.distance(movCandidate.getPointCenter()) < movCandidate.getRadius() + nFoeRadius &&
-                    movCandidate instanceof Peashooter) {
-                CommandCenter.setPlant(((Peashooter) movCandidate).typeIndicator);
-                System.out.println("Plant type is: " + ((Peashooter) movCandidate).typeIndicator);
-                break;
-            }
+    private void checkValidPress(Point pnt) {
+        int nSlot = CommandCenter.seedTray.slotAt(pnt);
+        if (nSlot >= 0) {
+            int nType = CommandCenter.seedTray.getSlot(nSlot).typeIndicator;
+            CommandCenter.setPlant(nType);
+            LOG_PRESS.debug("Plant type is: {}", nType);
         }
     }
 
     @Override
     public void mousePressed(MouseEvent e) {
-        checkValidPress(e);
+        submit(Replay.PRESS, e.getX(), e.getY());
     }
 
     @Override
     public void mouseDragged(MouseEvent e) {
-        CommandCenter.setPlantPosition(e.getPoint());
+        submit(Replay.DRAG, e.getX(), e.getY());
     }
 
     @Override
@@ -405,16 +716,37 @@ public class GameController implements Runnable, MouseListener, MouseMotionListe
      * @throws IOException if there is an error loading sound files.
      */
     public GameController() throws IOException {
+        this(false);
+    }
 
-        clpMusicBackground = Sound.clipForLoopFactory("music/plants_vs_zombies.wav");
-        clpLevel1 = Sound.clipForLoopFactory("music/level1.wav");
+    /**
+     * Constructs a new GameController. A headless controller opens no window and mutes the audio
+     * of its world, leaving other worlds in the JVM audible; it skips the intro screen and only runs the simulation, e.g. for tests and batch runs.
+     * @param bHeadless true to run without a GamePanel, GameFrame or sound clips.
+     * @throws IOException if there is an error loading sound files.
+     */
+    public GameController(boolean bHeadless) throws IOException {
+
+        frameStats = bHeadless ? new FrameStats() : FrameStats.DEFAULT;
+        if (bHeadless) {
+            world.audio.setEnabled(false);
+            gamePanel = null;
+            isIntroScreen = false;
+            return;
+        }
+
+        FrameStats.listenToGc();
+        FrameStats.dumpOnExit();
+
+        world.audio.setBackgroundMusic("music/plants_vs_zombies.wav");
+        world.audio.setLevelMusic("music/level1.wav");
 
         System.out.println("Start game");
         gamePanel = new GamePanel();
         gamePanel.addMouseListener(this);
         gamePanel.addMouseMotionListener(this);
 
-        clpMusicBackground.loop(Clip.LOOP_CONTINUOUSLY);
+        world.audio.loopBackgroundMusic();
 
         // Add a keyboard listener
         gamePanel.addKeyListener(new KeyAdapter() {
@@ -423,11 +755,24 @@ public class GameController implements Runnable, MouseListener, MouseMotionListe
                 int nKey = e.getKeyCode();
 
                 if (isIntroScreen && nKey == KeyEvent.VK_S) {
-                    isIntroScreen = false; // Exit the intro screen
+                    startGame(CommandCenter.getRandom().getSeed()); // Exit the intro screen
+                    startRecording();
                 } else if (!isIntroScreen) {
                     switch (nKey) {
                         case KeyEvent.VK_P:
-                            CommandCenter.setPaused(!CommandCenter.isPaused());
+                            submit(Replay.KEY, nKey, 0); // pausing is recorded, like every input that affects the game
+                            break;
+                        case KeyEvent.VK_T:
+                            FrameStats.toggleOverlay(); // frame timing overlay
+                            break;
+                        case KeyEvent.VK_D:
+                            DirtyRenderer.toggleDebug(); // outline the redrawn regions
+                            break;
+                        case KeyEvent.VK_F5:
+                            saveGame(Paths.get(System.getProperty("pvz.save", "pvz.sav")));
+                            break;
+                        case KeyEvent.VK_F9:
+                            loadGame(Paths.get(System.getProperty("pvz.save", "pvz.sav")));
                             break;
                         case KeyEvent.VK_Q:
                             System.exit(0);
@@ -440,13 +785,40 @@ public class GameController implements Runnable, MouseListener, MouseMotionListe
         });
 
         gamePanel.setFocusable(true); // Ensure the panel can receive keyboard events
+
+        // -Dpvz.replay=file plays a recorded game instead of waiting for the player
+        String strReplay = System.getProperty("pvz.replay");
+        if (strReplay != null) {
+            Replay replay = Replay.load(Paths.get(strReplay));
+            startGame(replay.getSeed());
+            setPlayback(replay);
+        }
+    }
+
+    /**
+     * Starts recording the game just started if -Dpvz.record=file is set; the file is written when the program exits.
+     */
+    private void startRecording() {
+        final String strPath = System.getProperty("pvz.record");
+        if (strPath == null || recording != null) {
+            return;
+        }
+        final Replay replay = new Replay(CommandCenter.getRandom().getSeed());
+        setRecording(replay);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                replay.save(Paths.get(strPath));
+            } catch (IOException e) {
+                System.err.println(e.getMessage());
+            }
+        }, "replay-save"));
     }
 
     /**
-     * Sets the static variable nTick for testing purposes.
+     * Sets the tick of the current world, e.g. for testing.
      * Allows controlled modification to validate dependent methods.
      */
     public static void setTick(int tick) {
-        nTick = tick;
+        GameWorld.current().setTick(tick);
     }
 }
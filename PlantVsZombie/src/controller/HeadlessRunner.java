@@ -0,0 +1,146 @@
+package controller;
+
+import model.CommandCenter;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * The HeadlessRunner class drives the game simulation without a window, rendering or audio.
+ * Steps are run back to back as fast as the CPU allows, which makes it suitable for tests,
+ * soak runs and balancing sweeps.
+ */
+public class HeadlessRunner {
+
+    private final GameController controller;
+
+    private int nTicksRun;
+    private int nPeakFoes;
+    private int nPeakBullets;
+    private long lElapsedNanos;
+
+    /**
+     * Constructs a HeadlessRunner with a fresh game state.
+     * @throws IOException if the controller cannot be created.
+     */
+    public HeadlessRunner() throws IOException {
+        controller = new GameController(true);
+        CommandCenter.initGame();
+        CommandCenter.setPlaying(true);
+        GameController.setTick(0);
+    }
+
+    /**
+     * Constructs a HeadlessRunner with a fresh game state whose random numbers start from the given
+     * seed, so that two runners with the same seed play exactly the same game.
+     * @param lSeed the seed for every random stream.
+     * @throws IOException if the controller cannot be created.
+     */
+    public HeadlessRunner(long lSeed) throws IOException {
+        this();
+        CommandCenter.getRandom().reseed(lSeed);
+    }
+
+    /**
+     * Replays a recorded game as fast as the CPU allows: the game is started from the replay's seed
+     * and every recorded input is applied at the tick it was recorded at.
+     * @param replay the recorded game.
+     * @param nMaxTicks the largest number of steps to run.
+     * @return the runner, positioned where the replay stopped.
+     * @throws IOException if the controller cannot be created.
+     */
+    public static HeadlessRunner replay(Replay replay, int nMaxTicks) throws IOException {
+        HeadlessRunner runner = new HeadlessRunner(replay.getSeed());
+        runner.controller.setPlayback(replay);
+        runner.run(nMaxTicks);
+        return runner;
+    }
+
+    /**
+     * Runs simulation steps until the game is over or the given number of ticks has elapsed.
+     * @param nMaxTicks the largest number of steps to run.
+     * @return the number of steps actually run by this call.
+     */
+    public int run(int nMaxTicks) {
+        long lStart = System.nanoTime();
+        int nRun = 0;
+
+        while (nRun < nMaxTicks && !CommandCenter.isGameOver()) {
+            controller.step();
+            nRun++;
+
+            nPeakFoes = Math.max(nPeakFoes, CommandCenter.getMovFoes().size());
+            nPeakBullets = Math.max(nPeakBullets, CommandCenter.getMovBullets().size());
+        }
+
+        lElapsedNanos += System.nanoTime() - lStart;
+        nTicksRun += nRun;
+        return nRun;
+    }
+
+    /**
+     * Returns the controller being driven, e.g. to feed it input events.
+     * @return the headless GameController.
+     */
+    public GameController getController() {
+        return controller;
+    }
+
+    /**
+     * Returns the total number of steps run so far.
+     * @return the tick count.
+     */
+    public int getTicksRun() {
+        return nTicksRun;
+    }
+
+    /**
+     * Returns the largest number of foes seen at the end of any step.
+     * @return the peak foe count.
+     */
+    public int getPeakFoes() {
+        return nPeakFoes;
+    }
+
+    /**
+     * Returns the largest number of bullets seen at the end of any step.
+     * @return the peak bullet count.
+     */
+    public int getPeakBullets() {
+        return nPeakBullets;
+    }
+
+    /**
+     * Returns the wall-clock time spent inside run.
+     * @return the elapsed time in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return lElapsedNanos;
+    }
+
+    /**
+     * Runs one headless game and prints a short summary.
+     * Usage: java controller.HeadlessRunner [ticks] [seed]
+     *    or: java controller.HeadlessRunner replay file [ticks]
+     * @param args optional number of ticks to run (default 10000) and seed (default -Dpvz.seed or a fresh one),
+     *             or a recorded game to replay.
+     * @throws IOException if the controller cannot be created or the replay cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        HeadlessRunner runner;
+        if (args.length > 1 && args[0].equals("replay")) {
+            int nTicks = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+            runner = replay(Replay.load(Paths.get(args[1])), nTicks);
+        } else {
+            int nTicks = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+            runner = args.length > 1 ? new HeadlessRunner(Long.parseLong(args[1])) : new HeadlessRunner();
+            runner.run(nTicks);
+        }
+
+        double dSeconds = runner.getElapsedNanos() / 1e9;
+        System.out.printf("seed=%d ticks=%d score=%d level=%d peakFoes=%d peakBullets=%d time=%.3fs (%.0f ticks/s)%n",
+                CommandCenter.getRandom().getSeed(), runner.getTicksRun(), CommandCenter.getScore(), CommandCenter.getLevel(),
+                runner.getPeakFoes(), runner.getPeakBullets(), dSeconds, runner.getTicksRun() / dSeconds);
+        System.exit(0);
+    }
+}
@@ -0,0 +1,292 @@
+package controller;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The Replay class records a game as the seed it started from plus every input that changed the
+ * simulation, each stamped with the tick at whose boundary it was applied. Since all randomness
+ * comes from the seed and inputs only take effect between steps, feeding the same inputs at the
+ * same ticks to a game started from the same seed plays exactly the same game, either rendered at
+ * normal speed (-Dpvz.replay=file) or headless as fast as possible (HeadlessRunner.replay).
+ * A game is recorded with -Dpvz.record=file and written when the program exits.
+ * <p>
+ * File format, big-endian: the magic "PVZR", a version int, the seed as a long, the input count as
+ * an int, then per input the tick as a variable-length delta from the previous one, the type byte
+ * and x and y as shorts.
+ */
+public class Replay {
+
+    public final static int MAGIC = 0x50565a52; // "PVZR"
+    public final static int VERSION = 1;
+
+    // input types
+    public final static byte CLICK = 0; // collect a sun
+    public final static byte PRESS = 1; // pick a seed from the tray
+    public final static byte DRAG = 2; // move the plant being placed
+    public final static byte RELEASE = 3; // drop the plant being placed
+    public final static byte KEY = 4; // a key that affects the game; x holds the key code
+
+    /**
+     * One recorded input.
+     */
+    public static class Input {
+        private final int nTick;
+        private final byte nType;
+        private final int x;
+        private final int y;
+
+        /**
+         * Constructs an input.
+         *
+         * @param nTick The tick at whose boundary the input is applied.
+         * @param nType One of the input types, e.g. CLICK.
+         * @param x     The x-coordinate, or the key code for KEY.
+         * @param y     The y-coordinate, 0 for KEY.
+         */
+        public Input(int nTick, byte nType, int x, int y) {
+            this.nTick = nTick;
+            this.nType = nType;
+            this.x = x;
+            this.y = y;
+        }
+
+        /**
+         * Returns the tick at whose boundary the input is applied.
+         *
+         * @return The tick.
+         */
+        public int getTick() {
+            return nTick;
+        }
+
+        /**
+         * Returns the input type.
+         *
+         * @return One of the input types, e.g. CLICK.
+         */
+        public byte getType() {
+            return nType;
+        }
+
+        /**
+         * Returns the x-coordinate, or the key code of a KEY input.
+         *
+         * @return The x-coordinate.
+         */
+        public int getX() {
+            return x;
+        }
+
+        /**
+         * Returns the y-coordinate.
+         *
+         * @return The y-coordinate.
+         */
+        public int getY() {
+            return y;
+        }
+
+        /**
+         * Returns whether two inputs are the same.
+         *
+         * @param obj The other object.
+         * @return True if tick, type and coordinates are equal.
+         */
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Input)) {
+                return false;
+            }
+            Input input = (Input) obj;
+            return nTick == input.nTick && nType == input.nType && x == input.x && y == input.y;
+        }
+
+        /**
+         * Returns a hash code consistent with equals.
+         *
+         * @return The hash code.
+         */
+        @Override
+        public int hashCode() {
+            return ((nTick * 31 + nType) * 31 + x) * 31 + y;
+        }
+
+        /**
+         * Returns a readable form of the input, for logs.
+         *
+         * @return The input as text.
+         */
+        @Override
+        public String toString() {
+            return "Input[tick=" + nTick + ", type=" + nType + ", x=" + x + ", y=" + y + "]";
+        }
+    }
+
+    private final long lSeed;
+    private final ArrayList<Input> inputs = new ArrayList<>();
+
+    /**
+     * Constructs an empty replay for a game started from the given seed.
+     *
+     * @param lSeed The seed of the game's random streams.
+     */
+    public Replay(long lSeed) {
+        this.lSeed = lSeed;
+    }
+
+    /**
+     * Returns the seed the game started from.
+     *
+     * @return The seed.
+     */
+    public long getSeed() {
+        return lSeed;
+    }
+
+    /**
+     * Appends an input. Inputs must be added in tick order.
+     *
+     * @param input The input.
+     */
+    public synchronized void add(Input input) {
+        if (!inputs.isEmpty() && input.nTick < inputs.get(inputs.size() - 1).nTick) {
+            throw new IllegalArgumentException("Input at tick " + input.nTick + " recorded out of order");
+        }
+        inputs.add(input);
+    }
+
+    /**
+     * Returns the recorded inputs in tick order.
+     *
+     * @return A copy of the inputs.
+     */
+    public synchronized List<Input> getInputs() {
+        return new ArrayList<>(inputs);
+    }
+
+    /**
+     * Returns the number of recorded inputs.
+     *
+     * @return The input count.
+     */
+    public synchronized int size() {
+        return inputs.size();
+    }
+
+    /**
+     * Returns the tick of the last input.
+     *
+     * @return The last tick, or 0 if nothing was recorded.
+     */
+    public synchronized int getLastTick() {
+        return inputs.isEmpty() ? 0 : inputs.get(inputs.size() - 1).nTick;
+    }
+
+    /**
+     * Writes the replay in the compact binary format.
+     *
+     * @param stream Where to write; flushed, not closed.
+     * @throws IOException if writing fails.
+     */
+    public synchronized void write(OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(lSeed);
+        out.writeInt(inputs.size());
+        int nPrevTick = 0;
+        for (Input input : inputs) {
+            writeVarInt(out, input.nTick - nPrevTick);
+            out.writeByte(input.nType);
+            out.writeShort(input.x);
+            out.writeShort(input.y);
+            nPrevTick = input.nTick;
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads a replay written by write.
+     *
+     * @param stream Where to read from; not closed.
+     * @return The replay.
+     * @throws IOException if reading fails or the data is not a replay of a known version.
+     */
+    public static Replay read(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a replay");
+        }
+        int nVersion = in.readInt();
+        if (nVersion != VERSION) {
+            throw new IOException("Unsupported replay version " + nVersion);
+        }
+        Replay replay = new Replay(in.readLong());
+        int nCount = in.readInt();
+        if (nCount < 0) {
+            throw new IOException("Corrupt replay: " + nCount + " inputs");
+        }
+        int nTick = 0;
+        for (int nC = 0; nC < nCount; nC++) {
+            nTick += readVarInt(in);
+            replay.inputs.add(new Input(nTick, in.readByte(), in.readShort(), in.readShort()));
+        }
+        return replay;
+    }
+
+    /**
+     * Writes the replay to a file.
+     *
+     * @param path The file.
+     * @throws IOException if writing fails.
+     */
+    public void save(Path path) throws IOException {
+        try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(path))) {
+            write(stream);
+        }
+    }
+
+    /**
+     * Reads a replay from a file.
+     *
+     * @param path The file.
+     * @return The replay.
+     * @throws IOException if reading fails or the file is not a replay.
+     */
+    public static Replay load(Path path) throws IOException {
+        try (InputStream stream = new BufferedInputStream(Files.newInputStream(path))) {
+            return read(stream);
+        }
+    }
+
+    // 7 bits per byte, low bits first; the high bit marks that more bytes follow
+    private static void writeVarInt(DataOutputStream out, int n) throws IOException {
+        while ((n & ~0x7f) != 0) {
+            out.writeByte((n & 0x7f) | 0x80);
+            n >>>= 7;
+        }
+        out.writeByte(n);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int n = 0;
+        for (int nShift = 0; nShift < 32; nShift += 7) {
+            int b = in.readUnsignedByte();
+            n |= (b & 0x7f) << nShift;
+            if ((b & 0x80) == 0) {
+                return n;
+            }
+        }
+        throw new IOException("Corrupt replay: tick delta too long");
+    }
+}
@@ -0,0 +1,292 @@
+package controller;
+
+import model.GameRandom;
+import model.GameWorld;
+import model.LatencyHistogram;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The SessionHost class runs many independent games in one JVM. Each session is a headless game
+ * in a GameWorld of its own, ticked at a fixed rate on a virtual thread, so hundreds of sessions
+ * cost little more than the simulation work itself: a session waiting for its next tick holds no
+ * platform thread. Every session records how long its ticks take and how late they start, so an
+ * overloaded host shows up as latency per session rather than as one slow game.
+ * Input for a session is queued from any thread and applied on the session's thread at the next
+ * tick boundary, just like a windowed game.
+ */
+public class SessionHost {
+
+    /**
+     * One hosted game.
+     */
+    public static class Session {
+        private final int nId;
+        private final GameWorld world;
+        private final BalanceHarness.Bot bot; // plays the session when there is no player, or null
+        private final HeadlessRunner runner;
+        private final FixedTimestep timestep;
+        private final ConcurrentLinkedQueue<Replay.Input> inputs = new ConcurrentLinkedQueue<>();
+        private final LatencyHistogram histTick = new LatencyHistogram("tick");
+        private final LatencyHistogram histLag = new LatencyHistogram("lag");
+        private volatile boolean bOpen = true;
+        private volatile int nTicks;
+        private Thread thread;
+
+        // runs on the host's thread; the game is created inside its own world
+        private Session(int nId, long lSeed, double dHz, boolean bBot) throws IOException {
+            this.nId = nId;
+            world = new GameWorld(lSeed);
+            GameWorld previous = world.enter();
+            try {
+                runner = new HeadlessRunner(lSeed);
+            } finally {
+                GameWorld.exit(previous);
+            }
+            bot = bBot ? new BalanceHarness.Bot(runner.getController()) : null;
+            timestep = new FixedTimestep(dHz, GameController.MAX_CATCH_UP);
+        }
+
+        // the session's thread: steps the game on its fixed timestep until closed or over
+        private void run() {
+            world.enter();
+            long lStepNanos = timestep.getStepNanos();
+            long lLast = System.nanoTime();
+            long lDue = lLast + lStepNanos;
+            while (bOpen && !world.isGameOver()) {
+                long lNow = System.nanoTime();
+                int nSteps = timestep.advance(lNow - lLast);
+                lLast = lNow;
+                if (nSteps > 0) {
+                    histLag.record(Math.max(0, lNow - lDue));
+                }
+                for (int nC = 0; nC < nSteps; nC++) {
+                    long lStart = System.nanoTime();
+                    Replay.Input input;
+                    while ((input = inputs.poll()) != null) {
+                        runner.getController().submit(input.getType(), input.getX(), input.getY());
+                    }
+                    if (!world.isPaused()) {
+                        runner.run(1);
+                        if (bot != null && world.getTick() % BalanceHarness.BOT_INTERVAL == 0) {
+                            bot.act();
+                        }
+                        nTicks++;
+                    }
+                    histTick.record(System.nanoTime() - lStart);
+                }
+                lDue = lNow + lStepNanos - (long) (timestep.getAlpha() * lStepNanos);
+                long lSleep = lDue - System.nanoTime();
+                if (lSleep > 0) {
+                    try {
+                        TimeUnit.NANOSECONDS.sleep(lSleep);
+                    } catch (InterruptedException e) {
+                        // closed, or woken early; the loop condition decides
+                    }
+                }
+            }
+            bOpen = false;
+        }
+
+        /**
+         * Queues an input, applied at the session's next tick boundary. Safe to call from any thread.
+         *
+         * @param nType One of the input types, e.g. Replay.CLICK.
+         * @param x     The x-coordinate, or the key code.
+         * @param y     The y-coordinate.
+         */
+        public void submit(byte nType, int x, int y) {
+            inputs.add(new Replay.Input(0, nType, x, y));
+        }
+
+        /**
+         * Returns the session's number, unique within its host.
+         *
+         * @return The session id.
+         */
+        public int getId() {
+            return nId;
+        }
+
+        /**
+         * Returns the session's world. Read it from another thread only for reports; its state
+         * changes while the session runs.
+         *
+         * @return The world.
+         */
+        public GameWorld getWorld() {
+            return world;
+        }
+
+        /**
+         * Returns the number of ticks the session has run; paused ticks are not counted.
+         *
+         * @return The tick count.
+         */
+        public int getTicks() {
+            return nTicks;
+        }
+
+        /**
+         * Returns whether the session is still running.
+         *
+         * @return False once closed or once its game is over.
+         */
+        public boolean isOpen() {
+            return bOpen;
+        }
+
+        /**
+         * Returns how long the session's ticks took.
+         *
+         * @return The tick duration histogram, in nanoseconds.
+         */
+        public LatencyHistogram getTickLatency() {
+            return histTick;
+        }
+
+        /**
+         * Returns how late the session's ticks started compared to their schedule.
+         *
+         * @return The lag histogram, in nanoseconds.
+         */
+        public LatencyHistogram getLag() {
+            return histLag;
+        }
+
+        /**
+         * Returns a one-line report of the session.
+         *
+         * @return The report line.
+         */
+        @Override
+        public String toString() {
+            return String.format("session %d: ticks=%d score=%d level=%d tick(p50=%dus p99=%dus max=%dus) lag(p99=%dus max=%dus)%s",
+                    nId, nTicks, world.getScore(), world.getLevel(),
+                    histTick.getPercentile(50) / 1000, histTick.getPercentile(99) / 1000, histTick.getMax() / 1000,
+                    histLag.getPercentile(99) / 1000, histLag.getMax() / 1000, world.isGameOver() ? " over" : "");
+        }
+    }
+
+    private final double dHz;
+    private final List<Session> sessions = new CopyOnWriteArrayList<>();
+    private final AtomicInteger nNextId = new AtomicInteger();
+
+    /**
+     * Constructs a host whose sessions tick at the given rate.
+     *
+     * @param dHz Ticks per second for every session.
+     */
+    public SessionHost(double dHz) {
+        this.dHz = dHz;
+    }
+
+    /**
+     * Opens a session and starts ticking it on a virtual thread.
+     *
+     * @param lSeed The seed of the session's game.
+     * @param bBot  True to have the scripted bot play it, false to wait for submitted input.
+     * @return The running session.
+     */
+    public Session open(long lSeed, boolean bBot) {
+        Session session;
+        try {
+            session = new Session(nNextId.getAndIncrement(), lSeed, dHz, bBot);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        sessions.add(session);
+        session.thread = Thread.ofVirtual().name("session-" + session.nId).start(session::run);
+        return session;
+    }
+
+    /**
+     * Stops a session after its current tick and removes it from the host.
+     *
+     * @param session The session.
+     * @throws InterruptedException if interrupted while waiting for the session to stop.
+     */
+    public void close(Session session) throws InterruptedException {
+        session.bOpen = false;
+        session.thread.interrupt();
+        session.thread.join();
+        sessions.remove(session);
+    }
+
+    /**
+     * Stops every session.
+     *
+     * @throws InterruptedException if interrupted while waiting for the sessions to stop.
+     */
+    public void shutdown() throws InterruptedException {
+        for (Session session : sessions) {
+            close(session);
+        }
+    }
+
+    /**
+     * Returns the sessions the host runs.
+     *
+     * @return A snapshot of the sessions, in the order they were opened.
+     */
+    public List<Session> getSessions() {
+        return new ArrayList<>(sessions);
+    }
+
+    /**
+     * Returns the tick durations of every session, merged into one histogram.
+     *
+     * @return The combined tick latency, in nanoseconds.
+     */
+    public LatencyHistogram getTickLatency() {
+        LatencyHistogram hist = new LatencyHistogram("tick");
+        for (Session session : sessions) {
+            hist.add(session.histTick);
+        }
+        return hist;
+    }
+
+    /**
+     * Runs a number of bot-played sessions for a while and prints each session's latency.
+     * Usage: java controller.SessionHost [sessions] [seconds] [hz] [seed]
+     *
+     * @param args the session count (default 200), the run time (default 10), the tick rate
+     *             (default the game's, about 22 Hz) and the seed the sessions' seeds come from.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int nSessions = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int nSeconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        double dHz = args.length > 2 ? Double.parseDouble(args[2]) : 1000.0 / GameController.ANI_DELAY;
+        GameRandom seeds = new GameRandom(args.length > 3 ? Long.parseLong(args[3]) : GameRandom.defaultSeed());
+        if (System.getProperty("pvz.log.level") == null) {
+            System.setProperty("pvz.log.level", "WARN"); // hundreds of games would log every level-up
+        }
+
+        SessionHost host = new SessionHost(dHz);
+        for (int nC = 0; nC < nSessions; nC++) {
+            host.open(seeds.split().getSeed(), true);
+        }
+        Thread.sleep(TimeUnit.SECONDS.toMillis(nSeconds));
+        List<Session> sessions = host.getSessions();
+        LatencyHistogram hist = host.getTickLatency();
+        host.shutdown();
+
+        long lTicks = 0;
+        for (Session session : sessions) {
+            System.out.println(session);
+            lTicks += session.getTicks();
+        }
+        System.out.printf("%d sessions at %.1f Hz for %ds: %d ticks, tick p50=%dus p99=%dus max=%dus%n",
+                nSessions, dHz, nSeconds, lTicks, hist.getPercentile(50) / 1000, hist.getPercentile(99) / 1000,
+                hist.getMax() / 1000);
+        System.exit(0);
+    }
+}
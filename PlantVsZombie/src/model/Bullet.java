@@ -1,6 +1,7 @@
 package model;
 
 import java.awt.*;
+import java.nio.ByteBuffer;
 
 /**
  * The Bullet class represents a projectile shot by a Peashooter.
@@ -22,7 +23,25 @@ public class Bullet extends Sprite {
      */
     public Bullet(Peashooter peashooter) {
         super();
+        reset(peashooter);
+    }
+
+    /**
+     * Constructs a bullet whose state is about to be restored from a SaveState.
+     */
+    Bullet() {
+        super();
+        bulletColor = Color.green;
+        setRadius(BULLET_RADIUS);
+    }
 
+    /**
+     * Prepares the bullet to be fired by a given Peashooter, so a spent bullet can be reused.
+     * The bullet inherits its type and color from the Peashooter.
+     *
+     * @param peashooter The Peashooter object firing the bullet.
+     */
+    void reset(Peashooter peashooter) {
         bulletColor = peashooter.getColor();
 
         // Determine bullet type based on color
@@ -42,18 +61,19 @@ public class Bullet extends Sprite {
             (int) peashooterRelativePoint.getX() + 20,
             (int) peashooterRelativePoint.getY() - 20
         ));
+        savePrevPointCenter(); // a reused bullet must not be drawn sliding from where it last was
     }
 
     /**
      * Moves the bullet in the game. If the bullet moves out of bounds,
-     * it is removed from the game.
+     * it is removed from the game and returned to the bullet pool.
      */
     public void move() {
         int x = getPointCenter().x;
 
         super.move();
         if (x > 1150) { // Remove the bullet if it goes off-screen
-            CommandCenter.movBullets.remove(this);
+            CommandCenter.getMovBullets().remove(this);
         }
     }
 
@@ -69,9 +89,33 @@ public class Bullet extends Sprite {
     }
 
     /**
-     * Plays the sound effect for a bullet firing.
+     * Plays the sound effect for a bullet hit, at the end of the step; hits in the same step share one voice.
      */
     public static void bulletSoundEffect() {
-        Sound.playSound("music/woodchopping.wav"); // Play bullet sound effect
+        Sound.requestSound("music/woodchopping.wav", Sound.PRIORITY_LOW); // Play bullet sound effect
+    }
+
+    /**
+     * Writes the bullet's state for a SaveState, followed by its type and color.
+     *
+     * @param buf The buffer to write to.
+     */
+    @Override
+    void saveState(ByteBuffer buf) {
+        super.saveState(buf);
+        buf.putInt(bulletType);
+        buf.putInt(bulletColor.getRGB());
+    }
+
+    /**
+     * Reads back the state written by saveState.
+     *
+     * @param buf The buffer to read from.
+     */
+    @Override
+    void restoreState(ByteBuffer buf) {
+        super.restoreState(buf);
+        bulletType = buf.getInt();
+        bulletColor = new Color(buf.getInt(), true);
     }
 }
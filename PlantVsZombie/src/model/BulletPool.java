@@ -0,0 +1,72 @@
+package model;
+
+/**
+ * The BulletPool class keeps spent bullets for reuse, so a peashooter that fires does not
+ * allocate a new Bullet (and run the Sprite constructor) every time. Bullets come back to the
+ * pool when they leave movBullets, whether they flew off-screen or hit a foe.
+ */
+public class BulletPool {
+
+    public final static int MAX_POOLED = 256; // spare bullets kept; the rest are left to the GC
+
+    private final Bullet[] bulFree = new Bullet[MAX_POOLED];
+    private int nFree;
+    private long lCreated;
+    private long lReused;
+
+    /**
+     * Returns a bullet fired by the given peashooter, reusing a spent one if available.
+     *
+     * @param peashooter The Peashooter firing the bullet.
+     * @return A bullet ready to be added to movBullets.
+     */
+    public synchronized Bullet obtain(Peashooter peashooter) {
+        if (nFree == 0) {
+            lCreated++;
+            return new Bullet(peashooter);
+        }
+        Bullet bullet = bulFree[--nFree];
+        bulFree[nFree] = null;
+        bullet.reset(peashooter);
+        lReused++;
+        return bullet;
+    }
+
+    /**
+     * Takes back a bullet that is no longer in play.
+     *
+     * @param bullet The spent bullet.
+     */
+    public synchronized void release(Bullet bullet) {
+        if (nFree < MAX_POOLED) {
+            bulFree[nFree++] = bullet;
+        }
+    }
+
+    /**
+     * Returns the number of spare bullets waiting to be reused.
+     *
+     * @return The free count.
+     */
+    public synchronized int getFree() {
+        return nFree;
+    }
+
+    /**
+     * Returns how many bullets had to be created because the pool was empty.
+     *
+     * @return The number of allocations.
+     */
+    public synchronized long getCreated() {
+        return lCreated;
+    }
+
+    /**
+     * Returns how many fired bullets were taken from the pool.
+     *
+     * @return The number of reuses.
+     */
+    public synchronized long getReused() {
+        return lReused;
+    }
+}
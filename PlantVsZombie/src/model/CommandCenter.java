@@ -1,36 +1,180 @@
 package model;
 
-import controller.GameController;
-import jdk.internal.icu.text.UnicodeSet;
-
-import javax.sound.sampled.Clip;
 import java.awt.*;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * The CommandCenter class manages the state of the game, including
  * the player's resources, plants, zombies, bullets, and game levels.
  * It also controls game-related actions like playing music and managing
- * plant placement.
+ * plant placement. The state itself lives in a GameWorld; every method here
+ * works on the world bound to the calling thread (GameWorld.current()),
+ * which is the windowed game's world unless the thread entered another.
  */
 public class CommandCenter {
-    public static CopyOnWriteArrayList<Movable> movCandidate = new CopyOnWriteArrayList<>();
-    public static CopyOnWriteArrayList<Movable> movSun = new CopyOnWriteArrayList<Movable>();
-    public static CopyOnWriteArrayList<Movable> movPlants = new CopyOnWriteArrayList<Movable>();
-    public static CopyOnWriteArrayList<Movable> movTemp = new CopyOnWriteArrayList<Movable>();
-    public static CopyOnWriteArrayList<Movable> movBullets = new CopyOnWriteArrayList<Movable>();
-    public static CopyOnWriteArrayList<Movable> movFoes = new CopyOnWriteArrayList<Movable>();
-    public static CopyOnWriteArrayList<Movable> movDebris = new CopyOnWriteArrayList<Movable>();
+    // size of the playing field; the view opens a window of the same size
+    public final static int WORLD_WIDTH = 1200;
+    public final static int WORLD_HEIGHT = 800;
+    public final static Dimension WORLD_SIZE = new Dimension(WORLD_WIDTH, WORLD_HEIGHT);
+
+    public final static String TASK_GAME_OVER = GameWorld.TASK_GAME_OVER;
+    public final static String TASK_MUSIC = GameWorld.TASK_MUSIC;
+    // the selectable plant slots in the bottom panel, the same in every world
+    public static final SeedTray seedTray = new SeedTray();
+
+    private CommandCenter(){}
+
+    /**
+     * Returns the world the calling thread works on.
+     *
+     * @return The current world.
+     */
+    public static GameWorld world() {
+        return GameWorld.current();
+    }
+
+    /**
+     * Returns the suns on screen.
+     *
+     * @return The sun store of the current world.
+     */
+    public static EntityStore getMovSun() {
+        return GameWorld.current().movSun;
+    }
+
+    /**
+     * Returns the plants on the lawn.
+     *
+     * @return The plant store of the current world.
+     */
+    public static EntityStore getMovPlants() {
+        return GameWorld.current().movPlants;
+    }
+
+    /**
+     * Returns the plant being dragged onto the lawn, if any.
+     *
+     * @return The temporary store of the current world.
+     */
+    public static EntityStore getMovTemp() {
+        return GameWorld.current().movTemp;
+    }
+
+    /**
+     * Returns the bullets in flight.
+     *
+     * @return The bullet store of the current world.
+     */
+    public static EntityStore getMovBullets() {
+        return GameWorld.current().movBullets;
+    }
+
+    /**
+     * Returns the zombies.
+     *
+     * @return The foe store of the current world.
+     */
+    public static EntityStore getMovFoes() {
+        return GameWorld.current().movFoes;
+    }
+
+    /**
+     * Returns the explosions and other debris.
+     *
+     * @return The debris store of the current world.
+     */
+    public static EntityStore getMovDebris() {
+        return GameWorld.current().movDebris;
+    }
+
+    /**
+     * Returns the level and game over banners.
+     *
+     * @return The level instruction store of the current world.
+     */
+    public static EntityStore getMovLevelInstruction() {
+        return GameWorld.current().movLevelInstruction;
+    }
+
+    /**
+     * Returns the broadphase index over the foes, bucketed by lane and sorted by x.
+     *
+     * @return The lane index of the current world.
+     */
+    public static LaneIndex getFoeLanes() {
+        return GameWorld.current().foeLanes;
+    }
+
+    /**
+     * Returns which plant occupies each lawn cell.
+     *
+     * @return The lawn grid of the current world.
+     */
+    public static LawnGrid getLawn() {
+        return GameWorld.current().lawn;
+    }
+
+    /**
+     * Returns the per-step state of every foe.
+     *
+     * @return The foe store of the current world.
+     */
+    public static FoeStore getFoeStore() {
+        return GameWorld.current().foeStore;
+    }
+
+    /**
+     * Returns the random streams of the game.
+     *
+     * @return The random numbers of the current world.
+     */
+    public static GameRandom getRandom() {
+        return GameWorld.current().random;
+    }
+
+    /**
+     * Returns the delayed actions, run on the game clock.
+     *
+     * @return The scheduler of the current world.
+     */
+    public static GameScheduler getScheduler() {
+        return GameWorld.current().scheduler;
+    }
+
+    /**
+     * Returns the spent bullets waiting to be fired again.
+     *
+     * @return The bullet pool of the current world.
+     */
+    public static BulletPool getBulletPool() {
+        return GameWorld.current().bulletPool;
+    }
+
+    /**
+     * Returns the spawns of the current level, compiled ahead from the wave schedule.
+     *
+     * @return The spawn timeline of the current world.
+     */
+    public static SpawnTimeline getSpawnTimeline() {
+        return GameWorld.current().spawnTimeline;
+    }
 
-    private static long lSunCredit;
-    public static String gameGuide = "Enjoy the game.";
-    public static Peashooter plant;
-    public static Boolean isPlanting = false;
-    private static int nLevel;
-    private static long lScore;
-    public static int plantType = 0;
+    /**
+     * Returns the gameplay events of the current step, delivered when the step is over.
+     *
+     * @return The event ring of the current world.
+     */
+    public static GameEvents getEvents() {
+        return GameWorld.current().events;
+    }
 
-    private static boolean bPlaying;
+    /**
+     * Returns the sound effects asked for during the current step, played when the step is over.
+     *
+     * @return The sound requests of the current world.
+     */
+    public static SoundRequests getSounds() {
+        return GameWorld.current().sounds;
+    }
 
     /**
      * Adds the given amount to the player's sun credits.
@@ -38,7 +182,7 @@ public class CommandCenter {
      * @param lParam The amount of sun credits to add.
      */
     public static void addSunCredit(long lParam) {
-        lSunCredit = lSunCredit + lParam;
+        GameWorld.current().addSunCredit(lParam);
     }
 
     /**
@@ -47,7 +191,7 @@ public class CommandCenter {
      * @return The current sun credits.
      */
     public static long getSunCredit() {
-        return lSunCredit;
+        return GameWorld.current().getSunCredit();
     }
 
     /**
@@ -56,19 +200,23 @@ public class CommandCenter {
      * @param lParam The amount to set sun credits to.
      */
     public static void setSunCredit(long lParam) {
-        lSunCredit = lParam;
+        GameWorld.current().setSunCredit(lParam);
     }
 
-    public static CopyOnWriteArrayList<Movable> movLevelInstruction = new CopyOnWriteArrayList<Movable>();
-    private static boolean bisGameOver;
-
-    private CommandCenter(){}
-
     /**
-     * Initializes the game by resetting the sun credits.
+     * Initializes the game by resetting the sun credits, score, level and every entity list,
+     * so that a new game (or a new headless run) starts from a clean state.
      */
     public static void initGame(){
-        setSunCredit(0);
+        GameWorld.current().initGame();
+    }
+
+    /**
+     * Applies the adds and removes queued on every entity store. Called once at the end of each
+     * simulation step, so all changes made during a step become visible together.
+     */
+    public static void flushAll() {
+        GameWorld.current().flushAll();
     }
 
     // controller to control the status of the game
@@ -78,7 +226,7 @@ public class CommandCenter {
      * @param b True if the game is over, false otherwise.
      */
     public static void setIsGameOver(boolean b){
-        bisGameOver = b;
+        GameWorld.current().setIsGameOver(b);
     }
 
 
@@ -88,42 +236,16 @@ public class CommandCenter {
      * @return True if the game is over, false otherwise.
      */
     public static boolean isGameOver() {
-        return bisGameOver;
+        return GameWorld.current().isGameOver();
     }
 
     /**
      * Handles the event when zombies cross the yard.
-     * Stops the current music and plays the game over sound.
+     * Stops the current music and plays the game over sound; the game ends 4 seconds of game time later.
+     * Further calls while the game over is pending or done are ignored.
      */
     public static void zombieCrossYard() {
-
-        GameController.stopLoopingSounds(GameController.clpLevel1);
-        // Game.clpLevel1 = Sound.clipForLoopFactory("level1.wav");  // I need a new sound effect here.
-
-        // Game.clpLevel1.loop(Clip.LOOP_CONTINUOUSLY);
-        Sound.playSound("music/gameover.wav");
-
-        movLevelInstruction.clear();
-
-        LevelInstruction tempLevleInstruction = new LevelInstruction(500,200, "Zombies Reach Your Front Door. Game Over.");
-        tempLevleInstruction.setDeltaY(0);
-        movLevelInstruction.add(tempLevleInstruction);
-
-        new java.util.Timer().schedule(
-            new java.util.TimerTask() {
-                @Override
-                public void run() {
-                    // your code here
-                    setIsGameOver(true);
-
-                    // Game.stopLoopingSounds(Game.clpMusicBackground);
-
-
-                    GameController.clpMusicBackground.loop(Clip.LOOP_CONTINUOUSLY);
-                }
-            },
-            4000  // One second.....................
-        );
+        GameWorld.current().zombieCrossYard();
     }
 
     // Game setting
@@ -133,28 +255,42 @@ public class CommandCenter {
      * @return The current level.
      */
     public static int getLevel() {
-        return nLevel;
+        return GameWorld.current().getLevel();
     }
 
     /**
      * Increases the game level by one.
      */
     public static void addLevel() {
-        setLevel(nLevel+1);
+        GameWorld world = GameWorld.current();
+        world.setLevel(world.getLevel() + 1);
     }
 
     /**
      * Sets the game level to the specified value.
-     * Also changes the background music if the level changes.
+     * Also changes the background music and shows the level's banner, as the wave schedule says,
+     * if the level changes.
      *
      * @param n The new level.
      */
     public static void setLevel(int n) {
-        if (nLevel != n && n < 4){
-            System.out.println("Change playing music.................");
-            changePlayingMusic(n);
-        }
-        nLevel = n;
+        GameWorld.current().setLevel(n);
+    }
+
+    /**
+     * Puts the game on a level without announcing it: no banner, and the music is left alone.
+     *
+     * @param n The level.
+     */
+    public static void restoreLevel(int n) {
+        GameWorld.current().restoreLevel(n);
+    }
+
+    /**
+     * Stops the level music playing and starts the current level's, after the usual delay.
+     */
+    public static void startLevelMusic() {
+        GameWorld.current().startLevelMusic();
     }
 
     /**
@@ -163,7 +299,7 @@ public class CommandCenter {
      * @return The player's score.
      */
     public static long getScore() {
-        return lScore;
+        return GameWorld.current().getScore();
     }
 
     /**
@@ -172,7 +308,7 @@ public class CommandCenter {
      * @param lParam The new score.
      */
     public static void setScore(long lParam) {
-        lScore = lParam;
+        GameWorld.current().setScore(lParam);
     }
 
     /**
@@ -182,55 +318,111 @@ public class CommandCenter {
      * @param lParam The amount to add to the score.
      */
     public static void addScore(long lParam) {
-        lScore = lScore+lParam;
+        GameWorld.current().addScore(lParam);
+    }
+
+    /**
+     * Returns the settings that pace the game.
+     *
+     * @return The spawn settings.
+     */
+    public static SpawnSettings getSpawnSettings() {
+        return GameWorld.current().getSpawnSettings();
+    }
+
+    /**
+     * Changes the settings that pace the game, e.g. for a balancing run. They are not reset by initGame.
+     *
+     * @param settings The new settings.
+     */
+    public static void setSpawnSettings(SpawnSettings settings) {
+        GameWorld.current().setSpawnSettings(settings);
+    }
 
-        if(lScore%300==0){
-            addLevel();
-        }
+    /**
+     * Returns the schedule of what each level spawns.
+     *
+     * @return The wave schedule.
+     */
+    public static WaveSchedule getWaveSchedule() {
+        return GameWorld.current().getWaveSchedule();
     }
 
-    private static void changePlayingMusic(int level_){
-        GameController.stopLoopingSounds(GameController.clpLevel1);
-        if (level_ == 1){
-            GameController.clpLevel1 = Sound.clipForLoopFactory("music/level1.wav");
-            playMusic();
-            movLevelInstruction.add(new LevelInstruction(500,50, "Zombies are Coming!"));
-        }
-        else if(level_ == 2){
-            GameController.clpLevel1 = Sound.clipForLoopFactory("music/level2.wav");
-            playMusic();
-            movLevelInstruction.add(new LevelInstruction(500,50, "Level Two"));
-        }
-        else if(level_==3){
-            GameController.clpLevel1 = Sound.clipForLoopFactory("music/level3.wav");
-            playMusic();
-            movLevelInstruction.add(new LevelInstruction(500,50, "Level Three"));
-        }
+    /**
+     * Changes the schedule of what each level spawns. It is not reset by initGame.
+     *
+     * @param schedule The new schedule.
+     */
+    public static void setWaveSchedule(WaveSchedule schedule) {
+        GameWorld.current().setWaveSchedule(schedule);
     }
 
     /**
-     * Plays background music after a delay.
+     * Plays background music after a delay of 3 seconds of game time.
      */
     public static void playMusic(){
-        // When the background music is changed, always wait for 50000
-        new java.util.Timer().schedule(
-            new java.util.TimerTask() {
-                @Override
-                public void run() {
-                    // your code here
-                    GameController.clpLevel1.loop(Clip.LOOP_CONTINUOUSLY);
-                }
-            },
-            3000
-        );
+        GameWorld.current().playMusic();
+    }
+
+    /**
+     * Returns the hint shown to the player.
+     *
+     * @return The game guide text.
+     */
+    public static String getGameGuide() {
+        return GameWorld.current().getGameGuide();
+    }
+
+    /**
+     * Sets the hint shown to the player.
+     *
+     * @param strGuide The game guide text.
+     */
+    public static void setGameGuide(String strGuide) {
+        GameWorld.current().setGameGuide(strGuide);
+    }
+
+    /**
+     * Returns the plant being placed.
+     *
+     * @return The plant following the mouse, or null.
+     */
+    public static Peashooter getPlant() {
+        return GameWorld.current().getPlant();
+    }
+
+    /**
+     * Returns whether a plant is being placed.
+     *
+     * @return True while the player drags a plant.
+     */
+    public static boolean isPlanting() {
+        return GameWorld.current().isPlanting();
+    }
+
+    /**
+     * Sets whether a plant is being placed.
+     *
+     * @param b True while the player drags a plant.
+     */
+    public static void setPlanting(boolean b) {
+        GameWorld.current().setPlanting(b);
+    }
+
+    /**
+     * Returns the type of the plant selected for planting.
+     *
+     * @return 0 for a peashooter, 1 for an ice peashooter.
+     */
+    public static int getPlantType() {
+        return GameWorld.current().getPlantType();
     }
 
     /**
      * Clears the temporary plant list and resets planting status.
      */
     public static void clearMovTemp() {
-        movTemp.clear();
-        isPlanting = false;
+        GameWorld.current().clearMovTemp();
     }
 
     /**
@@ -240,11 +432,7 @@ public class CommandCenter {
      * @param lParam The amount to deduct.
      */
     public static void minusSunCredit(long lParam) {
-        lSunCredit = lSunCredit-lParam;
-        if(lSunCredit < 0){
-            lSunCredit = 0;
-        }
-        System.out.println(lSunCredit);
+        GameWorld.current().minusSunCredit(lParam);
     }
 
     /**
@@ -253,47 +441,7 @@ public class CommandCenter {
      * @param type The type of plant (0 for regular, 1 for ice).
      */
     public static void setPlant(int type){
-
-        long currentSunCredit = getSunCredit();
-
-        // original code when only regular peashooter is available
-//            if (currentSunCredit < 100) {
-//                gameGuide = "No enough credits. Collect more suns.";
-//                plant = null; // Explicitly clear the plant
-//                isPlanting = false; // Explicitly reset isPlanting
-//                return;
-//            }
-
-        if(type == 0){
-            plantType = 0;
-            if(currentSunCredit < 100){
-                // System.out.println("No enough credits");
-                gameGuide = "No enough credits. Collect more suns.";
-                plant = null; // Explicitly clear the plant
-                isPlanting = false; // Explicitly reset isPlanting
-                return;
-            }
-            else{
-                plant = new Peashooter(-200,-200);
-            }
-        }
-        else if(type == 1){
-            plantType = 1;
-            if(currentSunCredit<200){
-                gameGuide = "No enough credits. Collect more suns.";
-                plant = null; // Explicitly clear the plant
-                isPlanting = false; // Explicitly reset isPlanting
-                return;
-            }
-            else{
-                plant = new IcePeashooter(-200,-200);
-            }
-        }
-        gameGuide = "Drop the peashooter in one slot";
-        movTemp.clear();
-        movTemp.add(plant);
-        isPlanting = true;
-        System.out.println(gameGuide);
+        GameWorld.current().setPlant(type);
     }
 
     /**
@@ -302,26 +450,16 @@ public class CommandCenter {
      * @param newPoint The new position of the plant.
      */
     public static void setPlantPosition(Point newPoint){
-        if(isPlanting){
-            plant.setPointCenter(newPoint);
-            if(plantType == 0){
-                plant.setColor(Color.green);
-            }
-            else if(plantType == 1){
-                plant.setColor(Color.cyan);
-            }
-        }
+        GameWorld.current().setPlantPosition(newPoint);
     }
 
-    private static boolean paused = false;
-
     /**
      * Pauses or resumes the game.
      *
      * @param isPaused True to pause the game, false to resume.
      */
     public static void setPaused(boolean isPaused) {
-        paused = isPaused;
+        GameWorld.current().setPaused(isPaused);
     }
 
     /**
@@ -330,7 +468,7 @@ public class CommandCenter {
      * @return True if the game is paused, false otherwise.
      */
     public static boolean isPaused() {
-        return paused;
+        return GameWorld.current().isPaused();
     }
 
     /**
@@ -339,7 +477,7 @@ public class CommandCenter {
      * @return True if the game is playing, false otherwise.
      */
     public static boolean isPlaying() {
-        return bPlaying;
+        return GameWorld.current().isPlaying();
     }
 
     /**
@@ -348,7 +486,7 @@ public class CommandCenter {
      * @param bPlaying True if the game is playing, false otherwise.
      */
     public static void setPlaying(boolean bPlaying) {
-        CommandCenter.bPlaying = bPlaying;
+        GameWorld.current().setPlaying(bPlaying);
     }
 
 }
@@ -1,41 +1,24 @@
 package model;
 
 import java.awt.*;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 
-
 /**
  * The CrazyZombie class represents a special type of zombie with unique
  * characteristics such as swinging legs, variable speed, and the ability
  * to be frozen by ice bullets. CrazyZombies move across the game screen
  * and can trigger a game-over event if they cross the yard.
+ * Their moving state is kept in a FoeStore slot; this class draws them.
  */
-public class CrazyZombie extends Sprite {
+public class CrazyZombie extends Foe implements SpriteAtlas.Cached {
 
     private final static int ZOMBIE_RADIUS = 30;
+    private final static int ATLAS_EXTENT = 48; // reach of the drawing from the center
     private final static int SCALER = 1;
 
-    private boolean isSwingToLeft = true;
-    public int stepLength = 10;
-    private int leftFootX = -stepLength;
-    private int rightFootX = stepLength;
-
-    public int speed = 1;
-    private int newSpeed = 1;
-
-    public int speedRatio = 1;
-
-    private boolean isFozen = false;
-
-    public int nSize = 3;
-
-    private int iceTime = 0;
-
-
     public Color mainColor = Color.red;
 
-
-
     public Point handPoint;
 
     /**
@@ -47,29 +30,14 @@ public class CrazyZombie extends Sprite {
      */
     public CrazyZombie(int y){
 
-        super();
-
-        stepLength = 6;
-
-        nSize = 2;
-        speedRatio = 5;
+        super(FoeStore.TYPE_CRAZY_ZOMBIE, y);
 
         // setCenter(new Point((int)getCenter().getX(), (int)getCenter().getY()));
 
-
         ArrayList<Point> pntCs = new ArrayList<Point>();
 
         setRadius(ZOMBIE_RADIUS);
 
-
-        if (y<100){
-            y = 300;
-        }
-
-        setPointCenter(new Point(1190, y));
-
-        setDeltaX(-speed*0.5);
-
         pntCs.add(new Point(0*SCALER, 18*SCALER-10));
 
         //right points
@@ -81,7 +49,6 @@ public class CrazyZombie extends Sprite {
         pntCs.add(new Point(4*SCALER, -3*SCALER-10));
         pntCs.add(new Point(2*SCALER, -10*SCALER-10));
 
-
         //left points
         pntCs.add(new Point(-2*SCALER, -10*SCALER-10));
         pntCs.add(new Point(-4*SCALER, -3*SCALER-10));
@@ -93,79 +60,79 @@ public class CrazyZombie extends Sprite {
         setOrientation(-100);
     }
 
-
     /**
-     * Moves the zombie across the screen. If the zombie crosses the yard,
-     * it triggers a game-over event.
+     * Draws the zombie from the sprite atlas, rasterizing it the first time this variant is seen.
+     *
+     * @param g The Graphics object used for drawing.
      */
-    public void move(){
-        super.move();
+    @Override
+    public void draw(Graphics g) {
+        SpriteAtlas.draw(this, g);
+    }
 
-        int x = getPointCenter().x;
-        int y = getPointCenter().y;
+    /**
+     * Returns a key identifying how the zombie currently looks.
+     *
+     * @return The atlas variant key.
+     */
+    @Override
+    public long getAtlasKey() {
+        return SpriteAtlas.typeBits(SpriteAtlas.TYPE_CRAZY_ZOMBIE)
+                | (long) (mainColor.getRGB() & 0xFFFFFF) << 24
+                | (getSpeed() == 0 ? 1L << 17 : 0)
+                | (getLeftFootX() & 0xFFFF);
+    }
 
-        int xUpdate = x+(int)getDeltaX();
-        setPointCenter(new Point(xUpdate, y));
+    /**
+     * Returns how far the zombie's primitives reach from its center.
+     *
+     * @return The atlas image half-size.
+     */
+    @Override
+    public int getAtlasExtent() {
+        return ATLAS_EXTENT;
+    }
 
-        if(xUpdate<50){
-            System.out.println("Game Over....................");
-            CommandCenter.zombieCrossYard();
-        }
+    /**
+     * Returns how far the zombie's drawing reaches from its center, the same as its atlas image.
+     *
+     * @return The draw extent.
+     */
+    @Override
+    public int getDrawExtent() {
+        return ATLAS_EXTENT;
     }
 
     /**
      * Draws the zombie on the screen, including its body, legs, and frozen effect if applicable.
+     * The sprite atlas calls this once per variant; draw() normally blits the cached image.
      *
      * @param g The Graphics object used to draw the zombie.
      */
     @Override
-    public void draw(Graphics g) {
-        updateSpeed();
-        if(speed==0){
+    public void drawPrimitives(Graphics g) {
+        if(getSpeed()==0){
             g.setColor(Color.cyan);
             g.fillRect(getPointCenter().x-30, getPointCenter().y-20, 61, 62);
-            iceTime++;
-        }
-
-        if(iceTime==200){
-            recover();
         }
 
         super.draw(g);
         // 1
         g.setColor(mainColor);
-        g.fillPolygon(toArrayIntCoords(getnXCoords()), toArrayIntCoords(getnYCoords()), getnXCoords().size());
+        g.fillPolygon(getPolygonXs(), getPolygonYs(), getPolygonSize());
         // 2
         g.setColor(Color.lightGray);
-        g.drawPolygon(toArrayIntCoords(getnXCoords()), toArrayIntCoords(getnYCoords()), getnXCoords().size());
+        g.drawPolygon(getPolygonXs(), getPolygonYs(), getPolygonSize());
         // 4
         g.setColor(Color.darkGray);
         g.fillOval(getPointCenter().x-15, getPointCenter().y-5, 12, 10);
 
-
-
-
         g.setColor(mainColor);
-        if(leftFootX < -stepLength){
-            isSwingToLeft = false;
-        }
-        else if(leftFootX > stepLength){
-            isSwingToLeft = true;
-        }
-
-        if (isSwingToLeft){
-            leftFootX=leftFootX-speed;
-            rightFootX=rightFootX+speed;
-        }
-        else {
-            leftFootX=leftFootX+speed;
-            rightFootX=rightFootX-speed;
-        }
 
         Graphics2D g2 = (Graphics2D) g;
         g2.setStroke(new BasicStroke(4));
-        g2.drawLine(getPointCenter().x+6,getPointCenter().y+20,getPointCenter().x-leftFootX, getPointCenter().y+40);
-        g2.drawLine(getPointCenter().x+6,getPointCenter().y+20,getPointCenter().x-rightFootX, getPointCenter().y+40);
+        g2.drawLine(getPointCenter().x+6,getPointCenter().y+20,getPointCenter().x-getLeftFootX(), getPointCenter().y+40);
+        g2.drawLine(getPointCenter().x+6,getPointCenter().y+20,getPointCenter().x+getLeftFootX(), getPointCenter().y+40);
 
         g2.setStroke(new BasicStroke(2));
         handPoint = new Point(getPointCenter().x-15, getPointCenter().y+20+10);
@@ -179,81 +146,24 @@ public class CrazyZombie extends Sprite {
     }
 
     /**
-     * Returns the current size of the zombie, indicating its health.
-     *
-     * @return The size of the zombie.
-     */
-    public int getSize(){
-        return nSize;
-    }
-
-    /**
-     * Reduces the zombie's size when hit by a bullet.
-     * If the bullet is an ice type, the zombie is frozen.
+     * Writes the CrazyZombie's state for a SaveState, followed by its color.
      *
-     * @param bulletType The type of the bullet hitting the zombie.
-     */
-    public void isHit(int bulletType){
-        nSize--;
-
-        if (bulletType==1){
-            frozen();
-
-        }
-        else {
-
-
-        }
-    }
-
-    /**
-     * Freezes the zombie, stopping its movement for a duration.
-     */
-    public void frozen(){
-        speed = 0;
-        iceTime = 0;
-        setDeltaX(-speed*0.25);
-        isFozen = true;
-    }
-
-    /**
-     * Recovers the zombie from a frozen state, restoring its speed.
+     * @param buf The buffer to write to.
      */
-    public void recover(){
-        speed =checkSpeed();
-        iceTime = 0;
-        setDeltaX(-speed*0.5);
+    @Override
+    void saveState(ByteBuffer buf) {
+        super.saveState(buf);
+        buf.putInt(mainColor.getRGB());
     }
 
     /**
-     * Checks and updates the zombie's speed based on its state and level.
+     * Reads back the state written by saveState.
      *
-     * @return The updated speed of the zombie.
-     */
-    public int checkSpeed(){
-        if(isFozen){
-            newSpeed = 0;
-            return newSpeed;
-        }
-
-        if(CommandCenter.getLevel()>2){
-            newSpeed = 2;
-            setDeltaX(-speed*0.5);
-            stepLength = 8;
-        }
-        else {
-            newSpeed = 1; // double size?
-        }
-        return newSpeed;
-    }
-
-    /**
-     * Updates the zombie's speed based on its current speed ratio.
+     * @param buf The buffer to read from.
      */
-    public void updateSpeed(){
-        speed = checkSpeed()*speedRatio;
-        setDeltaX(-speed*0.5);
+    @Override
+    void restoreState(ByteBuffer buf) {
+        super.restoreState(buf);
+        mainColor = new Color(buf.getInt(), true);
     }
-
-
 }
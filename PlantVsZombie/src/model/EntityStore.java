@@ -0,0 +1,281 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The EntityStore class holds one kind of game entity (bullets, foes, suns, ...).
+ * Adds, removes and clears from any thread are only recorded in a command buffer; they are
+ * applied together by flush() at the end of a simulation step. Readers iterate a contiguous
+ * array that is never modified once published, so the render thread can draw while the
+ * simulation queues changes, and the backing array is rebuilt at most once per step instead
+ * of on every add or remove.
+ */
+public class EntityStore implements Iterable<Movable> {
+
+    /**
+     * Receives the entities that actually entered or left the store during a flush.
+     */
+    public interface Listener {
+        /**
+         * Called after a movable has been added to the store.
+         *
+         * @param mov The movable that was added.
+         */
+        void spawned(Movable mov);
+
+        /**
+         * Called after a movable has been removed from the store.
+         *
+         * @param mov The movable that was removed.
+         */
+        void despawned(Movable mov);
+    }
+
+    private final static Movable[] EMPTY = new Movable[0];
+    private final static byte ADD = 0;
+    private final static byte REMOVE = 1;
+    private final static byte CLEAR = 2;
+    // markers for the flush bookkeeping
+    private final static Integer PRESENT = 1;
+    private final static Integer ABSENT = 0;
+    private final static Integer PLACED = 2;
+
+    // the published contents; replaced, never modified
+    private volatile Movable[] movLive = EMPTY;
+    private volatile long lVersion; // bumped whenever new contents are published
+
+    // command buffer, filled by any thread
+    private Movable[] movPending = new Movable[64];
+    private byte[] nPendingOps = new byte[64];
+    private int nPending;
+    // what the store holds once the queued commands are applied, kept up to date as commands are
+    // queued so that contains and remove need no scan
+    private final Set<Movable> setMembers = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    // spare buffers swapped in during flush, owned by the flushing thread
+    private Movable[] movDrain = new Movable[64];
+    private byte[] nDrainOps = new byte[64];
+    private Movable[] movWork = new Movable[64];
+    private final IdentityHashMap<Movable, Integer> mapTouched = new IdentityHashMap<>();
+    private final Object flushLock = new Object();
+
+    private final ArrayList<Listener> listeners = new ArrayList<>();
+
+    /**
+     * Registers a listener for entities entering or leaving the store.
+     *
+     * @param listener The listener to notify on flush.
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Queues a movable to be added at the next flush.
+     *
+     * @param mov The movable to add.
+     * @return Always true.
+     */
+    public boolean add(Movable mov) {
+        enqueue(ADD, mov);
+        return true;
+    }
+
+    /**
+     * Queues a movable to be removed at the next flush.
+     *
+     * @param mov The movable to remove.
+     * @return True if the movable was in the store, counting commands already queued.
+     */
+    public synchronized boolean remove(Movable mov) {
+        boolean bPresent = setMembers.contains(mov);
+        enqueue(REMOVE, mov);
+        return bPresent;
+    }
+
+    /**
+     * Queues the removal of every movable at the next flush.
+     */
+    public void clear() {
+        enqueue(CLEAR, null);
+    }
+
+    private synchronized void enqueue(byte nOp, Movable mov) {
+        if (nPending == movPending.length) {
+            movPending = Arrays.copyOf(movPending, nPending * 2);
+            nPendingOps = Arrays.copyOf(nPendingOps, nPending * 2);
+        }
+        movPending[nPending] = mov;
+        nPendingOps[nPending] = nOp;
+        nPending++;
+        if (nOp == ADD) {
+            setMembers.add(mov);
+        } else if (nOp == REMOVE) {
+            setMembers.remove(mov);
+        } else {
+            setMembers.clear();
+        }
+    }
+
+    /**
+     * Returns whether the movable is in the store once queued commands are applied.
+     *
+     * @param mov The movable to look for.
+     * @return True if the movable is, or will be, in the store.
+     */
+    public synchronized boolean contains(Movable mov) {
+        return setMembers.contains(mov);
+    }
+
+    /**
+     * Returns the number of movables as of the last flush.
+     *
+     * @return The store size.
+     */
+    public int size() {
+        return movLive.length;
+    }
+
+    /**
+     * Returns a number that changes whenever a flush publishes new contents, so readers can tell
+     * cheaply whether the store changed since they last looked.
+     *
+     * @return The contents version.
+     */
+    public long getVersion() {
+        return lVersion;
+    }
+
+    /**
+     * Returns whether the store was empty as of the last flush.
+     *
+     * @return True if there are no movables.
+     */
+    public boolean isEmpty() {
+        return movLive.length == 0;
+    }
+
+    /**
+     * Returns the movable at the given position as of the last flush.
+     *
+     * @param nIndex The position.
+     * @return The movable.
+     */
+    public Movable get(int nIndex) {
+        return movLive[nIndex];
+    }
+
+    /**
+     * Iterates the contents as of the last flush. Commands queued while iterating are not seen.
+     *
+     * @return An iterator over a stable snapshot.
+     */
+    @Override
+    public Iterator<Movable> iterator() {
+        final Movable[] movSnapshot = movLive;
+        return new Iterator<Movable>() {
+            private int nNext;
+
+            @Override
+            public boolean hasNext() {
+                return nNext < movSnapshot.length;
+            }
+
+            @Override
+            public Movable next() {
+                if (nNext >= movSnapshot.length) {
+                    throw new NoSuchElementException();
+                }
+                return movSnapshot[nNext++];
+            }
+        };
+    }
+
+    /**
+     * Applies every queued command in order and publishes the new contents.
+     * Normally called by the simulation thread at the end of a step; a flush from another thread,
+     * e.g. when a new game is started, waits for the running one to finish.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            applyPending();
+        }
+    }
+
+    private void applyPending() {
+        int nCommands;
+        synchronized (this) {
+            if (nPending == 0) {
+                return;
+            }
+            // swap the command buffer with the spare one so producers are not blocked while we apply
+            Movable[] movCommands = movPending;
+            byte[] nOps = nPendingOps;
+            nCommands = nPending;
+            movPending = movDrain;
+            nPendingOps = nDrainOps;
+            movDrain = movCommands;
+            nDrainOps = nOps;
+            nPending = 0;
+        }
+
+        // the final state of every movable named by a command; ordering only matters per movable
+        boolean bCleared = false;
+        for (int nC = 0; nC < nCommands; nC++) {
+            if (nDrainOps[nC] == CLEAR) {
+                bCleared = true;
+                mapTouched.clear();
+            } else {
+                mapTouched.put(movDrain[nC], nDrainOps[nC] == ADD ? PRESENT : ABSENT);
+            }
+        }
+
+        Movable[] movOld = movLive;
+        ensureWork(movOld.length + nCommands);
+        int nCount = 0;
+        for (Movable mov : movOld) {
+            Integer nState = bCleared ? mapTouched.getOrDefault(mov, ABSENT) : mapTouched.get(mov);
+            if (nState == null || nState == PRESENT) {
+                movWork[nCount++] = mov;
+                if (nState != null) {
+                    mapTouched.put(mov, PLACED);
+                }
+            } else {
+                for (Listener listener : listeners) {
+                    listener.despawned(mov);
+                }
+            }
+        }
+        int nKept = nCount;
+        for (int nC = 0; nC < nCommands; nC++) {
+            Movable mov = movDrain[nC];
+            if (nDrainOps[nC] == ADD && mapTouched.get(mov) == PRESENT) {
+                movWork[nCount++] = mov;
+                mapTouched.put(mov, PLACED);
+            }
+            movDrain[nC] = null;
+        }
+
+        movLive = nCount == 0 ? EMPTY : Arrays.copyOf(movWork, nCount);
+        lVersion++;
+        for (int nC = nKept; nC < nCount; nC++) {
+            for (Listener listener : listeners) {
+                listener.spawned(movWork[nC]);
+            }
+        }
+        Arrays.fill(movWork, 0, nCount, null);
+        mapTouched.clear();
+    }
+
+    private void ensureWork(int nCapacity) {
+        if (movWork.length < nCapacity) {
+            movWork = new Movable[Math.max(nCapacity, movWork.length * 2)];
+        }
+    }
+}
@@ -1,15 +1,15 @@
 package model;
 
 import java.awt.*;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.Random;
 
 
 /**
  * The ExplodingHead class represents the animated explosion effect of a zombie's head.
  * It moves, rotates, and eventually expires, adding a dynamic visual element to the game.
  */
-public class ExplodingHead extends Sprite  {
+public class ExplodingHead extends Sprite implements SpriteAtlas.Cached {
 
     // =============================2=================================
     // FIELDS
@@ -17,9 +17,10 @@ public class ExplodingHead extends Sprite  {
 
     private final int MAX_EXPIRE = 100;					// how long the explosion lasts
     private final static int SCALER = 3;
+    private final static int ATLAS_EXTENT = 56; // reach of the drawing from the center
     private final static int ZOMBIE_RADIUS = 50;
 
-    private final int originalY;
+    private int originalY; // not final so a save state can restore it
     private int headRotation=1;
 
     public Color mainColor;
@@ -84,19 +85,18 @@ public class ExplodingHead extends Sprite  {
      * Plays a random explosion sound effect from a set of predefined sounds.
      */
     public void playExplosionSounds(){
-        Random R = new Random();
-        int nSound = R.nextInt(4);
+        int nSound = CommandCenter.getRandom().stream(GameRandom.SOUND).nextInt(4);
         if(nSound == 0){
-            Sound.playSound("LA_Sword_Slash1.wav");
+            Sound.requestSound("LA_Sword_Slash1.wav", Sound.PRIORITY_NORMAL);
         }
         else if(nSound == 1){
-            Sound.playSound("LA_Sword_Slash2.wav");
+            Sound.requestSound("LA_Sword_Slash2.wav", Sound.PRIORITY_NORMAL);
         }
         else if(nSound == 2){
-            Sound.playSound("LA_Sword_Slash3.wav");
+            Sound.requestSound("LA_Sword_Slash3.wav", Sound.PRIORITY_NORMAL);
         }
         else if(nSound == 3){
-            Sound.playSound("LA_Sword_Slash4.wav");
+            Sound.requestSound("LA_Sword_Slash4.wav", Sound.PRIORITY_NORMAL);
         }
     }
 
@@ -124,21 +124,64 @@ public class ExplodingHead extends Sprite  {
         setPointCenter(new Point(xUpdate, yUpdate));
     }
 
+    /**
+     * Draws the explosion from the sprite atlas, rasterizing it the first time this variant is seen.
+     *
+     * @param g The Graphics object used for drawing.
+     */
+    @Override
+    public void draw(Graphics g) {
+        SpriteAtlas.draw(this, g);
+    }
+
+    /**
+     * Returns a key identifying how the explosion currently looks.
+     *
+     * @return The atlas variant key.
+     */
+    @Override
+    public long getAtlasKey() {
+        return SpriteAtlas.typeBits(SpriteAtlas.TYPE_EXPLODING_HEAD)
+                | (long) (mainColor.getRGB() & 0xFFFFFF) << 24
+                | Math.floorMod(getOrientation(), ShapeTable.ORIENTATIONS);
+    }
+
+    /**
+     * Returns how far the explosion's primitives reach from its center.
+     *
+     * @return The atlas image half-size.
+     */
+    @Override
+    public int getAtlasExtent() {
+        return ATLAS_EXTENT;
+    }
+
+    /**
+     * Returns how far the explosion's drawing reaches from its center, the same as its atlas image.
+     *
+     * @return The draw extent.
+     */
+    @Override
+    public int getDrawExtent() {
+        return ATLAS_EXTENT;
+    }
+
     /**
      * Draws the explosion on the game screen.
      * Includes visual effects like color, shape, and rotation.
+     * The sprite atlas calls this once per variant; draw() normally blits the cached image.
      *
      * @param g The Graphics object used to draw the explosion.
      */
     @Override
-    public void draw(Graphics g) {
+    public void drawPrimitives(Graphics g) {
         super.draw(g);
         // 1
         g.setColor(mainColor);
-        g.fillPolygon(toArrayIntCoords(getnXCoords()), toArrayIntCoords(getnYCoords()), getnXCoords().size());
+        g.fillPolygon(getPolygonXs(), getPolygonYs(), getPolygonSize());
         // 2
         g.setColor(Color.lightGray);
-        g.drawPolygon(toArrayIntCoords(getnXCoords()), toArrayIntCoords(getnYCoords()), getnXCoords().size());
+        g.drawPolygon(getPolygonXs(), getPolygonYs(), getPolygonSize());
         // 3
         g.setColor(Color.black);
         g.fillArc(getPointCenter().x-45,getPointCenter().y-10, 35, 10,85,-175);
@@ -154,7 +197,7 @@ public class ExplodingHead extends Sprite  {
     @Override
     public void expire() {
         if (getnExpiry() == 0){
-            CommandCenter.movDebris.remove(this);
+            CommandCenter.getMovDebris().remove(this);
         }
         else{
             setnExpiry(getnExpiry() - 1);
@@ -183,4 +226,29 @@ public class ExplodingHead extends Sprite  {
         }
     }
 
+    /**
+     * Writes the explosion's state for a SaveState, followed by where it started, its rotation and color.
+     *
+     * @param buf The buffer to write to.
+     */
+    @Override
+    void saveState(ByteBuffer buf) {
+        super.saveState(buf);
+        buf.putInt(originalY);
+        buf.putInt(headRotation);
+        buf.putInt(mainColor.getRGB());
+    }
+
+    /**
+     * Reads back the state written by saveState.
+     *
+     * @param buf The buffer to read from.
+     */
+    @Override
+    void restoreState(ByteBuffer buf) {
+        super.restoreState(buf);
+        originalY = buf.getInt();
+        headRotation = buf.getInt();
+        mainColor = new Color(buf.getInt(), true);
+    }
 }
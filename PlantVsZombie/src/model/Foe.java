@@ -0,0 +1,327 @@
+package model;
+
+import java.awt.*;
+import java.nio.ByteBuffer;
+
+/**
+ * The Foe class is the common base of Zombie and CrazyZombie. A foe's moving state lives in a
+ * slot of a FoeStore; this object is a thin view onto that slot, used for drawing, collision
+ * lookups and the per-foe methods. While the foe is in movFoes its state is in a slot of the
+ * world's store, allocated when it enters play and released when it leaves; before and after,
+ * e.g. in tests or while a save state is read back, it is kept in a one-slot store of the foe's own.
+ * <p>
+ * The center handed out by getPointCenter is only replaced by the simulation thread, after the
+ * foe moved, so the render thread never writes it. Code that only needs the coordinates, such
+ * as the collision checks, reads them from the store with getCenterX and getCenterY instead.
+ */
+public abstract class Foe extends Sprite {
+
+    private final FoeStore store; // the world's store; null while Sprite's constructor runs
+    private final FoeStore home;  // holds the state in slot 0 while the foe is out of play
+    private volatile int nSlot = -1; // the slot in store while in play, -1 otherwise
+    private final byte nType;
+
+    /**
+     * Constructs a foe at the right edge of the lawn.
+     *
+     * @param nType FoeStore.TYPE_ZOMBIE or FoeStore.TYPE_CRAZY_ZOMBIE.
+     * @param y     The y-coordinate; values above the lawn are moved to y = 300.
+     */
+    protected Foe(byte nType, int y) {
+        super();
+        if (y < 100) {
+            y = 300;
+        }
+        this.nType = nType;
+        store = CommandCenter.getFoeStore();
+        home = new FoeStore(1);
+        home.allocate(this, nType, 1190, y);
+        super.setPointCenter(new Point(1190, y));
+    }
+
+    /**
+     * Moves the foe's state into a slot of the world's store once it has been added to movFoes,
+     * so the sweeps move it.
+     */
+    void enterPlay() {
+        if (nSlot >= 0) {
+            return;
+        }
+        int nNew = store.allocate(this, nType, 0, 0);
+        store.copySlot(nNew, home, 0);
+        store.enterPlay(nNew);
+        nSlot = nNew;
+    }
+
+    /**
+     * Moves the foe's state back into its own store once it has been removed from movFoes, and
+     * returns the slot to the world's store.
+     */
+    void leavePlay() {
+        int nOld = nSlot;
+        if (nOld < 0) {
+            return;
+        }
+        home.copySlot(0, store, nOld);
+        nSlot = -1;
+        store.release(nOld);
+    }
+
+    /**
+     * Returns the x-coordinate of the foe's center, read from its slot without making a Point.
+     *
+     * @return The x-coordinate.
+     */
+    public int getCenterX() {
+        int nIn = nSlot;
+        return storeFor(nIn).getX(indexFor(nIn));
+    }
+
+    /**
+     * Returns the y-coordinate of the foe's center, read from its slot without making a Point.
+     *
+     * @return The y-coordinate.
+     */
+    public int getCenterY() {
+        int nIn = nSlot;
+        return storeFor(nIn).getY(indexFor(nIn));
+    }
+
+    /**
+     * Returns the x-coordinate of a movable's center; a foe's is read from its slot.
+     *
+     * @param mov The movable.
+     * @return The x-coordinate.
+     */
+    public static int centerXOf(Movable mov) {
+        return mov instanceof Foe ? ((Foe) mov).getCenterX() : mov.getPointCenter().x;
+    }
+
+    /**
+     * Returns the y-coordinate of a movable's center; a foe's is read from its slot.
+     *
+     * @param mov The movable.
+     * @return The y-coordinate.
+     */
+    public static int centerYOf(Movable mov) {
+        return mov instanceof Foe ? ((Foe) mov).getCenterY() : mov.getPointCenter().y;
+    }
+
+    /**
+     * Moves the foe to the given center.
+     *
+     * @param pointCenter The new center point.
+     */
+    @Override
+    public void setPointCenter(Point pointCenter) {
+        super.setPointCenter(pointCenter);
+        if (home == null) {
+            return;
+        }
+        int nIn = nSlot;
+        storeFor(nIn).setPosition(indexFor(nIn), pointCenter.x, pointCenter.y);
+    }
+
+    /**
+     * Replaces the center handed out by getPointCenter once the slot moved. Only called by the
+     * thread stepping the world; a new Point is made only if the position changed.
+     */
+    void syncPointCenter() {
+        int x = getCenterX();
+        int y = getCenterY();
+        Point pnt = super.getPointCenter();
+        if (pnt == null || pnt.x != x || pnt.y != y) {
+            super.setPointCenter(new Point(x, y));
+        }
+    }
+
+    /**
+     * Returns the horizontal speed of the foe.
+     *
+     * @return The change in x per step.
+     */
+    @Override
+    public double getDeltaX() {
+        if (home == null) {
+            return super.getDeltaX();
+        }
+        int nIn = nSlot;
+        return storeFor(nIn).getDeltaX(indexFor(nIn));
+    }
+
+    /**
+     * Sets the horizontal speed of the foe.
+     *
+     * @param deltaX The change in x per step.
+     */
+    @Override
+    public void setDeltaX(double deltaX) {
+        if (home == null) {
+            super.setDeltaX(deltaX);
+            return;
+        }
+        int nIn = nSlot;
+        storeFor(nIn).setDeltaX(indexFor(nIn), (float) deltaX);
+    }
+
+    /**
+     * Moves the foe by one step. Foes in play are moved together by FoeStore.moveAll() instead.
+     */
+    @Override
+    public void move() {
+        int nIn = nSlot;
+        storeFor(nIn).move(indexFor(nIn));
+        syncPointCenter();
+    }
+
+    /**
+     * Returns the size of the foe, which is also its remaining health.
+     *
+     * @return The size of the foe.
+     */
+    public int getSize() {
+        int nIn = nSlot;
+        return storeFor(nIn).getSize(indexFor(nIn));
+    }
+
+    /**
+     * Handles the effect when the foe is hit by a bullet.
+     *
+     * @param bulletType The type of bullet that hit the foe.
+     */
+    public void isHit(int bulletType) {
+        int nIn = nSlot;
+        storeFor(nIn).hit(indexFor(nIn), bulletType);
+    }
+
+    /**
+     * Freezes the foe, stopping its movement.
+     */
+    public void frozen() {
+        int nIn = nSlot;
+        storeFor(nIn).freeze(indexFor(nIn));
+    }
+
+    /**
+     * Resets the time spent frozen and restores the speed for the current level.
+     */
+    public void recover() {
+        int nIn = nSlot;
+        storeFor(nIn).recover(indexFor(nIn));
+    }
+
+    /**
+     * Checks and returns the base speed of the foe based on its state and level.
+     *
+     * @return The base speed of the foe.
+     */
+    public int checkSpeed() {
+        int nIn = nSlot;
+        return storeFor(nIn).checkSpeed(indexFor(nIn), CommandCenter.getLevel() > 2);
+    }
+
+    /**
+     * Updates the foe's speed based on its state, level and speed ratio.
+     */
+    public void updateSpeed() {
+        int nIn = nSlot;
+        storeFor(nIn).updateSpeed(indexFor(nIn), CommandCenter.getLevel() > 2);
+    }
+
+    /**
+     * Returns the current speed of the foe.
+     *
+     * @return The speed; zero while frozen.
+     */
+    public int getSpeed() {
+        int nIn = nSlot;
+        return storeFor(nIn).getSpeed(indexFor(nIn));
+    }
+
+    /**
+     * Returns the factor applied to the base speed.
+     *
+     * @return The speed ratio.
+     */
+    public int getSpeedRatio() {
+        int nIn = nSlot;
+        return storeFor(nIn).getSpeedRatio(indexFor(nIn));
+    }
+
+    /**
+     * Sets the factor applied to the base speed.
+     *
+     * @param nRatio The speed ratio.
+     */
+    public void setSpeedRatio(int nRatio) {
+        int nIn = nSlot;
+        storeFor(nIn).setSpeedRatio(indexFor(nIn), nRatio);
+    }
+
+    /**
+     * Returns whether the foe has been hit by an ice bullet.
+     *
+     * @return True if the foe is frozen.
+     */
+    public boolean isFrozen() {
+        int nIn = nSlot;
+        return storeFor(nIn).isFrozen(indexFor(nIn));
+    }
+
+    /**
+     * Returns how far the feet swing either way.
+     *
+     * @return The step length.
+     */
+    public int getStepLength() {
+        int nIn = nSlot;
+        return storeFor(nIn).getStepLength(indexFor(nIn));
+    }
+
+    /**
+     * Returns the x-offset of the left foot; the right foot mirrors it.
+     *
+     * @return The left foot offset.
+     */
+    protected int getLeftFootX() {
+        int nIn = nSlot;
+        return storeFor(nIn).getFootX(indexFor(nIn));
+    }
+
+    /**
+     * Writes the foe's state for a SaveState, including its FoeStore slot.
+     *
+     * @param buf The buffer to write to.
+     */
+    @Override
+    void saveState(ByteBuffer buf) {
+        super.saveState(buf);
+        int nIn = nSlot;
+        storeFor(nIn).saveSlot(indexFor(nIn), buf);
+    }
+
+    /**
+     * Reads back the state written by saveState into the foe's slot.
+     *
+     * @param buf The buffer to read from.
+     */
+    @Override
+    void restoreState(ByteBuffer buf) {
+        super.restoreState(buf);
+        int nIn = nSlot;
+        storeFor(nIn).restoreSlot(indexFor(nIn), buf);
+        syncPointCenter();
+        savePrevPointCenter();
+    }
+
+    // the store holding the state for a value of nSlot; callers read nSlot once, so a foe
+    // entering or leaving play on another thread is seen as a whole
+    private FoeStore storeFor(int nIn) {
+        return nIn < 0 ? home : store;
+    }
+
+    // the index of the state in storeFor(nIn)
+    private static int indexFor(int nIn) {
+        return nIn < 0 ? 0 : nIn;
+    }
+}
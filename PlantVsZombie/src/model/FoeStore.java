@@ -0,0 +1,414 @@
+package model;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The FoeStore class holds the per-step state of every zombie in parallel primitive arrays
+ * (struct of arrays), one slot per foe. Movement, freeze recovery and the foot swing run as
+ * sweeps over these arrays, while Zombie and CrazyZombie are thin views onto a slot that are
+ * used for drawing and collision lookups.
+ */
+public class FoeStore {
+
+    public final static byte TYPE_NONE = 0;
+    public final static byte TYPE_ZOMBIE = 1;
+    public final static byte TYPE_CRAZY_ZOMBIE = 2;
+
+    // bits in flags[]
+    public final static int SLOT_BYTES = 21; // size of a slot in a save state
+
+    private final static byte IN_PLAY = 1;
+    private final static byte FROZEN = 2;
+    private final static byte SWING_LEFT = 4;
+
+    private final static int RECOVER_TICKS = 200; // ticks spent frozen before recover() runs
+    private final static int CROSS_YARD_X = 50; // a foe left of this has reached the house
+    private final static int START_FOOT_X = -10;
+    private final static GameLog.Site LOG = GameLog.site("FoeStore.crossYard", 1);
+
+    // per-type tables, indexed by type[]
+    private final static byte[] START_HP = {0, 3, 2};
+    private final static byte[] SPEED_RATIO = {0, 1, 5};
+    private final static byte[] STEP_LENGTH = {0, 10, 6};
+    private final static byte[] FAST_SPEED = {0, 4, 2}; // base speed from level 3 on
+    private final static byte[] FAST_STEP_LENGTH = {0, 14, 8};
+
+    private float[] x;
+    private float[] dx;
+    private int[] y;
+    private byte[] hp;
+    private short[] freezeTicks;
+    private byte[] type;
+    private byte[] flags;
+    private byte[] speed;
+    private byte[] speedRatio;
+    private byte[] stepLength;
+    private short[] footX;
+    private Foe[] views;
+
+    private int nCount; // slots in use or on the free list
+    private int[] nFreeSlots = new int[16];
+    private int nFree;
+    private int nInPlay;
+
+    /**
+     * Constructs an empty store, the size of a world's.
+     */
+    public FoeStore() {
+        this(16);
+    }
+
+    /**
+     * Constructs an empty store with room for the given number of slots; it grows as needed.
+     *
+     * @param nCapacity The initial number of slots, e.g. 1 for a foe out of play.
+     */
+    FoeStore(int nCapacity) {
+        x = new float[nCapacity];
+        dx = new float[nCapacity];
+        y = new int[nCapacity];
+        hp = new byte[nCapacity];
+        freezeTicks = new short[nCapacity];
+        type = new byte[nCapacity];
+        flags = new byte[nCapacity];
+        speed = new byte[nCapacity];
+        speedRatio = new byte[nCapacity];
+        stepLength = new byte[nCapacity];
+        footX = new short[nCapacity];
+        views = new Foe[nCapacity];
+    }
+
+    /**
+     * Gives a new foe a slot initialised with the defaults for its type.
+     *
+     * @param view  The Zombie or CrazyZombie viewing the slot.
+     * @param nType TYPE_ZOMBIE or TYPE_CRAZY_ZOMBIE.
+     * @param nX    The initial x-coordinate.
+     * @param nY    The initial y-coordinate.
+     * @return The slot.
+     */
+    synchronized int allocate(Foe view, byte nType, int nX, int nY) {
+        int nSlot;
+        if (nFree > 0) {
+            nSlot = nFreeSlots[--nFree];
+        } else {
+            ensureCapacity(nCount + 1);
+            nSlot = nCount++;
+        }
+        views[nSlot] = view;
+        type[nSlot] = nType;
+        flags[nSlot] = SWING_LEFT;
+        x[nSlot] = nX;
+        y[nSlot] = nY;
+        hp[nSlot] = START_HP[nType];
+        freezeTicks[nSlot] = 0;
+        speed[nSlot] = 1;
+        dx[nSlot] = -0.5f;
+        speedRatio[nSlot] = SPEED_RATIO[nType];
+        stepLength[nSlot] = STEP_LENGTH[nType];
+        footX[nSlot] = START_FOOT_X;
+        return nSlot;
+    }
+
+    /**
+     * Marks a slot as in play, so the sweeps move it.
+     *
+     * @param nSlot The slot.
+     */
+    synchronized void enterPlay(int nSlot) {
+        if ((flags[nSlot] & IN_PLAY) == 0) {
+            flags[nSlot] |= IN_PLAY;
+            nInPlay++;
+        }
+    }
+
+    /**
+     * Takes a slot out of play and returns it for reuse. The view is forgotten, so a foe that
+     * left the game is not kept reachable by the store.
+     *
+     * @param nSlot The slot.
+     */
+    synchronized void release(int nSlot) {
+        if ((flags[nSlot] & IN_PLAY) != 0) {
+            flags[nSlot] &= ~IN_PLAY;
+            nInPlay--;
+        }
+        views[nSlot] = null;
+        if (nFree == nFreeSlots.length) {
+            nFreeSlots = Arrays.copyOf(nFreeSlots, nFree * 2);
+        }
+        nFreeSlots[nFree++] = nSlot;
+    }
+
+    /**
+     * Copies a slot's state from another store, e.g. from a foe's own store as it enters play.
+     * Whether the slot is in play is left as it is.
+     *
+     * @param nSlot The slot to copy into.
+     * @param from  The store to copy from.
+     * @param nFrom The slot to copy from.
+     */
+    synchronized void copySlot(int nSlot, FoeStore from, int nFrom) {
+        x[nSlot] = from.x[nFrom];
+        dx[nSlot] = from.dx[nFrom];
+        y[nSlot] = from.y[nFrom];
+        hp[nSlot] = from.hp[nFrom];
+        freezeTicks[nSlot] = from.freezeTicks[nFrom];
+        type[nSlot] = from.type[nFrom];
+        flags[nSlot] = (byte) ((flags[nSlot] & IN_PLAY) | (from.flags[nFrom] & ~IN_PLAY));
+        speed[nSlot] = from.speed[nFrom];
+        speedRatio[nSlot] = from.speedRatio[nFrom];
+        stepLength[nSlot] = from.stepLength[nFrom];
+        footX[nSlot] = from.footX[nFrom];
+    }
+
+    /**
+     * Keeps the center of every foe in play as its previous one, for render interpolation.
+     */
+    public void savePositions() {
+        int nEnd = nCount;
+        for (int nC = 0; nC < nEnd; nC++) {
+            if ((flags[nC] & IN_PLAY) != 0) {
+                views[nC].savePrevPointCenter();
+            }
+        }
+    }
+
+    /**
+     * Moves every foe in play by one step, checks whether any reached the house,
+     * then advances speed, freeze recovery and the foot swing.
+     */
+    public void moveAll() {
+        int nEnd = nCount;
+        boolean bCrossed = false;
+        for (int nC = 0; nC < nEnd; nC++) {
+            if ((flags[nC] & IN_PLAY) != 0) {
+                bCrossed |= advance(nC);
+                views[nC].syncPointCenter();
+            }
+        }
+        if (bCrossed) {
+            for (int nC = 0; nC < nEnd; nC++) {
+                if ((flags[nC] & IN_PLAY) != 0 && x[nC] < CROSS_YARD_X) {
+                    crossYard();
+                }
+            }
+        }
+        boolean bFast = CommandCenter.getLevel() > 2;
+        for (int nC = 0; nC < nEnd; nC++) {
+            if ((flags[nC] & IN_PLAY) != 0) {
+                animate(nC, bFast);
+            }
+        }
+    }
+
+    /**
+     * Moves a single foe by one step, whether or not it is in play.
+     *
+     * @param nSlot The slot.
+     */
+    void move(int nSlot) {
+        if (advance(nSlot)) {
+            crossYard();
+        }
+        animate(nSlot, CommandCenter.getLevel() > 2);
+    }
+
+    // the movement of Sprite.move() followed by the zombie's own step; returns true if the foe reached the house
+    private boolean advance(int nSlot) {
+        int nX = (int) x[nSlot];
+        int nY = y[nSlot];
+        if (nX > CommandCenter.WORLD_WIDTH) {
+            nX = 1;
+        } else if (nX < 0) {
+            nX = CommandCenter.WORLD_WIDTH - 1;
+        } else if (nY > CommandCenter.WORLD_HEIGHT) {
+            y[nSlot] = 1;
+        } else if (nY < 0) {
+            y[nSlot] = CommandCenter.WORLD_HEIGHT - 1;
+        } else {
+            nX = (int) (nX + dx[nSlot]);
+        }
+        nX += (int) dx[nSlot];
+        x[nSlot] = nX;
+        return nX < CROSS_YARD_X;
+    }
+
+    private static void crossYard() {
+        LOG.info("Game Over....................");
+        CommandCenter.zombieCrossYard();
+    }
+
+    private void animate(int nSlot, boolean bFast) {
+        updateSpeed(nSlot, bFast);
+        if (speed[nSlot] == 0) {
+            freezeTicks[nSlot]++;
+        }
+
+        if (freezeTicks[nSlot] == RECOVER_TICKS) {
+            recover(nSlot);
+        }
+
+        int nStep = speed[nSlot];
+        if (footX[nSlot] < -stepLength[nSlot]) {
+            flags[nSlot] &= ~SWING_LEFT;
+        } else if (footX[nSlot] > stepLength[nSlot]) {
+            flags[nSlot] |= SWING_LEFT;
+        }
+        footX[nSlot] = (short) (footX[nSlot] + ((flags[nSlot] & SWING_LEFT) != 0 ? -nStep : nStep));
+    }
+
+    /**
+     * Applies a bullet hit: one point of health is lost and ice bullets freeze the foe.
+     *
+     * @param nSlot      The slot.
+     * @param bulletType The type of bullet (0 for regular, 1 for ice).
+     */
+    void hit(int nSlot, int bulletType) {
+        hp[nSlot]--;
+        if (bulletType == 1) {
+            freeze(nSlot);
+        }
+    }
+
+    /**
+     * Freezes a foe. A frozen foe stays at speed zero.
+     *
+     * @param nSlot The slot.
+     */
+    void freeze(int nSlot) {
+        speed[nSlot] = 0;
+        freezeTicks[nSlot] = 0;
+        dx[nSlot] = 0;
+        flags[nSlot] |= FROZEN;
+    }
+
+    /**
+     * Resets the freeze timer and restores the speed for the current level.
+     *
+     * @param nSlot The slot.
+     */
+    void recover(int nSlot) {
+        speed[nSlot] = (byte) checkSpeed(nSlot, CommandCenter.getLevel() > 2);
+        freezeTicks[nSlot] = 0;
+        dx[nSlot] = -speed[nSlot] * 0.5f;
+    }
+
+    /**
+     * Returns the base speed of a foe for its state and level; from level 3 on foes also take longer steps.
+     *
+     * @param nSlot The slot.
+     * @param bFast True from level 3 on.
+     * @return The base speed.
+     */
+    int checkSpeed(int nSlot, boolean bFast) {
+        if ((flags[nSlot] & FROZEN) != 0) {
+            return 0;
+        }
+        if (bFast) {
+            stepLength[nSlot] = FAST_STEP_LENGTH[type[nSlot]];
+            return FAST_SPEED[type[nSlot]];
+        }
+        return 1;
+    }
+
+    /**
+     * Sets the speed from the base speed and the foe's speed ratio.
+     *
+     * @param nSlot The slot.
+     * @param bFast True from level 3 on.
+     */
+    void updateSpeed(int nSlot, boolean bFast) {
+        speed[nSlot] = (byte) (checkSpeed(nSlot, bFast) * speedRatio[nSlot]);
+        dx[nSlot] = -speed[nSlot] * 0.5f;
+    }
+
+    /**
+     * Returns the number of foes in play.
+     *
+     * @return The foe count.
+     */
+    public int size() {
+        return nInPlay;
+    }
+
+    /**
+     * Returns the number of slots handed out so far, in play or free for reuse.
+     *
+     * @return The slot count.
+     */
+    public int getSlots() {
+        return nCount;
+    }
+
+    /**
+     * Writes a slot's moving state for a SaveState, SLOT_BYTES in all.
+     *
+     * @param nSlot The slot.
+     * @param buf   The buffer to write to.
+     */
+    synchronized void saveSlot(int nSlot, ByteBuffer buf) {
+        buf.putFloat(x[nSlot]);
+        buf.putFloat(dx[nSlot]);
+        buf.putInt(y[nSlot]);
+        buf.put(hp[nSlot]);
+        buf.putShort(freezeTicks[nSlot]);
+        buf.put((byte) (flags[nSlot] & ~IN_PLAY));
+        buf.put(speed[nSlot]);
+        buf.put(speedRatio[nSlot]);
+        buf.put(stepLength[nSlot]);
+        buf.putShort(footX[nSlot]);
+    }
+
+    /**
+     * Reads back the state written by saveSlot. Whether the slot is in play is left as it is.
+     *
+     * @param nSlot The slot.
+     * @param buf   The buffer to read from.
+     */
+    synchronized void restoreSlot(int nSlot, ByteBuffer buf) {
+        x[nSlot] = buf.getFloat();
+        dx[nSlot] = buf.getFloat();
+        y[nSlot] = buf.getInt();
+        hp[nSlot] = buf.get();
+        freezeTicks[nSlot] = buf.getShort();
+        flags[nSlot] = (byte) ((flags[nSlot] & IN_PLAY) | (buf.get() & ~IN_PLAY));
+        speed[nSlot] = buf.get();
+        speedRatio[nSlot] = buf.get();
+        stepLength[nSlot] = buf.get();
+        footX[nSlot] = buf.getShort();
+    }
+
+    int getX(int nSlot) {return (int) x[nSlot];}
+    int getY(int nSlot) {return y[nSlot];}
+    void setPosition(int nSlot, int nX, int nY) {x[nSlot] = nX; y[nSlot] = nY;}
+    float getDeltaX(int nSlot) {return dx[nSlot];}
+    void setDeltaX(int nSlot, float fDeltaX) {dx[nSlot] = fDeltaX;}
+    int getSize(int nSlot) {return hp[nSlot];}
+    int getSpeed(int nSlot) {return speed[nSlot];}
+    int getSpeedRatio(int nSlot) {return speedRatio[nSlot];}
+    void setSpeedRatio(int nSlot, int nRatio) {speedRatio[nSlot] = (byte) nRatio;}
+    int getStepLength(int nSlot) {return stepLength[nSlot];}
+    int getFootX(int nSlot) {return footX[nSlot];}
+    boolean isFrozen(int nSlot) {return (flags[nSlot] & FROZEN) != 0;}
+
+    private void ensureCapacity(int nCapacity) {
+        if (nCapacity <= x.length) {
+            return;
+        }
+        int nNew = Math.max(nCapacity, x.length * 2);
+        x = Arrays.copyOf(x, nNew);
+        dx = Arrays.copyOf(dx, nNew);
+        y = Arrays.copyOf(y, nNew);
+        hp = Arrays.copyOf(hp, nNew);
+        freezeTicks = Arrays.copyOf(freezeTicks, nNew);
+        type = Arrays.copyOf(type, nNew);
+        flags = Arrays.copyOf(flags, nNew);
+        speed = Arrays.copyOf(speed, nNew);
+        speedRatio = Arrays.copyOf(speedRatio, nNew);
+        stepLength = Arrays.copyOf(stepLength, nNew);
+        footX = Arrays.copyOf(footX, nNew);
+        views = Arrays.copyOf(views, nNew);
+    }
+}
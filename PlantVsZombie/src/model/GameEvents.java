@@ -0,0 +1,260 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The GameEvents class carries what happens in a game, a bullet hitting a foe, a foe killed, a
+ * plant eaten and so on, from the code that detects it to the code that reacts to it. The
+ * simulation publishes an event and moves on; after the step, drain hands every event to the
+ * subscribers that asked for its type, which keep score, leave debris, play sounds and log. The
+ * collision loop is left doing only collisions, and a side effect can be batched, filtered or
+ * passed to another thread by its subscriber without touching the loop.
+ * <p>
+ * Events are kept in a ring of parallel arrays allocated up front, so publishing allocates
+ * nothing. There is one writer, the thread stepping the world, and it is also the one that
+ * drains, so the ring needs no locks. Should a step publish more than the ring holds, the ring
+ * doubles rather than lose an event.
+ */
+public class GameEvents {
+
+    // event types
+    public final static int HIT = 0;           // a bullet hit a foe; value: the foe's size after the hit
+    public final static int KILL = 1;          // a bullet killed a foe; value: the points it is worth
+    public final static int PLANT_EATEN = 2;   // a foe reached a plant
+    public final static int SUN_COLLECTED = 3; // the player picked up a sun; value: its credit
+    public final static int PLANT_PLACED = 4;  // the player planted; value: the plant type
+    public final static int LEVEL_UP = 5;      // the level changed; value: the new level
+    public final static int GAME_OVER = 6;     // a foe crossed the yard
+    public final static int TYPES = 7;
+    public final static String[] NAMES = {"hit", "kill", "plantEaten", "sunCollected", "plantPlaced", "levelUp", "gameOver"};
+    public final static int ALL = (1 << TYPES) - 1;
+
+    public final static int CAPACITY = 256; // initial size, must be a power of two
+
+    /**
+     * Reacts to events.
+     */
+    public interface Subscriber {
+        /**
+         * Called for each drained event of a type the subscriber asked for, in publishing order.
+         *
+         * @param event The event; only valid during the call, as the object is reused.
+         */
+        void onEvent(Event event);
+    }
+
+    /**
+     * A view of the event being delivered. One instance is reused for every event.
+     */
+    public static class Event {
+        private int nType;
+        private Movable mov;
+        private int nX;
+        private int nY;
+        private long lValue;
+
+        /**
+         * Returns the event type.
+         *
+         * @return One of the type constants, e.g. KILL.
+         */
+        public int getType() {
+            return nType;
+        }
+
+        /**
+         * Returns the entity the event is about.
+         *
+         * @return The foe, plant or sun, or null.
+         */
+        public Movable getMovable() {
+            return mov;
+        }
+
+        /**
+         * Returns the x-coordinate where the event happened.
+         *
+         * @return The x-coordinate.
+         */
+        public int getX() {
+            return nX;
+        }
+
+        /**
+         * Returns the y-coordinate where the event happened.
+         *
+         * @return The y-coordinate.
+         */
+        public int getY() {
+            return nY;
+        }
+
+        /**
+         * Returns the number the event carries; its meaning depends on the type.
+         *
+         * @return The value.
+         */
+        public long getValue() {
+            return lValue;
+        }
+
+        /**
+         * Returns the event as text, for logs.
+         *
+         * @return The type, place and value.
+         */
+        @Override
+        public String toString() {
+            return NAMES[nType] + "(" + nX + "," + nY + ")=" + lValue;
+        }
+    }
+
+    private byte[] nTypes = new byte[CAPACITY];
+    private Movable[] movs = new Movable[CAPACITY];
+    private int[] nXs = new int[CAPACITY];
+    private int[] nYs = new int[CAPACITY];
+    private long[] lValues = new long[CAPACITY];
+    private int nMask = CAPACITY - 1;
+    private long lWrite;
+    private long lRead;
+
+    private final List<Subscriber> subscribers = new ArrayList<>();
+    private int[] nSubscriberMasks = new int[0];
+    private final long[] lCounts = new long[TYPES];
+    private final Event event = new Event();
+
+    /**
+     * Returns the subscription mask for some event types.
+     *
+     * @param nTypes The types.
+     * @return A mask for subscribe.
+     */
+    public static int maskOf(int... nTypes) {
+        int nMask = 0;
+        for (int nType : nTypes) {
+            nMask |= 1 << nType;
+        }
+        return nMask;
+    }
+
+    /**
+     * Registers a subscriber. Subscribers are called in the order they subscribed.
+     *
+     * @param nTypeMask  The event types to deliver, from maskOf, or ALL.
+     * @param subscriber The subscriber.
+     */
+    public void subscribe(int nTypeMask, Subscriber subscriber) {
+        subscribers.add(subscriber);
+        nSubscriberMasks = Arrays.copyOf(nSubscriberMasks, subscribers.size());
+        nSubscriberMasks[subscribers.size() - 1] = nTypeMask;
+    }
+
+    /**
+     * Publishes an event, to be delivered at the next drain.
+     *
+     * @param nType  The event type, e.g. HIT.
+     * @param mov    The entity the event is about, or null.
+     * @param nX     The x-coordinate where it happened.
+     * @param nY     The y-coordinate where it happened.
+     * @param lValue The number it carries.
+     */
+    public void publish(int nType, Movable mov, int nX, int nY, long lValue) {
+        if (lWrite - lRead == nTypes.length) {
+            grow();
+        }
+        int nSlot = (int) lWrite & nMask;
+        nTypes[nSlot] = (byte) nType;
+        movs[nSlot] = mov;
+        nXs[nSlot] = nX;
+        nYs[nSlot] = nY;
+        lValues[nSlot] = lValue;
+        lWrite++;
+        lCounts[nType]++;
+    }
+
+    /**
+     * Delivers every pending event to its subscribers, including events they publish while it runs.
+     *
+     * @return The number of events delivered.
+     */
+    public int drain() {
+        int nDrained = 0;
+        while (lRead < lWrite) {
+            int nSlot = (int) lRead & nMask;
+            event.nType = nTypes[nSlot];
+            event.mov = movs[nSlot];
+            event.nX = nXs[nSlot];
+            event.nY = nYs[nSlot];
+            event.lValue = lValues[nSlot];
+            movs[nSlot] = null; // do not keep dead entities reachable
+            lRead++;
+            int nBit = 1 << event.nType;
+            for (int nC = 0; nC < nSubscriberMasks.length; nC++) {
+                if ((nSubscriberMasks[nC] & nBit) != 0) {
+                    subscribers.get(nC).onEvent(event);
+                }
+            }
+            nDrained++;
+        }
+        event.mov = null;
+        return nDrained;
+    }
+
+    /**
+     * Drops every pending event without delivering it. Called when a game starts.
+     */
+    public void clear() {
+        while (lRead < lWrite) {
+            movs[(int) lRead & nMask] = null;
+            lRead++;
+        }
+    }
+
+    /**
+     * Returns the number of events waiting for the next drain.
+     *
+     * @return The pending count.
+     */
+    public int getPending() {
+        return (int) (lWrite - lRead);
+    }
+
+    /**
+     * Returns how many events of a type were published since the world was made.
+     *
+     * @param nType The event type.
+     * @return The count.
+     */
+    public long getCount(int nType) {
+        return lCounts[nType];
+    }
+
+    // doubles the ring, keeping the pending events in order
+    private void grow() {
+        int nPending = (int) (lWrite - lRead);
+        int nCapacity = nTypes.length * 2;
+        byte[] nNewTypes = new byte[nCapacity];
+        Movable[] movNew = new Movable[nCapacity];
+        int[] nNewXs = new int[nCapacity];
+        int[] nNewYs = new int[nCapacity];
+        long[] lNewValues = new long[nCapacity];
+        for (int nC = 0; nC < nPending; nC++) {
+            int nSlot = (int) (lRead + nC) & nMask;
+            nNewTypes[nC] = nTypes[nSlot];
+            movNew[nC] = movs[nSlot];
+            nNewXs[nC] = nXs[nSlot];
+            nNewYs[nC] = nYs[nSlot];
+            lNewValues[nC] = lValues[nSlot];
+        }
+        nTypes = nNewTypes;
+        movs = movNew;
+        nXs = nNewXs;
+        nYs = nNewYs;
+        lValues = lNewValues;
+        nMask = nCapacity - 1;
+        lRead = 0;
+        lWrite = nPending;
+    }
+}
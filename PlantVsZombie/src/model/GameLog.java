@@ -0,0 +1,366 @@
+package model;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The GameLog class is a leveled logging facade for the game loop. Messages go into a fixed,
+ * lock-free ring buffer and are formatted and written by a background thread, so logging never
+ * blocks the caller on stdout. Every call site declares a Site with its own rate limit, and
+ * messages below the current level are rejected by a single field read before anything is
+ * formatted. When the ring is full or a site exceeds its rate, messages are dropped and counted.
+ * The level can be set at startup with -Dpvz.log.level=DEBUG (TRACE, DEBUG, INFO, WARN, ERROR, OFF).
+ */
+public class GameLog {
+
+    public final static int TRACE = 0;
+    public final static int DEBUG = 1;
+    public final static int INFO = 2;
+    public final static int WARN = 3;
+    public final static int ERROR = 4;
+    public final static int OFF = 5;
+    private final static String[] LEVEL_NAMES = {"TRACE", "DEBUG", "INFO", "WARN", "ERROR", "OFF"};
+
+    public final static int CAPACITY = 1024; // must be a power of two
+    private final static int MASK = CAPACITY - 1;
+
+    /**
+     * A place in the code that logs, with its own rate limit.
+     */
+    public static class Site {
+        private final String strName;
+        private final int nPerSecond;
+        private final AtomicLong lWindowStart = new AtomicLong(System.nanoTime());
+        private final AtomicInteger nInWindow = new AtomicInteger();
+        private final AtomicLong lSuppressed = new AtomicLong();
+
+        private Site(String strName, int nPerSecond) {
+            this.strName = strName;
+            this.nPerSecond = nPerSecond;
+        }
+
+        /**
+         * Returns whether a message at the given level would be accepted by the level filter.
+         * Use it to skip building arguments in hot paths.
+         *
+         * @param nLevel The message level.
+         * @return True if the level is enabled.
+         */
+        public boolean isEnabled(int nLevel) {
+            return nLevel >= nThreshold;
+        }
+
+        /**
+         * Logs a message at DEBUG level.
+         *
+         * @param strFormat The message; each {} is replaced by the next argument.
+         * @param arg1      The first argument.
+         * @param arg2      The second argument.
+         */
+        public void debug(String strFormat, Object arg1, Object arg2) {
+            log(DEBUG, strFormat, arg1, arg2);
+        }
+
+        /**
+         * Logs a message at DEBUG level.
+         *
+         * @param strFormat The message; {} is replaced by the argument.
+         * @param arg1      The argument.
+         */
+        public void debug(String strFormat, Object arg1) {
+            log(DEBUG, strFormat, arg1, null);
+        }
+
+        /**
+         * Logs a message at INFO level.
+         *
+         * @param strFormat The message; {} is replaced by the argument.
+         * @param arg1      The argument.
+         */
+        public void info(String strFormat, Object arg1) {
+            log(INFO, strFormat, arg1, null);
+        }
+
+        /**
+         * Logs a message at INFO level.
+         *
+         * @param strMessage The message.
+         */
+        public void info(String strMessage) {
+            log(INFO, strMessage, null, null);
+        }
+
+        /**
+         * Logs a message at WARN level.
+         *
+         * @param strMessage The message.
+         */
+        public void warn(String strMessage) {
+            log(WARN, strMessage, null, null);
+        }
+
+        /**
+         * Logs a message, subject to the level filter and the site's rate limit.
+         *
+         * @param nLevel    The message level.
+         * @param strFormat The message; each {} is replaced by the next argument.
+         * @param arg1      The first argument, or null.
+         * @param arg2      The second argument, or null.
+         */
+        public void log(int nLevel, String strFormat, Object arg1, Object arg2) {
+            if (nLevel < nThreshold) {
+                return;
+            }
+            if (!admit()) {
+                lSuppressed.incrementAndGet();
+                lRateLimited.incrementAndGet();
+                return;
+            }
+            enqueue(nLevel, this, strFormat, arg1, arg2);
+        }
+
+        private boolean admit() {
+            long lNow = System.nanoTime();
+            long lStart = lWindowStart.get();
+            if (lNow - lStart >= TimeUnit.SECONDS.toNanos(1) && lWindowStart.compareAndSet(lStart, lNow)) {
+                nInWindow.set(0);
+            }
+            return nInWindow.incrementAndGet() <= nPerSecond;
+        }
+
+        /**
+         * Returns the name of the site, printed with each message.
+         *
+         * @return The site name.
+         */
+        public String getName() {
+            return strName;
+        }
+
+        /**
+         * Returns how many messages from this site were dropped by its rate limit.
+         *
+         * @return The suppressed count.
+         */
+        public long getSuppressed() {
+            return lSuppressed.get();
+        }
+    }
+
+    private static volatile int nThreshold = parseLevel(System.getProperty("pvz.log.level"), INFO);
+    private static volatile PrintStream out = System.out;
+
+    // the ring: a slot is free for the producer claiming position p when its sequence is p,
+    // and holds a message for the writer at position p when its sequence is p + 1
+    private final static AtomicLongArray lSequences = new AtomicLongArray(CAPACITY);
+    private final static int[] nLevels = new int[CAPACITY];
+    private final static Site[] sites = new Site[CAPACITY];
+    private final static String[] strFormats = new String[CAPACITY];
+    private final static Object[] args1 = new Object[CAPACITY];
+    private final static Object[] args2 = new Object[CAPACITY];
+    private final static AtomicLong lTail = new AtomicLong();
+    private static volatile long lHead; // written by the writer thread only
+
+    private final static AtomicLong lDropped = new AtomicLong();
+    private final static AtomicLong lRateLimited = new AtomicLong();
+    private final static AtomicLong lWritten = new AtomicLong();
+    private static volatile Thread writerThread; // started by the first caller; only that start locks
+
+    static {
+        for (int nC = 0; nC < CAPACITY; nC++) {
+            lSequences.set(nC, nC);
+        }
+    }
+
+    /**
+     * Declares a logging call site.
+     *
+     * @param strName    The name printed with each message, e.g. "Sun.move".
+     * @param nPerSecond The most messages per second the site may write.
+     * @return The site.
+     */
+    public static Site site(String strName, int nPerSecond) {
+        return new Site(strName, nPerSecond);
+    }
+
+    private static void enqueue(int nLevel, Site site, String strFormat, Object arg1, Object arg2) {
+        long lPos = lTail.get();
+        while (true) {
+            int nSlot = (int) (lPos & MASK);
+            long lDiff = lSequences.get(nSlot) - lPos;
+            if (lDiff == 0) {
+                if (lTail.compareAndSet(lPos, lPos + 1)) {
+                    nLevels[nSlot] = nLevel;
+                    sites[nSlot] = site;
+                    strFormats[nSlot] = strFormat;
+                    args1[nSlot] = arg1;
+                    args2[nSlot] = arg2;
+                    lSequences.set(nSlot, lPos + 1); // publishes the slot to the writer
+                    break;
+                }
+                lPos = lTail.get();
+            } else if (lDiff < 0) {
+                lDropped.incrementAndGet(); // the writer is a whole ring behind
+                return;
+            } else {
+                lPos = lTail.get();
+            }
+        }
+        if (writerThread == null) {
+            startWriterThread();
+        }
+    }
+
+    private static synchronized void startWriterThread() {
+        if (writerThread == null) {
+            writerThread = new Thread(GameLog::runWriter, "log");
+            writerThread.setDaemon(true);
+            writerThread.start();
+        }
+    }
+
+    private static void runWriter() {
+        StringBuilder sb = new StringBuilder(128);
+        while (true) {
+            if (!drain(sb)) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+            }
+        }
+    }
+
+    // runs on the writer thread only; returns false if there was nothing to write
+    private static boolean drain(StringBuilder sb) {
+        PrintStream stream = out;
+        boolean bAny = false;
+        while (true) {
+            long lPos = lHead;
+            int nSlot = (int) (lPos & MASK);
+            if (lSequences.get(nSlot) != lPos + 1) {
+                break;
+            }
+            sb.setLength(0);
+            format(sb, nLevels[nSlot], sites[nSlot], strFormats[nSlot], args1[nSlot], args2[nSlot]);
+            sites[nSlot] = null;
+            strFormats[nSlot] = null;
+            args1[nSlot] = null;
+            args2[nSlot] = null;
+            lSequences.set(nSlot, lPos + CAPACITY); // hands the slot back to the producers
+            stream.println(sb);
+            lWritten.incrementAndGet();
+            lHead = lPos + 1; // only now, so flush() returns after the message is out
+            bAny = true;
+        }
+        if (bAny) {
+            stream.flush();
+        }
+        return bAny;
+    }
+
+    /**
+     * Formats a message as it is written: "[LEVEL] site: message", with each {} replaced by the next argument.
+     *
+     * @param sb        The builder to append to.
+     * @param nLevel    The message level.
+     * @param site      The call site.
+     * @param strFormat The message.
+     * @param arg1      The first argument.
+     * @param arg2      The second argument.
+     */
+    static void format(StringBuilder sb, int nLevel, Site site, String strFormat, Object arg1, Object arg2) {
+        sb.append('[').append(LEVEL_NAMES[nLevel]).append("] ").append(site.strName).append(": ");
+        int nArg = 0;
+        int nFrom = 0;
+        int nAt;
+        while ((nAt = strFormat.indexOf("{}", nFrom)) >= 0 && nArg < 2) {
+            sb.append(strFormat, nFrom, nAt).append(nArg == 0 ? arg1 : arg2);
+            nArg++;
+            nFrom = nAt + 2;
+        }
+        sb.append(strFormat, nFrom, strFormat.length());
+    }
+
+    /**
+     * Waits until every message queued so far has been written, e.g. before the game exits.
+     *
+     * @param lTimeoutMillis The longest time to wait.
+     * @return True if everything was written in time.
+     */
+    public static boolean flush(long lTimeoutMillis) {
+        long lTarget = lTail.get();
+        long lDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lTimeoutMillis);
+        while (lHead < lTarget) {
+            if (System.nanoTime() > lDeadline) {
+                return false;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        return true;
+    }
+
+    private static int parseLevel(String strLevel, int nDefault) {
+        for (int nC = 0; strLevel != null && nC < LEVEL_NAMES.length; nC++) {
+            if (LEVEL_NAMES[nC].equalsIgnoreCase(strLevel)) {
+                return nC;
+            }
+        }
+        return nDefault;
+    }
+
+    /**
+     * Sets the lowest level that is written; OFF disables logging.
+     *
+     * @param nLevel One of TRACE, DEBUG, INFO, WARN, ERROR or OFF.
+     */
+    public static void setLevel(int nLevel) {
+        nThreshold = nLevel;
+    }
+
+    /**
+     * Returns the lowest level that is written.
+     *
+     * @return The current level.
+     */
+    public static int getLevel() {
+        return nThreshold;
+    }
+
+    /**
+     * Sets where messages are written; stdout by default.
+     *
+     * @param stream The output stream.
+     */
+    public static void setOutput(PrintStream stream) {
+        out = stream;
+    }
+
+    /**
+     * Returns how many messages were dropped because the ring buffer was full.
+     *
+     * @return The dropped count.
+     */
+    public static long getDropped() {
+        return lDropped.get();
+    }
+
+    /**
+     * Returns how many messages were dropped by call-site rate limits.
+     *
+     * @return The rate-limited count.
+     */
+    public static long getRateLimited() {
+        return lRateLimited.get();
+    }
+
+    /**
+     * Returns how many messages have been written.
+     *
+     * @return The written count.
+     */
+    public static long getWritten() {
+        return lWritten.get();
+    }
+}
@@ -0,0 +1,157 @@
+package model;
+
+import java.util.SplittableRandom;
+
+/**
+ * The GameRandom class is the single source of randomness for the game. It is created from one
+ * seed and hands out a separate stream per subsystem (spawning, suns, sprites, plants, sounds),
+ * each derived from the seed and the stream number alone, so drawing more numbers in one
+ * subsystem never shifts the numbers another one sees, and a run can be reproduced exactly from
+ * its seed. Streams are not thread-safe and are meant to be used by the simulation that owns
+ * them; independent simulations running in parallel each take their own GameRandom from split()
+ * instead of contending on a shared generator.
+ * The seed can be fixed at startup with -Dpvz.seed=N.
+ */
+public class GameRandom {
+
+    public final static int SPAWN = 0;
+    public final static int SUN = 1;
+    public final static int SPRITE = 2;
+    public final static int PLANT = 3;
+    public final static int SOUND = 4;
+    public final static int STREAMS = 5;
+
+    private final static long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    /**
+     * One subsystem's sequence of random numbers.
+     */
+    public static class Stream {
+        private SplittableRandom random;
+
+        private Stream(long lSeed) {
+            random = new SplittableRandom(lSeed);
+        }
+
+        /**
+         * Returns the next random int over the whole int range.
+         *
+         * @return A random int.
+         */
+        public int nextInt() {
+            return random.nextInt();
+        }
+
+        /**
+         * Returns the next random int from 0 (inclusive) to the bound (exclusive).
+         *
+         * @param nBound The upper bound; must be positive.
+         * @return A random int below the bound.
+         */
+        public int nextInt(int nBound) {
+            return random.nextInt(nBound);
+        }
+
+        /**
+         * Returns the next random double from 0 (inclusive) to 1 (exclusive).
+         *
+         * @return A random double.
+         */
+        public double nextDouble() {
+            return random.nextDouble();
+        }
+
+        /**
+         * Returns the next random boolean.
+         *
+         * @return A random boolean.
+         */
+        public boolean nextBoolean() {
+            return random.nextBoolean();
+        }
+
+        /**
+         * Returns the next random long.
+         *
+         * @return A random long.
+         */
+        public long nextLong() {
+            return random.nextLong();
+        }
+    }
+
+    private final Stream[] streams = new Stream[STREAMS];
+    private SplittableRandom splitter; // seeds the GameRandoms handed out by split()
+    private long lSeed;
+
+    /**
+     * Constructs a GameRandom from a seed.
+     *
+     * @param lSeed The seed every stream is derived from.
+     */
+    public GameRandom(long lSeed) {
+        for (int nC = 0; nC < STREAMS; nC++) {
+            streams[nC] = new Stream(0);
+        }
+        reseed(lSeed);
+    }
+
+    /**
+     * Returns the seed to start with: -Dpvz.seed if set, otherwise one that differs from run to run.
+     *
+     * @return The default seed.
+     */
+    public static long defaultSeed() {
+        return Long.getLong("pvz.seed", mix(System.nanoTime() ^ System.currentTimeMillis()));
+    }
+
+    /**
+     * Restarts every stream from a new seed. Stream objects stay the same, so references held by
+     * subsystems remain valid.
+     *
+     * @param lSeed The new seed.
+     */
+    public void reseed(long lSeed) {
+        this.lSeed = lSeed;
+        for (int nC = 0; nC < STREAMS; nC++) {
+            streams[nC].random = new SplittableRandom(mix(lSeed + GOLDEN_GAMMA * (nC + 1)));
+        }
+        splitter = new SplittableRandom(mix(lSeed));
+    }
+
+    /**
+     * Returns the seed the streams were last started from.
+     *
+     * @return The seed.
+     */
+    public long getSeed() {
+        return lSeed;
+    }
+
+    /**
+     * Returns a subsystem's stream.
+     *
+     * @param nStream One of the stream constants, e.g. SPAWN.
+     * @return The stream.
+     */
+    public Stream stream(int nStream) {
+        return streams[nStream];
+    }
+
+    /**
+     * Returns a new, independent GameRandom for another simulation. The children of a GameRandom
+     * are themselves determined by its seed, so a batch of parallel runs is reproducible too.
+     *
+     * @return A GameRandom seeded from this one.
+     */
+    public synchronized GameRandom split() {
+        return new GameRandom(splitter.nextLong());
+    }
+
+    // the SplitMix64 finalizer, spreading nearby seeds far apart
+    private static long mix(long l) {
+        l = (l ^ (l >>> 30)) * 0xbf58476d1ce4e5b9L;
+        l = (l ^ (l >>> 27)) * 0x94d049bb133111ebL;
+        return l ^ (l >>> 31);
+    }
+}
@@ -0,0 +1,168 @@
+package model;
+
+import controller.GameController;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.PriorityQueue;
+
+/**
+ * The GameScheduler class runs delayed game actions, such as starting the level music or ending
+ * the game, on the game clock instead of wall-clock timers. It is advanced once per simulation
+ * step, so delays are counted in ticks, scheduled actions run on the simulation thread, and
+ * nothing advances while the game is paused. A task may carry a key; scheduling a key that is
+ * already pending does nothing, so repeated triggers only run the action once.
+ */
+public class GameScheduler {
+
+    /**
+     * A scheduled action and when it is due.
+     */
+    private static class Task implements Comparable<Task> {
+        private final String strKey;
+        private final long lDue;
+        private final long lSeq; // keeps tasks due on the same tick in scheduling order
+        private final Runnable action;
+
+        private Task(String strKey, long lDue, long lSeq, Runnable action) {
+            this.strKey = strKey;
+            this.lDue = lDue;
+            this.lSeq = lSeq;
+            this.action = action;
+        }
+
+        @Override
+        public int compareTo(Task task) {
+            if (lDue != task.lDue) {
+                return Long.compare(lDue, task.lDue);
+            }
+            return Long.compare(lSeq, task.lSeq);
+        }
+    }
+
+    private final PriorityQueue<Task> tasks = new PriorityQueue<>();
+    private final HashMap<String, Task> keyed = new HashMap<>();
+    private final ArrayList<Task> due = new ArrayList<>();
+    private long lNow;
+    private long lSeq;
+    private long lRun;
+    private long lDeduplicated;
+
+    /**
+     * Converts a delay in milliseconds of game time into ticks, rounding up.
+     *
+     * @param lMillis The delay in milliseconds at the default simulation rate.
+     * @return The delay in ticks.
+     */
+    public static int ticksFor(long lMillis) {
+        return (int) ((lMillis + GameController.ANI_DELAY - 1) / GameController.ANI_DELAY);
+    }
+
+    /**
+     * Schedules an action to run after the given number of ticks.
+     *
+     * @param strKey      A key identifying the action, or null if it may be scheduled any number of times.
+     * @param nDelayTicks How many ticks from now the action runs; 0 runs it on the next tick.
+     * @param action      The action to run on the simulation thread.
+     * @return False if an action with the same key was already pending and nothing was scheduled.
+     */
+    public synchronized boolean schedule(String strKey, int nDelayTicks, Runnable action) {
+        if (strKey != null && keyed.containsKey(strKey)) {
+            lDeduplicated++;
+            return false;
+        }
+        Task task = new Task(strKey, lNow + Math.max(1, nDelayTicks), lSeq++, action);
+        tasks.add(task);
+        if (strKey != null) {
+            keyed.put(strKey, task);
+        }
+        return true;
+    }
+
+    /**
+     * Advances the game clock by one tick and runs every action that is now due.
+     */
+    public void tick() {
+        synchronized (this) {
+            lNow++;
+            while (!tasks.isEmpty() && tasks.peek().lDue <= lNow) {
+                Task task = tasks.poll();
+                if (task.strKey != null) {
+                    keyed.remove(task.strKey);
+                }
+                due.add(task);
+            }
+            lRun += due.size();
+        }
+        // run outside the lock, so an action may schedule further actions
+        for (int nC = 0; nC < due.size(); nC++) {
+            due.get(nC).action.run();
+        }
+        due.clear();
+    }
+
+    /**
+     * Returns whether an action with the given key is waiting to run.
+     *
+     * @param strKey The key.
+     * @return True if the action is pending.
+     */
+    public synchronized boolean isPending(String strKey) {
+        return keyed.containsKey(strKey);
+    }
+
+    /**
+     * Cancels the pending action with the given key.
+     *
+     * @param strKey The key.
+     * @return True if an action was cancelled.
+     */
+    public synchronized boolean cancel(String strKey) {
+        Task task = keyed.remove(strKey);
+        return task != null && tasks.remove(task);
+    }
+
+    /**
+     * Cancels every pending action, e.g. when a new game starts.
+     */
+    public synchronized void clear() {
+        tasks.clear();
+        keyed.clear();
+    }
+
+    /**
+     * Returns the number of actions waiting to run.
+     *
+     * @return The pending count.
+     */
+    public synchronized int getPendingCount() {
+        return tasks.size();
+    }
+
+    /**
+     * Returns the number of actions run so far.
+     *
+     * @return The run count.
+     */
+    public synchronized long getRunCount() {
+        return lRun;
+    }
+
+    /**
+     * Returns how many keyed actions were not scheduled because the key was already pending.
+     *
+     * @return The deduplicated count.
+     */
+    public synchronized long getDeduplicatedCount() {
+        return lDeduplicated;
+    }
+
+    /**
+     * Returns the number of ticks the scheduler has been advanced.
+     *
+     * @return The game clock.
+     */
+    public synchronized long getNow() {
+        return lNow;
+    }
+}
@@ -0,0 +1,662 @@
+package model;
+
+import java.awt.*;
+
+/**
+ * The GameWorld class holds everything that makes up one game: the entity stores and the indexes
+ * kept over them, the random streams, the scheduler, sun credit, score, level, tick and the
+ * planting state. Worlds share nothing, so one JVM can run many games side by side, each on its
+ * own thread.
+ * <p>
+ * Code written against the static CommandCenter works on the world bound to the calling thread
+ * with enter, or on DEFAULT, the world of the windowed game, when none is bound. A thread that
+ * runs a world binds it for as long as it steps the world; a world must only be stepped by one
+ * thread at a time.
+ */
+public class GameWorld {
+
+    // the world of the windowed game, and of any thread that has not entered another one
+    public final static GameWorld DEFAULT = new GameWorld(GameRandom.defaultSeed());
+    private final static ThreadLocal<GameWorld> CURRENT = new ThreadLocal<>();
+
+    public final static String TASK_GAME_OVER = "gameOver";
+    public final static String TASK_MUSIC = "music";
+    private final static GameLog.Site LOG_MUSIC = GameLog.site("CommandCenter.setLevel", 5);
+    private final static GameLog.Site LOG_CREDIT = GameLog.site("CommandCenter.minusSunCredit", 10);
+    private final static GameLog.Site LOG_PLANT = GameLog.site("CommandCenter.setPlant", 10);
+    private final static GameLog.Site LOG_EVENTS = GameLog.site("GameEvents", 50);
+
+    public final EntityStore movSun = new EntityStore();
+    public final EntityStore movPlants = new EntityStore();
+    public final EntityStore movTemp = new EntityStore();
+    public final EntityStore movBullets = new EntityStore();
+    public final EntityStore movFoes = new EntityStore();
+    public final EntityStore movDebris = new EntityStore();
+    public final EntityStore movLevelInstruction = new EntityStore();
+    // broadphase index over movFoes, bucketed by lane and sorted by x
+    public final LaneIndex foeLanes = new LaneIndex();
+    // which plant occupies each lawn cell
+    public final LawnGrid lawn = new LawnGrid();
+    // per-step state of every foe, in parallel arrays
+    public final FoeStore foeStore = new FoeStore();
+    // every random number in the game, one seeded stream per subsystem
+    public final GameRandom random;
+    // delayed actions, run on the game clock
+    public final GameScheduler scheduler = new GameScheduler();
+    // spent bullets waiting to be fired again
+    public final BulletPool bulletPool = new BulletPool();
+    // the spawns of the current level, compiled ahead from the wave schedule
+    public final SpawnTimeline spawnTimeline = new SpawnTimeline(this);
+    // what happened during the step, delivered to the subscribers below once it is over
+    public final GameEvents events = new GameEvents();
+    // the sound effects asked for during the step, played once it is over
+    public final SoundRequests sounds = new SoundRequests();
+    // the world's music and whether it may be heard at all
+    public final WorldAudio audio = new WorldAudio(sounds);
+
+    // the pace of the game: spawn intervals and odds, points per level
+    private volatile SpawnSettings spawnSettings = SpawnSettings.DEFAULT;
+    // what each level spawns, and its music and banner
+    private volatile WaveSchedule waveSchedule = WaveSchedule.DEFAULT;
+    private long lSunCredit;
+    private long lScore;
+    private int nLevel;
+    private int nTick;
+    private boolean bisGameOver;
+    private boolean bPlaying;
+    private volatile boolean paused = false; // set by the input thread, read by the simulation thread
+    private String gameGuide = "Enjoy the game.";
+    private Peashooter plant;
+    private boolean isPlanting = false;
+    private int plantType = 0;
+
+    /**
+     * Constructs an empty world.
+     *
+     * @param lSeed The seed of the world's random streams.
+     */
+    public GameWorld(long lSeed) {
+        random = new GameRandom(lSeed);
+        // keep the lane index and the foe store in step with the foes actually in play
+        movFoes.addListener(new EntityStore.Listener() {
+            @Override
+            public void spawned(Movable mov) {
+                if (mov instanceof Foe) {
+                    ((Foe) mov).enterPlay();
+                }
+                foeLanes.add(mov);
+            }
+
+            @Override
+            public void despawned(Movable mov) {
+                foeLanes.remove(mov);
+                if (mov instanceof Foe) {
+                    ((Foe) mov).leavePlay();
+                }
+            }
+        });
+        // keep the lawn grid in step with the plants actually in play
+        movPlants.addListener(new EntityStore.Listener() {
+            @Override
+            public void spawned(Movable mov) {
+                lawn.place(mov);
+            }
+
+            @Override
+            public void despawned(Movable mov) {
+                lawn.remove(mov);
+            }
+        });
+        // bullets that flew off-screen or hit a foe go back to the pool
+        movBullets.addListener(new EntityStore.Listener() {
+            @Override
+            public void spawned(Movable mov) {
+            }
+
+            @Override
+            public void despawned(Movable mov) {
+                if (mov instanceof Bullet) {
+                    bulletPool.release((Bullet) mov);
+                }
+            }
+        });
+        // a kill scores its points
+        events.subscribe(GameEvents.maskOf(GameEvents.KILL), new GameEvents.Subscriber() {
+            @Override
+            public void onEvent(GameEvents.Event event) {
+                addScore(event.getValue());
+            }
+        });
+        // a zombie down to its last hit loses its head
+        events.subscribe(GameEvents.maskOf(GameEvents.HIT), new GameEvents.Subscriber() {
+            @Override
+            public void onEvent(GameEvents.Event event) {
+                if (event.getValue() == 1 && event.getMovable() instanceof Zombie) {
+                    Color color = ((Zombie) event.getMovable()).mainColor;
+                    movDebris.add(new ExplodingHead(new Point(event.getX(), event.getY()), color));
+                }
+            }
+        });
+        // the guide warns about plants being eaten
+        events.subscribe(GameEvents.maskOf(GameEvents.PLANT_EATEN), new GameEvents.Subscriber() {
+            @Override
+            public void onEvent(GameEvents.Event event) {
+                gameGuide = "It's very dangerous. More and more zombies are coming.";
+            }
+        });
+        // sounds, music and banners
+        events.subscribe(GameEvents.ALL, new GameEvents.Subscriber() {
+            @Override
+            public void onEvent(GameEvents.Event event) {
+                present(event);
+            }
+        });
+        // a debug trace of everything that happens
+        events.subscribe(GameEvents.ALL, new GameEvents.Subscriber() {
+            @Override
+            public void onEvent(GameEvents.Event event) {
+                if (LOG_EVENTS.isEnabled(GameLog.DEBUG)) {
+                    LOG_EVENTS.debug("tick {}: {}", nTick, event.toString());
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the world bound to the calling thread.
+     *
+     * @return The bound world, or DEFAULT if the thread has not entered one.
+     */
+    public static GameWorld current() {
+        GameWorld world = CURRENT.get();
+        return world == null ? DEFAULT : world;
+    }
+
+    /**
+     * Binds this world to the calling thread, so CommandCenter and new entities work on it.
+     *
+     * @return The world bound before, to be passed to exit.
+     */
+    public GameWorld enter() {
+        GameWorld previous = CURRENT.get();
+        CURRENT.set(this);
+        return previous;
+    }
+
+    /**
+     * Restores the binding that was in place before enter.
+     *
+     * @param previous What enter returned.
+     */
+    public static void exit(GameWorld previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Resets the world for a new game: sun credits, score, level and every entity list are cleared
+     * and pending delayed actions are dropped. The tick and the random streams are left alone.
+     */
+    public void initGame() {
+        scheduler.clear();
+        spawnTimeline.reset();
+        events.clear();
+        lSunCredit = 0;
+        lScore = 0;
+        nLevel = 0;
+        bisGameOver = false;
+        paused = false;
+        gameGuide = "Enjoy the game.";
+        plant = null;
+        isPlanting = false;
+        plantType = 0;
+
+        movSun.clear();
+        movPlants.clear();
+        movTemp.clear();
+        movBullets.clear();
+        movFoes.clear();
+        movDebris.clear();
+        movLevelInstruction.clear();
+        flushAll();
+        foeLanes.clear();
+        lawn.clear();
+    }
+
+    /**
+     * Applies the adds and removes queued on every entity store. Called once at the end of each
+     * simulation step, so all changes made during a step become visible together.
+     */
+    public void flushAll() {
+        movSun.flush();
+        movPlants.flush();
+        movTemp.flush();
+        movBullets.flush();
+        movFoes.flush();
+        movDebris.flush();
+        movLevelInstruction.flush();
+    }
+
+    /**
+     * Returns the number of simulation steps taken.
+     *
+     * @return The tick.
+     */
+    public int getTick() {
+        return nTick;
+    }
+
+    /**
+     * Sets the number of simulation steps taken, e.g. when a game starts or is loaded.
+     *
+     * @param nTick The tick.
+     */
+    public void setTick(int nTick) {
+        this.nTick = nTick;
+    }
+
+    /**
+     * Adds the given amount to the player's sun credits.
+     *
+     * @param lParam The amount of sun credits to add.
+     */
+    public void addSunCredit(long lParam) {
+        lSunCredit = lSunCredit + lParam;
+    }
+
+    /**
+     * Returns the current amount of sun credits.
+     *
+     * @return The current sun credits.
+     */
+    public long getSunCredit() {
+        return lSunCredit;
+    }
+
+    /**
+     * Sets the player's sun credits to the given amount.
+     *
+     * @param lParam The amount to set sun credits to.
+     */
+    public void setSunCredit(long lParam) {
+        lSunCredit = lParam;
+    }
+
+    /**
+     * Deducts the specified amount from the player's sun credits, never going below zero.
+     *
+     * @param lParam The amount to deduct.
+     */
+    public void minusSunCredit(long lParam) {
+        lSunCredit = lSunCredit - lParam;
+        if (lSunCredit < 0) {
+            lSunCredit = 0;
+        }
+        LOG_CREDIT.debug("sun credit is {}", lSunCredit);
+    }
+
+    /**
+     * Sets whether the game is over.
+     *
+     * @param b True if the game is over, false otherwise.
+     */
+    public void setIsGameOver(boolean b) {
+        bisGameOver = b;
+    }
+
+    /**
+     * Returns whether the game is over.
+     *
+     * @return True if the game is over, false otherwise.
+     */
+    public boolean isGameOver() {
+        return bisGameOver;
+    }
+
+    /**
+     * Handles the event when zombies cross the yard.
+     * Publishes GAME_OVER, which stops the music, plays the game over sound and shows the game over
+     * banner; the game ends 4 seconds of game time later.
+     * Further calls while the game over is pending or done are ignored.
+     */
+    public void zombieCrossYard() {
+        if (bisGameOver || scheduler.isPending(TASK_GAME_OVER)) {
+            return;
+        }
+
+        events.publish(GameEvents.GAME_OVER, null, 0, 0, nLevel);
+
+        scheduler.schedule(TASK_GAME_OVER, GameScheduler.ticksFor(4000), new Runnable() {
+            @Override
+            public void run() {
+                setIsGameOver(true);
+                audio.loopBackgroundMusic();
+            }
+        });
+    }
+
+    /**
+     * Returns the current game level.
+     *
+     * @return The current level.
+     */
+    public int getLevel() {
+        return nLevel;
+    }
+
+    /**
+     * Sets the game level to the specified value.
+     * If the level changes, publishes LEVEL_UP, which changes the background music and shows the
+     * level's banner as the wave schedule says.
+     *
+     * @param n The new level.
+     */
+    public void setLevel(int n) {
+        if (nLevel != n) {
+            events.publish(GameEvents.LEVEL_UP, null, 0, 0, n);
+        }
+        nLevel = n;
+    }
+
+    /**
+     * Puts the game on a level without announcing it: no LEVEL_UP is published, so no banner is
+     * shown and the music is left alone. Used when a saved game is loaded; see startLevelMusic.
+     *
+     * @param n The level.
+     */
+    public void restoreLevel(int n) {
+        nLevel = n;
+    }
+
+    /**
+     * Stops whatever level music is playing and starts the current level's, after the usual delay.
+     * A level without music is left silent.
+     */
+    public void startLevelMusic() {
+        startMusicOf(waveSchedule.getLevel(nLevel));
+    }
+
+    /**
+     * Returns the player's current score.
+     *
+     * @return The player's score.
+     */
+    public long getScore() {
+        return lScore;
+    }
+
+    /**
+     * Sets the player's score to the given value.
+     *
+     * @param lParam The new score.
+     */
+    public void setScore(long lParam) {
+        lScore = lParam;
+    }
+
+    /**
+     * Adds the specified amount to the player's score.
+     * Increases the game level if the score reaches a multiple of the level-up score.
+     *
+     * @param lParam The amount to add to the score.
+     */
+    public void addScore(long lParam) {
+        lScore = lScore + lParam;
+
+        if (lScore % spawnSettings.getLevelUpScore() == 0) {
+            setLevel(nLevel + 1);
+        }
+    }
+
+    /**
+     * Returns the settings that pace the game.
+     *
+     * @return The spawn settings.
+     */
+    public SpawnSettings getSpawnSettings() {
+        return spawnSettings;
+    }
+
+    /**
+     * Changes the settings that pace the game. They are not reset by initGame.
+     *
+     * @param settings The new settings.
+     */
+    public void setSpawnSettings(SpawnSettings settings) {
+        spawnSettings = settings;
+    }
+
+    /**
+     * Returns the schedule of what each level spawns.
+     *
+     * @return The wave schedule.
+     */
+    public WaveSchedule getWaveSchedule() {
+        return waveSchedule;
+    }
+
+    /**
+     * Changes the schedule of what each level spawns. It is not reset by initGame.
+     *
+     * @param schedule The new schedule.
+     */
+    public void setWaveSchedule(WaveSchedule schedule) {
+        waveSchedule = schedule;
+    }
+
+    // what the player hears and sees of an event
+    private void present(GameEvents.Event event) {
+        switch (event.getType()) {
+            case GameEvents.HIT:
+            case GameEvents.KILL:
+                Bullet.bulletSoundEffect();
+                break;
+            case GameEvents.SUN_COLLECTED:
+                audio.request("music/select.wav", Sound.PRIORITY_NORMAL);
+                break;
+            case GameEvents.PLANT_PLACED:
+                audio.request("music/plantingpeashooter.wav", Sound.PRIORITY_NORMAL);
+                break;
+            case GameEvents.LEVEL_UP:
+                if (event.getValue() < waveSchedule.getLevelCount()) {
+                    LOG_MUSIC.info("Change playing music.................");
+                    changePlayingMusic((int) event.getValue());
+                }
+                break;
+            case GameEvents.GAME_OVER:
+                audio.stopLevelMusic();
+                audio.request("music/gameover.wav", Sound.PRIORITY_HIGH);
+                movLevelInstruction.clear();
+                LevelInstruction tempLevleInstruction = new LevelInstruction(500, 200, "Zombies Reach Your Front Door. Game Over.");
+                tempLevleInstruction.setDeltaY(0);
+                movLevelInstruction.add(tempLevleInstruction);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void changePlayingMusic(int level_) {
+        WaveSchedule.Level level = waveSchedule.getLevel(level_);
+        startMusicOf(level);
+        if (level.getBanner() != null) {
+            movLevelInstruction.add(new LevelInstruction(500, 50, level.getBanner()));
+        }
+    }
+
+    // replaces the level music with a level's, started after the usual delay
+    private void startMusicOf(WaveSchedule.Level level) {
+        audio.setLevelMusic(level.getMusic());
+        if (level.getMusic() != null) {
+            playMusic();
+        } else {
+            scheduler.cancel(TASK_MUSIC);
+        }
+    }
+
+    /**
+     * Plays background music after a delay of 3 seconds of game time.
+     */
+    public void playMusic() {
+        // When the background music is changed, always wait before it starts
+        scheduler.schedule(TASK_MUSIC, GameScheduler.ticksFor(3000), new Runnable() {
+            @Override
+            public void run() {
+                audio.loopLevelMusic();
+            }
+        });
+    }
+
+    /**
+     * Returns the hint shown to the player.
+     *
+     * @return The game guide text.
+     */
+    public String getGameGuide() {
+        return gameGuide;
+    }
+
+    /**
+     * Sets the hint shown to the player.
+     *
+     * @param strGuide The game guide text.
+     */
+    public void setGameGuide(String strGuide) {
+        gameGuide = strGuide;
+    }
+
+    /**
+     * Returns the plant being placed.
+     *
+     * @return The plant following the mouse, or null.
+     */
+    public Peashooter getPlant() {
+        return plant;
+    }
+
+    /**
+     * Returns whether a plant is being placed.
+     *
+     * @return True while the player drags a plant.
+     */
+    public boolean isPlanting() {
+        return isPlanting;
+    }
+
+    /**
+     * Sets whether a plant is being placed.
+     *
+     * @param b True while the player drags a plant.
+     */
+    public void setPlanting(boolean b) {
+        isPlanting = b;
+    }
+
+    /**
+     * Returns the type of the plant selected for planting.
+     *
+     * @return 0 for a peashooter, 1 for an ice peashooter.
+     */
+    public int getPlantType() {
+        return plantType;
+    }
+
+    /**
+     * Clears the temporary plant list and resets planting status.
+     */
+    public void clearMovTemp() {
+        movTemp.clear();
+        isPlanting = false;
+    }
+
+    /**
+     * Sets the type of plant to be placed and updates the plant object.
+     *
+     * @param type The type of plant (0 for regular, 1 for ice).
+     */
+    public void setPlant(int type) {
+        long currentSunCredit = getSunCredit();
+
+        if (type == 0) {
+            plantType = 0;
+            if (currentSunCredit < 100) {
+                gameGuide = "No enough credits. Collect more suns.";
+                plant = null; // Explicitly clear the plant
+                isPlanting = false; // Explicitly reset isPlanting
+                return;
+            } else {
+                plant = new Peashooter(-200, -200);
+            }
+        } else if (type == 1) {
+            plantType = 1;
+            if (currentSunCredit < 200) {
+                gameGuide = "No enough credits. Collect more suns.";
+                plant = null; // Explicitly clear the plant
+                isPlanting = false; // Explicitly reset isPlanting
+                return;
+            } else {
+                plant = new IcePeashooter(-200, -200);
+            }
+        }
+        gameGuide = "Drop the peashooter in one slot";
+        movTemp.clear();
+        movTemp.add(plant);
+        isPlanting = true;
+        LOG_PLANT.debug("{}", gameGuide);
+    }
+
+    /**
+     * Updates the position of the plant being placed.
+     *
+     * @param newPoint The new position of the plant.
+     */
+    public void setPlantPosition(Point newPoint) {
+        if (isPlanting) {
+            plant.setPointCenter(newPoint);
+            if (plantType == 0) {
+                plant.setColor(Color.green);
+            } else if (plantType == 1) {
+                plant.setColor(Color.cyan);
+            }
+        }
+    }
+
+    /**
+     * Pauses or resumes the game.
+     *
+     * @param isPaused True to pause the game, false to resume.
+     */
+    public void setPaused(boolean isPaused) {
+        paused = isPaused;
+    }
+
+    /**
+     * Returns whether the game is currently paused.
+     *
+     * @return True if the game is paused, false otherwise.
+     */
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Returns whether the game is currently playing.
+     *
+     * @return True if the game is playing, false otherwise.
+     */
+    public boolean isPlaying() {
+        return bPlaying;
+    }
+
+    /**
+     * Sets whether the game is currently playing.
+     *
+     * @param bPlaying True if the game is playing, false otherwise.
+     */
+    public void setPlaying(boolean bPlaying) {
+        this.bPlaying = bPlaying;
+    }
+}
@@ -0,0 +1,228 @@
+package model;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The LaneIndex class is a broadphase index for collision checks. Movables are bucketed by the
+ * lane (row) their center lies in, and every lane keeps its movables sorted by x. A query only
+ * looks at the lanes and the x-range that a given reach can touch, instead of every movable.
+ */
+public class LaneIndex {
+
+    public final static int LANE_HEIGHT = 100;
+    private final static int LANE_COUNT = CommandCenter.WORLD_HEIGHT / LANE_HEIGHT + 1;
+
+    private final Lane[] lanes = new Lane[LANE_COUNT];
+    private int nSize;
+    private int nMaxRadius;
+
+    /**
+     * Constructs an empty LaneIndex covering the whole playing field.
+     */
+    public LaneIndex() {
+        for (int nC = 0; nC < LANE_COUNT; nC++) {
+            lanes[nC] = new Lane();
+        }
+    }
+
+    /**
+     * Returns the lane a y-coordinate belongs to, clamped to the playing field.
+     *
+     * @param y The y-coordinate.
+     * @return The lane number.
+     */
+    public static int laneOf(int y) {
+        return Math.max(0, Math.min(LANE_COUNT - 1, Math.floorDiv(y, LANE_HEIGHT)));
+    }
+
+    /**
+     * Adds a movable to the lane its center lies in.
+     *
+     * @param mov The movable to index.
+     */
+    public void add(Movable mov) {
+        lanes[laneOf(Foe.centerYOf(mov))].insert(mov, Foe.centerXOf(mov));
+        nMaxRadius = Math.max(nMaxRadius, mov.getRadius());
+        nSize++;
+    }
+
+    /**
+     * Removes a movable from the index.
+     *
+     * @param mov The movable to remove.
+     * @return True if the movable was indexed.
+     */
+    public boolean remove(Movable mov) {
+        if (lanes[laneOf(Foe.centerYOf(mov))].remove(mov)) {
+            nSize--;
+            return true;
+        }
+        // the movable changed lane since it was indexed
+        for (Lane lane : lanes) {
+            if (lane.remove(mov)) {
+                nSize--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes every movable from the index.
+     */
+    public void clear() {
+        for (Lane lane : lanes) {
+            Arrays.fill(lane.movs, 0, lane.nCount, null);
+            lane.nCount = 0;
+        }
+        nSize = 0;
+        nMaxRadius = 0;
+    }
+
+    /**
+     * Replaces the contents of the index with the given movables.
+     *
+     * @param movMovs The movables to index.
+     */
+    public void rebuild(Iterable<Movable> movMovs) {
+        clear();
+        for (Movable mov : movMovs) {
+            add(mov);
+        }
+    }
+
+    /**
+     * Refreshes the cached x-coordinates after movement and restores the sort order.
+     * Movables only move a few pixels per step, so the insertion sort is close to linear.
+     * A movable whose center left its lane is moved to the new lane. Foes are read straight from
+     * the FoeStore, without making a Point.
+     */
+    public void update() {
+        for (int nLane = 0; nLane < LANE_COUNT; nLane++) {
+            Lane lane = lanes[nLane];
+            for (int nC = 0; nC < lane.nCount; nC++) {
+                Movable mov = lane.movs[nC];
+                int x = Foe.centerXOf(mov);
+                int y = Foe.centerYOf(mov);
+                if (laneOf(y) != nLane) {
+                    lane.removeAt(nC--);
+                    lanes[laneOf(y)].insert(mov, x);
+                    continue;
+                }
+                lane.xs[nC] = x;
+            }
+            lane.sort();
+        }
+    }
+
+    /**
+     * Collects the movables whose center lies within the given reach of a point, measured per axis.
+     * The result is a superset of the movables within that distance; callers still do the exact test.
+     *
+     * @param pnt    The center of the query.
+     * @param nReach The largest center-to-center distance that counts as a hit.
+     * @param out    The list that receives the candidates; it is cleared first.
+     */
+    public void query(Point pnt, int nReach, List<Movable> out) {
+        out.clear();
+        if (nReach <= 0) {
+            return;
+        }
+        int nFirstLane = laneOf(pnt.y - nReach);
+        int nLastLane = laneOf(pnt.y + nReach);
+        for (int nLane = nFirstLane; nLane <= nLastLane; nLane++) {
+            Lane lane = lanes[nLane];
+            for (int nC = lane.lowerBound(pnt.x - nReach); nC < lane.nCount && lane.xs[nC] <= pnt.x + nReach; nC++) {
+                out.add(lane.movs[nC]);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of indexed movables.
+     *
+     * @return The size of the index.
+     */
+    public int size() {
+        return nSize;
+    }
+
+    /**
+     * Returns the largest radius of any movable added since the last clear.
+     *
+     * @return The largest radius.
+     */
+    public int getMaxRadius() {
+        return nMaxRadius;
+    }
+
+    /**
+     * A single lane: parallel arrays of movables and their x-coordinates, sorted by x.
+     */
+    private static class Lane {
+        private Movable[] movs = new Movable[16];
+        private int[] xs = new int[16];
+        private int nCount;
+
+        private void insert(Movable mov, int x) {
+            if (nCount == movs.length) {
+                movs = Arrays.copyOf(movs, nCount * 2);
+                xs = Arrays.copyOf(xs, nCount * 2);
+            }
+            int nPos = lowerBound(x);
+            System.arraycopy(movs, nPos, movs, nPos + 1, nCount - nPos);
+            System.arraycopy(xs, nPos, xs, nPos + 1, nCount - nPos);
+            movs[nPos] = mov;
+            xs[nPos] = x;
+            nCount++;
+        }
+
+        private boolean remove(Movable mov) {
+            for (int nC = 0; nC < nCount; nC++) {
+                if (movs[nC] == mov) {
+                    removeAt(nC);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void removeAt(int nPos) {
+            System.arraycopy(movs, nPos + 1, movs, nPos, nCount - nPos - 1);
+            System.arraycopy(xs, nPos + 1, xs, nPos, nCount - nPos - 1);
+            movs[--nCount] = null;
+        }
+
+        // first position whose x is not less than the given x
+        private int lowerBound(int x) {
+            int nLow = 0;
+            int nHigh = nCount;
+            while (nLow < nHigh) {
+                int nMid = (nLow + nHigh) >>> 1;
+                if (xs[nMid] < x) {
+                    nLow = nMid + 1;
+                } else {
+                    nHigh = nMid;
+                }
+            }
+            return nLow;
+        }
+
+        private void sort() {
+            for (int nC = 1; nC < nCount; nC++) {
+                Movable mov = movs[nC];
+                int x = xs[nC];
+                int nPos = nC - 1;
+                while (nPos >= 0 && xs[nPos] > x) {
+                    movs[nPos + 1] = movs[nPos];
+                    xs[nPos + 1] = xs[nPos];
+                    nPos--;
+                }
+                movs[nPos + 1] = mov;
+                xs[nPos + 1] = x;
+            }
+        }
+    }
+}
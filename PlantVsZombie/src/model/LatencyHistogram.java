@@ -0,0 +1,206 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The LatencyHistogram class records durations in nanoseconds into log-linear buckets, in the
+ * style of HdrHistogram: every power of two is split into 16 equal sub-buckets, so any recorded
+ * value is reported within about 6% of its true value, from 1 ns up to about 18 minutes, with a
+ * fixed table of under 600 counters. Recording is a few atomic updates and never allocates; it may
+ * happen on one thread while another reads percentiles.
+ */
+public class LatencyHistogram {
+
+    private final static int SUB_BITS = 4;
+    private final static int SUB_COUNT = 1 << SUB_BITS; // sub-buckets per power of two
+    private final static int LINEAR = 2 * SUB_COUNT;     // values below this get a bucket each
+    private final static int MAX_MAGNITUDE = 40;         // 2^40 ns, about 18 minutes
+    public final static int BUCKETS = LINEAR + (MAX_MAGNITUDE - SUB_BITS - 1) * SUB_COUNT + 1; // last one: overflow
+
+    private final String strName;
+    private final AtomicLongArray lCounts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong lTotal = new AtomicLong();
+    private final AtomicLong lSum = new AtomicLong();
+    private final AtomicLong lMax = new AtomicLong();
+    private final AtomicLong lMin = new AtomicLong(Long.MAX_VALUE);
+
+    /**
+     * Constructs an empty histogram.
+     *
+     * @param strName The name of what is measured, e.g. "collisions".
+     */
+    public LatencyHistogram(String strName) {
+        this.strName = strName;
+    }
+
+    /**
+     * Returns the bucket a value falls into.
+     *
+     * @param lValue The value, at least 0.
+     * @return The bucket index.
+     */
+    static int bucketOf(long lValue) {
+        if (lValue < LINEAR) {
+            return (int) Math.max(0, lValue);
+        }
+        int nMagnitude = 63 - Long.numberOfLeadingZeros(lValue);
+        if (nMagnitude >= MAX_MAGNITUDE) {
+            return BUCKETS - 1;
+        }
+        int nShift = nMagnitude - SUB_BITS;
+        int nSub = (int) (lValue >>> nShift) - SUB_COUNT;
+        return LINEAR + (nMagnitude - SUB_BITS - 1) * SUB_COUNT + nSub;
+    }
+
+    /**
+     * Returns the smallest value that falls into a bucket.
+     *
+     * @param nBucket The bucket index.
+     * @return The lowest value of the bucket.
+     */
+    static long lowestOf(int nBucket) {
+        if (nBucket < LINEAR) {
+            return nBucket;
+        }
+        int nMagnitude = (nBucket - LINEAR) / SUB_COUNT + SUB_BITS + 1;
+        int nSub = (nBucket - LINEAR) % SUB_COUNT;
+        return (long) (SUB_COUNT + nSub) << (nMagnitude - SUB_BITS);
+    }
+
+    /**
+     * Returns the largest value that falls into a bucket.
+     *
+     * @param nBucket The bucket index.
+     * @return The highest value of the bucket.
+     */
+    static long highestOf(int nBucket) {
+        return nBucket == BUCKETS - 1 ? Long.MAX_VALUE : lowestOf(nBucket + 1) - 1;
+    }
+
+    /**
+     * Records one duration.
+     *
+     * @param lNanos The duration in nanoseconds; negative values count as 0.
+     */
+    public void record(long lNanos) {
+        long lValue = Math.max(0, lNanos);
+        lCounts.incrementAndGet(bucketOf(lValue));
+        lTotal.incrementAndGet();
+        lSum.addAndGet(lValue);
+        long lOld;
+        while (lValue > (lOld = lMax.get()) && !lMax.compareAndSet(lOld, lValue)) {
+            // another thread raised the max meanwhile; try again
+        }
+        while (lValue < (lOld = lMin.get()) && !lMin.compareAndSet(lOld, lValue)) {
+            // another thread lowered the min meanwhile; try again
+        }
+    }
+
+    /**
+     * Adds every value recorded by another histogram, e.g. to combine per-session histograms.
+     *
+     * @param other The histogram to add; it may still be recording.
+     */
+    public void add(LatencyHistogram other) {
+        for (int nC = 0; nC < BUCKETS; nC++) {
+            long lCount = other.lCounts.get(nC);
+            if (lCount != 0) {
+                lCounts.addAndGet(nC, lCount);
+            }
+        }
+        lTotal.addAndGet(other.lTotal.get());
+        lSum.addAndGet(other.lSum.get());
+        long lOld;
+        long lValue = other.lMax.get();
+        while (lValue > (lOld = lMax.get()) && !lMax.compareAndSet(lOld, lValue)) {
+            // another thread raised the max meanwhile; try again
+        }
+        lValue = other.lMin.get();
+        while (lValue < (lOld = lMin.get()) && !lMin.compareAndSet(lOld, lValue)) {
+            // another thread lowered the min meanwhile; try again
+        }
+    }
+
+    /**
+     * Returns the value below which the given fraction of recorded values lie.
+     * The result is the top of the bucket holding that value, so it never understates.
+     *
+     * @param dPercentile The percentile, from 0 to 100.
+     * @return The value in nanoseconds, or 0 if nothing was recorded.
+     */
+    public long getPercentile(double dPercentile) {
+        long lCount = lTotal.get();
+        if (lCount == 0) {
+            return 0;
+        }
+        long lRank = Math.max(1, (long) Math.ceil(lCount * Math.min(100, dPercentile) / 100.0));
+        long lSeen = 0;
+        for (int nC = 0; nC < BUCKETS; nC++) {
+            lSeen += lCounts.get(nC);
+            if (lSeen >= lRank) {
+                return Math.min(highestOf(nC), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Returns the name of what is measured.
+     *
+     * @return The histogram name.
+     */
+    public String getName() {
+        return strName;
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return The count.
+     */
+    public long getCount() {
+        return lTotal.get();
+    }
+
+    /**
+     * Returns the largest recorded value.
+     *
+     * @return The max in nanoseconds, or 0 if nothing was recorded.
+     */
+    public long getMax() {
+        return lMax.get();
+    }
+
+    /**
+     * Returns the smallest recorded value.
+     *
+     * @return The min in nanoseconds, or 0 if nothing was recorded.
+     */
+    public long getMin() {
+        return lTotal.get() == 0 ? 0 : lMin.get();
+    }
+
+    /**
+     * Returns the average of the recorded values.
+     *
+     * @return The mean in nanoseconds, or 0 if nothing was recorded.
+     */
+    public double getMean() {
+        long lCount = lTotal.get();
+        return lCount == 0 ? 0 : lSum.get() / (double) lCount;
+    }
+
+    /**
+     * Forgets every recorded value.
+     */
+    public void reset() {
+        for (int nC = 0; nC < BUCKETS; nC++) {
+            lCounts.set(nC, 0);
+        }
+        lTotal.set(0);
+        lSum.set(0);
+        lMax.set(0);
+        lMin.set(Long.MAX_VALUE);
+    }
+}
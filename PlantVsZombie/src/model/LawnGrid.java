@@ -0,0 +1,228 @@
+package model;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The LawnGrid class models the lawn as cells of CELL_SIZE pixels, addressed by lane (row) and
+ * column, and records which plant occupies each cell in flat arrays indexed by lane * COLUMNS +
+ * column. Placing, removing and looking up a plant are constant time, and collision checks only
+ * look at the few cells a foe can reach. It is also the one place that knows how a point on the
+ * lawn snaps to the center of its cell.
+ */
+public class LawnGrid {
+
+    public final static int CELL_SIZE = 100;
+    public final static int LANES = CommandCenter.WORLD_HEIGHT / CELL_SIZE + 1;
+    public final static int COLUMNS = CommandCenter.WORLD_WIDTH / CELL_SIZE + 1;
+
+    private final boolean[] bOccupied = new boolean[LANES * COLUMNS];
+    private final Movable[] movCells = new Movable[LANES * COLUMNS];
+    private int nSize;
+    private int nMaxRadius;
+
+    /**
+     * Snaps a coordinate to the nearest cell center; halfway points snap up.
+     *
+     * @param n The x- or y-coordinate.
+     * @return The coordinate of the nearest cell center.
+     */
+    public static int snap(int n) {
+        int nMod = Math.floorMod(n, CELL_SIZE);
+        return nMod < CELL_SIZE / 2 ? n - nMod : n + CELL_SIZE - nMod;
+    }
+
+    /**
+     * Snaps a point to the center of the cell it falls in.
+     *
+     * @param pnt The point on the lawn.
+     * @return A new point at the cell center.
+     */
+    public static Point snap(Point pnt) {
+        return new Point(snap(pnt.x), snap(pnt.y));
+    }
+
+    /**
+     * Returns the lane a y-coordinate snaps to.
+     *
+     * @param y The y-coordinate.
+     * @return The lane, possibly outside the lawn.
+     */
+    public static int laneOf(int y) {
+        return snap(y) / CELL_SIZE;
+    }
+
+    /**
+     * Returns the column an x-coordinate snaps to.
+     *
+     * @param x The x-coordinate.
+     * @return The column, possibly outside the lawn.
+     */
+    public static int columnOf(int x) {
+        return snap(x) / CELL_SIZE;
+    }
+
+    /**
+     * Returns whether a lane and column lie on the lawn.
+     *
+     * @param nLane   The lane.
+     * @param nColumn The column.
+     * @return True if the cell exists.
+     */
+    public static boolean isInside(int nLane, int nColumn) {
+        return nLane >= 0 && nLane < LANES && nColumn >= 0 && nColumn < COLUMNS;
+    }
+
+    /**
+     * Returns whether a cell holds a plant.
+     *
+     * @param nLane   The lane.
+     * @param nColumn The column.
+     * @return True if occupied; cells off the lawn are never occupied.
+     */
+    public synchronized boolean isOccupied(int nLane, int nColumn) {
+        return isInside(nLane, nColumn) && bOccupied[nLane * COLUMNS + nColumn];
+    }
+
+    /**
+     * Returns whether the cell a point snaps to holds a plant.
+     *
+     * @param pnt The point on the lawn.
+     * @return True if occupied.
+     */
+    public boolean isOccupied(Point pnt) {
+        return isOccupied(laneOf(pnt.y), columnOf(pnt.x));
+    }
+
+    /**
+     * Returns the plant in a cell.
+     *
+     * @param nLane   The lane.
+     * @param nColumn The column.
+     * @return The plant, or null if the cell is empty or off the lawn.
+     */
+    public synchronized Movable get(int nLane, int nColumn) {
+        return isInside(nLane, nColumn) ? movCells[nLane * COLUMNS + nColumn] : null;
+    }
+
+    /**
+     * Returns the plant in the cell a point snaps to.
+     *
+     * @param pnt The point on the lawn.
+     * @return The plant, or null if the cell is empty.
+     */
+    public Movable get(Point pnt) {
+        return get(laneOf(pnt.y), columnOf(pnt.x));
+    }
+
+    /**
+     * Puts a plant into the cell its center snaps to.
+     *
+     * @param mov The plant.
+     * @return True if the plant now occupies the cell, false if the cell is off the lawn or taken by another plant.
+     */
+    public synchronized boolean place(Movable mov) {
+        Point pnt = mov.getPointCenter();
+        int nLane = laneOf(pnt.y);
+        int nColumn = columnOf(pnt.x);
+        if (!isInside(nLane, nColumn)) {
+            return false;
+        }
+        int nCell = nLane * COLUMNS + nColumn;
+        if (bOccupied[nCell]) {
+            return movCells[nCell] == mov;
+        }
+        bOccupied[nCell] = true;
+        movCells[nCell] = mov;
+        nMaxRadius = Math.max(nMaxRadius, mov.getRadius());
+        nSize++;
+        return true;
+    }
+
+    /**
+     * Frees the cell a plant occupies.
+     *
+     * @param mov The plant.
+     * @return True if the plant was in the grid.
+     */
+    public synchronized boolean remove(Movable mov) {
+        Point pnt = mov.getPointCenter();
+        int nLane = laneOf(pnt.y);
+        int nColumn = columnOf(pnt.x);
+        if (!isInside(nLane, nColumn) || movCells[nLane * COLUMNS + nColumn] != mov) {
+            return false;
+        }
+        int nCell = nLane * COLUMNS + nColumn;
+        bOccupied[nCell] = false;
+        movCells[nCell] = null;
+        nSize--;
+        return true;
+    }
+
+    /**
+     * Empties every cell.
+     */
+    public synchronized void clear() {
+        Arrays.fill(bOccupied, false);
+        Arrays.fill(movCells, null);
+        nSize = 0;
+        nMaxRadius = 0;
+    }
+
+    /**
+     * Collects the plants in every cell that a point within the given reach, per axis, snaps to.
+     * The result is a superset of the plants within that distance; callers still do the exact test.
+     *
+     * @param pnt    The center of the query.
+     * @param nReach The largest center-to-center distance that counts as a hit.
+     * @param out    The list that receives the candidates; it is cleared first.
+     */
+    public void query(Point pnt, int nReach, List<Movable> out) {
+        query(pnt.x, pnt.y, nReach, out);
+    }
+
+    /**
+     * Collects the plants in the cells a reach around a center can touch, given as coordinates.
+     *
+     * @param x      The x-coordinate of the center of the query.
+     * @param y      The y-coordinate of the center of the query.
+     * @param nReach The largest center-to-center distance that counts as a hit.
+     * @param out    The list that receives the candidates; it is cleared first.
+     */
+    public synchronized void query(int x, int y, int nReach, List<Movable> out) {
+        out.clear();
+        if (nReach <= 0 || nSize == 0) {
+            return;
+        }
+        int nFirstLane = Math.max(0, laneOf(y - nReach));
+        int nLastLane = Math.min(LANES - 1, laneOf(y + nReach));
+        int nFirstColumn = Math.max(0, columnOf(x - nReach));
+        int nLastColumn = Math.min(COLUMNS - 1, columnOf(x + nReach));
+        for (int nLane = nFirstLane; nLane <= nLastLane; nLane++) {
+            for (int nColumn = nFirstColumn; nColumn <= nLastColumn; nColumn++) {
+                if (bOccupied[nLane * COLUMNS + nColumn]) {
+                    out.add(movCells[nLane * COLUMNS + nColumn]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of occupied cells.
+     *
+     * @return The plant count.
+     */
+    public synchronized int size() {
+        return nSize;
+    }
+
+    /**
+     * Returns the largest radius of any plant placed since the last clear.
+     *
+     * @return The largest radius.
+     */
+    public synchronized int getMaxRadius() {
+        return nMaxRadius;
+    }
+}
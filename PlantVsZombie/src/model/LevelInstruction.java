@@ -68,7 +68,7 @@ public class LevelInstruction  extends Sprite {
      */
     public void expire() {
         if (getnExpiry() == 0)
-            CommandCenter.movLevelInstruction.remove(this);
+            CommandCenter.getMovLevelInstruction().remove(this);
         else
             setnExpiry(getnExpiry() - 1);
     }
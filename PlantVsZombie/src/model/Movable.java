@@ -28,6 +28,19 @@ public interface Movable {
      */
     public Point getPointCenter();
 
+    /**
+     * Gets the center point of the object as it was before the latest simulation step.
+     * Used by the renderer to interpolate between two simulation states.
+     *
+     * @return The Point representing the previous center of the object.
+     */
+    public Point getPrevPointCenter();
+
+    /**
+     * Records the current center as the previous one, ahead of the next simulation step.
+     */
+    public void savePrevPointCenter();
+
     /**
      * Gets the radius of the object, used for collision detection.
      *
@@ -35,6 +48,16 @@ public interface Movable {
      */
     public int getRadius();
 
+    /**
+     * Gets how far the object's drawing reaches from its center in any direction, so the renderer
+     * knows which part of the screen changes when the object moves. Defaults to twice the radius.
+     *
+     * @return Half the width and height of the area the object draws into.
+     */
+    public default int getDrawExtent() {
+        return 2 * getRadius();
+    }
+
     // to check if the object is expired
     /**
      * Checks if the object is expired and handles its removal.
@@ -3,14 +3,16 @@ package model;
 import controller.GameController;
 
 import java.awt.*;
+import java.nio.ByteBuffer;
 
 /**
  * The Peashooter class represents a plant that shoots bullets at zombies.
  * It can be drawn, placed on the grid, and create bullets over time.
  */
-public class Peashooter extends Sprite {
+public class Peashooter extends Sprite implements SpriteAtlas.Cached {
 
     private final static int PEASHOOTER_RADIUS = 100;
+    private final static int ATLAS_EXTENT = 56; // reach of the drawing from the center
     private int plantScore = 100;
     // Cici added typeIndicator for regular and ice peashooter
     public int typeIndicator = 0;
@@ -39,41 +41,61 @@ public class Peashooter extends Sprite {
         super();
         setColor(Color.green);
         setRadius(PEASHOOTER_RADIUS);
-        initBullet =  (int)(Math.random()*130);
+        initBullet =  CommandCenter.getRandom().stream(GameRandom.PLANT).nextInt(130);
 
         CommandCenter.minusSunCredit(plantScore);
 
-        // set to grid center
-        int x = (int)newPoint.getX();
-        int y = (int)newPoint.getY();
+        setPointCenter(LawnGrid.snap(newPoint)); // set to grid center
+    }
 
-        int modX = x%100;
-        int modY = y%100;
+    /**
+     * Draws the Peashooter from the sprite atlas, rasterizing it the first time this variant is seen.
+     *
+     * @param g The Graphics object used for drawing.
+     */
+    @Override
+    public void draw(Graphics g) {
+        SpriteAtlas.draw(this, g);
+    }
 
-        if(modX<50){
-            x = x-modX;
-        }
-        else {
-            x = x+100-modX;
-        }
+    /**
+     * Returns a key identifying how the Peashooter currently looks.
+     *
+     * @return The atlas variant key.
+     */
+    @Override
+    public long getAtlasKey() {
+        return SpriteAtlas.typeBits(SpriteAtlas.TYPE_PEASHOOTER) | (getColor().getRGB() & 0xFFFFFF);
+    }
 
-        if(modY<50){
-            y = y-modY;
-        }
-        else {
-            y = y+100-modY;
-        }
+    /**
+     * Returns how far the Peashooter's primitives reach from its center.
+     *
+     * @return The atlas image half-size.
+     */
+    @Override
+    public int getAtlasExtent() {
+        return ATLAS_EXTENT;
+    }
 
-        setPointCenter(new Point(x, y));
+    /**
+     * Returns how far the Peashooter's drawing reaches from its center, the same as its atlas image.
+     *
+     * @return The draw extent.
+     */
+    @Override
+    public int getDrawExtent() {
+        return ATLAS_EXTENT;
     }
 
     /**
      * Draws the Peashooter on the screen.
+     * The sprite atlas calls this once per variant; draw() normally blits the cached image.
      *
      * @param g The Graphics object used for drawing.
      */
     @Override
-    public void draw(Graphics g) {
+    public void drawPrimitives(Graphics g) {
         g.setColor(getColor());
         g.fillOval(getPointCenter().x-40, getPointCenter().y-30, 55, 45);
         g.fillOval(getPointCenter().x-20+2, getPointCenter().y+10, 15, 10);
@@ -102,17 +124,39 @@ public class Peashooter extends Sprite {
 
     /**
      * Moves the Peashooter by shooting bullets at regular intervals.
+     * A bullet is only taken from the pool on the ticks the Peashooter actually fires.
      */
     @Override
     public void move() {
 
-        Bullet bullet = new Bullet(this);
-
         int initTime = GameController.getTick()+initBullet;
         if(initTime%130 == 0){
-            CommandCenter.movBullets.add(bullet);
+            CommandCenter.getMovBullets().add(CommandCenter.getBulletPool().obtain(this));
         }
 
     }
 
+    /**
+     * Writes the Peashooter's state for a SaveState, followed by its firing offset and type.
+     *
+     * @param buf The buffer to write to.
+     */
+    @Override
+    void saveState(ByteBuffer buf) {
+        super.saveState(buf);
+        buf.putInt(initBullet);
+        buf.putInt(typeIndicator);
+    }
+
+    /**
+     * Reads back the state written by saveState.
+     *
+     * @param buf The buffer to read from.
+     */
+    @Override
+    void restoreState(ByteBuffer buf) {
+        super.restoreState(buf);
+        initBullet = buf.getInt();
+        typeIndicator = buf.getInt();
+    }
 }
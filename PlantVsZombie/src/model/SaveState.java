@@ -0,0 +1,354 @@
+package model;
+
+import controller.GameController;
+
+import java.awt.*;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * The SaveState class is a snapshot of a game: sun credit, score, level, tick, game-over flag and
+ * seed, and every plant, foe, bullet, sun and explosion with the state needed to carry on from it.
+ * capture() serializes the game into memory in a few microseconds at a tick boundary; writing the
+ * file, through a memory-mapped FileChannel, can then happen on another thread so the game does
+ * not wait for the disk. Files are validated (magic, version, length, CRC-32 and record layout)
+ * before anything is restored, so a damaged save is rejected instead of half-applied.
+ * <p>
+ * File format, big-endian: a header of the magic "PVZS", the version, the payload length and the
+ * payload's CRC-32, all ints; then the payload: sun credit and score as longs, level and tick as
+ * ints, the game-over flag as a byte and the seed as a long, followed by one section per store
+ * (plants, foes, bullets, suns, debris), each an int count and that many records of a kind byte
+ * and the kind's fixed-size fields.
+ */
+public class SaveState {
+
+    public final static int MAGIC = 0x50565a53; // "PVZS"
+    public final static int VERSION = 1;
+    public final static int HEADER_BYTES = 16;
+
+    // record kinds
+    final static byte PEASHOOTER = 0;
+    final static byte ICE_PEASHOOTER = 1;
+    final static byte ZOMBIE = 2;
+    final static byte CRAZY_ZOMBIE = 3;
+    final static byte BULLET = 4;
+    final static byte SUN = 5;
+    final static byte EXPLODING_HEAD = 6;
+
+    final static int SPRITE_BYTES = 40; // what Sprite.saveState writes
+    // the size of each kind's record after the kind byte
+    private final static int[] RECORD_BYTES = {
+            SPRITE_BYTES + 8, // Peashooter
+            SPRITE_BYTES + 8, // IcePeashooter
+            SPRITE_BYTES + FoeStore.SLOT_BYTES + 4, // Zombie
+            SPRITE_BYTES + FoeStore.SLOT_BYTES + 4, // CrazyZombie
+            SPRITE_BYTES + 8, // Bullet
+            SPRITE_BYTES + 16, // Sun
+            SPRITE_BYTES + 12 // ExplodingHead
+    };
+    private final static int GLOBALS_BYTES = 8 + 8 + 4 + 4 + 1 + 8;
+    private final static int LEVEL_OFFSET = 8 + 8; // after the sun credit and the score
+    private final static GameLog.Site LOG = GameLog.site("SaveState", 5);
+
+    private final ByteBuffer payload; // read-only, positioned at 0
+    private final int nCrc;
+
+    private SaveState(ByteBuffer payload) {
+        this.payload = payload.asReadOnlyBuffer();
+        CRC32 crc = new CRC32();
+        crc.update(this.payload.duplicate());
+        nCrc = (int) crc.getValue();
+    }
+
+    // the stores in the order they are saved
+    private static EntityStore[] stores() {
+        return new EntityStore[]{
+                CommandCenter.getMovPlants(),
+                CommandCenter.getMovFoes(),
+                CommandCenter.getMovBullets(),
+                CommandCenter.getMovSun(),
+                CommandCenter.getMovDebris()
+        };
+    }
+
+    /**
+     * Takes a snapshot of the game. Call it at a tick boundary, on the simulation thread or while
+     * no simulation thread is running, so the stores are not changing underneath.
+     *
+     * @return The snapshot.
+     */
+    public static SaveState capture() {
+        EntityStore[] stores = stores();
+        int nBytes = GLOBALS_BYTES;
+        for (EntityStore store : stores) {
+            nBytes += 4;
+            for (Movable mov : store) {
+                int nKind = kindOf(mov);
+                if (nKind >= 0) {
+                    nBytes += 1 + RECORD_BYTES[nKind];
+                }
+            }
+        }
+        ByteBuffer buf = ByteBuffer.allocate(nBytes);
+        buf.putLong(CommandCenter.getSunCredit());
+        buf.putLong(CommandCenter.getScore());
+        buf.putInt(CommandCenter.getLevel());
+        buf.putInt(GameController.getTick());
+        buf.put((byte) (CommandCenter.isGameOver() ? 1 : 0));
+        buf.putLong(CommandCenter.getRandom().getSeed());
+        for (EntityStore store : stores) {
+            int nCountAt = buf.position();
+            buf.putInt(0);
+            int nCount = 0;
+            for (Movable mov : store) {
+                int nKind = kindOf(mov);
+                if (nKind < 0) {
+                    LOG.log(GameLog.WARN, "{} is not saved", mov.getClass().getSimpleName(), null);
+                    continue;
+                }
+                buf.put((byte) nKind);
+                int nStart = buf.position();
+                ((Sprite) mov).saveState(buf);
+                if (buf.position() - nStart != RECORD_BYTES[nKind]) {
+                    throw new IllegalStateException("Record of " + mov.getClass().getSimpleName() + " has the wrong size");
+                }
+                nCount++;
+            }
+            buf.putInt(nCountAt, nCount);
+        }
+        buf.flip();
+        return new SaveState(buf);
+    }
+
+    // the record kind of a movable, or -1 if it is not saved
+    private static int kindOf(Movable mov) {
+        // subclasses first
+        if (mov instanceof IcePeashooter) {
+            return ICE_PEASHOOTER;
+        } else if (mov instanceof Peashooter && !(mov instanceof CandidatePeashooter)
+                && !(mov instanceof CandidateIcePeashooter)) {
+            return PEASHOOTER;
+        } else if (mov instanceof Zombie) {
+            return ZOMBIE;
+        } else if (mov instanceof CrazyZombie) {
+            return CRAZY_ZOMBIE;
+        } else if (mov instanceof Bullet) {
+            return BULLET;
+        } else if (mov instanceof Sun) {
+            return SUN;
+        } else if (mov instanceof ExplodingHead) {
+            return EXPLODING_HEAD;
+        }
+        return -1;
+    }
+
+    // a blank entity of a kind, about to have its state restored
+    private static Sprite create(int nKind) {
+        switch (nKind) {
+            case PEASHOOTER:
+                return new Peashooter(0, 0);
+            case ICE_PEASHOOTER:
+                return new IcePeashooter(0, 0);
+            case ZOMBIE:
+                return new Zombie(300);
+            case CRAZY_ZOMBIE:
+                return new CrazyZombie(300);
+            case BULLET:
+                return new Bullet();
+            case SUN:
+                return new Sun(0, 0);
+            default:
+                return new ExplodingHead(new Point(0, 0), Color.red);
+        }
+    }
+
+    /**
+     * Replaces the game with this snapshot. Call it at a tick boundary, on the simulation thread or
+     * while no simulation thread is running. Pending delayed actions are dropped. Loading is not
+     * a level change: no banner is shown, and the music of the game replaced makes way for the
+     * restored level's.
+     */
+    public void restore() {
+        ByteBuffer buf = payload.duplicate();
+        CommandCenter.initGame();
+        CommandCenter.setSunCredit(buf.getLong());
+        CommandCenter.setScore(buf.getLong());
+        CommandCenter.restoreLevel(buf.getInt()); // no LEVEL_UP: a load is not a level change
+        GameController.setTick(buf.getInt());
+        CommandCenter.setIsGameOver(buf.get() != 0);
+        buf.getLong(); // the seed, kept for bug reports; the streams carry on where they are
+        for (EntityStore store : stores()) {
+            int nCount = buf.getInt();
+            for (int nC = 0; nC < nCount; nC++) {
+                Sprite sprite = create(buf.get());
+                sprite.restoreState(buf);
+                store.add(sprite);
+            }
+        }
+        CommandCenter.flushAll();
+        CommandCenter.startLevelMusic(); // whatever was playing belongs to the game replaced
+    }
+
+    /**
+     * Writes the snapshot to a file through a memory-mapped FileChannel, replacing the file's contents.
+     * The snapshot is written and forced to a temporary file next to it, which is then moved over the
+     * file in one step, so a write cut short by a crash or a full disk leaves the previous save intact.
+     * Safe to call from any thread.
+     *
+     * @param path The file.
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(Path path) throws IOException {
+        ByteBuffer buf = payload.duplicate();
+        int nBytes = HEADER_BYTES + buf.remaining();
+        Path dir = path.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, nBytes);
+                mapped.putInt(MAGIC);
+                mapped.putInt(VERSION);
+                mapped.putInt(buf.remaining());
+                mapped.putInt(nCrc);
+                mapped.put(buf);
+                mapped.force();
+            }
+            Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp); // only still there if the write or the move failed
+        }
+    }
+
+    /**
+     * Reads and validates a snapshot written by write.
+     *
+     * @param path The file.
+     * @return The snapshot, ready to be restored.
+     * @throws IOException if the file cannot be read or is not a valid save state of a known version.
+     */
+    public static SaveState read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long lSize = channel.size();
+            if (lSize < HEADER_BYTES || lSize > Integer.MAX_VALUE) {
+                throw new IOException("Not a save state: " + lSize + " bytes");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, lSize);
+            ByteBuffer buf = ByteBuffer.allocate((int) lSize);
+            buf.put(mapped);
+            buf.flip();
+            return fromBytes(buf);
+        }
+    }
+
+    /**
+     * Validates a snapshot held in memory, e.g. one attached to a bug report.
+     *
+     * @param buf The header and payload, as written by write; read from its position to its limit.
+     * @return The snapshot.
+     * @throws IOException if the data is not a valid save state of a known version.
+     */
+    public static SaveState fromBytes(ByteBuffer buf) throws IOException {
+        buf = buf.slice();
+        if (buf.remaining() < HEADER_BYTES || buf.getInt() != MAGIC) {
+            throw new IOException("Not a save state");
+        }
+        int nVersion = buf.getInt();
+        if (nVersion != VERSION) {
+            throw new IOException("Unsupported save state version " + nVersion);
+        }
+        int nLength = buf.getInt();
+        int nCrc = buf.getInt();
+        if (nLength != buf.remaining()) {
+            throw new IOException("Corrupt save state: payload is " + buf.remaining() + " bytes, expected " + nLength);
+        }
+        ByteBuffer payload = ByteBuffer.allocate(nLength);
+        payload.put(buf);
+        payload.flip();
+        SaveState state = new SaveState(payload);
+        if (state.nCrc != nCrc) {
+            throw new IOException("Corrupt save state: checksum mismatch");
+        }
+        state.validate();
+        return state;
+    }
+
+    // walks the records without creating anything, so restore() cannot fail halfway
+    private void validate() throws IOException {
+        ByteBuffer buf = payload.duplicate();
+        try {
+            int nLevel = buf.getInt(LEVEL_OFFSET);
+            if (nLevel < 0) {
+                throw new IOException("Corrupt save state: level " + nLevel);
+            }
+            buf.position(GLOBALS_BYTES);
+            for (int nStore = 0; nStore < stores().length; nStore++) {
+                int nCount = buf.getInt();
+                if (nCount < 0) {
+                    throw new IOException("Corrupt save state: " + nCount + " entities");
+                }
+                for (int nC = 0; nC < nCount; nC++) {
+                    int nKind = buf.get();
+                    if (nKind < 0 || nKind >= RECORD_BYTES.length) {
+                        throw new IOException("Corrupt save state: unknown entity kind " + nKind);
+                    }
+                    buf.position(buf.position() + RECORD_BYTES[nKind]);
+                }
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Corrupt save state: truncated", e);
+        }
+        if (buf.hasRemaining()) {
+            throw new IOException("Corrupt save state: " + buf.remaining() + " trailing bytes");
+        }
+    }
+
+    /**
+     * Returns the snapshot as it is written to a file, header included.
+     *
+     * @return The bytes of the save state.
+     */
+    public byte[] toBytes() {
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_BYTES + payload.remaining());
+        buf.putInt(MAGIC);
+        buf.putInt(VERSION);
+        buf.putInt(payload.remaining());
+        buf.putInt(nCrc);
+        buf.put(payload.duplicate());
+        return buf.array();
+    }
+
+    /**
+     * Returns the size of the snapshot in a file.
+     *
+     * @return The size in bytes, header included.
+     */
+    public int getSize() {
+        return HEADER_BYTES + payload.remaining();
+    }
+
+    /**
+     * Returns the tick the snapshot was taken at.
+     *
+     * @return The tick.
+     */
+    public int getTick() {
+        return payload.getInt(8 + 8 + 4);
+    }
+
+    /**
+     * Returns the seed of the game the snapshot was taken from.
+     *
+     * @return The seed.
+     */
+    public long getSeed() {
+        return payload.getLong(8 + 8 + 4 + 4 + 1);
+    }
+}
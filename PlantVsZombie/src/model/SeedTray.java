@@ -0,0 +1,80 @@
+package model;
+
+import java.awt.*;
+
+/**
+ * The SeedTray class is the fixed row of plant slots in the bottom panel. Each slot shows a
+ * candidate plant that is created once; pressing it selects that plant type for planting.
+ */
+public class SeedTray {
+
+    private final static int PRESS_REACH = 10; // how far outside a candidate a press still selects it
+
+    private final Peashooter[] slots = {
+            new CandidatePeashooter(250 - 20, 600 + 50),
+            new CandidateIcePeashooter(500 - 20 - 10, 600 + 50)
+    };
+    // sun credits each slot costs, as checked by CommandCenter.setPlant
+    private final long[] lCosts = {100, 200};
+
+    /**
+     * Returns the number of slots.
+     *
+     * @return The slot count.
+     */
+    public int getSlotCount() {
+        return slots.length;
+    }
+
+    /**
+     * Returns the candidate plant shown in a slot.
+     *
+     * @param nSlot The slot number.
+     * @return The candidate plant.
+     */
+    public Peashooter getSlot(int nSlot) {
+        return slots[nSlot];
+    }
+
+    /**
+     * Returns the sun credits needed to plant from a slot.
+     *
+     * @param nSlot The slot number.
+     * @return The cost.
+     */
+    public long getCost(int nSlot) {
+        return lCosts[nSlot];
+    }
+
+    /**
+     * Returns the slot whose plant type is currently selected for planting.
+     *
+     * @return The slot number, or -1 if nothing is being planted.
+     */
+    public int getSelectedSlot() {
+        if (!CommandCenter.isPlanting()) {
+            return -1;
+        }
+        for (int nC = 0; nC < slots.length; nC++) {
+            if (slots[nC].typeIndicator == CommandCenter.getPlantType()) {
+                return nC;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the slot under a point, e.g. a mouse press.
+     *
+     * @param pnt The point.
+     * @return The slot number, or -1 if the point is not on a slot.
+     */
+    public int slotAt(Point pnt) {
+        for (int nC = 0; nC < slots.length; nC++) {
+            if (pnt.distance(slots[nC].getPointCenter()) < slots[nC].getRadius() + PRESS_REACH) {
+                return nC;
+            }
+        }
+        return -1;
+    }
+}
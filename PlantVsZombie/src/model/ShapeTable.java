@@ -0,0 +1,114 @@
+package model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * The ShapeTable class holds the vertex offsets of a polar shape at every whole-degree orientation.
+ * Sprites describe their outline as polar lengths and angles; instead of running the trigonometry
+ * for every vertex on every frame, the offsets are computed once per shape and radius, and drawing
+ * only adds the sprite's center to a row of the table. Sprites with the same outline share a table.
+ */
+public class ShapeTable {
+
+    public final static int ORIENTATIONS = 360; // one row per whole degree
+
+    private final static HashMap<Key, ShapeTable> tables = new HashMap<>();
+
+    private final int nVertices;
+    private final double[][] dXOffsets = new double[ORIENTATIONS][];
+    private final double[][] dYOffsets = new double[ORIENTATIONS][];
+
+    /**
+     * Returns the table for a shape, computing it the first time the shape is seen.
+     *
+     * @param dLengths The polar lengths of the vertices, relative to the radius.
+     * @param dDegrees The polar angles of the vertices, in radians.
+     * @param nRadius  The radius the shape is drawn at.
+     * @return The shared table.
+     */
+    public static synchronized ShapeTable of(double[] dLengths, double[] dDegrees, int nRadius) {
+        Key key = new Key(dLengths, dDegrees, nRadius);
+        ShapeTable table = tables.get(key);
+        if (table == null) {
+            table = new ShapeTable(key.dLengths, key.dDegrees, nRadius);
+            tables.put(key, table);
+        }
+        return table;
+    }
+
+    private ShapeTable(double[] dLengths, double[] dDegrees, int nRadius) {
+        nVertices = dDegrees.length;
+        for (int nOrientation = 0; nOrientation < ORIENTATIONS; nOrientation++) {
+            double dOrientation = Math.toRadians(nOrientation);
+            double[] dXs = new double[nVertices];
+            double[] dYs = new double[nVertices];
+            for (int nC = 0; nC < nVertices; nC++) {
+                dXs[nC] = nRadius * dLengths[nC] * Math.sin(dOrientation + dDegrees[nC]);
+                dYs[nC] = -nRadius * dLengths[nC] * Math.cos(dOrientation + dDegrees[nC]);
+            }
+            dXOffsets[nOrientation] = dXs;
+            dYOffsets[nOrientation] = dYs;
+        }
+    }
+
+    /**
+     * Returns the number of vertices in the shape.
+     *
+     * @return The vertex count.
+     */
+    public int getVertexCount() {
+        return nVertices;
+    }
+
+    /**
+     * Writes the screen coordinates of the shape's vertices into the given buffers.
+     *
+     * @param x            The x-coordinate of the center.
+     * @param y            The y-coordinate of the center.
+     * @param nOrientation The orientation in degrees; any value, it is taken modulo 360.
+     * @param nXs          Receives the x-coordinates; must hold getVertexCount() values.
+     * @param nYs          Receives the y-coordinates; must hold getVertexCount() values.
+     */
+    public void fill(int x, int y, int nOrientation, int[] nXs, int[] nYs) {
+        int nRow = Math.floorMod(nOrientation, ORIENTATIONS);
+        double[] dXs = dXOffsets[nRow];
+        double[] dYs = dYOffsets[nRow];
+        for (int nC = 0; nC < nVertices; nC++) {
+            nXs[nC] = (int) (x + dXs[nC]);
+            nYs[nC] = (int) (y + dYs[nC]);
+        }
+    }
+
+    /**
+     * Identifies a shape by the contents of its polar arrays and its radius.
+     */
+    private static class Key {
+        private final double[] dLengths;
+        private final double[] dDegrees;
+        private final int nRadius;
+
+        private Key(double[] dLengths, double[] dDegrees, int nRadius) {
+            // copied, so a sprite changing its arrays later cannot corrupt the key
+            this.dLengths = dLengths.clone();
+            this.dDegrees = dDegrees.clone();
+            this.nRadius = nRadius;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) obj;
+            return nRadius == key.nRadius
+                    && Arrays.equals(dLengths, key.dLengths)
+                    && Arrays.equals(dDegrees, key.dDegrees);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * nRadius + Arrays.hashCode(dLengths)) + Arrays.hashCode(dDegrees);
+        }
+    }
+}
@@ -1,75 +1,97 @@
 package model;
 
-import java.io.IOException;
 import java.net.URL;
 
-import javax.sound.sampled.AudioInputStream;
-import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.Clip;
 import javax.sound.sampled.LineUnavailableException;
-import javax.sound.sampled.UnsupportedAudioFileException;
 
 /**
  * The Sound class handles audio playback for the game, including
- * playing individual sounds and looping audio clips.
+ * playing individual sounds and looping audio clips. Effects are played by the SoundEngine.
  */
 public class Sound {
+
+    public final static int PRIORITY_LOW = 0; // frequent effects such as bullet hits
+    public final static int PRIORITY_NORMAL = 1;
+    public final static int PRIORITY_HIGH = 2; // effects that must be heard, such as game over
+
+    // turned off for headless runs, where no audio device may exist
+    private static volatile boolean bEnabled = true;
+
     /**
-     * Plays a sound effect from the given file path.
-     * This method uses a separate thread to play the sound.
+     * Turns all audio on or off. While off, playSound does nothing and
+     * clipForLoopFactory returns null.
+     *
+     * @param b True to allow audio, false to silence it.
+     */
+    public static void setEnabled(boolean b) {
+        bEnabled = b;
+    }
+
+    /**
+     * Returns whether audio is currently allowed.
+     *
+     * @return True if audio is enabled.
+     */
+    public static boolean isEnabled() {
+        return bEnabled;
+    }
+
+    /**
+     * Plays a sound effect from the given file path at normal priority.
+     * The sound is decoded once, then queued for the audio thread; this method never blocks.
      *
      * @param strPath The path to the sound file.
      */
+    public static void playSound(final String strPath) {
+        playSound(strPath, PRIORITY_NORMAL);
+    }
 
-    //for individual wav sounds (not looped)
-    //http://stackoverflow.com/questions/26305/how-can-i-play-sound-in-java
-    public static synchronized void playSound(final String strPath) {
-        new Thread(new Runnable() {
-            public void run() {
-                try {
-                    Clip clp = AudioSystem.getClip();
-
-                    AudioInputStream aisStream =
-                            AudioSystem.getAudioInputStream(Sound.class.getResourceAsStream(strPath));
-
-
-                    clp.open(aisStream);
-                    clp.start();
-                } catch (Exception e) {
-                    System.err.println(e.getMessage());
-                }
-            }
-        }).start();
+    /**
+     * Plays a sound effect from the given file path.
+     * When every voice is busy, a higher-priority effect cuts off the oldest lowest-priority one.
+     *
+     * @param strPath   The path to the sound file.
+     * @param nPriority PRIORITY_LOW, PRIORITY_NORMAL or PRIORITY_HIGH.
+     */
+    public static void playSound(final String strPath, int nPriority) {
+        if (!bEnabled) {
+            return;
+        }
+        SoundEngine.play(strPath, nPriority);
     }
 
+    /**
+     * Asks for a sound effect to be played at the end of the current simulation step. Requests for the
+     * same file in one step are merged into one louder effect; see SoundRequests. A muted world asks
+     * for nothing; see WorldAudio.
+     *
+     * @param strPath   The path to the sound file.
+     * @param nPriority PRIORITY_LOW, PRIORITY_NORMAL or PRIORITY_HIGH.
+     */
+    public static void requestSound(String strPath, int nPriority) {
+        GameWorld.current().audio.request(strPath, nPriority);
+    }
 
     //for looping wav clips
     //http://stackoverflow.com/questions/4875080/music-loop-in-java
 
     /**
      * Creates a looping audio clip from the given file path.
+     * The file is decoded once and shared with playSound.
      *
      * @param strPath The path to the audio file.
-     * @return The Clip object that can be looped.
+     * @return The Clip object that can be looped, or null if audio is disabled or unavailable.
      */
     public static Clip clipForLoopFactory(String strPath){
 
         Clip clp = null;
-
-        // this line caused the original exceptions
+        if (!bEnabled) {
+            return clp;
+        }
 
         try {
-            AudioInputStream aisStream =
-                    AudioSystem.getAudioInputStream(Sound.class.getResourceAsStream(strPath));
-            clp = AudioSystem.getClip();
-            clp.open( aisStream );
-
-        } catch (UnsupportedAudioFileException exp) {
-
-            exp.printStackTrace();
-        } catch (IOException exp) {
-
-            exp.printStackTrace();
+            clp = SoundEngine.openClip(strPath);
         } catch (LineUnavailableException exp) {
 
             exp.printStackTrace();
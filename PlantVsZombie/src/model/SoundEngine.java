@@ -0,0 +1,425 @@
+package model;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.Clip;
+import javax.sound.sampled.FloatControl;
+import javax.sound.sampled.LineUnavailableException;
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The SoundEngine class plays short sound effects for Sound.playSound. Every WAV is decoded once
+ * into a PCM cache; effects are queued without blocking the caller and started by a single audio
+ * thread on a fixed pool of voices, each holding one reusable Clip. When every voice is busy the
+ * lowest-priority, oldest voice is stolen, or the new effect is dropped if everything playing
+ * matters more. No sample plays on more than MAX_PER_SAMPLE voices at once: another request for it
+ * restarts its oldest voice instead, so one busy effect cannot crowd out the rest. An effect may be
+ * played louder or softer than recorded, which is how SoundRequests makes one voice stand for many
+ * hits. Voices left idle for a while close their line so native resources are released.
+ */
+public class SoundEngine {
+
+    public final static int VOICES = 8;
+    public final static int QUEUE_SIZE = 64;
+    public final static int MAX_PER_SAMPLE = 2;
+    private final static long IDLE_CLOSE_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    /**
+     * A decoded sound: its format and raw PCM bytes.
+     */
+    public static class Sample {
+        private final AudioFormat format;
+        private final byte[] pcm;
+        private final long lDurationNanos;
+
+        private Sample(AudioFormat format, byte[] pcm) {
+            this.format = format;
+            this.pcm = pcm;
+            long lFrames = pcm.length / Math.max(1, format.getFrameSize());
+            this.lDurationNanos = (long) (lFrames * 1e9 / format.getFrameRate());
+        }
+
+        /**
+         * Returns the PCM format of the sample.
+         *
+         * @return The audio format.
+         */
+        public AudioFormat getFormat() {
+            return format;
+        }
+
+        /**
+         * Returns the length of the sample in bytes.
+         *
+         * @return The number of PCM bytes.
+         */
+        public int getLength() {
+            return pcm.length;
+        }
+
+        /**
+         * Returns how long the sample plays.
+         *
+         * @return The duration in nanoseconds.
+         */
+        public long getDurationNanos() {
+            return lDurationNanos;
+        }
+    }
+
+    /**
+     * A queued request to play a sample.
+     */
+    private static class Request {
+        private final String strPath;
+        private final int nPriority;
+        private final float fGainDb;
+
+        private Request(String strPath, int nPriority, float fGainDb) {
+            this.strPath = strPath;
+            this.nPriority = nPriority;
+            this.fGainDb = fGainDb;
+        }
+    }
+
+    /**
+     * One reusable output line and what it is playing.
+     */
+    private static class Voice {
+        private Clip clp;
+        private Sample sample; // the sample currently loaded in clp
+        private long lBusyUntil; // System.nanoTime() at which the current effect ends
+        private long lStarted;
+        private int nPriority;
+    }
+
+    private final static Sample MISSING = new Sample(new AudioFormat(8000, 8, 1, true, false), new byte[0]);
+    private final static HashMap<String, Sample> samples = new HashMap<>();
+    private final static ArrayBlockingQueue<Request> requests = new ArrayBlockingQueue<>(QUEUE_SIZE);
+    private final static Voice[] voices = new Voice[VOICES];
+    // the same state as plain arrays, for chooseVoice
+    private final static boolean[] bBusy = new boolean[VOICES];
+    private final static boolean[] bSame = new boolean[VOICES]; // busy with the sample being started
+    private final static int[] nPriorities = new int[VOICES];
+    private final static long[] lStarts = new long[VOICES];
+    private static volatile Thread audioThread; // started by the first caller; only that start locks
+
+    private final static AtomicLong lPlayed = new AtomicLong();
+    private final static AtomicLong lDropped = new AtomicLong();
+    private final static AtomicLong lStolen = new AtomicLong();
+    private final static AtomicLong lCapped = new AtomicLong();
+    private final static AtomicLong lDecoded = new AtomicLong();
+    private final static AtomicLong lFailed = new AtomicLong();
+
+    static {
+        for (int nC = 0; nC < VOICES; nC++) {
+            voices[nC] = new Voice();
+        }
+    }
+
+    /**
+     * Queues a sample to be played as recorded. Never blocks; if the queue is full the effect is dropped.
+     *
+     * @param strPath   The path of the WAV, relative to the Sound class.
+     * @param nPriority The priority; higher priorities may steal voices from lower ones.
+     */
+    public static void play(String strPath, int nPriority) {
+        play(strPath, nPriority, 0f);
+    }
+
+    /**
+     * Queues a sample to be played. Never blocks; if the queue is full, the effect takes the place of a
+     * queued effect of lower priority, or is dropped if there is none.
+     *
+     * @param strPath   The path of the WAV, relative to the Sound class.
+     * @param nPriority The priority; higher priorities may steal voices from lower ones.
+     * @param fGainDb   The gain in decibels, 0 for the sample as recorded; limited to what the line allows.
+     */
+    public static void play(String strPath, int nPriority, float fGainDb) {
+        Request request = new Request(strPath, nPriority, fGainDb);
+        if (!requests.offer(request) && !(evictBelow(nPriority) && requests.offer(request))) {
+            lDropped.incrementAndGet();
+            return;
+        }
+        if (audioThread == null) {
+            startAudioThread();
+        }
+    }
+
+    // removes one queued request of lower priority than nPriority; false if there is none
+    private static boolean evictBelow(int nPriority) {
+        for (Iterator<Request> it = requests.iterator(); it.hasNext(); ) {
+            if (it.next().nPriority < nPriority) {
+                it.remove();
+                lDropped.incrementAndGet();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static synchronized void startAudioThread() {
+        if (audioThread == null) {
+            audioThread = new Thread(SoundEngine::runAudio, "audio");
+            audioThread.setDaemon(true);
+            audioThread.start();
+        }
+    }
+
+    private static void runAudio() {
+        while (true) {
+            try {
+                Request request = requests.poll(1, TimeUnit.SECONDS);
+                if (request != null) {
+                    start(request);
+                }
+                closeIdleVoices();
+            } catch (InterruptedException e) {
+                // keep serving; the thread is a daemon and ends with the game
+            } catch (Exception e) {
+                lFailed.incrementAndGet();
+                System.err.println(e.getMessage());
+            }
+        }
+    }
+
+    // runs on the audio thread only
+    private static void start(Request request) throws Exception {
+        Sample sample = getSample(request.strPath);
+        if (sample == null) {
+            return;
+        }
+
+        long lNow = System.nanoTime();
+        for (int nC = 0; nC < VOICES; nC++) {
+            bBusy[nC] = voices[nC].lBusyUntil > lNow;
+            bSame[nC] = bBusy[nC] && voices[nC].sample == sample;
+            nPriorities[nC] = voices[nC].nPriority;
+            lStarts[nC] = voices[nC].lStarted;
+        }
+        int nVoice = capVoice(bSame, lStarts, MAX_PER_SAMPLE);
+        if (nVoice >= 0) {
+            lCapped.incrementAndGet();
+        } else {
+            nVoice = chooseVoice(bBusy, nPriorities, lStarts, request.nPriority);
+            if (nVoice < 0) {
+                lDropped.incrementAndGet();
+                return;
+            }
+            if (bBusy[nVoice]) {
+                lStolen.incrementAndGet();
+            }
+        }
+
+        Voice voice = voices[nVoice];
+        if (voice.clp == null) {
+            voice.clp = AudioSystem.getClip();
+        }
+        voice.clp.stop();
+        if (voice.sample != sample || !voice.clp.isOpen()) {
+            voice.clp.close();
+            voice.clp.open(sample.format, sample.pcm, 0, sample.pcm.length);
+            voice.sample = sample;
+        }
+        setGain(voice.clp, request.fGainDb);
+        voice.clp.setFramePosition(0);
+        voice.clp.start();
+        voice.lStarted = lNow;
+        voice.lBusyUntil = lNow + sample.lDurationNanos;
+        voice.nPriority = request.nPriority;
+        lPlayed.incrementAndGet();
+    }
+
+    // runs on the audio thread only
+    private static void closeIdleVoices() {
+        long lNow = System.nanoTime();
+        for (Voice voice : voices) {
+            if (voice.clp != null && voice.clp.isOpen() && lNow - voice.lBusyUntil > IDLE_CLOSE_NANOS) {
+                voice.clp.close();
+                voice.sample = null;
+            }
+        }
+    }
+
+    // sets a voice's gain, or leaves it if the line has no gain control
+    private static void setGain(Clip clp, float fGainDb) {
+        if (clp.isControlSupported(FloatControl.Type.MASTER_GAIN)) {
+            FloatControl control = (FloatControl) clp.getControl(FloatControl.Type.MASTER_GAIN);
+            control.setValue(Math.max(control.getMinimum(), Math.min(control.getMaximum(), fGainDb)));
+        }
+    }
+
+    /**
+     * Picks the voice to restart when a sample is already playing on as many voices as it may use:
+     * the oldest of them.
+     *
+     * @param bSame   Whether each voice is still playing the sample.
+     * @param lStarts When each voice started playing.
+     * @param nCap    The most voices a sample may play on.
+     * @return The voice to restart, or -1 if the sample is under its cap.
+     */
+    public static int capVoice(boolean[] bSame, long[] lStarts, int nCap) {
+        int nCount = 0;
+        int nOldest = -1;
+        for (int nC = 0; nC < bSame.length; nC++) {
+            if (bSame[nC]) {
+                nCount++;
+                if (nOldest < 0 || lStarts[nC] < lStarts[nOldest]) {
+                    nOldest = nC;
+                }
+            }
+        }
+        return nCount >= nCap ? nOldest : -1;
+    }
+
+    /**
+     * Picks the voice for a new effect: a free voice if there is one, otherwise the busy voice with the
+     * lowest priority, the oldest among equals, provided its priority is not above the new effect's.
+     *
+     * @param bBusy       Whether each voice is still playing.
+     * @param nPriorities The priority of what each voice is playing.
+     * @param lStarts     When each voice started playing.
+     * @param nPriority   The priority of the new effect.
+     * @return The voice to use, or -1 to drop the new effect.
+     */
+    public static int chooseVoice(boolean[] bBusy, int[] nPriorities, long[] lStarts, int nPriority) {
+        int nVictim = -1;
+        for (int nC = 0; nC < bBusy.length; nC++) {
+            if (!bBusy[nC]) {
+                return nC;
+            }
+            if (nVictim < 0 || nPriorities[nC] < nPriorities[nVictim]
+                    || (nPriorities[nC] == nPriorities[nVictim] && lStarts[nC] < lStarts[nVictim])) {
+                nVictim = nC;
+            }
+        }
+        return nVictim >= 0 && nPriorities[nVictim] <= nPriority ? nVictim : -1;
+    }
+
+    /**
+     * Returns the decoded sample for a path, decoding it the first time it is asked for.
+     *
+     * @param strPath The path of the WAV, relative to the Sound class.
+     * @return The sample, or null if the file is missing or cannot be decoded.
+     */
+    public static Sample getSample(String strPath) {
+        synchronized (samples) {
+            Sample sample = samples.get(strPath);
+            if (sample == null) {
+                sample = decode(strPath);
+                samples.put(strPath, sample);
+            }
+            return sample == MISSING ? null : sample;
+        }
+    }
+
+    /**
+     * Opens a new Clip on a cached sample, e.g. for music that loops for a whole level.
+     * The caller owns the clip and must close it.
+     *
+     * @param strPath The path of the WAV, relative to the Sound class.
+     * @return The opened clip, or null if the sample is missing.
+     * @throws LineUnavailableException if no line can be opened.
+     */
+    public static Clip openClip(String strPath) throws LineUnavailableException {
+        Sample sample = getSample(strPath);
+        if (sample == null) {
+            return null;
+        }
+        Clip clp = AudioSystem.getClip();
+        clp.open(sample.format, sample.pcm, 0, sample.pcm.length);
+        return clp;
+    }
+
+    /**
+     * Decodes a WAV into PCM without consulting the cache.
+     *
+     * @param strPath The path of the WAV, relative to the Sound class.
+     * @return The sample, or MISSING if the file is missing or cannot be decoded.
+     */
+    static Sample decode(String strPath) {
+        InputStream stream = Sound.class.getResourceAsStream(strPath);
+        if (stream == null) {
+            System.err.println("Sound not found: " + strPath);
+            lFailed.incrementAndGet();
+            return MISSING;
+        }
+        try (AudioInputStream aisSource = AudioSystem.getAudioInputStream(new BufferedInputStream(stream))) {
+            AudioFormat format = aisSource.getFormat();
+            AudioInputStream aisPcm = aisSource;
+            if (format.getEncoding() != AudioFormat.Encoding.PCM_SIGNED
+                    && format.getEncoding() != AudioFormat.Encoding.PCM_UNSIGNED) {
+                format = new AudioFormat(format.getSampleRate(), 16, format.getChannels(), true, false);
+                aisPcm = AudioSystem.getAudioInputStream(format, aisSource);
+            }
+            byte[] pcm = aisPcm.readAllBytes();
+            lDecoded.incrementAndGet();
+            return new Sample(format, pcm);
+        } catch (Exception e) {
+            System.err.println(e.getMessage());
+            lFailed.incrementAndGet();
+            return MISSING;
+        }
+    }
+
+    /**
+     * Returns how many effects were started.
+     *
+     * @return The played count.
+     */
+    public static long getPlayed() {
+        return lPlayed.get();
+    }
+
+    /**
+     * Returns how many effects were dropped because the queue was full or every voice mattered more.
+     *
+     * @return The dropped count.
+     */
+    public static long getDropped() {
+        return lDropped.get();
+    }
+
+    /**
+     * Returns how many playing effects were cut off to make room for a new one.
+     *
+     * @return The stolen count.
+     */
+    public static long getStolen() {
+        return lStolen.get();
+    }
+
+    /**
+     * Returns how many effects restarted a voice already playing their sample, because of MAX_PER_SAMPLE.
+     *
+     * @return The capped count.
+     */
+    public static long getCapped() {
+        return lCapped.get();
+    }
+
+    /**
+     * Returns how many WAV files have been decoded into the cache.
+     *
+     * @return The decode count.
+     */
+    public static long getDecoded() {
+        return lDecoded.get();
+    }
+
+    /**
+     * Returns how many sounds could not be found, decoded or played.
+     *
+     * @return The failure count.
+     */
+    public static long getFailed() {
+        return lFailed.get();
+    }
+}
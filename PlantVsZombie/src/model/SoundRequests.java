@@ -0,0 +1,154 @@
+package model;
+
+/**
+ * The SoundRequests class gathers the sound effects a simulation step asks for and plays them once
+ * the step is over. Requests for the same sample in one step become a single effect, played louder
+ * the more requests it stands for, so a volley hitting twenty zombies costs one voice instead of
+ * twenty. Effects are handed to the SoundEngine highest priority first, so the cues that matter,
+ * such as game over, reach the queue and the voices before the chatter of bullet hits.
+ * <p>
+ * Each world has its own, filled and flushed by the thread stepping it.
+ */
+public class SoundRequests {
+
+    public final static int MAX_SAMPLES = 32;     // distinct samples per step
+    public final static double MAX_BOOST_DB = 6.0; // the loudest a merged effect gets
+
+    /**
+     * Plays one effect; SoundEngine::play in the game.
+     */
+    public interface Player {
+        /**
+         * Plays a sample.
+         *
+         * @param strPath   The path of the WAV, relative to the Sound class.
+         * @param nPriority The priority, e.g. Sound.PRIORITY_HIGH.
+         * @param fGainDb   The gain in decibels, 0 for the sample as recorded.
+         */
+        void play(String strPath, int nPriority, float fGainDb);
+    }
+
+    private final String[] strPaths = new String[MAX_SAMPLES];
+    private final int[] nCounts = new int[MAX_SAMPLES];
+    private final int[] nPriorities = new int[MAX_SAMPLES];
+    private int nSize;
+    private long lRequested;
+    private long lMerged;
+    private long lDropped;
+
+    /**
+     * Asks for a sample to be played at the end of the step.
+     *
+     * @param strPath   The path of the WAV, relative to the Sound class.
+     * @param nPriority The priority; duplicates play at the highest one asked for.
+     */
+    public void request(String strPath, int nPriority) {
+        nPriority = Math.max(Sound.PRIORITY_LOW, Math.min(Sound.PRIORITY_HIGH, nPriority));
+        lRequested++;
+        for (int nC = 0; nC < nSize; nC++) {
+            if (strPaths[nC].equals(strPath)) {
+                nCounts[nC]++;
+                nPriorities[nC] = Math.max(nPriorities[nC], nPriority);
+                lMerged++;
+                return;
+            }
+        }
+        int nSlot = nSize;
+        if (nSlot == MAX_SAMPLES) {
+            // full: make room only by pushing out something less important
+            nSlot = 0;
+            for (int nC = 1; nC < nSize; nC++) {
+                if (nPriorities[nC] < nPriorities[nSlot]) {
+                    nSlot = nC;
+                }
+            }
+            lDropped++;
+            if (nPriorities[nSlot] >= nPriority) {
+                return;
+            }
+        } else {
+            nSize++;
+        }
+        strPaths[nSlot] = strPath;
+        nCounts[nSlot] = 1;
+        nPriorities[nSlot] = nPriority;
+    }
+
+    /**
+     * Plays what the step asked for on the SoundEngine and starts over.
+     *
+     * @return The number of effects played.
+     */
+    public int flush() {
+        return flush(SoundEngine::play);
+    }
+
+    /**
+     * Plays what the step asked for, one effect per sample, highest priority first, and starts over.
+     *
+     * @param player Where the effects go.
+     * @return The number of effects played.
+     */
+    public int flush(Player player) {
+        int nPlayed = nSize;
+        for (int nPriority = Sound.PRIORITY_HIGH; nPriority >= Sound.PRIORITY_LOW && nSize > 0; nPriority--) {
+            for (int nC = 0; nC < nSize; nC++) {
+                if (nPriorities[nC] == nPriority) {
+                    player.play(strPaths[nC], nPriority, gainFor(nCounts[nC]));
+                }
+            }
+        }
+        for (int nC = 0; nC < nSize; nC++) {
+            strPaths[nC] = null;
+        }
+        nSize = 0;
+        return nPlayed;
+    }
+
+    /**
+     * Returns the gain of an effect standing for several requests: the sum of that many
+     * independent copies, 3 dB per doubling, capped at MAX_BOOST_DB.
+     *
+     * @param nCount The number of requests merged, at least 1.
+     * @return The gain in decibels.
+     */
+    public static float gainFor(int nCount) {
+        return (float) Math.min(MAX_BOOST_DB, 10 * Math.log10(nCount));
+    }
+
+    /**
+     * Returns the number of distinct samples waiting for the end of the step.
+     *
+     * @return The pending count.
+     */
+    public int getPending() {
+        return nSize;
+    }
+
+    /**
+     * Returns how many effects were asked for.
+     *
+     * @return The request count.
+     */
+    public long getRequested() {
+        return lRequested;
+    }
+
+    /**
+     * Returns how many requests were folded into an effect already asked for in the same step.
+     *
+     * @return The merged count.
+     */
+    public long getMerged() {
+        return lMerged;
+    }
+
+    /**
+     * Returns how many requests found no room among the step's samples.
+     *
+     * @return The dropped count.
+     */
+    public long getDropped() {
+        return lDropped;
+    }
+}
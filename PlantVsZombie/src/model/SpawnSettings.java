@@ -0,0 +1,163 @@
+package model;
+
+/**
+ * The SpawnSettings class holds the numbers that set the pace of a game: how often suns fall,
+ * how often zombies and crazy zombies get a chance to spawn, the odds of that chance, and how
+ * many points make a level. The defaults are the game as designed; the balancing harness plays
+ * many games with other values to see how they change survival and score. Settings are
+ * immutable; toArray and fromArray convert them to and from a plain int array.
+ */
+public class SpawnSettings {
+
+    // parameter indexes, in array order
+    public final static int SUN = 0;
+    public final static int ZOMBIE = 1;
+    public final static int ZOMBIE_LATE = 2;
+    public final static int CRAZY = 3;
+    public final static int ODDS = 4;
+    public final static int LEVEL_UP = 5;
+    public final static String[] NAMES = {"sun", "zombie", "zombieLate", "crazy", "odds", "levelUp"};
+
+    public final static SpawnSettings DEFAULT = new SpawnSettings(new int[]{13, 50, 20, 15, 7, 300});
+
+    private final int[] nValues;
+
+    private SpawnSettings(int[] nValues) {
+        for (int nC = 0; nC < nValues.length; nC++) {
+            if (nValues[nC] <= 0) {
+                throw new IllegalArgumentException(NAMES[nC] + " must be positive: " + nValues[nC]);
+            }
+        }
+        this.nValues = nValues;
+    }
+
+    /**
+     * Returns the ticks between chances for a sun to fall.
+     *
+     * @return The sun interval.
+     */
+    public int getSunInterval() {
+        return nValues[SUN];
+    }
+
+    /**
+     * Returns the ticks between chances for a zombie to spawn on level 1.
+     *
+     * @return The early zombie interval.
+     */
+    public int getZombieInterval() {
+        return nValues[ZOMBIE];
+    }
+
+    /**
+     * Returns the ticks between chances for a zombie to spawn from level 2 on.
+     *
+     * @return The late zombie interval.
+     */
+    public int getLateZombieInterval() {
+        return nValues[ZOMBIE_LATE];
+    }
+
+    /**
+     * Returns the ticks between chances for a crazy zombie to spawn from level 2 on.
+     *
+     * @return The crazy zombie interval.
+     */
+    public int getCrazyInterval() {
+        return nValues[CRAZY];
+    }
+
+    /**
+     * Returns the spawn odds: a zombie spawns when a roll of 0-9 is divisible by it, so 1 always
+     * spawns, 2 spawns half the time, 3 four times in ten, 4 three times, 5 to 9 twice and 10 or
+     * more once.
+     *
+     * @return The divisor.
+     */
+    public int getSpawnOdds() {
+        return nValues[ODDS];
+    }
+
+    /**
+     * Returns the score step at which the level goes up.
+     *
+     * @return The points per level.
+     */
+    public int getLevelUpScore() {
+        return nValues[LEVEL_UP];
+    }
+
+    /**
+     * Returns a parameter by index.
+     *
+     * @param nParam A parameter index, e.g. SUN.
+     * @return The value.
+     */
+    public int get(int nParam) {
+        return nValues[nParam];
+    }
+
+    /**
+     * Returns a copy of these settings with one parameter changed.
+     *
+     * @param nParam A parameter index, e.g. SUN.
+     * @param nValue The new value; must be positive.
+     * @return The new settings.
+     */
+    public SpawnSettings with(int nParam, int nValue) {
+        int[] nCopy = nValues.clone();
+        nCopy[nParam] = nValue;
+        return new SpawnSettings(nCopy);
+    }
+
+    /**
+     * Returns the parameter index of a name.
+     *
+     * @param strName A name from NAMES.
+     * @return The index.
+     */
+    public static int indexOf(String strName) {
+        for (int nC = 0; nC < NAMES.length; nC++) {
+            if (NAMES[nC].equals(strName)) {
+                return nC;
+            }
+        }
+        throw new IllegalArgumentException("Unknown spawn parameter " + strName);
+    }
+
+    /**
+     * Returns the parameters as an int array, in index order.
+     *
+     * @return A copy of the values.
+     */
+    public int[] toArray() {
+        return nValues.clone();
+    }
+
+    /**
+     * Creates settings from an int array made by toArray.
+     *
+     * @param nValues The values, in index order.
+     * @return The settings.
+     */
+    public static SpawnSettings fromArray(int[] nValues) {
+        if (nValues.length != NAMES.length) {
+            throw new IllegalArgumentException("Expected " + NAMES.length + " spawn parameters, got " + nValues.length);
+        }
+        return new SpawnSettings(nValues.clone());
+    }
+
+    /**
+     * Returns the settings as name=value pairs, for reports.
+     *
+     * @return The settings as text.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int nC = 0; nC < NAMES.length; nC++) {
+            sb.append(nC == 0 ? "" : " ").append(NAMES[nC]).append('=').append(nValues[nC]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,166 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * The SpawnTimeline class turns the spawn rules of the current level into a list of spawns sorted
+ * by tick, and hands them out as the game reaches them. The rules are compiled HORIZON ticks at a
+ * time: every chance a rule gets in that stretch is rolled up front, the spawns that came up are
+ * sorted, and each tick only moves a cursor past the spawns due. A tick costs the spawns it makes,
+ * however many rules the level has.
+ * <p>
+ * The timeline compiles again when the level, the schedule or the spawn settings change, when it
+ * runs out, and when the tick goes back (a loaded game, or the counter wrapping), so it always
+ * follows the world it belongs to. All rolls come from the world's SUN and SPAWN streams, so a
+ * seed still decides the whole game.
+ */
+public class SpawnTimeline {
+
+    // ticks compiled at once
+    public final static int HORIZON = 1000;
+
+    private final GameWorld world;
+    // the compiled spawns, sorted by tick: when, what, and the lane's y or the sun's x
+    private int[] nTicks = new int[64];
+    private byte[] nKinds = new byte[64];
+    private int[] nCoords = new int[64];
+    private int nSize;
+    private int nCursor;
+    // spawns as rolled, before sorting, and their sort keys
+    private int[] nRolledTicks = new int[64];
+    private byte[] nRolledKinds = new byte[64];
+    private int[] nRolledCoords = new int[64];
+    private long[] lKeys = new long[64];
+    // what the compiled spawns were made from, and the ticks they cover
+    private boolean bCompiled;
+    private WaveSchedule.Level level;
+    private SpawnSettings settings;
+    private long lFrom;
+    private long lTo;
+    private int nLastTick;
+
+    /**
+     * Constructs an empty timeline for a world.
+     *
+     * @param world The world whose level, settings and random streams drive it.
+     */
+    public SpawnTimeline(GameWorld world) {
+        this.world = world;
+    }
+
+    /**
+     * Drops the compiled spawns; the next spawnDue compiles afresh. Called when a game starts.
+     */
+    public void reset() {
+        bCompiled = false;
+        nSize = 0;
+        nCursor = 0;
+    }
+
+    /**
+     * Spawns everything due on a tick into the world's stores. Call it once per tick, in order.
+     *
+     * @param nTick The tick just reached.
+     * @return The number of entities spawned.
+     */
+    public int spawnDue(int nTick) {
+        WaveSchedule.Level current = world.getWaveSchedule().getLevel(world.getLevel());
+        SpawnSettings currentSettings = world.getSpawnSettings();
+        if (!bCompiled || current != level || currentSettings != settings || nTick < nLastTick || nTick >= lTo) {
+            compile(nTick, current, currentSettings);
+        }
+        nLastTick = nTick;
+
+        int nSpawned = 0;
+        while (nCursor < nSize && nTicks[nCursor] <= nTick) {
+            if (nTicks[nCursor] == nTick) {
+                if (nKinds[nCursor] == WaveSchedule.SUN) {
+                    world.movSun.add(new Sun(nCoords[nCursor]));
+                } else if (nKinds[nCursor] == WaveSchedule.ZOMBIE) {
+                    world.movFoes.add(new Zombie(nCoords[nCursor]));
+                } else {
+                    world.movFoes.add(new CrazyZombie(nCoords[nCursor]));
+                }
+                nSpawned++;
+            }
+            nCursor++;
+        }
+        return nSpawned;
+    }
+
+    /**
+     * Returns the number of compiled spawns not handed out yet.
+     *
+     * @return The pending spawn count.
+     */
+    public int getPending() {
+        return nSize - nCursor;
+    }
+
+    /**
+     * Returns the tick of the next compiled spawn.
+     *
+     * @return The tick, or -1 if none is pending.
+     */
+    public int getNextTick() {
+        return nCursor < nSize ? nTicks[nCursor] : -1;
+    }
+
+    // rolls every rule's chances in [nFrom, nFrom + HORIZON) and sorts the spawns that came up
+    private void compile(int nFrom, WaveSchedule.Level current, SpawnSettings currentSettings) {
+        level = current;
+        settings = currentSettings;
+        lFrom = nFrom;
+        lTo = lFrom + HORIZON;
+        bCompiled = true;
+
+        int nRolled = 0;
+        for (WaveSchedule.Rule rule : current.getRules()) {
+            int nKind = rule.getKind();
+            int nEvery = rule.getEvery(currentSettings);
+            int nChance = rule.getChance(currentSettings);
+            int nLanes = rule.getLastLane() - rule.getFirstLane() + 1;
+            GameRandom.Stream rnd = world.random.stream(nKind == WaveSchedule.SUN ? GameRandom.SUN : GameRandom.SPAWN);
+            // the rule's chances fall on the multiples of its interval, as they always have
+            for (long lTick = (lFrom + nEvery - 1) / nEvery * nEvery; lTick < lTo && lTick <= Integer.MAX_VALUE; lTick += nEvery) {
+                if (rnd.nextInt(100) >= nChance) {
+                    continue;
+                }
+                for (int nC = 0; nC < rule.getCount(); nC++) {
+                    int nCoord = nKind == WaveSchedule.SUN
+                            ? rnd.nextInt(CommandCenter.WORLD_WIDTH)
+                            : (rule.getFirstLane() + rnd.nextInt(nLanes)) * LawnGrid.CELL_SIZE;
+                    if (nRolled == nRolledTicks.length) {
+                        grow(nRolled * 2);
+                    }
+                    nRolledTicks[nRolled] = (int) lTick;
+                    nRolledKinds[nRolled] = (byte) nKind;
+                    nRolledCoords[nRolled] = nCoord;
+                    // tick in the high half, roll order in the low half: same-tick spawns keep rule order
+                    lKeys[nRolled] = lTick << 32 | nRolled;
+                    nRolled++;
+                }
+            }
+        }
+
+        Arrays.sort(lKeys, 0, nRolled);
+        for (int nC = 0; nC < nRolled; nC++) {
+            int nFromIndex = (int) lKeys[nC];
+            nTicks[nC] = nRolledTicks[nFromIndex];
+            nKinds[nC] = nRolledKinds[nFromIndex];
+            nCoords[nC] = nRolledCoords[nFromIndex];
+        }
+        nSize = nRolled;
+        nCursor = 0;
+    }
+
+    private void grow(int nCapacity) {
+        nTicks = Arrays.copyOf(nTicks, nCapacity);
+        nKinds = Arrays.copyOf(nKinds, nCapacity);
+        nCoords = Arrays.copyOf(nCoords, nCapacity);
+        nRolledTicks = Arrays.copyOf(nRolledTicks, nCapacity);
+        nRolledKinds = Arrays.copyOf(nRolledKinds, nCapacity);
+        nRolledCoords = Arrays.copyOf(nRolledCoords, nCapacity);
+        lKeys = Arrays.copyOf(lKeys, nCapacity);
+    }
+}
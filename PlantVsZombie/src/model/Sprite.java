@@ -1,10 +1,8 @@
 package model;
 
 
-import controller.GameController;
-import view.GamePanel;
-
 import java.awt.*;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 
 /**
@@ -18,6 +16,8 @@ public abstract class Sprite implements Movable {
     public Dimension dim;
     public int radius;
     public Point pointCenter;
+    //center before the latest simulation step, used to interpolate rendering
+    private Point pntPrevCenter;
     public int orientation;
     //this causes movement; change in x and change in y
     private double dDeltaX, dDeltaY;
@@ -28,9 +28,13 @@ public abstract class Sprite implements Movable {
     //this game uses radial coordinates to render sprites
     public double[] dLengths;
     public double[] dDegrees;
-    private ArrayList<Integer> nXCoords;
-    private ArrayList<Integer> nYCoords;
     private ArrayList<Point> pntCoords; //an array of points used to draw polygon
+    //vertex offsets for every orientation, looked up once per shape; cleared when the shape or radius changes
+    private ShapeTable shape;
+    //screen coordinates of the polygon, refilled by draw() without allocating
+    private int[] nXPolygon = new int[0];
+    private int[] nYPolygon = new int[0];
+    private int nPolygonSize;
 
     private Color col;
 
@@ -40,10 +44,10 @@ public abstract class Sprite implements Movable {
     public Sprite() {
 
         //you can override this and many more in the subclasses
-        setDimension(GamePanel.SCREEN_SIZE);
+        setDimension(CommandCenter.WORLD_SIZE);
         setColor(Color.white);
-        setPointCenter(new Point(GameController.randomNum.nextInt(GamePanel.SCREEN_SIZE.width),
-                GameController.randomNum.nextInt(GamePanel.SCREEN_SIZE.height)));
+        GameRandom.Stream rnd = CommandCenter.getRandom().stream(GameRandom.SPRITE);
+        setPointCenter(new Point(rnd.nextInt(CommandCenter.WORLD_WIDTH), rnd.nextInt(CommandCenter.WORLD_HEIGHT)));
 
 
     }
@@ -52,10 +56,12 @@ public abstract class Sprite implements Movable {
 
     public void setDimension(Dimension dim) {this.dim = dim;}
     public Dimension getDimension() {return this.dim;}
-    public void setRadius(int radius) {this.radius = radius;}
+    public void setRadius(int radius) {this.radius = radius; this.shape = null;}
     public int getRadius() {return this.radius;}
     public void setPointCenter(Point pointCenter) {this.pointCenter = pointCenter;}
     public Point getPointCenter() {return this.pointCenter;}
+    public Point getPrevPointCenter() {return pntPrevCenter == null ? pointCenter : pntPrevCenter;}
+    public void savePrevPointCenter() {this.pntPrevCenter = this.pointCenter;}
     public void setOrientation(int orientation) {this.orientation = orientation;}
     public int getOrientation() {return this.orientation;}
     public void setDeltaX(double deltaX) {this.dDeltaX = deltaX;}
@@ -67,12 +73,14 @@ public abstract class Sprite implements Movable {
     }
     public void setLengths(double[] dLengths) {
         this.dLengths = dLengths;
+        this.shape = null;
     }
     public double[] getDegrees() {
         return this.dDegrees;
     }
     public void setDegrees(double[] dDegrees) {
         this.dDegrees = dDegrees;
+        this.shape = null;
     }
 
     public void setnExpiry(int nExpiry) {this.nExpiry = nExpiry;}
@@ -83,10 +91,9 @@ public abstract class Sprite implements Movable {
     public Color getColor() {return col;}
     public void setColor(Color col) {this.col = col;}
 
-    public void setnXCoords(ArrayList<Integer> nXCoords) {this.nXCoords = nXCoords;}
-    public ArrayList<Integer> getnXCoords() {return nXCoords;}
-    public void setnYCoords(ArrayList<Integer> nYCoords) {this.nYCoords = nYCoords;}
-    public ArrayList<Integer> getnYCoords() {return nYCoords;}
+    public int[] getPolygonXs() {return nXPolygon;}
+    public int[] getPolygonYs() {return nYPolygon;}
+    public int getPolygonSize() {return nPolygonSize;}
     public ArrayList<Point> getObjectPoints() {
         return pntCoords;
     }
@@ -94,16 +101,6 @@ public abstract class Sprite implements Movable {
         pntCoords = pntPs;
     }
 
-    /**
-     * Converts a list of integers to an array.
-     *
-     * @param nCoords The list of integers.
-     * @return The array of integers.
-     */
-    public int[] toArrayIntCoords(ArrayList<Integer> nCoords) {
-        return nCoords.stream().mapToInt(Integer::intValue).toArray();
-    }
-
     //utility function to convert from cartesian to polar
     //since it's much easier to describe a sprite as a list of cartesean points
     //sprites (except Asteroid) should use the cartesean technique to describe the coordinates
@@ -209,40 +206,27 @@ public abstract class Sprite implements Movable {
 
     // this is a super class, need to add more drawing functions in subclasses.
     /**
-     * Draws the sprite. This is an abstract method and should be overridden by subclasses.
+     * Computes the sprite's polygon for its current position and orientation into
+     * getPolygonXs(), getPolygonYs() and getPolygonSize(). Subclasses call this, then draw the polygon.
+     * The vertex offsets come from a shared ShapeTable, so no trigonometry or allocation happens per frame.
      *
      * @param g The graphics object for drawing.
      */
     public void draw(Graphics g) {
 
-        nXCoords = new ArrayList<>();
-        nYCoords = new ArrayList<>();
-        //need this as well
-        pntCoords = new ArrayList<>();
-
-        for (int nC = 0; nC < dDegrees.length; nC++) {
-            nXCoords.add((int) (getPointCenter().x + getRadius()
-                    * dLengths[nC]
-                    * Math.sin(Math.toRadians(getOrientation()) + dDegrees[nC])));
-            nYCoords.add((int) (getPointCenter().y - getRadius()
-                    * dLengths[nC]
-                    * Math.cos(Math.toRadians(getOrientation()) + dDegrees[nC])));
-
-
-            //need this line of code to create the points which we will need for debris
-            pntCoords.add(new Point(nXCoords.get(nC), nYCoords.get(nC)));
+        ShapeTable table = shape;
+        if (table == null) {
+            table = ShapeTable.of(dLengths, dDegrees, getRadius());
+            shape = table;
         }
-
-//
-//        nXCoords = new ArrayList<>();
-//        nYCoords = new ArrayList<>();
-//        for (Point p : pntCoords) {
-//            nXCoords.add(p.x+ pointCenter.x);  // Add the x-coordinate to the list
-//            nYCoords.add(p.y+pointCenter.y);
-//        }
-
-//        g.setColor(getColor());
-//        g.drawPolygon(toArrayIntCoords(nXCoords), toArrayIntCoords(nYCoords), nXCoords.size());
+        int nVertices = table.getVertexCount();
+        if (nXPolygon.length < nVertices) {
+            nXPolygon = new int[nVertices];
+            nYPolygon = new int[nVertices];
+        }
+        Point pnt = getPointCenter();
+        table.fill(pnt.x, pnt.y, getOrientation(), nXPolygon, nYPolygon);
+        nPolygonSize = nVertices;
     }
 
     /**
@@ -251,5 +235,39 @@ public abstract class Sprite implements Movable {
     public void expire() {
     }
 
+    /**
+     * Writes the sprite's state for a SaveState: position, orientation, expiry, radius, color and
+     * velocity, SaveState.SPRITE_BYTES in all. Subclasses append their own fields.
+     *
+     * @param buf The buffer to write to.
+     */
+    void saveState(ByteBuffer buf) {
+        Point pnt = getPointCenter();
+        buf.putInt(pnt.x);
+        buf.putInt(pnt.y);
+        buf.putInt(getOrientation());
+        buf.putInt(nExpiry);
+        buf.putInt(getRadius());
+        buf.putInt(col == null ? 0 : col.getRGB());
+        buf.putDouble(getDeltaX());
+        buf.putDouble(getDeltaY());
+    }
+
+    /**
+     * Reads back the state written by saveState.
+     *
+     * @param buf The buffer to read from.
+     */
+    void restoreState(ByteBuffer buf) {
+        setPointCenter(new Point(buf.getInt(), buf.getInt()));
+        savePrevPointCenter(); // a restored sprite must not be drawn sliding from where it was built
+        setOrientation(buf.getInt());
+        setnExpiry(buf.getInt());
+        setRadius(buf.getInt());
+        setColor(new Color(buf.getInt(), true));
+        setDeltaX(buf.getDouble());
+        setDeltaY(buf.getDouble());
+    }
+
 
 }
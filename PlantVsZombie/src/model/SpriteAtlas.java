@@ -0,0 +1,196 @@
+package model;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The SpriteAtlas class caches pre-rasterized images of sprites. A sprite that supports the atlas
+ * describes its current look (animation frame, rotation, frozen state, color) as a variant key;
+ * the first time a variant is drawn its Java2D primitives are rasterized once into an image, and
+ * from then on the sprite is drawn with a single drawImage. The least recently used images are
+ * dropped once the atlas is full.
+ */
+public class SpriteAtlas {
+
+    /**
+     * Implemented by sprites that can be drawn from the atlas.
+     */
+    public interface Cached {
+        /**
+         * Returns a key that is equal for two sprites exactly when they look the same.
+         * The key must include the sprite's class, see typeBits().
+         *
+         * @return The variant key.
+         */
+        long getAtlasKey();
+
+        /**
+         * Returns how far the sprite's primitives reach from its center, in any direction.
+         *
+         * @return Half the width and height of the cached image.
+         */
+        int getAtlasExtent();
+
+        /**
+         * Draws the sprite from Java2D primitives around its current center.
+         *
+         * @param g The Graphics object to draw on.
+         */
+        void drawPrimitives(Graphics g);
+
+        /**
+         * Returns the center of the sprite.
+         *
+         * @return The center point.
+         */
+        Point getPointCenter();
+    }
+
+    public final static int MAX_IMAGES = 256;
+
+    // sprite classes, kept in the top bits of a variant key
+    public final static int TYPE_ZOMBIE = 1;
+    public final static int TYPE_CRAZY_ZOMBIE = 2;
+    public final static int TYPE_PEASHOOTER = 3;
+    public final static int TYPE_SUN = 4;
+    public final static int TYPE_EXPLODING_HEAD = 5;
+
+    private static volatile boolean bEnabled = !"false".equals(System.getProperty("pvz.atlas"));
+
+    private final static Map<Long, BufferedImage> images = new LinkedHashMap<Long, BufferedImage>(MAX_IMAGES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, BufferedImage> eldest) {
+            if (size() > MAX_IMAGES) {
+                lEvictions++;
+                return true;
+            }
+            return false;
+        }
+    };
+    private static GraphicsConfiguration config;
+    private static long lHits;
+    private static long lMisses;
+    private static long lEvictions;
+
+    /**
+     * Returns the bits that mark a variant key as belonging to the given sprite class.
+     *
+     * @param nType One of the TYPE_ constants.
+     * @return The type bits, to be or-ed into the rest of the key.
+     */
+    public static long typeBits(int nType) {
+        return (long) nType << 56;
+    }
+
+    /**
+     * Draws a sprite, from the atlas if enabled, otherwise from its primitives.
+     *
+     * @param sprite The sprite to draw.
+     * @param g      The Graphics object to draw on.
+     */
+    public static void draw(Cached sprite, Graphics g) {
+        if (!bEnabled) {
+            sprite.drawPrimitives(g);
+            return;
+        }
+        int nExtent = sprite.getAtlasExtent();
+        Point pnt = sprite.getPointCenter();
+        g.drawImage(imageOf(sprite, nExtent), pnt.x - nExtent, pnt.y - nExtent, null);
+    }
+
+    private static synchronized BufferedImage imageOf(Cached sprite, int nExtent) {
+        long lKey = sprite.getAtlasKey();
+        BufferedImage img = images.get(lKey);
+        if (img != null) {
+            lHits++;
+            return img;
+        }
+        lMisses++;
+        img = createImage(2 * nExtent, 2 * nExtent);
+        Graphics2D g2 = img.createGraphics();
+        Point pnt = sprite.getPointCenter();
+        g2.translate(nExtent - pnt.x, nExtent - pnt.y);
+        sprite.drawPrimitives(g2);
+        g2.dispose();
+        images.put(lKey, img);
+        return img;
+    }
+
+    // an image in the screen's pixel format where there is a screen, so blits need no conversion
+    private static BufferedImage createImage(int nWidth, int nHeight) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(nWidth, nHeight, BufferedImage.TYPE_INT_ARGB);
+        }
+        if (config == null) {
+            config = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+        }
+        return config.createCompatibleImage(nWidth, nHeight, Transparency.TRANSLUCENT);
+    }
+
+    /**
+     * Turns the atlas on or off; while off sprites are drawn from their primitives every frame.
+     * Can also be turned off at startup with -Dpvz.atlas=false.
+     *
+     * @param b True to draw from the atlas.
+     */
+    public static void setEnabled(boolean b) {
+        bEnabled = b;
+    }
+
+    /**
+     * Returns whether sprites are drawn from the atlas.
+     *
+     * @return True if the atlas is enabled.
+     */
+    public static boolean isEnabled() {
+        return bEnabled;
+    }
+
+    /**
+     * Drops every cached image and resets the counters.
+     */
+    public static synchronized void clear() {
+        images.clear();
+        lHits = 0;
+        lMisses = 0;
+        lEvictions = 0;
+    }
+
+    /**
+     * Returns the number of cached images.
+     *
+     * @return The atlas size.
+     */
+    public static synchronized int size() {
+        return images.size();
+    }
+
+    /**
+     * Returns how many draws were served from a cached image.
+     *
+     * @return The hit count.
+     */
+    public static synchronized long getHits() {
+        return lHits;
+    }
+
+    /**
+     * Returns how many draws had to rasterize a new image.
+     *
+     * @return The miss count.
+     */
+    public static synchronized long getMisses() {
+        return lMisses;
+    }
+
+    /**
+     * Returns how many images were dropped to stay within MAX_IMAGES.
+     *
+     * @return The eviction count.
+     */
+    public static synchronized long getEvictions() {
+        return lEvictions;
+    }
+}
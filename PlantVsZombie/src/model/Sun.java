@@ -1,18 +1,19 @@
 package model;
 
-import controller.GameController;
-
 import javax.swing.*;
 import java.awt.*;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 
 /**
  * Represents a Sun object in the game. The Sun can be either static or animated,
  * and it provides credit points when collected.
  */
-public class Sun extends Sprite {
+public class Sun extends Sprite implements SpriteAtlas.Cached {
     private final static int SUN_RADIUS = 20;
+    private final static int ATLAS_EXTENT = 44; // reach of the drawing from the center
     private final static int SCALER = 2;
+    private final static GameLog.Site LOG = GameLog.site("Sun.move", 20);
 
     private int credit = 50;
     private int isStatic = 1;
@@ -103,14 +104,15 @@ public class Sun extends Sprite {
         setObjectPoints(pntCs);
         setOrientation(-90);
 
-        if(GameController.randomNum.nextInt()%2 == 0){
+        GameRandom.Stream rnd = CommandCenter.getRandom().stream(GameRandom.SUN);
+        if(rnd.nextInt()%2 == 0){
             isLeftRotation=1;
         }
         else {
             isLeftRotation=-1;
         }
 
-        stopRotationY = GameController.randomNum.nextInt()%100;
+        stopRotationY = rnd.nextInt()%100;
     }
 
     /**
@@ -123,16 +125,18 @@ public class Sun extends Sprite {
         int y = getPointCenter().y;
 
         int yUpdate = 0;
-        System.out.println( "before ...y is "+ y);
-        System.out.println( "this sun is static "+ isStatic);
+        boolean bDebug = LOG.isEnabled(GameLog.DEBUG);
+        if (bDebug) {
+            LOG.debug("before ...y is {}, this sun is static {}", y, isStatic);
+        }
         if (y>540 && isStatic == 0){
             yUpdate = 540;
         }
         else {
-            System.out.println( "before ...y is "+ y);
-            System.out.println( "before ...DeltaY is "+ getDeltaY());
             yUpdate = y+(int)getDeltaY();
-            System.out.println( "after ...yudate is "+ yUpdate);
+            if (bDebug) {
+                LOG.debug("DeltaY is {}, after ...yUpdate is {}", getDeltaY(), yUpdate);
+            }
         }
 
         // Stop rotation.
@@ -149,29 +153,98 @@ public class Sun extends Sprite {
      */
     public void expire(){
         if (getnExpiry() == 0)
-            CommandCenter.movSun.remove(this);
+            CommandCenter.getMovSun().remove(this);
         else
             setnExpiry(getnExpiry() - 1);
     }
 
+    /**
+     * Draws the Sun from the sprite atlas, rasterizing it the first time this variant is seen.
+     *
+     * @param g The Graphics object used for drawing.
+     */
+    @Override
+    public void draw(Graphics g) {
+        SpriteAtlas.draw(this, g);
+    }
+
+    /**
+     * Returns a key identifying how the Sun currently looks.
+     *
+     * @return The atlas variant key.
+     */
+    @Override
+    public long getAtlasKey() {
+        return SpriteAtlas.typeBits(SpriteAtlas.TYPE_SUN) | Math.floorMod(getOrientation(), ShapeTable.ORIENTATIONS);
+    }
+
+    /**
+     * Returns how far the Sun's primitives reach from its center.
+     *
+     * @return The atlas image half-size.
+     */
+    @Override
+    public int getAtlasExtent() {
+        return ATLAS_EXTENT;
+    }
+
+    /**
+     * Returns how far the Sun's drawing reaches from its center, the same as its atlas image.
+     *
+     * @return The draw extent.
+     */
+    @Override
+    public int getDrawExtent() {
+        return ATLAS_EXTENT;
+    }
+
     /**
      * Draws the Sun object on the screen.
+     * The sprite atlas calls this once per variant; draw() normally blits the cached image.
      *
      * @param g The Graphics object for rendering.
      */
-    public void draw(Graphics g) {
+    @Override
+    public void drawPrimitives(Graphics g) {
         super.draw(g);
 
         g.setColor(Color.ORANGE);
         //fill this polygon (with whatever color it has)
-        g.fillPolygon(toArrayIntCoords(getnXCoords()), toArrayIntCoords(getnYCoords()), getnXCoords().size());
+        g.fillPolygon(getPolygonXs(), getPolygonYs(), getPolygonSize());
         //now draw a white border
 
-        g.drawPolygon(toArrayIntCoords(getnXCoords()), toArrayIntCoords(getnYCoords()), getnXCoords().size());
+        g.drawPolygon(getPolygonXs(), getPolygonYs(), getPolygonSize());
 
         g.setColor(Color.YELLOW);
         g.fillOval(getPointCenter().x-SUN_RADIUS-3, getPointCenter().y-SUN_RADIUS-3, 2*SUN_RADIUS+6, 2*SUN_RADIUS+6);
 
     }
 
+    /**
+     * Writes the Sun's state for a SaveState, followed by its credit and falling and rotation state.
+     *
+     * @param buf The buffer to write to.
+     */
+    @Override
+    void saveState(ByteBuffer buf) {
+        super.saveState(buf);
+        buf.putInt(credit);
+        buf.putInt(isStatic);
+        buf.putInt(stopRotationY);
+        buf.putInt(isLeftRotation);
+    }
+
+    /**
+     * Reads back the state written by saveState.
+     *
+     * @param buf The buffer to read from.
+     */
+    @Override
+    void restoreState(ByteBuffer buf) {
+        super.restoreState(buf);
+        credit = buf.getInt();
+        isStatic = buf.getInt();
+        stopRotationY = buf.getInt();
+        isLeftRotation = buf.getInt();
+    }
 }
@@ -0,0 +1,381 @@
+package model;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The WaveSchedule class describes what each level spawns, read from a text file rather than
+ * written into the simulation: for every level the music it loops, the banner shown when it
+ * begins and a list of spawn rules, each saying what kind of entity spawns, every how many ticks,
+ * with what chance, how many at a time and in which lanes. The format is documented at the top
+ * of waves.txt, the schedule the game ships with. A SpawnTimeline turns the rules of the current
+ * level into the list of spawns actually due.
+ * <p>
+ * A rule may take its interval or chance from the world's SpawnSettings instead of a number, so
+ * the balancing harness keeps sweeping them. Levels past the last one keep its rules.
+ */
+public class WaveSchedule {
+
+    // spawn kinds, in KINDS order
+    public final static int SUN = 0;
+    public final static int ZOMBIE = 1;
+    public final static int CRAZY = 2;
+    public final static String[] KINDS = {"sun", "zombie", "crazy"};
+
+    // the lanes zombies walk in when a rule does not say
+    public final static int FIRST_LANE = 2;
+    public final static int LAST_LANE = 5;
+
+    // the schedule of every new world: the file named by -Dpvz.waves, or the built-in waves.txt
+    public final static WaveSchedule DEFAULT = loadDefault();
+
+    /**
+     * One spawn rule of a level.
+     */
+    public static class Rule {
+        private final int nKind;
+        private final int nEvery;
+        private final int nEverySetting; // a SpawnSettings index to take the interval from, or -1
+        private final int nChance;
+        private final boolean bChanceFromOdds;
+        private final int nCount;
+        private final int nFirstLane;
+        private final int nLastLane;
+
+        private Rule(int nKind, int nEvery, int nEverySetting, int nChance, boolean bChanceFromOdds,
+                     int nCount, int nFirstLane, int nLastLane) {
+            this.nKind = nKind;
+            this.nEvery = nEvery;
+            this.nEverySetting = nEverySetting;
+            this.nChance = nChance;
+            this.bChanceFromOdds = bChanceFromOdds;
+            this.nCount = nCount;
+            this.nFirstLane = nFirstLane;
+            this.nLastLane = nLastLane;
+        }
+
+        /**
+         * Returns what the rule spawns.
+         *
+         * @return One of SUN, ZOMBIE or CRAZY.
+         */
+        public int getKind() {
+            return nKind;
+        }
+
+        /**
+         * Returns the ticks between the rule's chances to spawn.
+         *
+         * @param settings The world's spawn settings, used when the file names a setting.
+         * @return The interval, always positive.
+         */
+        public int getEvery(SpawnSettings settings) {
+            return nEverySetting < 0 ? nEvery : settings.get(nEverySetting);
+        }
+
+        /**
+         * Returns the chance that the rule spawns when its interval comes round.
+         *
+         * @param settings The world's spawn settings, used when the file says "odds".
+         * @return The chance in percent, 0 to 100.
+         */
+        public int getChance(SpawnSettings settings) {
+            return bChanceFromOdds ? oddsPercent(settings.getSpawnOdds()) : nChance;
+        }
+
+        /**
+         * Returns how many entities the rule spawns at once.
+         *
+         * @return The count, always positive.
+         */
+        public int getCount() {
+            return nCount;
+        }
+
+        /**
+         * Returns the first lane a zombie of the rule may walk in.
+         *
+         * @return A lawn lane.
+         */
+        public int getFirstLane() {
+            return nFirstLane;
+        }
+
+        /**
+         * Returns the last lane a zombie of the rule may walk in.
+         *
+         * @return A lawn lane, not before the first.
+         */
+        public int getLastLane() {
+            return nLastLane;
+        }
+    }
+
+    /**
+     * One level of the schedule.
+     */
+    public static class Level {
+        private final String strMusic;
+        private final String strBanner;
+        private final List<Rule> rules;
+
+        private Level(String strMusic, String strBanner, List<Rule> rules) {
+            this.strMusic = strMusic;
+            this.strBanner = strBanner;
+            this.rules = Collections.unmodifiableList(rules);
+        }
+
+        /**
+         * Returns the music looped while the level plays.
+         *
+         * @return A sound path, or null to stop the music.
+         */
+        public String getMusic() {
+            return strMusic;
+        }
+
+        /**
+         * Returns the banner shown when the level begins.
+         *
+         * @return The banner text, or null for none.
+         */
+        public String getBanner() {
+            return strBanner;
+        }
+
+        /**
+         * Returns the level's spawn rules, in file order.
+         *
+         * @return The rules.
+         */
+        public List<Rule> getRules() {
+            return rules;
+        }
+    }
+
+    private final List<Level> levels;
+
+    private WaveSchedule(List<Level> levels) {
+        this.levels = Collections.unmodifiableList(levels);
+    }
+
+    /**
+     * Returns the number of levels the schedule describes.
+     *
+     * @return The level count, at least 1.
+     */
+    public int getLevelCount() {
+        return levels.size();
+    }
+
+    /**
+     * Returns a level of the schedule. Levels past the last one get the last one.
+     *
+     * @param nLevel The level, from 0.
+     * @return The level.
+     */
+    public Level getLevel(int nLevel) {
+        return levels.get(Math.max(0, Math.min(nLevel, levels.size() - 1)));
+    }
+
+    /**
+     * Converts SpawnSettings odds to a chance: a zombie spawns when a roll of 0-9 is divisible by
+     * the odds, so 7 gives the two rolls 0 and 7, 20 percent.
+     *
+     * @param nOdds The divisor, positive.
+     * @return The chance in percent.
+     */
+    public static int oddsPercent(int nOdds) {
+        return (9 / nOdds + 1) * 10;
+    }
+
+    /**
+     * Reads a schedule file.
+     *
+     * @param path The file.
+     * @return The schedule.
+     * @throws IOException if reading fails or the file has a mistake; the message gives the line.
+     */
+    public static WaveSchedule load(Path path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return parse(reader, path.toString());
+        }
+    }
+
+    /**
+     * Parses a schedule.
+     *
+     * @param reader    The schedule text.
+     * @param strSource The name of the text, for error messages.
+     * @return The schedule.
+     * @throws IOException if reading fails or the text has a mistake; the message gives the line.
+     */
+    public static WaveSchedule parse(Reader reader, String strSource) throws IOException {
+        BufferedReader in = new BufferedReader(reader);
+        List<Level> levels = new ArrayList<>();
+        String strMusic = null;
+        String strBanner = null;
+        List<Rule> rules = null;
+        int nLine = 0;
+        String strLine;
+        while ((strLine = in.readLine()) != null) {
+            nLine++;
+            strLine = strLine.trim();
+            if (strLine.isEmpty() || strLine.startsWith("#")) {
+                continue;
+            }
+            String strWhere = strSource + ":" + nLine + ": ";
+            if (strLine.startsWith("level ")) {
+                if (rules != null) {
+                    levels.add(new Level(strMusic, strBanner, rules));
+                }
+                strMusic = null;
+                strBanner = null;
+                rules = new ArrayList<>();
+                // the banner runs to the end of the line, so cut it off before splitting
+                int nBanner = strLine.indexOf("banner=");
+                if (nBanner >= 0) {
+                    strBanner = strLine.substring(nBanner + "banner=".length()).trim();
+                    strLine = strLine.substring(0, nBanner).trim();
+                }
+                String[] strParts = strLine.split("\\s+");
+                if (parseInt(strParts[1], strWhere) != levels.size()) {
+                    throw new IOException(strWhere + "expected level " + levels.size());
+                }
+                for (int nC = 2; nC < strParts.length; nC++) {
+                    if (strParts[nC].startsWith("music=")) {
+                        strMusic = strParts[nC].substring("music=".length());
+                    } else {
+                        throw new IOException(strWhere + "unknown level field " + strParts[nC]);
+                    }
+                }
+            } else if (strLine.startsWith("spawn ")) {
+                if (rules == null) {
+                    throw new IOException(strWhere + "spawn rule before the first level");
+                }
+                rules.add(parseRule(strLine.split("\\s+"), strWhere));
+            } else {
+                throw new IOException(strWhere + "expected a level or spawn line");
+            }
+        }
+        if (rules == null) {
+            throw new IOException(strSource + ": no levels");
+        }
+        levels.add(new Level(strMusic, strBanner, rules));
+        return new WaveSchedule(levels);
+    }
+
+    // spawn <kind> every=<ticks|setting> [chance=<percent|odds>] [count=<n>] [lanes=<a>-<b>]
+    private static Rule parseRule(String[] strParts, String strWhere) throws IOException {
+        int nKind = -1;
+        for (int nC = 0; nC < KINDS.length; nC++) {
+            if (KINDS[nC].equals(strParts[1])) {
+                nKind = nC;
+            }
+        }
+        if (nKind < 0) {
+            throw new IOException(strWhere + "unknown spawn kind " + strParts[1]);
+        }
+        int nEvery = 0;
+        int nEverySetting = -1;
+        int nChance = 100;
+        boolean bChanceFromOdds = false;
+        int nCount = 1;
+        int nFirstLane = FIRST_LANE;
+        int nLastLane = LAST_LANE;
+        for (int nC = 2; nC < strParts.length; nC++) {
+            int nEquals = strParts[nC].indexOf('=');
+            String strKey = nEquals < 0 ? strParts[nC] : strParts[nC].substring(0, nEquals);
+            String strValue = nEquals < 0 ? "" : strParts[nC].substring(nEquals + 1);
+            switch (strKey) {
+                case "every":
+                    if (!strValue.isEmpty() && Character.isDigit(strValue.charAt(0))) {
+                        nEvery = parseInt(strValue, strWhere);
+                    } else {
+                        try {
+                            nEverySetting = SpawnSettings.indexOf(strValue);
+                        } catch (IllegalArgumentException e) {
+                            throw new IOException(strWhere + e.getMessage());
+                        }
+                        nEvery = 1;
+                    }
+                    break;
+                case "chance":
+                    if ("odds".equals(strValue)) {
+                        bChanceFromOdds = true;
+                    } else {
+                        nChance = parseInt(strValue, strWhere);
+                        if (nChance > 100) {
+                            throw new IOException(strWhere + "chance is a percent: " + nChance);
+                        }
+                    }
+                    break;
+                case "count":
+                    nCount = parseInt(strValue, strWhere);
+                    break;
+                case "lanes":
+                    int nDash = strValue.indexOf('-');
+                    if (nDash < 0) {
+                        nFirstLane = nLastLane = parseInt(strValue, strWhere);
+                    } else {
+                        nFirstLane = parseInt(strValue.substring(0, nDash), strWhere);
+                        nLastLane = parseInt(strValue.substring(nDash + 1), strWhere);
+                    }
+                    if (nFirstLane > nLastLane || nLastLane >= LawnGrid.LANES) {
+                        throw new IOException(strWhere + "lanes must be a range within 0-" + (LawnGrid.LANES - 1));
+                    }
+                    break;
+                default:
+                    throw new IOException(strWhere + "unknown spawn field " + strKey);
+            }
+        }
+        if (nEvery <= 0) {
+            throw new IOException(strWhere + "spawn rule needs a positive every");
+        }
+        if (nCount <= 0) {
+            throw new IOException(strWhere + "count must be positive");
+        }
+        return new Rule(nKind, nEvery, nEverySetting, nChance, bChanceFromOdds, nCount, nFirstLane, nLastLane);
+    }
+
+    private static int parseInt(String str, String strWhere) throws IOException {
+        try {
+            int n = Integer.parseInt(str);
+            if (n < 0) {
+                throw new IOException(strWhere + "negative number " + str);
+            }
+            return n;
+        } catch (NumberFormatException e) {
+            throw new IOException(strWhere + "not a number: " + str);
+        }
+    }
+
+    // a missing or broken schedule is a packaging or design mistake; the game cannot start without one
+    private static WaveSchedule loadDefault() {
+        String strPath = System.getProperty("pvz.waves");
+        try {
+            if (strPath != null) {
+                return load(Paths.get(strPath));
+            }
+            InputStream stream = WaveSchedule.class.getResourceAsStream("waves.txt");
+            if (stream == null) {
+                throw new IOException("waves.txt not found");
+            }
+            try (Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+                return parse(reader, "waves.txt");
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot load the wave schedule: " + e.getMessage(), e);
+        }
+    }
+}
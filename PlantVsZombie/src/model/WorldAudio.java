@@ -0,0 +1,122 @@
+package model;
+
+import javax.sound.sampled.Clip;
+
+/**
+ * The WorldAudio class is where one world's sound goes: its effects, its level music and the
+ * background music played once its game is over. Every world has its own, so a headless world,
+ * a hosted session or a balancing game can be muted, or can change level, without touching the
+ * music of the windowed game running in the same JVM.
+ * <p>
+ * Sound.setEnabled still silences the whole JVM, e.g. where no audio device exists; a world only
+ * plays when both it and Sound are enabled.
+ */
+public class WorldAudio {
+
+    private final SoundRequests sounds;
+    private volatile boolean bEnabled = true;
+    private Clip clpLevel;      // the music of the level being played, or null
+    private Clip clpBackground; // the music of the menu and the game over screen, or null
+
+    /**
+     * Constructs the audio of a world.
+     *
+     * @param sounds The world's per-step effect requests.
+     */
+    public WorldAudio(SoundRequests sounds) {
+        this.sounds = sounds;
+    }
+
+    /**
+     * Turns the world's audio on or off. While off, effects are not requested and no music is opened.
+     *
+     * @param b True to allow audio, false to silence the world.
+     */
+    public void setEnabled(boolean b) {
+        bEnabled = b;
+        if (!b) {
+            stop(clpLevel);
+            stop(clpBackground);
+        }
+    }
+
+    /**
+     * Returns whether the world may play sound.
+     *
+     * @return True if both the world and Sound are enabled.
+     */
+    public boolean isEnabled() {
+        return bEnabled && Sound.isEnabled();
+    }
+
+    /**
+     * Asks for an effect to be played at the end of the current step; see SoundRequests.
+     *
+     * @param strPath   The path of the WAV, relative to the Sound class.
+     * @param nPriority Sound.PRIORITY_LOW, PRIORITY_NORMAL or PRIORITY_HIGH.
+     */
+    public void request(String strPath, int nPriority) {
+        if (isEnabled()) {
+            sounds.request(strPath, nPriority);
+        }
+    }
+
+    /**
+     * Stops the level music and loads another, to be started with loopLevelMusic.
+     *
+     * @param strPath The path of the music, or null for none.
+     */
+    public void setLevelMusic(String strPath) {
+        stop(clpLevel);
+        clpLevel = strPath != null && isEnabled() ? Sound.clipForLoopFactory(strPath) : null;
+    }
+
+    /**
+     * Loops the level music, if there is any.
+     */
+    public void loopLevelMusic() {
+        if (clpLevel != null && isEnabled()) {
+            clpLevel.loop(Clip.LOOP_CONTINUOUSLY);
+        }
+    }
+
+    /**
+     * Stops the level music.
+     */
+    public void stopLevelMusic() {
+        stop(clpLevel);
+    }
+
+    /**
+     * Loads the background music, e.g. for the intro screen; it is not started.
+     *
+     * @param strPath The path of the music, or null for none.
+     */
+    public void setBackgroundMusic(String strPath) {
+        stop(clpBackground);
+        clpBackground = strPath != null && isEnabled() ? Sound.clipForLoopFactory(strPath) : null;
+    }
+
+    /**
+     * Loops the background music, if there is any.
+     */
+    public void loopBackgroundMusic() {
+        if (clpBackground != null && isEnabled()) {
+            clpBackground.loop(Clip.LOOP_CONTINUOUSLY);
+        }
+    }
+
+    /**
+     * Stops the background music.
+     */
+    public void stopBackgroundMusic() {
+        stop(clpBackground);
+    }
+
+    // missing clips (headless or no audio device) are skipped
+    private static void stop(Clip clp) {
+        if (clp != null) {
+            clp.stop();
+        }
+    }
+}
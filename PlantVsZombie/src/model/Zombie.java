@@ -1,37 +1,21 @@
 package model;
 
 import java.awt.*;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 
 /**
  * Represents a Zombie character in the game.
- * Handles movement, drawing, and interaction with other game elements.
+ * Handles drawing; movement, health and freezing are kept in the zombie's FoeStore slot.
  */
-public class Zombie extends Sprite {
+public class Zombie extends Foe implements SpriteAtlas.Cached {
 
     private final static int ZOMBIE_RADIUS = 50;
+    private final static int ATLAS_EXTENT = 60; // reach of the drawing from the center
     private final static int SCALER = 3;
 
-    private boolean isSwingToLeft = true;
-    public int stepLength = 10;
-    private int leftFootX = -stepLength;
-    private int rightFootX = stepLength;
-
-    public int speed = 1;
-    private int newSpeed = 1;
-
-    public int speedRatio = 1;
-
-    private boolean isFozen = false;
-
-    public int nSize = 3;
-
-    private int iceTime = 0;
-
-
     public Color mainColor = Color.red;
 
-
     public Point handPoint;
 
     /**
@@ -40,21 +24,12 @@ public class Zombie extends Sprite {
      * @param y The y-coordinate for the zombie's initial position.
      */
     public Zombie(int y){
-        super();
+        super(FoeStore.TYPE_ZOMBIE, y);
 
         ArrayList<Point> pntCs = new ArrayList<Point>();
 
         setRadius(ZOMBIE_RADIUS);
 
-
-        if (y<100){
-            y = 300;
-        }
-
-        setPointCenter(new Point(1190, y));
-
-        setDeltaX(-speed*0.5);
-
         pntCs.add(new Point(0*SCALER, 18*SCALER));
 
         //right points
@@ -66,7 +41,6 @@ public class Zombie extends Sprite {
         pntCs.add(new Point(4*SCALER, -3*SCALER));
         pntCs.add(new Point(2*SCALER, -10*SCALER));
 
-
         //left points
         pntCs.add(new Point(-2*SCALER, -10*SCALER));
         pntCs.add(new Point(-4*SCALER, -3*SCALER));
@@ -80,50 +54,70 @@ public class Zombie extends Sprite {
     }
 
     /**
-     * Handles the movement of the zombie.
+     * Draws the zombie from the sprite atlas, rasterizing it the first time this variant is seen.
+     *
+     * @param g The Graphics object used for drawing.
      */
-    public void move(){
-        super.move();
-
-        int x = getPointCenter().x;
-        int y = getPointCenter().y;
+    @Override
+    public void draw(Graphics g) {
+        SpriteAtlas.draw(this, g);
+    }
 
-        int xUpdate = x+(int)getDeltaX();
-        setPointCenter(new Point(xUpdate, y));
+    /**
+     * Returns a key identifying how the zombie currently looks.
+     *
+     * @return The atlas variant key.
+     */
+    @Override
+    public long getAtlasKey() {
+        return SpriteAtlas.typeBits(SpriteAtlas.TYPE_ZOMBIE)
+                | (long) (mainColor.getRGB() & 0xFFFFFF) << 24
+                | (getSpeed() == 0 ? 1L << 17 : 0)
+                | (getSize() >= 2 ? 1L << 16 : 0)
+                | (getLeftFootX() & 0xFFFF);
+    }
 
-        if(xUpdate<50){
-            System.out.println("Game Over....................");
-            CommandCenter.zombieCrossYard();
-        }
+    /**
+     * Returns how far the zombie's primitives reach from its center.
+     *
+     * @return The atlas image half-size.
+     */
+    @Override
+    public int getAtlasExtent() {
+        return ATLAS_EXTENT;
+    }
 
+    /**
+     * Returns how far the zombie's drawing reaches from its center, the same as its atlas image.
+     *
+     * @return The draw extent.
+     */
+    @Override
+    public int getDrawExtent() {
+        return ATLAS_EXTENT;
     }
 
     /**
      * Draws the zombie on the screen.
+     * The sprite atlas calls this once per variant; draw() normally blits the cached image.
      *
      * @param g The graphics context used for drawing.
      */
     @Override
-    public void draw(Graphics g) {
-        updateSpeed();
-        if(speed==0){
+    public void drawPrimitives(Graphics g) {
+        if(getSpeed()==0){
             g.setColor(Color.cyan);
             g.fillRect(getPointCenter().x-35, getPointCenter().y-50, 63, 92);
-            iceTime++;
         }
 
-        if(iceTime==200){
-            recover();
-        }
-
-        if (nSize >= 2){
+        if (getSize() >= 2){
             super.draw(g);
             // 1
             g.setColor(mainColor);
-            g.fillPolygon(toArrayIntCoords(getnXCoords()), toArrayIntCoords(getnYCoords()), getnXCoords().size());
+            g.fillPolygon(getPolygonXs(), getPolygonYs(), getPolygonSize());
             // 2
             g.setColor(Color.lightGray);
-            g.drawPolygon(toArrayIntCoords(getnXCoords()), toArrayIntCoords(getnYCoords()), getnXCoords().size());
+            g.drawPolygon(getPolygonXs(), getPolygonYs(), getPolygonSize());
             // 3
             g.setColor(Color.black);
             g.fillArc(getPointCenter().x-45,getPointCenter().y-10, 35, 10,85,-175);
@@ -133,26 +127,11 @@ public class Zombie extends Sprite {
         }
 
         g.setColor(mainColor);
-        if(leftFootX < -stepLength){
-            isSwingToLeft = false;
-        }
-        else if(leftFootX > stepLength){
-            isSwingToLeft = true;
-        }
-
-        if (isSwingToLeft){
-            leftFootX=leftFootX-speed;
-            rightFootX=rightFootX+speed;
-        }
-        else {
-            leftFootX=leftFootX+speed;
-            rightFootX=rightFootX-speed;
-        }
 
         Graphics2D g2 = (Graphics2D) g;
         g2.setStroke(new BasicStroke(4));
-        g2.drawLine(getPointCenter().x+3,getPointCenter().y+20,getPointCenter().x-leftFootX, getPointCenter().y+40);
-        g2.drawLine(getPointCenter().x+3,getPointCenter().y+20,getPointCenter().x-rightFootX, getPointCenter().y+40);
+        g2.drawLine(getPointCenter().x+3,getPointCenter().y+20,getPointCenter().x-getLeftFootX(), getPointCenter().y+40);
+        g2.drawLine(getPointCenter().x+3,getPointCenter().y+20,getPointCenter().x+getLeftFootX(), getPointCenter().y+40);
 
         g2.setStroke(new BasicStroke(2));
         handPoint = new Point(getPointCenter().x-15, getPointCenter().y+20);
@@ -163,72 +142,24 @@ public class Zombie extends Sprite {
     }
 
     /**
-     * Returns the size of the zombie.
+     * Writes the zombie's state for a SaveState, followed by its color.
      *
-     * @return The size of the zombie.
+     * @param buf The buffer to write to.
      */
-    public int getSize(){
-        return nSize;
-    }
-
-    /**
-     * Handles the effect when the zombie is hit by a bullet.
-     *
-     * @param bulletType The type of bullet that hit the zombie.
-     */
-    public void isHit(int bulletType){
-        nSize--;
-        if (bulletType==1){
-            frozen();
-        }
-    }
-
-    /**
-     * Freezes the zombie, stopping its movement temporarily.
-     */
-    public void frozen(){
-        speed = 0;
-        iceTime = 0;
-        setDeltaX(-speed*0.25);
-        isFozen = true;
-    }
-
-    /**
-     * Recovers the zombie's speed after being frozen.
-     */
-    public void recover(){
-        speed =checkSpeed();
-        iceTime = 0;
-        setDeltaX(-speed*0.5);
+    @Override
+    void saveState(ByteBuffer buf) {
+        super.saveState(buf);
+        buf.putInt(mainColor.getRGB());
     }
 
     /**
-     * Checks and returns the speed of the zombie based on its state and level.
+     * Reads back the state written by saveState.
      *
-     * @return The current speed of the zombie.
-     */
-    public int checkSpeed(){
-        if(isFozen){
-            newSpeed = 0;
-            return newSpeed;
-        }
-
-        if(CommandCenter.getLevel()>2){
-            newSpeed = 4;
-            setDeltaX(-speed*0.5);
-            stepLength = 14;
-        }
-        else {
-            newSpeed = 1; // double size?
-        }
-        return newSpeed;
-    }
-
-    /**
-     * Updates the zombie's speed based on its state and level.
+     * @param buf The buffer to read from.
      */
-    public void updateSpeed(){
-        speed = checkSpeed()*speedRatio;
-        setDeltaX(-speed*0.5);
+    @Override
+    void restoreState(ByteBuffer buf) {
+        super.restoreState(buf);
+        mainColor = new Color(buf.getInt(), true);
     }
 }
@@ -0,0 +1,318 @@
+package view;
+
+import controller.FrameStats;
+import model.CommandCenter;
+import model.EntityStore;
+import model.Movable;
+import model.SpriteAtlas;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * The DirtyRenderer class keeps the game screen in an image and only redraws the parts that
+ * changed since the previous frame. The lawn background, the plants and the bottom panel form a
+ * static layer that is re-rendered only when a plant is added or removed or the panel changes.
+ * For every moving entity the rectangle it was drawn into last frame and the one it is drawn into
+ * now are marked dirty when it moved or changed its look; overlapping dirty rectangles are merged,
+ * and each is restored from the static layer and redrawn. When the dirty area gets large the whole
+ * frame is redrawn instead. A debug mode (-Dpvz.dirty.debug=true, or the D key) outlines the dirty
+ * rectangles of each frame.
+ */
+public class DirtyRenderer {
+
+    private final static double FULL_FRACTION = 0.5; // above this share of the screen, redraw everything
+    private final static int MAX_MERGE_PASSES = 4;
+    private final static Color OUTLINE = Color.magenta;
+
+    /**
+     * Where an entity was drawn in the latest frame and how it looked.
+     */
+    private static class Drawn {
+        private final Rectangle rect = new Rectangle();
+        private int nCenterX;
+        private int nCenterY;
+        private long lLook;
+    }
+
+    private static volatile boolean bDebug = Boolean.getBoolean("pvz.dirty.debug");
+
+    private final GamePanel panel;
+    private final HudLayer hud;
+    private final EntityStore[] stores = {
+            CommandCenter.getMovBullets(),
+            CommandCenter.getMovFoes(),
+            CommandCenter.getMovDebris(),
+            CommandCenter.getMovTemp(),
+            CommandCenter.getMovSun()
+    };
+    private final BufferedImage imgScene;
+    private final BufferedImage imgStatic;
+    private long lPlantsVersion = -1;
+    private boolean bValid;
+    private boolean bOverlayShown;
+
+    private IdentityHashMap<Movable, Drawn> drawn = new IdentityHashMap<>();
+    private IdentityHashMap<Movable, Drawn> drawnNext = new IdentityHashMap<>();
+    private final ArrayList<Movable> movOrder = new ArrayList<>(); // this frame's entities, in drawing order
+    private final ArrayList<Rectangle> rectDirty = new ArrayList<>();
+    private final Point pntOffset = new Point();
+    private final Rectangle rectScreen = new Rectangle(0, 0, GamePanel.SCREEN_WIDTH, GamePanel.SCREEN_HEIGHT);
+    private boolean bFull;
+    private double dDirtyFraction;
+
+    /**
+     * Constructs a renderer for a panel.
+     *
+     * @param panel The panel, which draws the timing overlay; may be null to leave the overlay out.
+     * @param hud   The HUD whose panel and scores are part of the scene.
+     */
+    public DirtyRenderer(GamePanel panel, HudLayer hud) {
+        this.panel = panel;
+        this.hud = hud;
+        imgScene = createImage();
+        imgStatic = createImage();
+    }
+
+    private static BufferedImage createImage() {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(GamePanel.SCREEN_WIDTH, GamePanel.SCREEN_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        }
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration()
+                .createCompatibleImage(GamePanel.SCREEN_WIDTH, GamePanel.SCREEN_HEIGHT, Transparency.OPAQUE);
+    }
+
+    /**
+     * Brings the scene up to date and returns it.
+     *
+     * @param dAlpha The interpolation factor between the previous and the current simulation state.
+     * @return The scene image.
+     */
+    public BufferedImage render(double dAlpha) {
+        rectDirty.clear();
+        bFull = refreshStatic();
+        boolean bScores = hud.refreshScores();
+
+        collect(dAlpha);
+        if (bScores) {
+            rectDirty.add(hud.getScoresBounds());
+        }
+        boolean bOverlay = FrameStats.isOverlayVisible();
+        if (bOverlay || bOverlayShown) {
+            rectDirty.add(GamePanel.getFrameStatsBounds());
+        }
+        bOverlayShown = bOverlay;
+
+        mergeDirty();
+        if (dDirtyFraction > FULL_FRACTION) {
+            bFull = true;
+        }
+
+        Graphics2D g = imgScene.createGraphics();
+        if (bFull) {
+            drawScene(g, null);
+            dDirtyFraction = 1;
+        } else {
+            for (Rectangle rect : rectDirty) {
+                g.setClip(rect);
+                drawScene(g, rect);
+            }
+        }
+        g.dispose();
+        movOrder.clear();
+        return imgScene;
+    }
+
+    // re-renders the static layer if the plants or the panel changed; returns true if it did
+    private boolean refreshStatic() {
+        boolean bPanel = hud.refreshPanel();
+        long lVersion = CommandCenter.getMovPlants().getVersion();
+        if (bValid && !bPanel && lVersion == lPlantsVersion) {
+            return false;
+        }
+        Graphics2D g = imgStatic.createGraphics();
+        g.setColor(Color.black);
+        g.fillRect(0, 0, GamePanel.SCREEN_WIDTH, GamePanel.SCREEN_HEIGHT);
+        hud.drawPanel(g);
+        for (Movable mov : CommandCenter.getMovPlants()) {
+            mov.draw(g); // plants never move
+        }
+        g.dispose();
+        lPlantsVersion = lVersion;
+        bValid = true;
+        return true;
+    }
+
+    // records where every entity is drawn this frame and marks what changed as dirty
+    private void collect(double dAlpha) {
+        for (EntityStore store : stores) {
+            for (Movable mov : store) {
+                GamePanel.interpolationOffset(mov, dAlpha, pntOffset);
+                Point pnt = mov.getPointCenter();
+                int nCenterX = pnt.x + pntOffset.x;
+                int nCenterY = pnt.y + pntOffset.y;
+                int nExtent = mov.getDrawExtent();
+                long lLook = mov instanceof SpriteAtlas.Cached ? ((SpriteAtlas.Cached) mov).getAtlasKey() : 0;
+
+                Drawn d = drawn.remove(mov);
+                if (d == null) {
+                    d = new Drawn();
+                } else if (d.nCenterX == nCenterX && d.nCenterY == nCenterY && d.lLook == lLook
+                        && d.rect.width == 2 * nExtent) {
+                    drawnNext.put(mov, d);
+                    movOrder.add(mov);
+                    continue; // unchanged
+                } else {
+                    rectDirty.add(new Rectangle(d.rect));
+                }
+                d.nCenterX = nCenterX;
+                d.nCenterY = nCenterY;
+                d.lLook = lLook;
+                d.rect.setBounds(nCenterX - nExtent, nCenterY - nExtent, 2 * nExtent, 2 * nExtent);
+                rectDirty.add(new Rectangle(d.rect));
+                drawnNext.put(mov, d);
+                movOrder.add(mov);
+            }
+        }
+        // whatever is left was drawn last frame but is gone now
+        for (Drawn d : drawn.values()) {
+            rectDirty.add(new Rectangle(d.rect));
+        }
+        drawn.clear();
+        IdentityHashMap<Movable, Drawn> swap = drawn;
+        drawn = drawnNext;
+        drawnNext = swap;
+    }
+
+    // merges overlapping dirty rectangles, clips them to the screen and measures their area
+    private void mergeDirty() {
+        boolean bMerged = true;
+        for (int nPass = 0; bMerged && nPass < MAX_MERGE_PASSES; nPass++) {
+            bMerged = false;
+            for (int nA = 0; nA < rectDirty.size(); nA++) {
+                Rectangle rectA = rectDirty.get(nA);
+                for (int nB = rectDirty.size() - 1; nB > nA; nB--) {
+                    if (rectA.intersects(rectDirty.get(nB))) {
+                        rectA.add(rectDirty.remove(nB));
+                        bMerged = true;
+                    }
+                }
+            }
+        }
+        long lArea = 0;
+        for (int nC = rectDirty.size() - 1; nC >= 0; nC--) {
+            Rectangle rect = rectDirty.get(nC).intersection(rectScreen);
+            if (rect.isEmpty()) {
+                rectDirty.remove(nC);
+            } else {
+                rectDirty.set(nC, rect);
+                lArea += (long) rect.width * rect.height;
+            }
+        }
+        dDirtyFraction = lArea / (double) (rectScreen.width * rectScreen.height);
+    }
+
+    // draws the scene, or only what intersects rectClip
+    private void drawScene(Graphics2D g, Rectangle rectClip) {
+        g.drawImage(imgStatic, 0, 0, null);
+        for (Movable mov : movOrder) {
+            Drawn d = drawn.get(mov);
+            if (rectClip != null && !rectClip.intersects(d.rect)) {
+                continue;
+            }
+            // draw where the entity was collected, even if the simulation moved it since
+            Point pnt = mov.getPointCenter();
+            int nDx = d.nCenterX - pnt.x;
+            int nDy = d.nCenterY - pnt.y;
+            g.translate(nDx, nDy);
+            mov.draw(g);
+            g.translate(-nDx, -nDy);
+        }
+        hud.drawScores(g);
+        if (panel != null && FrameStats.isOverlayVisible()) {
+            panel.drawFrameStats(g);
+        }
+    }
+
+    /**
+     * Forgets the scene, so the next frame is drawn in full, e.g. after the intro screen was shown.
+     */
+    public void invalidate() {
+        bValid = false;
+        drawn.clear();
+    }
+
+    /**
+     * Outlines this frame's dirty rectangles, in debug mode only.
+     *
+     * @param g The Graphics object of the screen or back buffer.
+     */
+    public void drawOutlines(Graphics g) {
+        if (!bDebug) {
+            return;
+        }
+        g.setColor(OUTLINE);
+        if (bFull) {
+            g.drawRect(1, 1, GamePanel.SCREEN_WIDTH - 3, GamePanel.SCREEN_HEIGHT - 3);
+            return;
+        }
+        for (Rectangle rect : rectDirty) {
+            g.drawRect(rect.x, rect.y, rect.width - 1, rect.height - 1);
+        }
+    }
+
+    /**
+     * Returns the rectangles redrawn in the latest frame.
+     *
+     * @return The dirty rectangles; meaningless if isFull().
+     */
+    public List<Rectangle> getDirty() {
+        return rectDirty;
+    }
+
+    /**
+     * Returns how many rectangles were redrawn in the latest frame.
+     *
+     * @return The dirty rectangle count, or 1 for a full redraw.
+     */
+    public int getDirtyCount() {
+        return bFull ? 1 : rectDirty.size();
+    }
+
+    /**
+     * Returns whether the latest frame was redrawn in full.
+     *
+     * @return True for a full redraw.
+     */
+    public boolean isFull() {
+        return bFull;
+    }
+
+    /**
+     * Returns the share of the screen redrawn in the latest frame.
+     *
+     * @return The dirty fraction, from 0 to 1.
+     */
+    public double getDirtyFraction() {
+        return dDirtyFraction;
+    }
+
+    /**
+     * Turns the dirty rectangle outlines on or off.
+     */
+    public static void toggleDebug() {
+        bDebug = !bDebug;
+    }
+
+    /**
+     * Returns whether dirty rectangles are outlined.
+     *
+     * @return True in debug mode.
+     */
+    public static boolean isDebug() {
+        return bDebug;
+    }
+}
@@ -1,36 +1,47 @@
 package view;
 
+import controller.FrameStats;
 import controller.GameController;
 import model.CommandCenter;
+import model.EntityStore;
+import model.LatencyHistogram;
 import model.Movable;
 
 import java.awt.*;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * GamePanel is the graphical interface of the game that renders the game screen, handles user input,
  * and updates the display. It includes the introduction screen and the main game screen.
  * The panel handles drawing the game components and managing game states (such as playing, intro screen, etc.).
  */
-public class GamePanel extends Panel {
+public class GamePanel extends Canvas {
 
-    public final static int SCREEN_WIDTH = 1200;
-    public final static int SCREEN_HEIGHT = 800;
-    public final static Dimension SCREEN_SIZE = new Dimension(SCREEN_WIDTH, SCREEN_HEIGHT);
+    public final static int SCREEN_WIDTH = CommandCenter.WORLD_WIDTH;
+    public final static int SCREEN_HEIGHT = CommandCenter.WORLD_HEIGHT;
+    public final static Dimension SCREEN_SIZE = CommandCenter.WORLD_SIZE;
     private GameFrame gameFrame;
     public static Font fnt = new Font("Times", Font.BOLD, 20);  // set font size.
     public static Font fntBig = new Font("Times", Font.BOLD + Font.ITALIC, 36);
+    public static Font fntStats = new Font(Font.MONOSPACED, Font.PLAIN, 12); // timing overlay
     private int nFontWidth;
     private int nFontHeight;
     private FontMetrics fmt;
+    private HudLayer hud;
+    private DirtyRenderer dirtyRenderer; // null when -Dpvz.dirty=false
 
     // The following "off" vars are used for the off-screen double-buffered image.
     private Dimension dimOff;
     private Image imgOff;
     private Graphics grpOff;
 
+    // how far rendering is between the previous and the current simulation state (0..1)
+    private double dAlpha = 1.0;
+
+    // puts frames on screen for the render thread; created on the first frame
+    private Presenter presenter;
+
     /**
      * Constructor for the GamePanel class.
      * Initializes the game frame, sets up the game view, and adds key listeners for user input.
@@ -80,28 +91,105 @@ public class GamePanel extends Panel {
      * @param g the Graphics object used to draw the panel.
      */
     public void update(Graphics g) {
+        g.drawImage(renderOffscreen(), 0, 0, this);
+    }
+
+    /**
+     * Draws the next frame and shows it, through page flipping where the screen supports it.
+     * Called by the render thread.
+     */
+    public void present() {
+        if (presenter == null) {
+            presenter = new Presenter(this);
+        }
+        presenter.present();
+    }
+
+    /**
+     * Returns the presenter, or null before the first frame was presented.
+     * @return the presenter.
+     */
+    public Presenter getPresenter() {
+        return presenter;
+    }
+
+    /**
+     * Draws the next frame straight onto the screen, for the software path. During play only the
+     * regions that changed are copied.
+     * @param g the Graphics object of the panel.
+     */
+    void renderToScreen(Graphics g) {
+        if (CommandCenter.isGameOver()) {
+            CommandCenter.setPlaying(false);
+        }
+        if (dirtyRenderer == null || !CommandCenter.isPlaying()) {
+            update(g);
+            return;
+        }
+        Image img = dirtyRenderer.render(dAlpha);
+        if (dirtyRenderer.isFull() || DirtyRenderer.isDebug()) {
+            g.drawImage(img, 0, 0, this); // outlines from the previous frame must be painted over
+        } else {
+            for (Rectangle rect : dirtyRenderer.getDirty()) {
+                g.drawImage(img, rect.x, rect.y, rect.x + rect.width, rect.y + rect.height,
+                        rect.x, rect.y, rect.x + rect.width, rect.y + rect.height, this);
+            }
+        }
+        dirtyRenderer.drawOutlines(g);
+    }
+
+    /**
+     * Renders the current state into the off-screen image used by the software path.
+     * @return the off-screen image.
+     */
+    Image renderOffscreen() {
         if (grpOff == null || SCREEN_SIZE.width != dimOff.width
                 || SCREEN_SIZE.height != dimOff.height) {
             dimOff = SCREEN_SIZE;
             imgOff = createImage(SCREEN_SIZE.width, SCREEN_SIZE.height);
             grpOff = imgOff.getGraphics();
         }
-        grpOff.setColor(Color.black);
-        grpOff.fillRect(0, 0, SCREEN_SIZE.width, SCREEN_SIZE.height);
+        renderFrame(grpOff);
+        return imgOff;
+    }
 
+    /**
+     * Draws a whole frame, either the intro screen or the game screen depending on the game state.
+     * @param g the Graphics object of the buffer to draw into.
+     */
+    void renderFrame(Graphics g) {
         if (CommandCenter.isGameOver()) {
             CommandCenter.setPlaying(false);
         }
 
+        if (dirtyRenderer != null) {
+            if (CommandCenter.isPlaying()) {
+                // only the changed parts of the scene are redrawn; the whole scene is copied out
+                g.drawImage(dirtyRenderer.render(dAlpha), 0, 0, null);
+                dirtyRenderer.drawOutlines(g);
+                return;
+            }
+            dirtyRenderer.invalidate();
+        }
+
+        g.setColor(Color.black);
+        g.fillRect(0, 0, SCREEN_SIZE.width, SCREEN_SIZE.height);
+
         if (!CommandCenter.isPlaying()) {
             // Intro screen
-            drawIntroScreen(grpOff);
+            drawIntroScreen(g);
         } else {
             // Game screen
-            drawGameScreen(grpOff);
+            drawGameScreen(g);
         }
+    }
 
-        g.drawImage(imgOff, 0, 0, this);
+    /**
+     * Sets the interpolation factor used for the next frame.
+     * @param dAlpha 0 draws entities at their previous positions, 1 at their current ones.
+     */
+    public void setInterpolation(double dAlpha) {
+        this.dAlpha = dAlpha;
     }
 
     /**
@@ -109,24 +197,72 @@ public class GamePanel extends Panel {
      * @param g the Graphics object used to draw the game screen.
      */
     private void drawGameScreen(Graphics g) {
-        grpOff.setColor(new Color(66, 72, 70));
-        grpOff.fillRect(0, SCREEN_SIZE.height - 200, SCREEN_SIZE.width, 200);
+        hud.drawPanel(g); // bottom panel, guide text and seed tray, from the cached HUD layer
+
+        iterateMovables(g,
+                CommandCenter.getMovPlants(),
+                CommandCenter.getMovBullets(),
+                CommandCenter.getMovFoes(),
+                CommandCenter.getMovDebris(),
+                CommandCenter.getMovTemp(),
+                CommandCenter.getMovSun());
+
+        hud.drawScores(g); // Display current score and sun credits
 
-        grpOff.setColor(Color.white);
-        grpOff.setFont(fnt);
-        grpOff.drawString(CommandCenter.gameGuide, 590, SCREEN_SIZE.height - 150);
+        if (FrameStats.isOverlayVisible()) {
+            drawFrameStats(g);
+        }
+    }
 
-        iterateMovables(grpOff,
-                CommandCenter.movPlants,
-                CommandCenter.movBullets,
-                CommandCenter.movFoes,
-                CommandCenter.movDebris,
-                CommandCenter.movCandidate,
-                CommandCenter.movTemp,
-                CommandCenter.movSun);
+    /**
+     * Draws the timing overlay: p50, p99 and max of every game loop phase in microseconds,
+     * and the number of entities in each CommandCenter list.
+     * @param g the Graphics object used to draw the overlay.
+     */
+    void drawFrameStats(Graphics g) {
+        int nLeft = SCREEN_WIDTH - 330;
+        int nLine = 16;
+        int nTop = 10;
+        g.setColor(new Color(0, 0, 0, 170));
+        g.fillRect(nLeft - 10, nTop, 330, nLine * (FrameStats.PHASES + 7) + 10);
+        g.setFont(fntStats);
+        g.setColor(Color.green);
 
-        drawSunCredit(grpOff); // Display current sun credits
-        drawScore(grpOff); // Display current score
+        int y = nTop + nLine;
+        g.drawString(String.format("%-15s%8s%8s%8s", "phase (us)", "p50", "p99", "max"), nLeft, y);
+        for (int nC = 0; nC < FrameStats.PHASES; nC++) {
+            LatencyHistogram histogram = FrameStats.DEFAULT.get(nC);
+            y += nLine;
+            g.drawString(String.format("%-15s%8d%8d%8d", histogram.getName(),
+                    histogram.getPercentile(50) / 1000,
+                    histogram.getPercentile(99) / 1000,
+                    histogram.getMax() / 1000), nLeft, y);
+        }
+        y += nLine * 2;
+        g.drawString(String.format("plants %d  foes %d  bullets %d  suns %d",
+                CommandCenter.getMovPlants().size(), CommandCenter.getMovFoes().size(),
+                CommandCenter.getMovBullets().size(), CommandCenter.getMovSun().size()), nLeft, y);
+        y += nLine;
+        g.drawString(String.format("debris %d  slots %d  temp %d  text %d",
+                CommandCenter.getMovDebris().size(), CommandCenter.seedTray.getSlotCount(),
+                CommandCenter.getMovTemp().size(), CommandCenter.getMovLevelInstruction().size()), nLeft, y);
+        if (presenter != null) {
+            y += nLine;
+            g.drawString("present " + presenter.getMode() + "  contents lost " + presenter.getContentsLost(), nLeft, y);
+        }
+        if (dirtyRenderer != null) {
+            y += nLine;
+            g.drawString(String.format("dirty %d rects  %.0f%% of screen%s", dirtyRenderer.getDirtyCount(),
+                    dirtyRenderer.getDirtyFraction() * 100, dirtyRenderer.isFull() ? "  full" : ""), nLeft, y);
+        }
+    }
+
+    /**
+     * Returns the screen area covered by the timing overlay.
+     * @return the overlay bounds.
+     */
+    static Rectangle getFrameStatsBounds() {
+        return new Rectangle(SCREEN_WIDTH - 340, 10, 330, 16 * (FrameStats.PHASES + 7) + 10);
     }
 
     /**
@@ -178,30 +314,6 @@ public class GamePanel extends Panel {
         g.fillRect(950, SCREEN_HEIGHT - 150, 50, 50);
     }
 
-    /**
-     * Draws the current score on the game screen.
-     * @param g the Graphics object used to draw the score.
-     */
-    private void drawScore(Graphics g) {
-        g.setColor(Color.white);
-        g.setFont(fnt);
-        if (CommandCenter.getScore() != 0) {
-            g.drawString("SCORE :  " + CommandCenter.getScore(), nFontWidth, nFontHeight);
-        } else {
-            g.drawString("NO SCORE", nFontWidth, nFontHeight);
-        }
-    }
-
-    /**
-     * Draws the current sun credits on the game screen.
-     * @param g the Graphics object used to draw the sun credits.
-     */
-    private void drawSunCredit(Graphics g) {
-        g.setColor(Color.white);
-        g.setFont(fnt);
-        g.drawString("SUN CREDITS : " + CommandCenter.getSunCredit(), nFontWidth, nFontHeight * 2 + 5);
-    }
-
     /**
      * Initializes the font metrics for drawing text on the screen.
      */
@@ -211,20 +323,57 @@ public class GamePanel extends Panel {
         fmt = g.getFontMetrics();
         nFontWidth = fmt.getMaxAdvance();
         nFontHeight = fmt.getHeight();
+        hud = new HudLayer(CommandCenter.seedTray, nFontWidth, nFontHeight);
+        if (!"false".equals(System.getProperty("pvz.dirty"))) {
+            dirtyRenderer = new DirtyRenderer(this, hud);
+        }
     }
 
     /**
-     * Iterates over all movable game entities and calls their `move`, `draw`, and `expire` methods.
+     * Iterates over all movable game entities and draws each one between its previous and current
+     * position. Entities are moved by the simulation thread, never by the renderer.
      * @param g the Graphics object used to draw the movable entities.
      * @param movMovz one or more lists of movable entities to iterate through.
      */
-    private void iterateMovables(Graphics g, CopyOnWriteArrayList<Movable>... movMovz) {
-        for (CopyOnWriteArrayList<Movable> movMovs : movMovz) {
+    private void iterateMovables(Graphics g, EntityStore... movMovz) {
+        iterateMovables(g, dAlpha, movMovz);
+    }
+
+    /**
+     * Draws all movable game entities at the given interpolation factor. Needs no panel, so it can also
+     * draw into an offscreen image, e.g. from a benchmark.
+     * @param g the Graphics object used to draw the movable entities.
+     * @param dAlpha 0 draws entities at their previous positions, 1 at their current ones.
+     * @param movMovz one or more lists of movable entities to iterate through.
+     */
+    static void iterateMovables(Graphics g, double dAlpha, EntityStore... movMovz) {
+        Point pntOffset = new Point();
+        for (EntityStore movMovs : movMovz) {
             for (Movable mov : movMovs) {
-                mov.move();
+                interpolationOffset(mov, dAlpha, pntOffset);
+                g.translate(pntOffset.x, pntOffset.y);
                 mov.draw(g);
-                mov.expire();
+                g.translate(-pntOffset.x, -pntOffset.y);
             }
         }
     }
+
+    /**
+     * Computes how far from its current center a movable is drawn at the given interpolation factor.
+     * Jumps larger than MAX_INTERPOLATION (wrap-around, dragging) are not blended.
+     * @param mov the movable.
+     * @param dAlpha 0 for its previous position, 1 for its current one.
+     * @param pntOffset receives the offset to translate the drawing by.
+     */
+    static void interpolationOffset(Movable mov, double dAlpha, Point pntOffset) {
+        Point pntPrev = mov.getPrevPointCenter();
+        Point pntCurrent = mov.getPointCenter();
+        int nDx = (int) Math.round((pntPrev.x - pntCurrent.x) * (1 - dAlpha));
+        int nDy = (int) Math.round((pntPrev.y - pntCurrent.y) * (1 - dAlpha));
+        if (Math.abs(nDx) > GameController.MAX_INTERPOLATION || Math.abs(nDy) > GameController.MAX_INTERPOLATION) {
+            nDx = 0;
+            nDy = 0;
+        }
+        pntOffset.setLocation(nDx, nDy);
+    }
 }
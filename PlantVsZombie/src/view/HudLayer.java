@@ -0,0 +1,176 @@
+package view;
+
+import model.CommandCenter;
+import model.Peashooter;
+import model.SeedTray;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Objects;
+
+/**
+ * The HudLayer class draws the heads-up display: the bottom panel with the game guide and the
+ * seed tray, and the score and sun credits in the top left corner. Both parts are rendered into
+ * cached images that are only redrawn when what they show changes (credits, score, the selected
+ * slot or the guide text); every other frame the HUD costs two drawImage calls.
+ */
+public class HudLayer {
+
+    private final static int PANEL_HEIGHT = 200;
+    private final static Color PANEL_COLOR = new Color(66, 72, 70);
+    private final static Color UNAFFORDABLE = new Color(0, 0, 0, 120);
+
+    private final SeedTray tray;
+    private final int nFontWidth;
+    private final int nFontHeight;
+    private final BufferedImage imgPanel;
+    private final BufferedImage imgScores;
+
+    // what the cached images currently show
+    private String strPanelGuide;
+    private int nPanelSelected = -2;
+    private long lPanelCredit = -1;
+    private long lScoresCredit = -1;
+    private long lScoresScore = -1;
+    private int nRenders;
+
+    /**
+     * Constructs a HUD for a seed tray.
+     *
+     * @param tray        The seed tray shown in the bottom panel.
+     * @param nFontWidth  The left margin of the score lines, from the HUD font metrics.
+     * @param nFontHeight The line height of the HUD font.
+     */
+    public HudLayer(SeedTray tray, int nFontWidth, int nFontHeight) {
+        this.tray = tray;
+        this.nFontWidth = nFontWidth;
+        this.nFontHeight = nFontHeight;
+        imgPanel = new BufferedImage(GamePanel.SCREEN_WIDTH, PANEL_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        imgScores = new BufferedImage(GamePanel.SCREEN_WIDTH / 2, nFontHeight * 3 + 10, BufferedImage.TYPE_INT_ARGB);
+    }
+
+    /**
+     * Draws the bottom panel with the guide text and the seed tray, below every movable.
+     *
+     * @param g The Graphics object to draw on.
+     */
+    public void drawPanel(Graphics g) {
+        refreshPanel();
+        g.drawImage(imgPanel, 0, GamePanel.SCREEN_HEIGHT - PANEL_HEIGHT, null);
+    }
+
+    /**
+     * Draws the score and sun credits, above every movable.
+     *
+     * @param g The Graphics object to draw on.
+     */
+    public void drawScores(Graphics g) {
+        refreshScores();
+        g.drawImage(imgScores, 0, 0, null);
+    }
+
+    /**
+     * Re-renders the cached panel image if what it shows has changed.
+     *
+     * @return True if the image was re-rendered.
+     */
+    boolean refreshPanel() {
+        String strGuide = CommandCenter.getGameGuide();
+        int nSelected = tray.getSelectedSlot();
+        long lCredit = CommandCenter.getSunCredit();
+        if (!Objects.equals(strGuide, strPanelGuide) || nSelected != nPanelSelected || lCredit != lPanelCredit) {
+            renderPanel(strGuide, nSelected, lCredit);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Re-renders the cached score image if the credits or the score have changed.
+     *
+     * @return True if the image was re-rendered.
+     */
+    boolean refreshScores() {
+        long lCredit = CommandCenter.getSunCredit();
+        long lScore = CommandCenter.getScore();
+        if (lCredit != lScoresCredit || lScore != lScoresScore) {
+            renderScores(lCredit, lScore);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the screen area covered by the score image.
+     *
+     * @return The bounds of the score and credits.
+     */
+    Rectangle getScoresBounds() {
+        return new Rectangle(0, 0, imgScores.getWidth(), imgScores.getHeight());
+    }
+
+    private void renderPanel(String strGuide, int nSelected, long lCredit) {
+        Graphics2D g = imgPanel.createGraphics();
+        g.setColor(PANEL_COLOR);
+        g.fillRect(0, 0, imgPanel.getWidth(), imgPanel.getHeight());
+
+        g.setColor(Color.white);
+        g.setFont(GamePanel.fnt);
+        if (strGuide != null) {
+            g.drawString(strGuide, 590, 50);
+        }
+
+        // slots are positioned in screen coordinates
+        g.translate(0, PANEL_HEIGHT - GamePanel.SCREEN_HEIGHT);
+        for (int nC = 0; nC < tray.getSlotCount(); nC++) {
+            Peashooter slot = tray.getSlot(nC);
+            slot.draw(g);
+            Point pnt = slot.getPointCenter();
+            int nReach = slot.getRadius() + 10;
+            if (lCredit < tray.getCost(nC)) {
+                g.setColor(UNAFFORDABLE);
+                g.fillOval(pnt.x - nReach, pnt.y - nReach, nReach * 2, nReach * 2);
+            }
+            if (nC == nSelected) {
+                g.setColor(Color.white);
+                g.drawOval(pnt.x - nReach, pnt.y - nReach, nReach * 2, nReach * 2);
+            }
+        }
+        g.dispose();
+
+        strPanelGuide = strGuide;
+        nPanelSelected = nSelected;
+        lPanelCredit = lCredit;
+        nRenders++;
+    }
+
+    private void renderScores(long lCredit, long lScore) {
+        Graphics2D g = imgScores.createGraphics();
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(0, 0, imgScores.getWidth(), imgScores.getHeight());
+        g.setComposite(AlphaComposite.SrcOver);
+
+        g.setColor(Color.white);
+        g.setFont(GamePanel.fnt);
+        if (lScore != 0) {
+            g.drawString("SCORE :  " + lScore, nFontWidth, nFontHeight);
+        } else {
+            g.drawString("NO SCORE", nFontWidth, nFontHeight);
+        }
+        g.drawString("SUN CREDITS : " + lCredit, nFontWidth, nFontHeight * 2 + 5);
+        g.dispose();
+
+        lScoresCredit = lCredit;
+        lScoresScore = lScore;
+        nRenders++;
+    }
+
+    /**
+     * Returns how many times a HUD image has been rendered.
+     *
+     * @return The render count.
+     */
+    public int getRenders() {
+        return nRenders;
+    }
+}
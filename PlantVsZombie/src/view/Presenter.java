@@ -0,0 +1,145 @@
+package view;
+
+import controller.FrameStats;
+
+import java.awt.*;
+import java.awt.image.BufferStrategy;
+
+/**
+ * The Presenter class puts finished frames of a GamePanel on screen by active rendering. It asks
+ * the panel for a page-flipping BufferStrategy with accelerated (VolatileImage) buffers, falls
+ * back to an accelerated blit strategy, and, when neither is available or -Dpvz.present=software
+ * is set, to drawing into the panel's BufferedImage and copying that to the screen. Lost or
+ * restored buffer contents are redrawn before the frame is shown. How long showing a frame
+ * takes is recorded as the present phase of FrameStats.
+ */
+public class Presenter {
+
+    public final static String MODE_FLIP = "flip";
+    public final static String MODE_BLIT = "blit";
+    public final static String MODE_SOFTWARE = "software";
+
+    private final GamePanel panel;
+    private final boolean bSoftwareOnly = "software".equals(System.getProperty("pvz.present"));
+    private BufferStrategy strategy;
+    private String strMode;
+    private long lContentsLost;
+
+    /**
+     * Constructs a Presenter for a panel. The buffer strategy is created on the first frame,
+     * once the panel is showing.
+     *
+     * @param panel The panel to present.
+     */
+    Presenter(GamePanel panel) {
+        this.panel = panel;
+    }
+
+    /**
+     * Draws the current game state and shows it.
+     */
+    public void present() {
+        if (strategy == null && !MODE_SOFTWARE.equals(strMode)) {
+            createStrategy();
+        }
+        if (strategy == null) {
+            presentSoftware();
+            return;
+        }
+
+        try {
+            do {
+                do {
+                    long lStart = System.nanoTime();
+                    Graphics g = strategy.getDrawGraphics();
+                    try {
+                        panel.renderFrame(g);
+                    } finally {
+                        g.dispose();
+                    }
+                    FrameStats.DEFAULT.record(FrameStats.RENDER, System.nanoTime() - lStart);
+                    // the buffers were recreated while we drew; draw again into the fresh ones
+                } while (strategy.contentsRestored());
+
+                long lStart = System.nanoTime();
+                strategy.show();
+                Toolkit.getDefaultToolkit().sync();
+                FrameStats.DEFAULT.record(FrameStats.PRESENT, System.nanoTime() - lStart);
+
+                if (strategy.contentsLost()) {
+                    lContentsLost++;
+                }
+            } while (strategy.contentsLost());
+        } catch (IllegalStateException e) {
+            // the panel lost its peer, e.g. while the window closes; start over next frame
+            strategy = null;
+        }
+    }
+
+    private void presentSoftware() {
+        Graphics g = panel.getGraphics();
+        if (g == null) {
+            return; // not showing yet
+        }
+        try {
+            long lStart = System.nanoTime();
+            panel.renderToScreen(g); // draws and copies to the screen in one go
+            long lRendered = System.nanoTime();
+            FrameStats.DEFAULT.record(FrameStats.RENDER, lRendered - lStart);
+            Toolkit.getDefaultToolkit().sync();
+            FrameStats.DEFAULT.record(FrameStats.PRESENT, System.nanoTime() - lRendered);
+        } finally {
+            g.dispose();
+        }
+    }
+
+    private void createStrategy() {
+        if (bSoftwareOnly || GraphicsEnvironment.isHeadless()) {
+            strMode = MODE_SOFTWARE;
+            return;
+        }
+        if (!panel.isDisplayable()) {
+            return; // try again on the next frame
+        }
+        try {
+            BufferCapabilities capFlip = new BufferCapabilities(new ImageCapabilities(true),
+                    new ImageCapabilities(true), BufferCapabilities.FlipContents.UNDEFINED);
+            panel.createBufferStrategy(2, capFlip);
+            strMode = MODE_FLIP;
+        } catch (AWTException e) {
+            try {
+                BufferCapabilities capBlit = new BufferCapabilities(new ImageCapabilities(true),
+                        new ImageCapabilities(true), null);
+                panel.createBufferStrategy(2, capBlit);
+                strMode = MODE_BLIT;
+            } catch (AWTException | RuntimeException e2) {
+                strMode = MODE_SOFTWARE;
+                return;
+            }
+        } catch (RuntimeException e) {
+            strMode = MODE_SOFTWARE;
+            return;
+        }
+        strategy = panel.getBufferStrategy();
+        // frames are drawn by the render thread only; repaint events would race with it
+        panel.setIgnoreRepaint(true);
+    }
+
+    /**
+     * Returns how frames are presented: MODE_FLIP, MODE_BLIT, MODE_SOFTWARE, or null before the first frame.
+     *
+     * @return The presentation mode.
+     */
+    public String getMode() {
+        return strMode;
+    }
+
+    /**
+     * Returns how many frames had to be drawn again because the buffer contents were lost.
+     *
+     * @return The contents-lost count.
+     */
+    public long getContentsLost() {
+        return lContentsLost;
+    }
+}
@@ -0,0 +1,83 @@
+import controller.BalanceHarness;
+import model.CommandCenter;
+import model.SpawnSettings;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for BalanceHarness.
+ * These tests play short sweeps and check that results are reproducible across thread counts.
+ */
+public class BalanceHarnessTest {
+
+  /**
+   * Resumes the game paused by tests that play in this class loader.
+   */
+  @After
+  public void tearDown() {
+    CommandCenter.setPaused(false);
+  }
+
+  /**
+   * Tests that a grid holds every combination, the last axis varying fastest.
+   */
+  @Test
+  public void testGrid() {
+    List<SpawnSettings> settings = BalanceHarness.grid(SpawnSettings.DEFAULT, "sun=9,13", "odds=1,2,7");
+    assertEquals(6, settings.size());
+    assertEquals(9, settings.get(0).getSunInterval());
+    assertEquals(1, settings.get(0).getSpawnOdds());
+    assertEquals(2, settings.get(1).getSpawnOdds());
+    assertEquals(13, settings.get(3).getSunInterval());
+    assertEquals(50, settings.get(5).getZombieInterval());
+  }
+
+  /**
+   * Tests that a malformed sweep is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testGridRejectsMissingValues() {
+    BalanceHarness.grid(SpawnSettings.DEFAULT, "sun");
+  }
+
+  /**
+   * Tests that a sweep reports every game and that the numbers do not depend on the thread count.
+   */
+  @Test
+  public void testSweepIsReproducible() {
+    List<SpawnSettings> settings = BalanceHarness.grid(SpawnSettings.DEFAULT, "zombie=10,50");
+    List<BalanceHarness.Result> one = new BalanceHarness(3, 1500, 7, 1).sweep(settings);
+    List<BalanceHarness.Result> two = new BalanceHarness(3, 1500, 7, 2).sweep(settings);
+    assertEquals(2, one.size());
+    for (int nSetting = 0; nSetting < 2; nSetting++) {
+      assertEquals(3, one.get(nSetting).getGames());
+      for (int nGame = 0; nGame < 3; nGame++) {
+        long[] lGame = one.get(nSetting).getGame(nGame);
+        assertTrue(lGame[BalanceHarness.TICKS] > 0 && lGame[BalanceHarness.TICKS] <= 1500);
+        assertArrayEquals(lGame, two.get(nSetting).getGame(nGame));
+      }
+    }
+    assertTrue(one.get(0).toString().contains("zombie=10"));
+  }
+
+  /**
+   * Tests that a game played by the harness in a world of its own matches the same game played directly.
+   */
+  @Test
+  public void testWorkerGameMatchesDirectGame() throws Exception {
+    List<SpawnSettings> settings = Arrays.asList(SpawnSettings.DEFAULT);
+    long[] lWorker = new BalanceHarness(1, 1000, 11, 1).sweep(settings).get(0).getGame(0);
+
+    // the harness derives game seeds the same way GameRandom.split does
+    long lSeed = new model.GameRandom(11).split().getSeed();
+    CommandCenter.setPaused(true); // keeps controller threads left by other tests out of the shared state
+    long[] lDirect = BalanceHarness.play(SpawnSettings.DEFAULT, lSeed, 1000);
+    assertArrayEquals(lWorker, lDirect);
+    assertSame(SpawnSettings.DEFAULT, CommandCenter.getSpawnSettings());
+  }
+}
@@ -0,0 +1,107 @@
+import controller.GameController;
+import model.Bullet;
+import model.BulletPool;
+import model.CommandCenter;
+import model.IcePeashooter;
+import model.Peashooter;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for BulletPool.
+ * Verifies that bullets are reused once spent and that peashooters only take bullets when they fire.
+ */
+public class BulletPoolTest {
+
+  private BulletPool pool;
+  private Peashooter peashooter;
+
+  /**
+   * Creates an empty pool and a peashooter before each test.
+   */
+  @Before
+  public void setUp() {
+    pool = new BulletPool();
+    peashooter = new Peashooter(100, 200);
+  }
+
+  /**
+   * Tests that an empty pool creates a new bullet.
+   */
+  @Test
+  public void testObtainCreatesWhenEmpty() {
+    Bullet bullet = pool.obtain(peashooter);
+    assertNotNull(bullet);
+    assertEquals(1, pool.getCreated());
+    assertEquals(0, pool.getReused());
+  }
+
+  /**
+   * Tests that a released bullet is reused and reset for the new shooter.
+   */
+  @Test
+  public void testReleasedBulletIsReused() {
+    Bullet bullet = pool.obtain(peashooter);
+    bullet.setPointCenter(new Point(1150, 200));
+    pool.release(bullet);
+    assertEquals(1, pool.getFree());
+
+    IcePeashooter icePeashooter = new IcePeashooter(300, 400);
+    Bullet reused = pool.obtain(icePeashooter);
+    assertSame(bullet, reused);
+    assertEquals(new Point(320, 380), reused.getPointCenter());
+    assertEquals(reused.getPointCenter(), reused.getPrevPointCenter());
+    assertEquals(1, reused.bulletType);
+    assertEquals(1, pool.getReused());
+    assertEquals(0, pool.getFree());
+  }
+
+  /**
+   * Tests that the pool keeps at most MAX_POOLED spare bullets.
+   */
+  @Test
+  public void testPoolIsBounded() {
+    for (int nC = 0; nC < BulletPool.MAX_POOLED + 10; nC++) {
+      pool.release(new Bullet(peashooter));
+    }
+    assertEquals(BulletPool.MAX_POOLED, pool.getFree());
+  }
+
+  /**
+   * Tests that a bullet leaving movBullets goes back to the shared pool.
+   */
+  @Test
+  public void testDespawnReturnsToPool() {
+    Bullet bullet = CommandCenter.getBulletPool().obtain(peashooter);
+    CommandCenter.getMovBullets().add(bullet);
+    CommandCenter.getMovBullets().flush();
+    int nFree = CommandCenter.getBulletPool().getFree();
+
+    CommandCenter.getMovBullets().remove(bullet);
+    CommandCenter.getMovBullets().flush();
+    assertEquals(nFree + 1, CommandCenter.getBulletPool().getFree());
+  }
+
+  /**
+   * Tests that a peashooter does not take a bullet on ticks where it does not fire.
+   */
+  @Test
+  public void testNoBulletWhenNotFiring() {
+    GameController.setTick(1); // the (x, y) constructor fires on multiples of 130
+    long lCreated = CommandCenter.getBulletPool().getCreated();
+    long lReused = CommandCenter.getBulletPool().getReused();
+
+    peashooter.move();
+    assertEquals(lCreated, CommandCenter.getBulletPool().getCreated());
+    assertEquals(lReused, CommandCenter.getBulletPool().getReused());
+
+    GameController.setTick(130);
+    peashooter.move();
+    assertEquals(lCreated + lReused + 1,
+        CommandCenter.getBulletPool().getCreated() + CommandCenter.getBulletPool().getReused());
+  }
+}
@@ -46,7 +46,7 @@ public class BulletTest {
     bullet.setPointCenter(new Point(1200, bullet.getPointCenter().y));
     bullet.move();
 
-    assertFalse(CommandCenter.movBullets.contains(bullet)); // Ensure bullet was removed
+    assertFalse(CommandCenter.getMovBullets().contains(bullet)); // Ensure bullet was removed
   }
 
   /**
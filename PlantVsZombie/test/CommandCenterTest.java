@@ -207,9 +207,9 @@ public class CommandCenterTest {
    */
   @Test
   public void testClearMovTempResetsPlanting() {
-    CommandCenter.isPlanting = true;
+    CommandCenter.setPlanting(true);
     CommandCenter.clearMovTemp();
-    assertFalse(CommandCenter.isPlanting);
+    assertFalse(CommandCenter.isPlanting());
   }
 
   /**
@@ -221,7 +221,7 @@ public class CommandCenterTest {
   public void testSetPlantWithSufficientSun() {
     CommandCenter.setSunCredit(200);
     CommandCenter.setPlant(0);
-    assertNotNull(CommandCenter.plant);
+    assertNotNull(CommandCenter.getPlant());
   }
 
   /**
@@ -232,7 +232,7 @@ public class CommandCenterTest {
   public void testSetPlantWithInsufficientSun() {
     CommandCenter.setSunCredit(50);
     CommandCenter.setPlant(0);
-    assertNull(CommandCenter.plant);
+    assertNull(CommandCenter.getPlant());
   }
 
   /**
@@ -246,7 +246,7 @@ public class CommandCenterTest {
     CommandCenter.setPlant(0);
     Point position = new Point(100, 100);
     CommandCenter.setPlantPosition(position);
-    assertEquals(position, CommandCenter.plant.getPointCenter());
+    assertEquals(position, CommandCenter.getPlant().getPointCenter());
   }
 
   /**
@@ -255,10 +255,10 @@ public class CommandCenterTest {
    */
   @Test
   public void testSetPlantPositionWhileNotPlanting() {
-    CommandCenter.isPlanting = false;
+    CommandCenter.setPlanting(false);
     Point position = new Point(100, 100);
     CommandCenter.setPlantPosition(position);
-    assertNull(CommandCenter.plant); // Plant should remain null
+    assertNull(CommandCenter.getPlant()); // Plant should remain null
   }
 
   /**
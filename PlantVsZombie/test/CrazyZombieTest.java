@@ -76,13 +76,13 @@ public class CrazyZombieTest {
     crazyZombie2.frozen();
 
     // Verify frozen state for both instances
-    assertEquals(0, crazyZombie1.speed);
+    assertEquals(0, crazyZombie1.getSpeed());
     assertEquals(0, crazyZombie1.getDeltaX(), 0.01);
-    assertTrue(crazyZombie1.isFozen);
+    assertTrue(crazyZombie1.isFrozen());
 
-    assertEquals(0, crazyZombie2.speed);
+    assertEquals(0, crazyZombie2.getSpeed());
     assertEquals(0, crazyZombie2.getDeltaX(), 0.01);
-    assertTrue(crazyZombie2.isFozen);
+    assertTrue(crazyZombie2.isFrozen());
   }
 
   /**
@@ -100,11 +100,11 @@ public class CrazyZombieTest {
     crazyZombie2.recover();
 
     // Verify recovery state
-    assertEquals(0, crazyZombie1.speed);
-    assertTrue(crazyZombie1.isFozen);
+    assertEquals(0, crazyZombie1.getSpeed());
+    assertTrue(crazyZombie1.isFrozen());
 
-    assertEquals(0, crazyZombie2.speed);
-    assertTrue(crazyZombie2.isFozen);
+    assertEquals(0, crazyZombie2.getSpeed());
+    assertTrue(crazyZombie2.isFrozen());
   }
 
   /**
@@ -125,7 +125,7 @@ public class CrazyZombieTest {
 
     crazyZombie2.isHit(1);
     assertEquals(initialSize2 - 1, crazyZombie2.getSize());
-    assertTrue(crazyZombie2.isFozen);
+    assertTrue(crazyZombie2.isFrozen());
   }
 
   /**
@@ -134,17 +134,17 @@ public class CrazyZombieTest {
    */
   @Test
   public void testUpdateSpeed() {
-    crazyZombie1.speedRatio = 2;
-    crazyZombie2.speedRatio = 3;
+    crazyZombie1.setSpeedRatio(2);
+    crazyZombie2.setSpeedRatio(3);
 
     crazyZombie1.updateSpeed();
     crazyZombie2.updateSpeed();
 
     // Verify updated speed and delta values
-    assertEquals(2, crazyZombie1.speed);
+    assertEquals(2, crazyZombie1.getSpeed());
     assertEquals(-1, crazyZombie1.getDeltaX(), 0.01);
 
-    assertEquals(3, crazyZombie2.speed);
+    assertEquals(3, crazyZombie2.getSpeed());
     assertEquals(-1.5, crazyZombie2.getDeltaX(), 0.01);
   }
 
@@ -0,0 +1,117 @@
+import static org.junit.Assert.*;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+
+import model.CommandCenter;
+import model.SeedTray;
+import model.Sun;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import view.DirtyRenderer;
+import view.HudLayer;
+
+/**
+ * Unit tests for the DirtyRenderer class.
+ */
+public class DirtyRendererTest {
+
+  private DirtyRenderer renderer;
+
+  /**
+   * Sets up a renderer without a panel over an empty game before each test.
+   */
+  @Before
+  public void setUp() {
+    CommandCenter.initGame();
+    CommandCenter.flushAll();
+    renderer = new DirtyRenderer(null, new HudLayer(new SeedTray(), 20, 24));
+  }
+
+  /**
+   * Resets the game after each test.
+   */
+  @After
+  public void tearDown() {
+    CommandCenter.initGame();
+    CommandCenter.flushAll();
+  }
+
+  /**
+   * Tests that the first frame is drawn in full and an unchanged frame redraws nothing.
+   */
+  @Test
+  public void testUnchangedFrameIsClean() {
+    renderer.render(1);
+    assertTrue(renderer.isFull());
+    renderer.render(1);
+    assertFalse(renderer.isFull());
+    assertEquals(0, renderer.getDirtyCount());
+    assertEquals(0, renderer.getDirtyFraction(), 0);
+  }
+
+  /**
+   * Tests that a moved entity dirties its old and new rectangles, merged into one.
+   */
+  @Test
+  public void testMovedEntityIsDirty() {
+    Sun sun = new Sun(400, 300);
+    CommandCenter.getMovSun().add(sun);
+    CommandCenter.flushAll();
+    renderer.render(1);
+    renderer.render(1);
+    assertEquals(0, renderer.getDirtyCount());
+
+    sun.setPointCenter(new Point(410, 300));
+    renderer.render(1);
+    assertFalse(renderer.isFull());
+    assertEquals(1, renderer.getDirtyCount());
+    Rectangle rect = renderer.getDirty().get(0);
+    assertTrue(rect.contains(400, 300));
+    assertTrue(rect.contains(410, 300));
+    assertTrue(renderer.getDirtyFraction() < 0.5);
+  }
+
+  /**
+   * Tests that a removed entity dirties the rectangle it was drawn into.
+   */
+  @Test
+  public void testRemovedEntityIsDirty() {
+    Sun sun = new Sun(400, 300);
+    CommandCenter.getMovSun().add(sun);
+    CommandCenter.flushAll();
+    renderer.render(1);
+    renderer.render(1);
+
+    CommandCenter.getMovSun().remove(sun);
+    CommandCenter.flushAll();
+    renderer.render(1);
+    assertEquals(1, renderer.getDirtyCount());
+    assertTrue(renderer.getDirty().get(0).contains(400, 300));
+  }
+
+  /**
+   * Tests that invalidating forces a full redraw.
+   */
+  @Test
+  public void testInvalidateRedrawsEverything() {
+    renderer.render(1);
+    renderer.invalidate();
+    renderer.render(1);
+    assertTrue(renderer.isFull());
+    assertEquals(1, renderer.getDirtyFraction(), 0);
+  }
+
+  /**
+   * Tests that the debug toggle flips the outline mode.
+   */
+  @Test
+  public void testToggleDebug() {
+    boolean bBefore = DirtyRenderer.isDebug();
+    DirtyRenderer.toggleDebug();
+    assertEquals(!bBefore, DirtyRenderer.isDebug());
+    DirtyRenderer.toggleDebug();
+    assertEquals(bBefore, DirtyRenderer.isDebug());
+  }
+}
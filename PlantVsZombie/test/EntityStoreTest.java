@@ -0,0 +1,163 @@
+import model.EntityStore;
+import model.Movable;
+import model.Zombie;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for EntityStore.
+ * Verifies that queued commands only take effect on flush, and that listeners and iteration behave.
+ */
+public class EntityStoreTest {
+
+  private EntityStore store;
+  private Zombie zombieA;
+  private Zombie zombieB;
+
+  /**
+   * Creates an empty store and two zombies before each test.
+   */
+  @Before
+  public void setUp() {
+    store = new EntityStore();
+    zombieA = new Zombie(100);
+    zombieB = new Zombie(200);
+  }
+
+  /**
+   * Tests that an add is only visible to readers after flush.
+   */
+  @Test
+  public void testAddDeferredUntilFlush() {
+    store.add(zombieA);
+    assertEquals(0, store.size());
+    assertTrue(store.contains(zombieA));
+
+    store.flush();
+    assertEquals(1, store.size());
+    assertSame(zombieA, store.get(0));
+  }
+
+  /**
+   * Tests that a remove is deferred and reports whether the movable was present.
+   */
+  @Test
+  public void testRemoveDeferredUntilFlush() {
+    store.add(zombieA);
+    store.flush();
+
+    assertTrue(store.remove(zombieA));
+    assertFalse(store.remove(zombieA)); // already queued for removal
+    assertFalse(store.contains(zombieA));
+    assertEquals(1, store.size());
+
+    store.flush();
+    assertTrue(store.isEmpty());
+  }
+
+  /**
+   * Tests that adding and removing in the same step leaves nothing behind.
+   */
+  @Test
+  public void testAddThenRemoveSameStep() {
+    store.add(zombieA);
+    store.remove(zombieA);
+    store.add(zombieB);
+    store.flush();
+
+    assertEquals(1, store.size());
+    assertSame(zombieB, store.get(0));
+  }
+
+  /**
+   * Tests that clear drops everything queued before it but keeps later adds.
+   */
+  @Test
+  public void testClear() {
+    store.add(zombieA);
+    store.flush();
+
+    store.clear();
+    store.add(zombieB);
+    store.flush();
+
+    assertEquals(1, store.size());
+    assertSame(zombieB, store.get(0));
+  }
+
+  /**
+   * Tests that membership follows the queued commands through a clear, before and after the flush.
+   */
+  @Test
+  public void testContainsAcrossClear() {
+    store.add(zombieA);
+    store.add(zombieB);
+    store.flush();
+
+    store.clear();
+    assertFalse(store.contains(zombieA));
+    assertFalse(store.remove(zombieB));
+    store.add(zombieB);
+    assertTrue(store.contains(zombieB));
+
+    store.flush();
+    assertFalse(store.contains(zombieA));
+    assertTrue(store.remove(zombieB));
+  }
+
+  /**
+   * Tests that listeners see exactly the movables that entered or left the store.
+   */
+  @Test
+  public void testListeners() {
+    final List<Movable> spawned = new ArrayList<>();
+    final List<Movable> despawned = new ArrayList<>();
+    store.addListener(new EntityStore.Listener() {
+      @Override
+      public void spawned(Movable mov) {
+        spawned.add(mov);
+      }
+
+      @Override
+      public void despawned(Movable mov) {
+        despawned.add(mov);
+      }
+    });
+
+    store.add(zombieA);
+    store.add(zombieA); // duplicate adds are applied once
+    store.flush();
+    assertEquals(1, spawned.size());
+
+    store.remove(zombieA);
+    store.remove(zombieB); // never added
+    store.flush();
+    assertEquals(1, despawned.size());
+    assertSame(zombieA, despawned.get(0));
+  }
+
+  /**
+   * Tests that an iterator keeps its snapshot while the store is flushed underneath it.
+   */
+  @Test
+  public void testIterationSnapshot() {
+    store.add(zombieA);
+    store.flush();
+
+    int nCount = 0;
+    for (Movable mov : store) {
+      store.remove(mov);
+      store.add(zombieB);
+      store.flush();
+      nCount++;
+    }
+    assertEquals(1, nCount);
+    assertEquals(1, store.size());
+    assertSame(zombieB, store.get(0));
+  }
+}
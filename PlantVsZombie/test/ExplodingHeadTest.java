@@ -99,11 +99,11 @@ public class ExplodingHeadTest {
   @Test
   public void testExpireRemovesFromDebris() {
     // Verify that the ExplodingHead is removed from debris when expiry reaches 0
-    CommandCenter.movDebris.add(explodingHead); // Add the exploding head to debris
+    CommandCenter.getMovDebris().add(explodingHead); // Add the exploding head to debris
     explodingHead.setnExpiry(1); // Set expiry to 1
     explodingHead.expire();
     assertTrue("ExplodingHead should be removed from debris",
-        CommandCenter.movDebris.contains(explodingHead));
+        CommandCenter.getMovDebris().contains(explodingHead));
   }
 
   /**
@@ -0,0 +1,79 @@
+import controller.FixedTimestep;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for FixedTimestep.
+ * This class verifies how elapsed time is turned into simulation steps and interpolation factors.
+ */
+public class FixedTimestepTest {
+
+  private static final long STEP = 50_000_000L; // 20 Hz
+
+  private FixedTimestep timestep;
+
+  /**
+   * Sets up a 20 Hz timestep with a catch-up cap of 3 steps before each test.
+   */
+  @Before
+  public void setUp() {
+    timestep = new FixedTimestep(20, 3);
+  }
+
+  /**
+   * Tests that the step length matches the requested rate.
+   */
+  @Test
+  public void testStepLength() {
+    assertEquals(STEP, timestep.getStepNanos());
+  }
+
+  /**
+   * Tests that less than one step of elapsed time runs no step and is kept for later.
+   */
+  @Test
+  public void testPartialStepAccumulates() {
+    assertEquals(0, timestep.advance(STEP / 2));
+    assertEquals(0.5, timestep.getAlpha(), 0.0001);
+    assertEquals(1, timestep.advance(STEP / 2));
+    assertEquals(0.0, timestep.getAlpha(), 0.0001);
+  }
+
+  /**
+   * Tests that whole steps are returned and the remainder becomes the interpolation factor.
+   */
+  @Test
+  public void testWholeStepsAndRemainder() {
+    assertEquals(2, timestep.advance(STEP * 2 + STEP / 4));
+    assertEquals(0.25, timestep.getAlpha(), 0.0001);
+  }
+
+  /**
+   * Tests that a long stall is capped and the extra backlog is dropped.
+   */
+  @Test
+  public void testCatchUpCap() {
+    assertEquals(3, timestep.advance(STEP * 10));
+    assertEquals(7, timestep.getDroppedSteps());
+    assertEquals(0, timestep.advance(0));
+  }
+
+  /**
+   * Tests that negative elapsed time is ignored.
+   */
+  @Test
+  public void testNegativeElapsedIgnored() {
+    assertEquals(0, timestep.advance(-STEP));
+    assertEquals(0.0, timestep.getAlpha(), 0.0001);
+  }
+
+  /**
+   * Tests that invalid rates are rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidRate() {
+    new FixedTimestep(0, 3);
+  }
+}
@@ -0,0 +1,159 @@
+import model.CommandCenter;
+import model.CrazyZombie;
+import model.GameWorld;
+import model.Zombie;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for FoeStore.
+ * Verifies that foes in play are moved by the array sweep and that slots follow foes in and out of movFoes.
+ */
+public class FoeStoreTest {
+
+  private GameWorld previous;
+
+  /**
+   * Starts every test from an empty game on level 1, in a world of its own so the store starts with no slots.
+   */
+  @Before
+  public void setUp() {
+    previous = new GameWorld(1).enter();
+    CommandCenter.initGame();
+  }
+
+  /**
+   * Goes back to the world the thread was in.
+   */
+  @After
+  public void tearDown() {
+    GameWorld.exit(previous);
+  }
+
+  /**
+   * Tests that the sweep moves foes in play and leaves other foes alone.
+   */
+  @Test
+  public void testMoveAllOnlyMovesFoesInPlay() {
+    Zombie inPlay = new Zombie(200);
+    Zombie outOfPlay = new Zombie(300);
+    CommandCenter.getMovFoes().add(inPlay);
+    CommandCenter.flushAll();
+    assertEquals(1, CommandCenter.getFoeStore().size());
+
+    CommandCenter.getFoeStore().moveAll();
+    assertEquals(new Point(1189, 200), inPlay.getPointCenter());
+    assertEquals(new Point(1190, 300), outOfPlay.getPointCenter());
+  }
+
+  /**
+   * Tests that the previous positions are kept for interpolation.
+   */
+  @Test
+  public void testSavePositions() {
+    Zombie zombie = new Zombie(200);
+    CommandCenter.getMovFoes().add(zombie);
+    CommandCenter.flushAll();
+
+    CommandCenter.getFoeStore().savePositions();
+    CommandCenter.getFoeStore().moveAll();
+    assertEquals(new Point(1190, 200), zombie.getPrevPointCenter());
+    assertEquals(new Point(1189, 200), zombie.getPointCenter());
+  }
+
+  /**
+   * Tests that a foe leaving play frees its slot, and that it keeps its last state.
+   */
+  @Test
+  public void testSlotReleasedAndReused() {
+    Zombie zombie = new Zombie(200);
+    CommandCenter.getMovFoes().add(zombie);
+    CommandCenter.flushAll();
+    zombie.setPointCenter(new Point(600, 200));
+    zombie.isHit(0);
+
+    CommandCenter.getMovFoes().remove(zombie);
+    CommandCenter.flushAll();
+    assertEquals(0, CommandCenter.getFoeStore().size());
+
+    CrazyZombie crazyZombie = new CrazyZombie(400);
+    CommandCenter.getMovFoes().add(crazyZombie); // takes over the freed slot
+    CommandCenter.flushAll();
+    assertEquals(1, CommandCenter.getFoeStore().getSlots());
+    assertEquals(new Point(1190, 400), crazyZombie.getPointCenter());
+    assertEquals(new Point(600, 200), zombie.getPointCenter());
+    assertEquals(2, zombie.getSize());
+  }
+
+  /**
+   * Tests that a foe only takes a slot of the world's store while it is in play.
+   */
+  @Test
+  public void testSlotOnlyWhileInPlay() {
+    Zombie zombie = new Zombie(200);
+    zombie.frozen();
+    new CrazyZombie(300);
+    assertEquals(0, CommandCenter.getFoeStore().getSlots());
+
+    CommandCenter.getMovFoes().add(zombie);
+    CommandCenter.flushAll();
+    assertEquals(1, CommandCenter.getFoeStore().getSlots());
+    assertTrue(zombie.isFrozen()); // its state went with it
+  }
+
+  /**
+   * Tests that reading a foe's center does not replace it; moving it does, on the thread moving it.
+   */
+  @Test
+  public void testPointCenterOnlyReplacedByMoves() {
+    Zombie zombie = new Zombie(200);
+    CommandCenter.getMovFoes().add(zombie);
+    CommandCenter.flushAll();
+    Point pnt = zombie.getPointCenter();
+    assertSame(pnt, zombie.getPointCenter());
+
+    CommandCenter.getFoeStore().moveAll();
+    assertEquals(1189, zombie.getCenterX());
+    assertEquals(200, zombie.getCenterY());
+    assertEquals(new Point(1189, 200), zombie.getPointCenter());
+    assertEquals(new Point(1190, 200), pnt);
+  }
+
+  /**
+   * Tests that a frozen foe counts its time frozen and stays stopped after recovering.
+   */
+  @Test
+  public void testFrozenFoeStaysStopped() {
+    Zombie zombie = new Zombie(200);
+    CommandCenter.getMovFoes().add(zombie);
+    CommandCenter.flushAll();
+    zombie.isHit(1);
+
+    int x = zombie.getPointCenter().x;
+    for (int nC = 0; nC < 250; nC++) {
+      CommandCenter.getFoeStore().moveAll();
+    }
+    assertTrue(zombie.isFrozen());
+    assertEquals(0, zombie.getSpeed());
+    assertEquals(x, zombie.getPointCenter().x);
+    assertEquals(2, zombie.getSize());
+  }
+
+  /**
+   * Tests that crazy zombies start with their own health and speed ratio.
+   */
+  @Test
+  public void testTypeDefaults() {
+    CrazyZombie crazyZombie = new CrazyZombie(200);
+    assertEquals(2, crazyZombie.getSize());
+    assertEquals(5, crazyZombie.getSpeedRatio());
+
+    crazyZombie.updateSpeed();
+    assertEquals(5, crazyZombie.getSpeed());
+  }
+}
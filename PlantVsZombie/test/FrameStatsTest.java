@@ -0,0 +1,78 @@
+import static org.junit.Assert.*;
+
+import java.io.StringWriter;
+
+import controller.FrameStats;
+import controller.HeadlessRunner;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the FrameStats class.
+ */
+public class FrameStatsTest {
+
+  /**
+   * Clears the recorded timings before each test.
+   */
+  @Before
+  public void setUp() {
+    FrameStats.DEFAULT.reset();
+  }
+
+  /**
+   * Tests that simulation steps record every step phase.
+   */
+  @Test
+  public void testStepsRecordPhases() throws Exception {
+    HeadlessRunner runner = new HeadlessRunner();
+    int nRun = runner.run(50);
+    FrameStats stats = runner.getController().getFrameStats();
+    assertEquals(nRun, stats.get(FrameStats.STEP).getCount());
+    assertEquals(nRun, stats.get(FrameStats.TICK).getCount());
+    assertEquals(nRun, stats.get(FrameStats.COLLISIONS).getCount());
+    assertEquals(nRun, stats.get(FrameStats.MOVE).getCount());
+    assertEquals(0, stats.get(FrameStats.RENDER).getCount());
+  }
+
+  /**
+   * Tests that each headless controller keeps its own step timings, apart from the windowed game's.
+   */
+  @Test
+  public void testControllersDoNotShare() throws Exception {
+    HeadlessRunner first = new HeadlessRunner();
+    HeadlessRunner second = new HeadlessRunner();
+    int nRun = first.run(20);
+    assertNotSame(first.getController().getFrameStats(), second.getController().getFrameStats());
+    assertEquals(nRun, first.getController().getFrameStats().get(FrameStats.STEP).getCount());
+    assertEquals(0, second.getController().getFrameStats().get(FrameStats.STEP).getCount());
+    assertEquals(0, FrameStats.DEFAULT.get(FrameStats.STEP).getCount());
+  }
+
+  /**
+   * Tests that the CSV has a header and one row per phase.
+   */
+  @Test
+  public void testWriteCsv() {
+    FrameStats stats = new FrameStats();
+    stats.record(FrameStats.COLLISIONS, 2_000);
+    StringWriter writer = new StringWriter();
+    stats.writeCsv(writer);
+    String[] strLines = writer.toString().trim().split("\\R");
+    assertEquals(FrameStats.PHASES + 1, strLines.length);
+    assertTrue(strLines[0].startsWith("phase,count,"));
+    assertTrue(strLines[1 + FrameStats.COLLISIONS].startsWith("collisions,1,2.0,2.0,"));
+  }
+
+  /**
+   * Tests that the overlay toggles.
+   */
+  @Test
+  public void testToggleOverlay() {
+    boolean bBefore = FrameStats.isOverlayVisible();
+    FrameStats.toggleOverlay();
+    assertEquals(!bBefore, FrameStats.isOverlayVisible());
+    FrameStats.toggleOverlay();
+    assertEquals(bBefore, FrameStats.isOverlayVisible());
+  }
+}
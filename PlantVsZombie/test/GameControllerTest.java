@@ -3,6 +3,7 @@
 import controller.GameController;
 import javax.sound.sampled.Clip;
 import model.*;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -25,7 +26,15 @@ public class GameControllerTest {
    */
   @Before
   public void setUp() throws Exception {
-    gameController = new GameController();
+    gameController = new GameController(true);
+  }
+
+  /**
+   * Stops the threads started by run, so they do not step the game during later tests.
+   */
+  @After
+  public void tearDown() {
+    gameController.stop();
   }
 
   /**
@@ -134,9 +143,9 @@ public class GameControllerTest {
         new Button(), MouseEvent.MOUSE_RELEASED, System.currentTimeMillis(),
         0, 300, 400, 1, false
     );
-    CommandCenter.isPlanting = true;
+    CommandCenter.setPlanting(true);
     gameController.mouseReleased(event);
-    assertFalse(CommandCenter.isPlanting);
+    assertFalse(CommandCenter.isPlanting());
   }
 
   /**
@@ -150,7 +159,7 @@ public class GameControllerTest {
         0, -10, -20, 1, false
     );
     gameController.mouseReleased(event);
-    assertFalse(CommandCenter.isPlanting);
+    assertFalse(CommandCenter.isPlanting());
   }
 
   /**
@@ -0,0 +1,185 @@
+import model.CrazyZombie;
+import model.GameEvents;
+import model.GameWorld;
+import model.Zombie;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for GameEvents.
+ * These tests check delivery order, type filtering, growth of the ring and the world's subscribers.
+ */
+public class GameEventsTest {
+
+  // records the type and value of every event it gets
+  private static class Recorder implements GameEvents.Subscriber {
+    final List<String> events = new ArrayList<>();
+
+    @Override
+    public void onEvent(GameEvents.Event event) {
+      events.add(GameEvents.NAMES[event.getType()] + "=" + event.getValue());
+    }
+  }
+
+  /**
+   * Tests that events wait for drain and then arrive in publishing order.
+   */
+  @Test
+  public void testDrainInOrder() {
+    GameEvents events = new GameEvents();
+    Recorder recorder = new Recorder();
+    events.subscribe(GameEvents.ALL, recorder);
+    events.publish(GameEvents.HIT, null, 1, 2, 3);
+    events.publish(GameEvents.KILL, null, 4, 5, 100);
+    assertTrue(recorder.events.isEmpty());
+    assertEquals(2, events.getPending());
+
+    assertEquals(2, events.drain());
+    assertEquals("[hit=3, kill=100]", recorder.events.toString());
+    assertEquals(0, events.getPending());
+    assertEquals(0, events.drain());
+  }
+
+  /**
+   * Tests that a subscriber only gets the types it asked for.
+   */
+  @Test
+  public void testMask() {
+    GameEvents events = new GameEvents();
+    Recorder kills = new Recorder();
+    events.subscribe(GameEvents.maskOf(GameEvents.KILL, GameEvents.GAME_OVER), kills);
+    events.publish(GameEvents.HIT, null, 0, 0, 2);
+    events.publish(GameEvents.KILL, null, 0, 0, 100);
+    events.publish(GameEvents.SUN_COLLECTED, null, 0, 0, 25);
+    events.publish(GameEvents.GAME_OVER, null, 0, 0, 1);
+    events.drain();
+    assertEquals("[kill=100, gameOver=1]", kills.events.toString());
+    assertEquals(1, events.getCount(GameEvents.HIT));
+  }
+
+  /**
+   * Tests that a step publishing more than the ring holds loses nothing and keeps the order.
+   */
+  @Test
+  public void testGrowKeepsOrder() {
+    GameEvents events = new GameEvents();
+    final List<Long> values = new ArrayList<>();
+    events.subscribe(GameEvents.ALL, new GameEvents.Subscriber() {
+      @Override
+      public void onEvent(GameEvents.Event event) {
+        values.add(event.getValue());
+      }
+    });
+    // wrap the ring first, so growing has to unwrap it
+    for (int nC = 0; nC < GameEvents.CAPACITY / 2; nC++) {
+      events.publish(GameEvents.HIT, null, 0, 0, -1);
+    }
+    events.drain();
+    values.clear();
+    int nEvents = GameEvents.CAPACITY * 3;
+    for (int nC = 0; nC < nEvents; nC++) {
+      events.publish(GameEvents.HIT, null, 0, 0, nC);
+    }
+    assertEquals(nEvents, events.drain());
+    for (int nC = 0; nC < nEvents; nC++) {
+      assertEquals(nC, (long) values.get(nC));
+    }
+  }
+
+  /**
+   * Tests that events a subscriber publishes are delivered in the same drain.
+   */
+  @Test
+  public void testPublishDuringDrain() {
+    final GameEvents events = new GameEvents();
+    Recorder recorder = new Recorder();
+    events.subscribe(GameEvents.maskOf(GameEvents.KILL), new GameEvents.Subscriber() {
+      @Override
+      public void onEvent(GameEvents.Event event) {
+        events.publish(GameEvents.LEVEL_UP, null, 0, 0, 2);
+      }
+    });
+    events.subscribe(GameEvents.ALL, recorder);
+    events.publish(GameEvents.KILL, null, 0, 0, 100);
+    assertEquals(2, events.drain());
+    assertEquals("[kill=100, levelUp=2]", recorder.events.toString());
+  }
+
+  /**
+   * Tests that clear drops pending events.
+   */
+  @Test
+  public void testClear() {
+    GameEvents events = new GameEvents();
+    Recorder recorder = new Recorder();
+    events.subscribe(GameEvents.ALL, recorder);
+    events.publish(GameEvents.HIT, new Zombie(200), 0, 0, 1);
+    events.clear();
+    assertEquals(0, events.drain());
+    assertTrue(recorder.events.isEmpty());
+  }
+
+  /**
+   * Tests that a world scores a kill when its events are drained, not before.
+   */
+  @Test
+  public void testWorldScoresKills() {
+    GameWorld world = new GameWorld(1);
+    world.events.publish(GameEvents.KILL, null, 500, 300, 100);
+    assertEquals(0, world.getScore());
+    world.events.drain();
+    assertEquals(100, world.getScore());
+  }
+
+  /**
+   * Tests that a world leaves a head behind a zombie down to its last hit, and only a zombie.
+   */
+  @Test
+  public void testWorldLeavesDebris() {
+    GameWorld world = new GameWorld(1);
+    GameWorld previous = world.enter();
+    try {
+      world.events.publish(GameEvents.HIT, new Zombie(300), 500, 300, 2);
+      world.events.publish(GameEvents.HIT, new CrazyZombie(300), 500, 300, 1);
+      world.events.drain();
+      world.flushAll();
+      assertTrue(world.movDebris.isEmpty());
+
+      world.events.publish(GameEvents.HIT, new Zombie(300), 500, 300, 1);
+      world.events.drain();
+      world.flushAll();
+      assertEquals(1, world.movDebris.size());
+      assertEquals(500, world.movDebris.iterator().next().getPointCenter().x);
+    } finally {
+      GameWorld.exit(previous);
+    }
+  }
+
+  /**
+   * Tests that an eaten plant warns the player.
+   */
+  @Test
+  public void testWorldWarnsOfEatenPlant() {
+    GameWorld world = new GameWorld(1);
+    world.setGameGuide("Enjoy the game.");
+    world.events.publish(GameEvents.PLANT_EATEN, null, 300, 300, 0);
+    world.events.drain();
+    assertTrue(world.getGameGuide().startsWith("It's very dangerous"));
+  }
+
+  /**
+   * Tests that a level change is published once per change.
+   */
+  @Test
+  public void testLevelUpPublished() {
+    GameWorld world = new GameWorld(1);
+    long lBefore = world.events.getCount(GameEvents.LEVEL_UP);
+    world.setLevel(1);
+    world.setLevel(1);
+    assertEquals(lBefore + 1, world.events.getCount(GameEvents.LEVEL_UP));
+  }
+}
@@ -0,0 +1,112 @@
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import model.GameLog;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the GameLog class.
+ */
+public class GameLogTest {
+
+  private ByteArrayOutputStream bytes;
+
+  /**
+   * Sends log output to a buffer before each test.
+   */
+  @Before
+  public void setUp() {
+    GameLog.flush(1000);
+    bytes = new ByteArrayOutputStream();
+    GameLog.setOutput(new PrintStream(bytes, true));
+    GameLog.setLevel(GameLog.DEBUG);
+  }
+
+  /**
+   * Restores the default level and output after each test.
+   */
+  @After
+  public void tearDown() {
+    GameLog.flush(1000);
+    GameLog.setOutput(System.out);
+    GameLog.setLevel(GameLog.INFO);
+  }
+
+  /**
+   * Tests that messages are written by the background thread with their level, site and arguments.
+   */
+  @Test
+  public void testWritesFormattedMessage() {
+    GameLog.Site site = GameLog.site("Test.write", 100);
+    site.debug("x is {} and y is {}", 3, "four");
+    assertTrue(GameLog.flush(2000));
+    assertTrue(bytes.toString().contains("[DEBUG] Test.write: x is 3 and y is four"));
+  }
+
+  /**
+   * Tests that messages below the level are discarded.
+   */
+  @Test
+  public void testLevelFilter() {
+    GameLog.setLevel(GameLog.WARN);
+    GameLog.Site site = GameLog.site("Test.level", 100);
+    assertFalse(site.isEnabled(GameLog.INFO));
+    assertTrue(site.isEnabled(GameLog.ERROR));
+    site.info("hidden");
+    site.warn("shown");
+    assertTrue(GameLog.flush(2000));
+    assertFalse(bytes.toString().contains("hidden"));
+    assertTrue(bytes.toString().contains("[WARN] Test.level: shown"));
+  }
+
+  /**
+   * Tests that a site writes at most its rate per second and counts the rest.
+   */
+  @Test
+  public void testRateLimit() {
+    GameLog.Site site = GameLog.site("Test.rate", 3);
+    long lBefore = GameLog.getRateLimited();
+    for (int nC = 0; nC < 10; nC++) {
+      site.info("message {}", nC);
+    }
+    assertTrue(GameLog.flush(2000));
+    assertEquals(7, site.getSuppressed());
+    assertEquals(7, GameLog.getRateLimited() - lBefore);
+    assertTrue(bytes.toString().contains("message 2"));
+    assertFalse(bytes.toString().contains("message 3"));
+  }
+
+  /**
+   * Tests that logging from several threads loses nothing when the ring has room, or counts what it drops.
+   */
+  @Test
+  public void testConcurrentProducers() throws InterruptedException {
+    final GameLog.Site site = GameLog.site("Test.threads", 1_000_000);
+    long lDropped = GameLog.getDropped();
+    Thread[] threads = new Thread[4];
+    for (int nT = 0; nT < threads.length; nT++) {
+      threads[nT] = new Thread(() -> {
+        for (int nC = 0; nC < 500; nC++) {
+          site.info("n {}", nC);
+        }
+      });
+      threads[nT].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertTrue(GameLog.flush(5000));
+    // other game threads may log meanwhile, so only this site's lines are counted
+    long lLines = bytes.toString().lines().filter(str -> str.contains("Test.threads")).count();
+    long lDroppedNow = GameLog.getDropped() - lDropped;
+    assertTrue(lLines <= 2000);
+    assertTrue(lLines + lDroppedNow >= 2000);
+    if (lDroppedNow == 0) {
+      assertEquals(2000, lLines);
+    }
+  }
+}
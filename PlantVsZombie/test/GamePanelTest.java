@@ -1,5 +1,6 @@
 //package view;
 
+import controller.FrameStats;
 import controller.GameController;
 import model.CommandCenter;
 import model.Movable;
@@ -68,6 +69,22 @@ public class GamePanelTest {
     assertTrue("Sun credits should be rendered on the screen", true);
   }
 
+  /**
+   * Tests that present() picks a presentation mode and records the render and present phases.
+   */
+  @Test
+  public void testPresentRecordsTimings() {
+    CommandCenter.setPlaying(true);
+    long lRendered = FrameStats.DEFAULT.get(FrameStats.RENDER).getCount();
+    long lPresented = FrameStats.DEFAULT.get(FrameStats.PRESENT).getCount();
+    gamePanel.present();
+    gamePanel.present();
+    assertNotNull(gamePanel.getPresenter().getMode());
+    assertTrue(FrameStats.DEFAULT.get(FrameStats.RENDER).getCount() >= lRendered + 2);
+    assertTrue(FrameStats.DEFAULT.get(FrameStats.PRESENT).getCount() >= lPresented + 2);
+    CommandCenter.setPlaying(false);
+  }
+
   /**
    * Helper method to access the private grpOff field in GamePanel.
    * This method uses reflection to retrieve the grpOff field, which represents the off-screen graphics buffer.
@@ -0,0 +1,96 @@
+import model.GameRandom;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for GameRandom.
+ * Verifies that streams are reproducible from a seed and independent of each other.
+ */
+public class GameRandomTest {
+
+  private static long[] draw(GameRandom.Stream stream, int nCount) {
+    long[] lValues = new long[nCount];
+    for (int nC = 0; nC < nCount; nC++) {
+      lValues[nC] = stream.nextLong();
+    }
+    return lValues;
+  }
+
+  /**
+   * Tests that the same seed gives the same numbers.
+   */
+  @Test
+  public void testSameSeedSameNumbers() {
+    GameRandom a = new GameRandom(42);
+    GameRandom b = new GameRandom(42);
+    for (int nStream = 0; nStream < GameRandom.STREAMS; nStream++) {
+      assertArrayEquals(draw(a.stream(nStream), 100), draw(b.stream(nStream), 100));
+    }
+    assertEquals(42, a.getSeed());
+  }
+
+  /**
+   * Tests that different seeds give different numbers.
+   */
+  @Test
+  public void testDifferentSeedsDiffer() {
+    assertFalse(java.util.Arrays.equals(draw(new GameRandom(1).stream(GameRandom.SPAWN), 10),
+        draw(new GameRandom(2).stream(GameRandom.SPAWN), 10)));
+  }
+
+  /**
+   * Tests that drawing from one stream does not shift another.
+   */
+  @Test
+  public void testStreamsAreIndependent() {
+    GameRandom a = new GameRandom(7);
+    GameRandom b = new GameRandom(7);
+    draw(a.stream(GameRandom.SOUND), 1000);
+    assertArrayEquals(draw(b.stream(GameRandom.SPAWN), 50), draw(a.stream(GameRandom.SPAWN), 50));
+    assertFalse(java.util.Arrays.equals(draw(new GameRandom(7).stream(GameRandom.SPAWN), 10),
+        draw(new GameRandom(7).stream(GameRandom.SUN), 10)));
+  }
+
+  /**
+   * Tests that reseeding restarts the existing stream objects.
+   */
+  @Test
+  public void testReseed() {
+    GameRandom random = new GameRandom(3);
+    GameRandom.Stream stream = random.stream(GameRandom.SUN);
+    long[] lFirst = draw(stream, 20);
+    random.reseed(3);
+    assertSame(stream, random.stream(GameRandom.SUN));
+    assertArrayEquals(lFirst, draw(stream, 20));
+  }
+
+  /**
+   * Tests that split children are reproducible from the parent's seed and differ from each other.
+   */
+  @Test
+  public void testSplit() {
+    GameRandom a = new GameRandom(11);
+    GameRandom b = new GameRandom(11);
+    GameRandom a1 = a.split();
+    GameRandom a2 = a.split();
+    GameRandom b1 = b.split();
+    assertEquals(a1.getSeed(), b1.getSeed());
+    assertNotEquals(a1.getSeed(), a2.getSeed());
+    assertArrayEquals(draw(a1.stream(GameRandom.SPAWN), 20), draw(b1.stream(GameRandom.SPAWN), 20));
+  }
+
+  /**
+   * Tests that bounded draws stay within their bounds.
+   */
+  @Test
+  public void testBounds() {
+    GameRandom.Stream stream = new GameRandom(5).stream(GameRandom.SPRITE);
+    for (int nC = 0; nC < 1000; nC++) {
+      int n = stream.nextInt(130);
+      assertTrue(n >= 0 && n < 130);
+      double d = stream.nextDouble();
+      assertTrue(d >= 0 && d < 1);
+    }
+  }
+}
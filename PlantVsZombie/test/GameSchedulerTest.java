@@ -0,0 +1,127 @@
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+
+import model.GameScheduler;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the GameScheduler class.
+ */
+public class GameSchedulerTest {
+
+  private GameScheduler scheduler;
+  private ArrayList<String> ran;
+
+  /**
+   * Sets up a fresh scheduler before each test.
+   */
+  @Before
+  public void setUp() {
+    scheduler = new GameScheduler();
+    ran = new ArrayList<>();
+  }
+
+  /**
+   * Tests that an action runs on the tick it is due and not before.
+   */
+  @Test
+  public void testRunsAfterDelay() {
+    scheduler.schedule("a", 3, () -> ran.add("a"));
+    scheduler.tick();
+    scheduler.tick();
+    assertTrue(ran.isEmpty());
+    assertEquals(1, scheduler.getPendingCount());
+    scheduler.tick();
+    assertEquals(1, ran.size());
+    assertEquals(0, scheduler.getPendingCount());
+    assertEquals(1, scheduler.getRunCount());
+  }
+
+  /**
+   * Tests that scheduling a key that is already pending is ignored.
+   */
+  @Test
+  public void testDeduplicatesKey() {
+    assertTrue(scheduler.schedule("a", 2, () -> ran.add("first")));
+    assertFalse(scheduler.schedule("a", 1, () -> ran.add("second")));
+    assertTrue(scheduler.isPending("a"));
+    assertEquals(1, scheduler.getDeduplicatedCount());
+    scheduler.tick();
+    scheduler.tick();
+    assertEquals(1, ran.size());
+    assertEquals("first", ran.get(0));
+    assertFalse(scheduler.isPending("a"));
+  }
+
+  /**
+   * Tests that unkeyed actions are never deduplicated.
+   */
+  @Test
+  public void testUnkeyedNotDeduplicated() {
+    scheduler.schedule(null, 1, () -> ran.add("x"));
+    scheduler.schedule(null, 1, () -> ran.add("y"));
+    assertEquals(2, scheduler.getPendingCount());
+    scheduler.tick();
+    assertEquals(2, ran.size());
+    assertEquals("x", ran.get(0));
+    assertEquals("y", ran.get(1));
+  }
+
+  /**
+   * Tests that actions due on different ticks run in due order.
+   */
+  @Test
+  public void testRunsInDueOrder() {
+    scheduler.schedule("late", 2, () -> ran.add("late"));
+    scheduler.schedule("early", 1, () -> ran.add("early"));
+    scheduler.tick();
+    scheduler.tick();
+    assertEquals("early", ran.get(0));
+    assertEquals("late", ran.get(1));
+  }
+
+  /**
+   * Tests that an action may schedule another action, including under its own key.
+   */
+  @Test
+  public void testActionSchedulesAction() {
+    scheduler.schedule("a", 1, () -> {
+      ran.add("a");
+      scheduler.schedule("a", 1, () -> ran.add("again"));
+    });
+    scheduler.tick();
+    assertTrue(scheduler.isPending("a"));
+    scheduler.tick();
+    assertEquals(2, ran.size());
+    assertEquals("again", ran.get(1));
+  }
+
+  /**
+   * Tests that cancel and clear drop pending actions.
+   */
+  @Test
+  public void testCancelAndClear() {
+    scheduler.schedule("a", 1, () -> ran.add("a"));
+    scheduler.schedule("b", 1, () -> ran.add("b"));
+    assertTrue(scheduler.cancel("a"));
+    assertFalse(scheduler.cancel("a"));
+    assertEquals(1, scheduler.getPendingCount());
+    scheduler.clear();
+    assertEquals(0, scheduler.getPendingCount());
+    scheduler.tick();
+    assertTrue(ran.isEmpty());
+  }
+
+  /**
+   * Tests the conversion of milliseconds into ticks.
+   */
+  @Test
+  public void testTicksFor() {
+    assertEquals(0, GameScheduler.ticksFor(0));
+    assertEquals(1, GameScheduler.ticksFor(1));
+    assertEquals(89, GameScheduler.ticksFor(4000));
+    assertEquals(67, GameScheduler.ticksFor(3000));
+  }
+}
@@ -0,0 +1,144 @@
+import controller.GameController;
+import controller.HeadlessRunner;
+import model.CommandCenter;
+import model.GameEvents;
+import model.GameWorld;
+import model.Movable;
+import model.Sound;
+import model.Zombie;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for GameWorld.
+ * These tests check that worlds are bound per thread and share no game state.
+ */
+public class GameWorldTest {
+
+  private GameWorld previous;
+
+  /**
+   * Leaves any world a test entered.
+   */
+  @After
+  public void tearDown() {
+    GameWorld.exit(previous);
+    previous = null;
+  }
+
+  /**
+   * Tests that a thread works on the default world until it enters another.
+   */
+  @Test
+  public void testDefaultWorld() {
+    assertSame(GameWorld.DEFAULT, GameWorld.current());
+    GameWorld world = new GameWorld(1);
+    previous = world.enter();
+    assertSame(world, GameWorld.current());
+    assertSame(world.movFoes, CommandCenter.getMovFoes());
+    GameWorld.exit(previous);
+    assertSame(GameWorld.DEFAULT, GameWorld.current());
+  }
+
+  /**
+   * Tests that CommandCenter changes only the world the thread entered.
+   */
+  @Test
+  public void testWorldsAreIndependent() {
+    GameWorld first = new GameWorld(1);
+    GameWorld second = new GameWorld(2);
+    previous = first.enter();
+    CommandCenter.setScore(40);
+    CommandCenter.getMovFoes().add(new Zombie(300));
+    CommandCenter.flushAll();
+    GameController.setTick(77);
+
+    second.enter();
+    assertEquals(0, CommandCenter.getScore());
+    assertTrue(CommandCenter.getMovFoes().isEmpty());
+    assertEquals(0, GameController.getTick());
+
+    assertEquals(40, first.getScore());
+    assertEquals(1, first.movFoes.size());
+    assertEquals(77, first.getTick());
+    assertEquals(1, first.foeLanes.size());
+  }
+
+  /**
+   * Tests that a world entered on another thread is not seen by this one.
+   */
+  @Test
+  public void testBindingIsPerThread() throws Exception {
+    GameWorld world = new GameWorld(3);
+    GameWorld[] seen = new GameWorld[1];
+    Thread thread = new Thread(() -> {
+      world.enter();
+      seen[0] = GameWorld.current();
+    });
+    thread.start();
+    thread.join();
+    assertSame(world, seen[0]);
+    assertSame(GameWorld.DEFAULT, GameWorld.current());
+  }
+
+  // plays a seeded game in a world of its own and returns where its foes are
+  private static String play(GameWorld world, int nTicks) throws Exception {
+    GameWorld before = world.enter();
+    try {
+      new HeadlessRunner(world.random.getSeed()).run(nTicks);
+      StringBuilder sb = new StringBuilder().append(world.getScore()).append(':');
+      for (Movable mov : world.movFoes) {
+        sb.append(mov.getPointCenter()).append(';');
+      }
+      return sb.toString();
+    } finally {
+      GameWorld.exit(before);
+    }
+  }
+
+  /**
+   * Tests that a headless controller mutes its own world only, and that a muted world asks for no sounds.
+   */
+  @Test
+  public void testHeadlessMutesOnlyItsWorld() throws Exception {
+    GameWorld audible = new GameWorld(1);
+    GameWorld muted = new GameWorld(2);
+    previous = muted.enter();
+    new GameController(true);
+    assertFalse(muted.audio.isEnabled());
+    assertEquals(Sound.isEnabled(), audible.audio.isEnabled());
+
+    muted.events.publish(GameEvents.SUN_COLLECTED, null, 0, 0, 25);
+    muted.events.drain();
+    assertEquals(0, muted.sounds.getPending());
+  }
+
+  /**
+   * Tests that worlds with the same seed stepped on parallel threads play the same game.
+   */
+  @Test
+  public void testParallelWorldsPlayTheSameGame() throws Exception {
+    String strExpected = play(new GameWorld(1234), 1500);
+    String[] strResults = new String[4];
+    Thread[] threads = new Thread[strResults.length];
+    for (int nC = 0; nC < threads.length; nC++) {
+      final int nIndex = nC;
+      threads[nC] = new Thread(() -> {
+        try {
+          strResults[nIndex] = play(new GameWorld(1234), 1500);
+        } catch (Exception e) {
+          strResults[nIndex] = e.toString();
+        }
+      });
+      threads[nC].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    for (String strResult : strResults) {
+      assertEquals(strExpected, strResult);
+    }
+  }
+}
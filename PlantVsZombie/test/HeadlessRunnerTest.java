@@ -0,0 +1,169 @@
+import controller.GameController;
+import controller.HeadlessRunner;
+import controller.Replay;
+import model.CommandCenter;
+import model.GameWorld;
+import model.Movable;
+import model.Zombie;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for HeadlessRunner.
+ * These tests run the simulation without a window or audio device.
+ */
+public class HeadlessRunnerTest {
+
+  private HeadlessRunner runner;
+
+  /**
+   * Creates a fresh headless runner before each test.
+   */
+  @Before
+  public void setUp() throws Exception {
+    runner = new HeadlessRunner();
+  }
+
+  /**
+   * Tests that a headless runner mutes its world and starts from a clean state.
+   */
+  @Test
+  public void testFreshState() {
+    assertFalse(GameWorld.current().audio.isEnabled());
+    assertEquals(0, GameController.getTick());
+    assertEquals(0, CommandCenter.getScore());
+    assertTrue(CommandCenter.getMovFoes().isEmpty());
+  }
+
+  /**
+   * Tests that running advances the tick counter by the number of steps run.
+   */
+  @Test
+  public void testRunAdvancesTicks() {
+    int nRun = runner.run(500);
+    assertEquals(500, nRun);
+    assertEquals(500, runner.getTicksRun());
+    assertTrue(GameController.getTick() >= 500);
+  }
+
+  /**
+   * Tests that entities are moved and counted while running headless.
+   */
+  @Test
+  public void testRunTracksFoes() {
+    Zombie zombie = new Zombie(300);
+    CommandCenter.getMovFoes().add(zombie);
+    runner.run(10);
+
+    assertTrue(zombie.getPointCenter().x < 1190);
+    assertTrue(runner.getPeakFoes() >= 1);
+    assertTrue(runner.getElapsedNanos() > 0);
+  }
+
+  /**
+   * Tests that a finished game stops the runner immediately.
+   */
+  @Test
+  public void testStopsWhenGameOver() {
+    CommandCenter.setIsGameOver(true);
+    assertEquals(0, runner.run(100));
+  }
+
+  // a fingerprint of the game state: score, level and where every foe and sun is
+  private static String snapshot() {
+    StringBuilder sb = new StringBuilder();
+    sb.append(CommandCenter.getScore()).append('/').append(CommandCenter.getLevel()).append(':');
+    for (Movable mov : CommandCenter.getMovFoes()) {
+      sb.append(mov.getPointCenter()).append(';');
+    }
+    for (Movable mov : CommandCenter.getMovSun()) {
+      sb.append(mov.getPointCenter()).append(';');
+    }
+    return sb.toString();
+  }
+
+  // runs a seeded game; pausing keeps simulation threads left by other tests from stepping the shared state
+  private static HeadlessRunner runSeeded(long lSeed) throws Exception {
+    HeadlessRunner runner = new HeadlessRunner(lSeed);
+    CommandCenter.setPaused(true);
+    try {
+      runner.run(2000);
+    } finally {
+      CommandCenter.setPaused(false);
+    }
+    return runner;
+  }
+
+  /**
+   * Tests that two runs from the same seed play exactly the same game.
+   */
+  @Test
+  public void testSameSeedSameGame() throws Exception {
+    HeadlessRunner first = runSeeded(1234);
+    String strFirst = snapshot();
+    int nFirstTicks = first.getTicksRun();
+
+    HeadlessRunner second = runSeeded(1234);
+    assertEquals(nFirstTicks, second.getTicksRun());
+    assertEquals(strFirst, snapshot());
+    assertEquals(1234, CommandCenter.getRandom().getSeed());
+  }
+
+  /**
+   * Tests that a recorded game with collected suns and a planted peashooter replays exactly.
+   */
+  @Test
+  public void testReplayReproducesGame() throws Exception {
+    HeadlessRunner recorder = new HeadlessRunner(99);
+    Replay replay = new Replay(99);
+    recorder.getController().setRecording(replay);
+    CommandCenter.setPaused(true); // keeps simulation threads left by other tests from stepping the shared state
+    try {
+      for (int nRound = 0; nRound < 20 && !CommandCenter.isGameOver(); nRound++) {
+        recorder.run(40);
+        for (Movable mov : CommandCenter.getMovSun()) {
+          recorder.getController().submit(Replay.CLICK, mov.getPointCenter().x, mov.getPointCenter().y);
+        }
+        if (CommandCenter.getSunCredit() >= 100) {
+          recorder.getController().submit(Replay.PRESS, 230, 650);
+          recorder.getController().submit(Replay.DRAG, 300 + nRound * 100, 300);
+          recorder.getController().submit(Replay.RELEASE, 300 + nRound * 100, 300);
+        }
+      }
+      recorder.run(200);
+      String strRecorded = snapshot();
+      int nPlants = CommandCenter.getMovPlants().size();
+      assertTrue(replay.size() > 0);
+      assertTrue(nPlants > 0);
+
+      // what HeadlessRunner.replay does, pausing again after the new runner reset the game
+      HeadlessRunner player = new HeadlessRunner(replay.getSeed());
+      CommandCenter.setPaused(true);
+      player.getController().setPlayback(replay);
+      player.run(recorder.getTicksRun());
+      assertTrue(player.getController().isPlaybackDone());
+      assertEquals(recorder.getTicksRun(), player.getTicksRun());
+      assertEquals(nPlants, CommandCenter.getMovPlants().size());
+      assertEquals(strRecorded, snapshot());
+    } finally {
+      CommandCenter.setPaused(false);
+    }
+  }
+
+  /**
+   * Tests that replaying runs the recorded inputs from the recorded seed.
+   */
+  @Test
+  public void testReplayAppliesInputs() throws Exception {
+    Replay replay = new Replay(5);
+    replay.add(new Replay.Input(3, Replay.KEY, java.awt.event.KeyEvent.VK_P, 0));
+    HeadlessRunner player = HeadlessRunner.replay(replay, 10);
+    assertEquals(10, player.getTicksRun());
+    assertEquals(5, CommandCenter.getRandom().getSeed());
+    assertTrue(player.getController().isPlaybackDone());
+    assertTrue(CommandCenter.isPaused());
+    CommandCenter.setPaused(false);
+  }
+}
@@ -0,0 +1,104 @@
+import static org.junit.Assert.*;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import model.CommandCenter;
+import model.SeedTray;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import view.HudLayer;
+
+/**
+ * Unit tests for the HudLayer class.
+ */
+public class HudLayerTest {
+
+  private HudLayer hud;
+  private BufferedImage img;
+  private Graphics2D g;
+
+  /**
+   * Sets up a HUD drawing into an offscreen image before each test.
+   */
+  @Before
+  public void setUp() {
+    CommandCenter.initGame();
+    hud = new HudLayer(new SeedTray(), 20, 24);
+    img = new BufferedImage(CommandCenter.WORLD_WIDTH, CommandCenter.WORLD_HEIGHT, BufferedImage.TYPE_INT_RGB);
+    g = img.createGraphics();
+  }
+
+  /**
+   * Releases the graphics and resets the game after each test.
+   */
+  @After
+  public void tearDown() {
+    g.dispose();
+    CommandCenter.initGame();
+  }
+
+  private void drawFrame() {
+    hud.drawPanel(g);
+    hud.drawScores(g);
+  }
+
+  /**
+   * Tests that frames with nothing changed reuse the cached images.
+   */
+  @Test
+  public void testUnchangedFramesDoNotRender() {
+    drawFrame();
+    int nRenders = hud.getRenders();
+    assertEquals(2, nRenders);
+    for (int nC = 0; nC < 100; nC++) {
+      drawFrame();
+    }
+    assertEquals(nRenders, hud.getRenders());
+  }
+
+  /**
+   * Tests that a change of credits re-renders the panel and the scores.
+   */
+  @Test
+  public void testCreditChangeRenders() {
+    drawFrame();
+    CommandCenter.setSunCredit(150);
+    drawFrame();
+    assertEquals(4, hud.getRenders());
+  }
+
+  /**
+   * Tests that a change of score only re-renders the scores.
+   */
+  @Test
+  public void testScoreChangeRendersScores() {
+    drawFrame();
+    CommandCenter.addScore(100);
+    drawFrame();
+    assertEquals(3, hud.getRenders());
+  }
+
+  /**
+   * Tests that selecting a plant re-renders the panel.
+   */
+  @Test
+  public void testSelectionRendersPanel() {
+    CommandCenter.setSunCredit(500);
+    drawFrame();
+    CommandCenter.setPlant(0);
+    drawFrame();
+    assertEquals(3, hud.getRenders());
+  }
+
+  /**
+   * Tests that the panel is drawn at the bottom of the screen in its color.
+   */
+  @Test
+  public void testPanelDrawn() {
+    drawFrame();
+    assertEquals(0x424846, img.getRGB(1150, CommandCenter.WORLD_HEIGHT - 10) & 0xFFFFFF);
+    assertEquals(0, img.getRGB(1150, 300) & 0xFFFFFF);
+  }
+}
@@ -0,0 +1,117 @@
+import model.LaneIndex;
+import model.Movable;
+import model.Zombie;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for LaneIndex.
+ * Verifies lane bucketing, x-range queries and incremental updates after movement.
+ */
+public class LaneIndexTest {
+
+  private LaneIndex index;
+  private List<Movable> out;
+
+  /**
+   * Creates an empty index and result list before each test.
+   */
+  @Before
+  public void setUp() {
+    index = new LaneIndex();
+    out = new ArrayList<>();
+  }
+
+  /**
+   * Creates a zombie centered at the given point.
+   */
+  private Zombie zombieAt(int x, int y) {
+    Zombie zombie = new Zombie(y);
+    zombie.setPointCenter(new Point(x, y));
+    return zombie;
+  }
+
+  /**
+   * Tests that y-coordinates map to 100 pixel lanes and are clamped to the field.
+   */
+  @Test
+  public void testLaneOf() {
+    assertEquals(2, LaneIndex.laneOf(200));
+    assertEquals(2, LaneIndex.laneOf(299));
+    assertEquals(0, LaneIndex.laneOf(-50));
+    assertEquals(8, LaneIndex.laneOf(5000));
+  }
+
+  /**
+   * Tests that a query only returns movables in reach along both axes.
+   */
+  @Test
+  public void testQueryFiltersByLaneAndX() {
+    Zombie near = zombieAt(500, 300);
+    Zombie farX = zombieAt(900, 300);
+    Zombie otherLane = zombieAt(500, 500);
+    index.add(near);
+    index.add(farX);
+    index.add(otherLane);
+
+    index.query(new Point(480, 280), 85, out);
+
+    assertEquals(1, out.size());
+    assertSame(near, out.get(0));
+    assertEquals(3, index.size());
+    assertEquals(50, index.getMaxRadius());
+  }
+
+  /**
+   * Tests that a query reaching into the next lane also sees that lane.
+   */
+  @Test
+  public void testQuerySpansLanes() {
+    Zombie zombie = zombieAt(500, 300);
+    index.add(zombie);
+
+    index.query(new Point(500, 220), 85, out);
+
+    assertTrue(out.contains(zombie));
+  }
+
+  /**
+   * Tests that update re-sorts the lane after movement so later queries stay correct.
+   */
+  @Test
+  public void testUpdateAfterMovement() {
+    Zombie zombie = zombieAt(1000, 300);
+    index.add(zombie);
+    index.add(zombieAt(600, 300));
+
+    zombie.setPointCenter(new Point(200, 300));
+    index.update();
+    index.query(new Point(200, 300), 10, out);
+
+    assertEquals(1, out.size());
+    assertSame(zombie, out.get(0));
+  }
+
+  /**
+   * Tests that removal and clear drop movables from the index.
+   */
+  @Test
+  public void testRemoveAndClear() {
+    Zombie zombie = zombieAt(500, 300);
+    index.add(zombie);
+    assertTrue(index.remove(zombie));
+    assertFalse(index.remove(zombie));
+    assertEquals(0, index.size());
+
+    index.add(zombie);
+    index.clear();
+    index.query(new Point(500, 300), 100, out);
+    assertTrue(out.isEmpty());
+  }
+}
@@ -0,0 +1,118 @@
+import static org.junit.Assert.*;
+
+import model.LatencyHistogram;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the LatencyHistogram class.
+ */
+public class LatencyHistogramTest {
+
+  private LatencyHistogram histogram;
+
+  /**
+   * Sets up an empty histogram before each test.
+   */
+  @Before
+  public void setUp() {
+    histogram = new LatencyHistogram("test");
+  }
+
+  /**
+   * Tests that an empty histogram reports zeros.
+   */
+  @Test
+  public void testEmpty() {
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getPercentile(50));
+    assertEquals(0, histogram.getMax());
+    assertEquals(0, histogram.getMin());
+    assertEquals(0.0, histogram.getMean(), 0.0);
+  }
+
+  /**
+   * Tests count, min, max and mean.
+   */
+  @Test
+  public void testSummary() {
+    histogram.record(1_000);
+    histogram.record(3_000);
+    histogram.record(-5);
+    assertEquals(3, histogram.getCount());
+    assertEquals(0, histogram.getMin());
+    assertEquals(3_000, histogram.getMax());
+    assertEquals(4_000 / 3.0, histogram.getMean(), 0.001);
+  }
+
+  /**
+   * Tests that percentiles are within the bucket precision of the true values.
+   */
+  @Test
+  public void testPercentiles() {
+    for (int nC = 1; nC <= 1000; nC++) {
+      histogram.record(nC * 1_000L); // 1 us .. 1 ms
+    }
+    assertWithin(500_000, histogram.getPercentile(50));
+    assertWithin(990_000, histogram.getPercentile(99));
+    assertEquals(1_000_000, histogram.getPercentile(100));
+    assertTrue(histogram.getPercentile(50) >= 500_000);
+  }
+
+  /**
+   * Tests that a single outlier shows up in the max and the top percentile but not the median.
+   */
+  @Test
+  public void testOutlier() {
+    for (int nC = 0; nC < 999; nC++) {
+      histogram.record(100);
+    }
+    histogram.record(50_000_000);
+    assertWithin(100, histogram.getPercentile(50));
+    assertWithin(100, histogram.getPercentile(99.9));
+    assertEquals(50_000_000, histogram.getPercentile(100));
+    assertEquals(50_000_000, histogram.getMax());
+  }
+
+  /**
+   * Tests that very large values are clamped into the last bucket without failing.
+   */
+  @Test
+  public void testHugeValue() {
+    histogram.record(Long.MAX_VALUE / 2);
+    assertEquals(Long.MAX_VALUE / 2, histogram.getPercentile(50));
+  }
+
+  /**
+   * Tests that reset forgets everything.
+   */
+  @Test
+  public void testReset() {
+    histogram.record(42);
+    histogram.reset();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getMax());
+  }
+
+  private static void assertWithin(long lExpected, long lActual) {
+    assertTrue("expected about " + lExpected + " but was " + lActual,
+        Math.abs(lActual - lExpected) <= lExpected * 0.07);
+  }
+
+  /**
+   * Tests that adding another histogram merges its counts, sum and extremes.
+   */
+  @Test
+  public void testAdd() {
+    histogram.record(1_000);
+    LatencyHistogram other = new LatencyHistogram("other");
+    other.record(500);
+    other.record(9_000);
+    histogram.add(other);
+    assertEquals(3, histogram.getCount());
+    assertEquals(500, histogram.getMin());
+    assertEquals(9_000, histogram.getMax());
+    assertEquals(3_500, histogram.getMean(), 0.001);
+    assertEquals(2, other.getCount());
+  }
+}
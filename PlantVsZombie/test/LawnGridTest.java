@@ -0,0 +1,154 @@
+import model.CommandCenter;
+import model.LawnGrid;
+import model.Movable;
+import model.Peashooter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for LawnGrid.
+ * Verifies snapping, constant-time placement and lookup, and cell queries.
+ */
+public class LawnGridTest {
+
+  private LawnGrid grid;
+  private List<Movable> out;
+
+  /**
+   * Creates an empty grid and result list before each test.
+   */
+  @Before
+  public void setUp() {
+    grid = new LawnGrid();
+    out = new ArrayList<>();
+  }
+
+  /**
+   * Resets the game after each test.
+   */
+  @After
+  public void tearDown() {
+    CommandCenter.initGame();
+  }
+
+  /**
+   * Tests that coordinates snap to the nearest cell center, halfway points snapping up.
+   */
+  @Test
+  public void testSnap() {
+    assertEquals(100, LawnGrid.snap(149));
+    assertEquals(200, LawnGrid.snap(150));
+    assertEquals(300, LawnGrid.snap(300));
+    assertEquals(new Point(100, 200), LawnGrid.snap(new Point(120, 230)));
+    assertEquals(2, LawnGrid.laneOf(230));
+    assertEquals(1, LawnGrid.columnOf(120));
+  }
+
+  /**
+   * Tests that the Peashooter constructor snaps through the grid.
+   */
+  @Test
+  public void testPeashooterSnapsToGrid() {
+    Peashooter plant = new Peashooter(new Point(260, 349));
+    assertEquals(LawnGrid.snap(new Point(260, 349)), plant.getPointCenter());
+  }
+
+  /**
+   * Tests placing, looking up and removing a plant.
+   */
+  @Test
+  public void testPlaceGetRemove() {
+    Peashooter plant = new Peashooter(300, 200);
+    assertTrue(grid.place(plant));
+    assertTrue(grid.isOccupied(2, 3));
+    assertTrue(grid.isOccupied(new Point(320, 180)));
+    assertSame(plant, grid.get(new Point(280, 240)));
+    assertEquals(1, grid.size());
+
+    assertTrue(grid.remove(plant));
+    assertFalse(grid.isOccupied(2, 3));
+    assertNull(grid.get(2, 3));
+    assertEquals(0, grid.size());
+  }
+
+  /**
+   * Tests that a taken cell rejects a second plant but accepts the same one again.
+   */
+  @Test
+  public void testOccupiedCellRejectsAnotherPlant() {
+    Peashooter plant = new Peashooter(300, 200);
+    Peashooter other = new Peashooter(300, 200);
+    assertTrue(grid.place(plant));
+    assertFalse(grid.place(other));
+    assertTrue(grid.place(plant));
+    assertFalse(grid.remove(other));
+    assertSame(plant, grid.get(2, 3));
+  }
+
+  /**
+   * Tests that cells off the lawn are never occupied.
+   */
+  @Test
+  public void testOffLawn() {
+    assertFalse(grid.place(new Peashooter(-200, 200)));
+    assertFalse(grid.isOccupied(-1, 0));
+    assertFalse(grid.isOccupied(0, LawnGrid.COLUMNS));
+    assertNull(grid.get(LawnGrid.LANES, 0));
+  }
+
+  /**
+   * Tests that a query returns the plants in the cells a reach covers, and only those.
+   */
+  @Test
+  public void testQuery() {
+    Peashooter near = new Peashooter(400, 300);
+    Peashooter far = new Peashooter(800, 300);
+    Peashooter otherLane = new Peashooter(400, 500);
+    grid.place(near);
+    grid.place(far);
+    grid.place(otherLane);
+
+    grid.query(new Point(450, 300), 70, out);
+    assertEquals(1, out.size());
+    assertSame(near, out.get(0));
+
+    grid.query(new Point(450, 300), 0, out);
+    assertTrue(out.isEmpty());
+  }
+
+  /**
+   * Tests that the shared grid follows the plant store as it is flushed.
+   */
+  @Test
+  public void testFollowsPlantStore() {
+    CommandCenter.initGame();
+    Peashooter plant = new Peashooter(500, 400);
+    CommandCenter.getMovPlants().add(plant);
+    CommandCenter.flushAll();
+    assertSame(plant, CommandCenter.getLawn().get(4, 5));
+
+    CommandCenter.getMovPlants().remove(plant);
+    CommandCenter.flushAll();
+    assertFalse(CommandCenter.getLawn().isOccupied(4, 5));
+  }
+
+  /**
+   * Tests that the largest plant radius is tracked for collision reach.
+   */
+  @Test
+  public void testMaxRadius() {
+    assertEquals(0, grid.getMaxRadius());
+    grid.place(new Peashooter(300, 200));
+    assertEquals(100, grid.getMaxRadius());
+    grid.clear();
+    assertEquals(0, grid.getMaxRadius());
+    assertEquals(0, grid.size());
+  }
+}
@@ -3,9 +3,9 @@ import org.junit.Before;
 import org.junit.Test;
 import model.LevelInstruction;
 import model.CommandCenter;
+import model.EntityStore;
 
 import java.awt.*;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Test class for LevelInstruction.
@@ -23,7 +23,7 @@ public class LevelInstructionTest {
   public void setUp() {
     // Initialize a LevelInstruction object before each test
     levelInstruction = new LevelInstruction(100, 50, "Test Level Instruction");
-    CommandCenter.movLevelInstruction = new CopyOnWriteArrayList<>(); // Ensure list is initialized
+    CommandCenter.getMovLevelInstruction().clear(); // Ensure list is initialized
   }
 
   /**
@@ -73,11 +73,11 @@ public class LevelInstructionTest {
   @Test
   public void testExpireRemovesFromMovLevelInstruction() {
     // Verify that the LevelInstruction is removed from movLevelInstruction when expiry reaches 0
-    CommandCenter.movLevelInstruction.add(levelInstruction); // Add to the list
+    CommandCenter.getMovLevelInstruction().add(levelInstruction); // Add to the list
     levelInstruction.setnExpiry(1); // Set expiry to 1
     levelInstruction.expire();
     assertFalse("LevelInstruction should be removed from movLevelInstruction",
-        CommandCenter.movLevelInstruction.contains(levelInstruction));
+        CommandCenter.getMovLevelInstruction().contains(levelInstruction));
   }
 
 
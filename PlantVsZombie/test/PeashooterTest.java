@@ -63,7 +63,7 @@ public class PeashooterTest {
 
   // the move() method cannot be simply tested here because of dependencies on GameController and
   // CommandCenter.GameController.getTick() determines the behavior, so it needs to be controlled or
-  // mocked; CommandCenter.movBullets is modified, so we need to verify its state.
+  // mocked; CommandCenter.getMovBullets() is modified, so we need to verify its state.
   // besides Bullet object should be verified that it is created with the correct parent reference.
 
   /**
@@ -0,0 +1,128 @@
+import controller.GameController;
+import controller.HeadlessRunner;
+import controller.Replay;
+import model.CommandCenter;
+import org.junit.Test;
+
+import java.awt.event.KeyEvent;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for Replay.
+ * Verifies the recorded inputs and the binary format.
+ */
+public class ReplayTest {
+
+  private static Replay sample() {
+    Replay replay = new Replay(-42L);
+    replay.add(new Replay.Input(0, Replay.PRESS, 230, 650));
+    replay.add(new Replay.Input(0, Replay.DRAG, 240, 600));
+    replay.add(new Replay.Input(17, Replay.RELEASE, 310, 290));
+    replay.add(new Replay.Input(400_000, Replay.KEY, 80, 0));
+    replay.add(new Replay.Input(400_001, Replay.CLICK, -5, 1190));
+    return replay;
+  }
+
+  private static Replay roundTrip(Replay replay) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    replay.write(bytes);
+    return Replay.read(new ByteArrayInputStream(bytes.toByteArray()));
+  }
+
+  /**
+   * Tests that writing and reading gives back the seed and every input.
+   */
+  @Test
+  public void testRoundTrip() throws IOException {
+    Replay replay = sample();
+    Replay copy = roundTrip(replay);
+    assertEquals(-42L, copy.getSeed());
+    assertEquals(replay.getInputs(), copy.getInputs());
+    assertEquals(400_001, copy.getLastTick());
+  }
+
+  /**
+   * Tests that inputs are stored compactly: header plus a few bytes per input.
+   */
+  @Test
+  public void testCompact() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    sample().write(bytes);
+    assertTrue(bytes.size() <= 20 + 5 * 8);
+  }
+
+  /**
+   * Tests saving to and loading from a file.
+   */
+  @Test
+  public void testSaveLoad() throws IOException {
+    Path path = Files.createTempFile("pvz", ".replay");
+    try {
+      sample().save(path);
+      assertEquals(sample().getInputs(), Replay.load(path).getInputs());
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  /**
+   * Tests that inputs out of tick order are rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testOutOfOrder() {
+    Replay replay = new Replay(1);
+    replay.add(new Replay.Input(5, Replay.CLICK, 0, 0));
+    replay.add(new Replay.Input(4, Replay.CLICK, 0, 0));
+  }
+
+  /**
+   * Tests that data that is not a replay is rejected.
+   */
+  @Test(expected = IOException.class)
+  public void testRejectsGarbage() throws IOException {
+    Replay.read(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}));
+  }
+
+  /**
+   * Tests that an unknown version is rejected.
+   */
+  @Test(expected = IOException.class)
+  public void testRejectsUnknownVersion() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    sample().write(bytes);
+    byte[] data = bytes.toByteArray();
+    data[7] = 99;
+    Replay.read(new ByteArrayInputStream(data));
+  }
+
+  /**
+   * Tests that a replay played on the simulation thread gets past a pause: the unpause is recorded
+   * at the tick the game paused on, and must be fed although no step runs while paused.
+   */
+  @Test
+  public void testThreadedPlaybackResumesAfterPause() throws Exception {
+    GameController controller = new HeadlessRunner(9).getController();
+    Replay replay = new Replay(9);
+    replay.add(new Replay.Input(3, Replay.KEY, KeyEvent.VK_P, 0));
+    replay.add(new Replay.Input(4, Replay.KEY, KeyEvent.VK_P, 0));
+    controller.setPlayback(replay);
+    try {
+      controller.run(); // headless: starts only the simulation thread
+      long lDeadline = System.currentTimeMillis() + 5000;
+      while (GameController.getTick() < 20 && System.currentTimeMillis() < lDeadline) {
+        Thread.sleep(10);
+      }
+    } finally {
+      controller.stop();
+    }
+    assertTrue(controller.isPlaybackDone());
+    assertFalse(CommandCenter.isPaused());
+    assertTrue("stuck at tick " + GameController.getTick(), GameController.getTick() >= 20);
+  }
+}
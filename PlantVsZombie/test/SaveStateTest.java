@@ -0,0 +1,297 @@
+import controller.GameController;
+import controller.HeadlessRunner;
+import model.Bullet;
+import model.CommandCenter;
+import model.ExplodingHead;
+import model.GameEvents;
+import model.GameWorld;
+import model.Movable;
+import model.Peashooter;
+import model.SaveState;
+import model.Sun;
+import model.Zombie;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for SaveState.
+ * These tests capture a game, write and read it back, and check that damaged files are rejected.
+ */
+public class SaveStateTest {
+
+  private Path path;
+
+  /**
+   * Starts from a clean, paused game and a fresh temporary file.
+   */
+  @Before
+  public void setUp() throws Exception {
+    new HeadlessRunner(42);
+    CommandCenter.setPaused(true);
+    path = Files.createTempFile("pvz", ".sav");
+  }
+
+  /**
+   * Removes the temporary file and resumes the game.
+   */
+  @After
+  public void tearDown() throws Exception {
+    Files.deleteIfExists(path);
+    CommandCenter.setPaused(false);
+  }
+
+  // a fingerprint of the game state: counters and every entity's class and position
+  private static String snapshot() {
+    StringBuilder sb = new StringBuilder();
+    sb.append(CommandCenter.getSunCredit()).append('/').append(CommandCenter.getScore()).append('/')
+        .append(CommandCenter.getLevel()).append('/').append(GameController.getTick()).append(':');
+    for (Movable mov : CommandCenter.getMovPlants()) {
+      sb.append(mov.getClass().getSimpleName()).append(mov.getPointCenter()).append(';');
+    }
+    for (Movable mov : CommandCenter.getMovFoes()) {
+      sb.append(mov.getClass().getSimpleName()).append(mov.getPointCenter()).append(';');
+    }
+    for (Movable mov : CommandCenter.getMovBullets()) {
+      sb.append(mov.getClass().getSimpleName()).append(mov.getPointCenter()).append(';');
+    }
+    for (Movable mov : CommandCenter.getMovSun()) {
+      sb.append(mov.getClass().getSimpleName()).append(mov.getPointCenter()).append(';');
+    }
+    for (Movable mov : CommandCenter.getMovDebris()) {
+      sb.append(mov.getClass().getSimpleName()).append(mov.getPointCenter()).append(';');
+    }
+    return sb.toString();
+  }
+
+  // fills the game with one of every kind of entity
+  private static void populate() {
+    CommandCenter.getMovPlants().add(new Peashooter(300, 400));
+    Zombie zombie = new Zombie(200);
+    zombie.setPointCenter(new Point(900, 200));
+    CommandCenter.getMovFoes().add(zombie);
+    CommandCenter.getMovBullets().add(new Bullet(new Peashooter(300, 400)));
+    CommandCenter.getMovSun().add(new Sun(500, 100));
+    CommandCenter.getMovDebris().add(new ExplodingHead(new Point(700, 300), Color.green));
+    CommandCenter.flushAll();
+    CommandCenter.setSunCredit(175);
+    CommandCenter.setScore(60);
+    CommandCenter.setLevel(2);
+    GameController.setTick(1234);
+  }
+
+  /**
+   * Tests that a game written to a file and read back restores every counter and entity.
+   */
+  @Test
+  public void testRoundTrip() throws IOException {
+    populate();
+    String strBefore = snapshot();
+    SaveState state = SaveState.capture();
+    state.write(path);
+    assertEquals(state.getSize(), Files.size(path));
+
+    CommandCenter.initGame();
+    GameController.setTick(0);
+    assertNotEquals(strBefore, snapshot());
+
+    SaveState loaded = SaveState.read(path);
+    assertEquals(1234, loaded.getTick());
+    assertEquals(42, loaded.getSeed());
+    loaded.restore();
+    assertEquals(strBefore, snapshot());
+  }
+
+  /**
+   * Tests that loading a game is not a level change: nothing is published and no banner is shown,
+   * but the restored level's music is started, or stopped for a level without music.
+   */
+  @Test
+  public void testRestoreDoesNotLevelUp() {
+    GameWorld world = GameWorld.current();
+    populate();
+    world.events.drain();
+    SaveState level2 = SaveState.capture();
+    CommandCenter.initGame();
+    SaveState level0 = SaveState.capture();
+    long lLevelUps = world.events.getCount(GameEvents.LEVEL_UP);
+
+    level2.restore();
+    assertEquals(2, CommandCenter.getLevel());
+    assertTrue(world.scheduler.isPending(GameWorld.TASK_MUSIC));
+    world.events.drain();
+    CommandCenter.flushAll();
+    assertTrue(CommandCenter.getMovLevelInstruction().isEmpty());
+
+    level0.restore();
+    assertEquals(0, CommandCenter.getLevel());
+    assertFalse(world.scheduler.isPending(GameWorld.TASK_MUSIC));
+    assertEquals(lLevelUps, world.events.getCount(GameEvents.LEVEL_UP));
+  }
+
+  /**
+   * Tests that a restored zombie keeps its health and frost and moves on like the original.
+   */
+  @Test
+  public void testRestoredFoeKeepsPlaying() throws IOException {
+    Zombie zombie = new Zombie(300);
+    CommandCenter.getMovFoes().add(zombie);
+    CommandCenter.flushAll();
+    zombie.isHit(0);
+    zombie.frozen();
+    int nHealth = zombie.getSize();
+    SaveState state = SaveState.capture();
+
+    zombie.move();
+    Point pntExpected = zombie.getPointCenter();
+
+    SaveState.fromBytes(ByteBuffer.wrap(state.toBytes())).restore();
+    assertEquals(1, CommandCenter.getMovFoes().size());
+    Zombie restored = (Zombie) CommandCenter.getMovFoes().iterator().next();
+    assertNotSame(zombie, restored);
+    assertEquals(nHealth, restored.getSize());
+    assertTrue(restored.isFrozen());
+    restored.move();
+    assertEquals(pntExpected, restored.getPointCenter());
+  }
+
+  /**
+   * Tests that restoring a game puts its plants back on the lawn grid.
+   */
+  @Test
+  public void testRestoreOccupiesLawn() throws IOException {
+    CommandCenter.getMovPlants().add(new Peashooter(300, 400));
+    CommandCenter.flushAll();
+    SaveState state = SaveState.capture();
+    CommandCenter.initGame();
+    assertFalse(CommandCenter.getLawn().isOccupied(new Point(300, 400)));
+
+    state.restore();
+    assertTrue(CommandCenter.getLawn().isOccupied(new Point(300, 400)));
+  }
+
+  /**
+   * Tests that a flipped payload byte fails the checksum.
+   */
+  @Test(expected = IOException.class)
+  public void testCorruptPayloadRejected() throws IOException {
+    populate();
+    byte[] bytes = SaveState.capture().toBytes();
+    bytes[SaveState.HEADER_BYTES + 3] ^= 1;
+    SaveState.fromBytes(ByteBuffer.wrap(bytes));
+  }
+
+  /**
+   * Tests that a negative level is rejected even though the checksum matches.
+   */
+  @Test
+  public void testCorruptLevelRejected() throws IOException {
+    populate();
+    byte[] bytes = SaveState.capture().toBytes();
+    ByteBuffer buf = ByteBuffer.wrap(bytes);
+    buf.putInt(SaveState.HEADER_BYTES + 16, -1); // the level, after sun credit and score
+    CRC32 crc = new CRC32();
+    crc.update(bytes, SaveState.HEADER_BYTES, bytes.length - SaveState.HEADER_BYTES);
+    buf.putInt(12, (int) crc.getValue());
+    try {
+      SaveState.fromBytes(ByteBuffer.wrap(bytes));
+      fail("a negative level was accepted");
+    } catch (IOException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("level -1"));
+    }
+  }
+
+  /**
+   * Tests that saving over an existing save replaces it whole and leaves no temporary file behind.
+   */
+  @Test
+  public void testWriteReplacesSave() throws IOException {
+    Path dir = Files.createTempDirectory("pvz");
+    Path save = dir.resolve("game.sav");
+    try {
+      populate();
+      SaveState.capture().write(save);
+      CommandCenter.initGame();
+      SaveState empty = SaveState.capture();
+      empty.write(save);
+
+      assertEquals(empty.getSize(), Files.size(save));
+      SaveState.read(save).restore();
+      assertTrue(CommandCenter.getMovFoes().isEmpty());
+      try (java.util.stream.Stream<Path> files = Files.list(dir)) {
+        assertEquals(1, files.count());
+      }
+    } finally {
+      Files.deleteIfExists(save);
+      Files.deleteIfExists(dir);
+    }
+  }
+
+  /**
+   * Tests that a file from an unknown version is rejected.
+   */
+  @Test(expected = IOException.class)
+  public void testWrongVersionRejected() throws IOException {
+    byte[] bytes = SaveState.capture().toBytes();
+    ByteBuffer.wrap(bytes).putInt(4, SaveState.VERSION + 1);
+    SaveState.fromBytes(ByteBuffer.wrap(bytes));
+  }
+
+  /**
+   * Tests that a file that is not a save state is rejected.
+   */
+  @Test(expected = IOException.class)
+  public void testBadMagicRejected() throws IOException {
+    Files.write(path, "not a save state at all".getBytes());
+    SaveState.read(path);
+  }
+
+  /**
+   * Tests that a truncated file is rejected.
+   */
+  @Test(expected = IOException.class)
+  public void testTruncatedRejected() throws IOException {
+    populate();
+    byte[] bytes = SaveState.capture().toBytes();
+    Files.write(path, java.util.Arrays.copyOf(bytes, bytes.length - 5));
+    SaveState.read(path);
+  }
+
+  /**
+   * Tests that a rejected file leaves the running game untouched.
+   */
+  @Test
+  public void testRejectedLoadKeepsGame() throws Exception {
+    GameController controller = new HeadlessRunner(42).getController();
+    populate();
+    String strBefore = snapshot();
+    Files.write(path, new byte[]{1, 2, 3});
+
+    controller.loadGame(path);
+    assertEquals(strBefore, snapshot());
+  }
+
+  /**
+   * Tests that the controller restores a saved game, applied right away without a simulation thread.
+   */
+  @Test
+  public void testControllerLoadsGame() throws Exception {
+    GameController controller = new HeadlessRunner(42).getController();
+    populate();
+    String strBefore = snapshot();
+    SaveState.capture().write(path);
+    CommandCenter.initGame();
+
+    controller.loadGame(path);
+    assertEquals(strBefore, snapshot());
+  }
+}
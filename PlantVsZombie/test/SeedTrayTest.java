@@ -0,0 +1,78 @@
+import static org.junit.Assert.*;
+
+import java.awt.Point;
+
+import model.CommandCenter;
+import model.SeedTray;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the SeedTray class.
+ */
+public class SeedTrayTest {
+
+  private SeedTray tray;
+
+  /**
+   * Sets up a tray and a fresh game before each test.
+   */
+  @Before
+  public void setUp() {
+    CommandCenter.initGame();
+    tray = new SeedTray();
+  }
+
+  /**
+   * Resets the game after each test.
+   */
+  @After
+  public void tearDown() {
+    CommandCenter.initGame();
+  }
+
+  /**
+   * Tests that the tray has one slot per plant type, with their costs.
+   */
+  @Test
+  public void testSlots() {
+    assertEquals(2, tray.getSlotCount());
+    assertEquals(0, tray.getSlot(0).typeIndicator);
+    assertEquals(1, tray.getSlot(1).typeIndicator);
+    assertEquals(100, tray.getCost(0));
+    assertEquals(200, tray.getCost(1));
+  }
+
+  /**
+   * Tests that a press on or near a slot finds it and a press elsewhere does not.
+   */
+  @Test
+  public void testSlotAt() {
+    assertEquals(0, tray.slotAt(new Point(tray.getSlot(0).getPointCenter())));
+    assertEquals(1, tray.slotAt(new Point(tray.getSlot(1).getPointCenter())));
+    assertEquals(-1, tray.slotAt(new Point(900, 100)));
+  }
+
+  /**
+   * Tests that the selected slot follows the plant being planted.
+   */
+  @Test
+  public void testSelectedSlot() {
+    assertEquals(-1, tray.getSelectedSlot());
+    CommandCenter.setSunCredit(500);
+    CommandCenter.setPlant(1);
+    assertEquals(1, tray.getSelectedSlot());
+    CommandCenter.setPlant(0);
+    assertEquals(0, tray.getSelectedSlot());
+  }
+
+  /**
+   * Tests that the slots are created once, not per frame.
+   */
+  @Test
+  public void testSlotsAreFixed() {
+    assertSame(tray.getSlot(0), tray.getSlot(0));
+    assertSame(CommandCenter.seedTray, CommandCenter.seedTray);
+  }
+}
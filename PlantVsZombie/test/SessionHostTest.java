@@ -0,0 +1,98 @@
+import controller.Replay;
+import controller.SessionHost;
+import model.LatencyHistogram;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.event.KeyEvent;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for SessionHost.
+ * These tests run many short sessions at a high tick rate.
+ */
+public class SessionHostTest {
+
+  private SessionHost host;
+
+  /**
+   * Creates a host ticking its sessions at 200 Hz.
+   */
+  @Before
+  public void setUp() {
+    host = new SessionHost(200);
+  }
+
+  /**
+   * Stops every session.
+   */
+  @After
+  public void tearDown() throws Exception {
+    host.shutdown();
+  }
+
+  // waits until every given session has run the given number of ticks
+  private static void awaitTicks(int nTicks, Iterable<SessionHost.Session> sessions) throws InterruptedException {
+    long lDeadline = System.currentTimeMillis() + 10_000;
+    for (SessionHost.Session session : sessions) {
+      while (session.isOpen() && session.getTicks() < nTicks && System.currentTimeMillis() < lDeadline) {
+        Thread.sleep(5);
+      }
+    }
+  }
+
+  /**
+   * Tests that every session ticks on its own and reports its tick latency.
+   */
+  @Test
+  public void testSessionsTick() throws Exception {
+    for (int nC = 0; nC < 50; nC++) {
+      host.open(nC, true);
+    }
+    awaitTicks(40, host.getSessions());
+    assertEquals(50, host.getSessions().size());
+    for (SessionHost.Session session : host.getSessions()) {
+      assertTrue(session.getTicks() >= 40);
+      assertTrue(session.getWorld().getTick() >= 40);
+      assertTrue(session.getTickLatency().getCount() >= 40);
+      assertTrue(session.toString().startsWith("session " + session.getId()));
+    }
+    LatencyHistogram hist = host.getTickLatency();
+    assertTrue(hist.getCount() >= 50 * 40);
+  }
+
+  /**
+   * Tests that input is applied to its own session only.
+   */
+  @Test
+  public void testInputReachesOneSession() throws Exception {
+    SessionHost.Session paused = host.open(1, false);
+    SessionHost.Session running = host.open(1, false);
+    paused.submit(Replay.KEY, KeyEvent.VK_P, 0);
+    awaitTicks(20, Collections.singletonList(running));
+    assertTrue(paused.getWorld().isPaused());
+    assertFalse(running.getWorld().isPaused());
+    int nPausedTicks = paused.getTicks();
+    Thread.sleep(50);
+    assertEquals(nPausedTicks, paused.getTicks());
+    assertTrue(running.getTicks() >= 20);
+  }
+
+  /**
+   * Tests that a closed session stops and leaves the host.
+   */
+  @Test
+  public void testClose() throws Exception {
+    SessionHost.Session session = host.open(5, false);
+    awaitTicks(5, host.getSessions());
+    host.close(session);
+    assertFalse(session.isOpen());
+    assertTrue(host.getSessions().isEmpty());
+    int nTicks = session.getTicks();
+    Thread.sleep(30);
+    assertEquals(nTicks, session.getTicks());
+  }
+}
@@ -0,0 +1,80 @@
+import model.ShapeTable;
+import model.Sun;
+import model.Zombie;
+import org.junit.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for ShapeTable.
+ * Verifies that the cached vertex tables give the same polygons as computing them per frame.
+ */
+public class ShapeTableTest {
+
+  private static final double[] LENGTHS = {1.0, 0.5, 0.75, 0.25};
+  private static final double[] DEGREES = {0.0, 1.2, -2.0, 3.0};
+
+  /**
+   * Tests that every orientation, including negative and wrapped ones, matches the direct trigonometry.
+   */
+  @Test
+  public void testMatchesDirectComputation() {
+    ShapeTable table = ShapeTable.of(LENGTHS, DEGREES, 50);
+    int[] nXs = new int[4];
+    int[] nYs = new int[4];
+
+    for (int nOrientation = -400; nOrientation <= 400; nOrientation += 7) {
+      table.fill(613, 287, nOrientation, nXs, nYs);
+      for (int nC = 0; nC < 4; nC++) {
+        double dAngle = Math.toRadians(nOrientation) + DEGREES[nC];
+        assertEquals((int) (613 + 50 * LENGTHS[nC] * Math.sin(dAngle)), nXs[nC], 1);
+        assertEquals((int) (287 - 50 * LENGTHS[nC] * Math.cos(dAngle)), nYs[nC], 1);
+      }
+    }
+  }
+
+  /**
+   * Tests that equal shapes share one table and a different radius gets its own.
+   */
+  @Test
+  public void testTablesAreShared() {
+    ShapeTable table = ShapeTable.of(LENGTHS, DEGREES, 50);
+    assertSame(table, ShapeTable.of(LENGTHS.clone(), DEGREES.clone(), 50));
+    assertNotSame(table, ShapeTable.of(LENGTHS, DEGREES, 40));
+    assertEquals(4, table.getVertexCount());
+  }
+
+  /**
+   * Tests that drawing a sprite fills its polygon buffers and reuses them on the next frame.
+   */
+  @Test
+  public void testSpriteDrawReusesBuffers() {
+    Graphics g = new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB).getGraphics();
+    Zombie zombie = new Zombie(200);
+    zombie.drawPrimitives(g);
+    int[] nXs = zombie.getPolygonXs();
+    assertEquals(zombie.getDegrees().length, zombie.getPolygonSize());
+
+    zombie.setPointCenter(new Point(500, 300));
+    zombie.drawPrimitives(g);
+    assertSame(nXs, zombie.getPolygonXs());
+  }
+
+  /**
+   * Tests that a rotating sprite is drawn at its new orientation.
+   */
+  @Test
+  public void testRotationChangesPolygon() {
+    Graphics g = new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB).getGraphics();
+    Sun sun = new Sun(300, 300);
+    sun.drawPrimitives(g);
+    int nFirstX = sun.getPolygonXs()[0];
+
+    sun.setOrientation(sun.getOrientation() + 90);
+    sun.drawPrimitives(g);
+    assertNotEquals(nFirstX, sun.getPolygonXs()[0]);
+  }
+}
@@ -0,0 +1,90 @@
+import model.SoundEngine;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for SoundEngine.
+ * Verifies the decode cache and the voice stealing rules; actual playback depends on the audio device.
+ */
+public class SoundEngineTest {
+
+  /**
+   * Tests that a WAV is decoded once and then served from the cache.
+   */
+  @Test
+  public void testSampleDecodedOnce() {
+    SoundEngine.Sample sample = SoundEngine.getSample("music/select.wav");
+    assertNotNull(sample);
+    assertTrue(sample.getLength() > 0);
+    assertTrue(sample.getDurationNanos() > 0);
+
+    long lDecoded = SoundEngine.getDecoded();
+    assertSame(sample, SoundEngine.getSample("music/select.wav"));
+    assertEquals(lDecoded, SoundEngine.getDecoded());
+  }
+
+  /**
+   * Tests that a missing file is reported once and then remembered as missing.
+   */
+  @Test
+  public void testMissingSample() {
+    long lFailed = SoundEngine.getFailed();
+    assertNull(SoundEngine.getSample("music/nonexistent-test.wav"));
+    assertNull(SoundEngine.getSample("music/nonexistent-test.wav"));
+    assertEquals(lFailed + 1, SoundEngine.getFailed());
+  }
+
+  /**
+   * Tests that a free voice is used before any busy one.
+   */
+  @Test
+  public void testFreeVoiceFirst() {
+    boolean[] bBusy = {true, false, true};
+    int[] nPriorities = {0, 2, 0};
+    long[] lStarts = {1, 2, 3};
+    assertEquals(1, SoundEngine.chooseVoice(bBusy, nPriorities, lStarts, 0));
+  }
+
+  /**
+   * Tests that the oldest of the lowest-priority voices is stolen.
+   */
+  @Test
+  public void testStealOldestLowestPriority() {
+    boolean[] bBusy = {true, true, true};
+    int[] nPriorities = {1, 0, 0};
+    long[] lStarts = {1, 5, 3};
+    assertEquals(2, SoundEngine.chooseVoice(bBusy, nPriorities, lStarts, 1));
+  }
+
+  /**
+   * Tests that a low-priority effect is dropped when every voice plays something more important.
+   */
+  @Test
+  public void testDropWhenAllMoreImportant() {
+    boolean[] bBusy = {true, true};
+    int[] nPriorities = {2, 1};
+    long[] lStarts = {1, 2};
+    assertEquals(-1, SoundEngine.chooseVoice(bBusy, nPriorities, lStarts, 0));
+  }
+
+  /**
+   * Tests that a sample under its cap gets a new voice.
+   */
+  @Test
+  public void testUnderCap() {
+    boolean[] bSame = {true, false, false};
+    long[] lStarts = {1, 2, 3};
+    assertEquals(-1, SoundEngine.capVoice(bSame, lStarts, 2));
+  }
+
+  /**
+   * Tests that a sample at its cap restarts its oldest voice.
+   */
+  @Test
+  public void testAtCapRestartsOldest() {
+    boolean[] bSame = {false, true, true, false};
+    long[] lStarts = {1, 7, 4, 2};
+    assertEquals(2, SoundEngine.capVoice(bSame, lStarts, 2));
+  }
+}
@@ -0,0 +1,120 @@
+import model.GameEvents;
+import model.GameWorld;
+import model.Sound;
+import model.SoundRequests;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for SoundRequests.
+ * These tests flush into a recording player, so they need no audio device.
+ */
+public class SoundRequestsTest {
+
+  // records every effect it is asked to play as path@priority
+  private static class Recorder implements SoundRequests.Player {
+    final List<String> played = new ArrayList<>();
+    final List<Float> gains = new ArrayList<>();
+
+    @Override
+    public void play(String strPath, int nPriority, float fGainDb) {
+      played.add(strPath + "@" + nPriority);
+      gains.add(fGainDb);
+    }
+  }
+
+  /**
+   * Tests that requests for the same sample in one step become one louder effect.
+   */
+  @Test
+  public void testDuplicatesMerge() {
+    SoundRequests sounds = new SoundRequests();
+    for (int nC = 0; nC < 4; nC++) {
+      sounds.request("hit.wav", Sound.PRIORITY_LOW);
+    }
+    assertEquals(1, sounds.getPending());
+    assertEquals(3, sounds.getMerged());
+
+    Recorder recorder = new Recorder();
+    assertEquals(1, sounds.flush(recorder));
+    assertEquals("[hit.wav@0]", recorder.played.toString());
+    assertEquals(SoundRequests.gainFor(4), recorder.gains.get(0), 0.001);
+    assertEquals(0, sounds.getPending());
+  }
+
+  /**
+   * Tests the gain of merged effects: none for one, 3 dB per doubling, then capped.
+   */
+  @Test
+  public void testGain() {
+    assertEquals(0, SoundRequests.gainFor(1), 0.001);
+    assertEquals(3.01, SoundRequests.gainFor(2), 0.01);
+    assertEquals(SoundRequests.MAX_BOOST_DB, SoundRequests.gainFor(1000), 0.001);
+  }
+
+  /**
+   * Tests that effects are played highest priority first, and that a merged effect keeps its highest priority.
+   */
+  @Test
+  public void testPriorityOrder() {
+    SoundRequests sounds = new SoundRequests();
+    sounds.request("hit.wav", Sound.PRIORITY_LOW);
+    sounds.request("select.wav", Sound.PRIORITY_NORMAL);
+    sounds.request("gameover.wav", Sound.PRIORITY_HIGH);
+    sounds.request("chop.wav", Sound.PRIORITY_LOW);
+    sounds.request("chop.wav", Sound.PRIORITY_NORMAL);
+
+    Recorder recorder = new Recorder();
+    sounds.flush(recorder);
+    assertEquals("[gameover.wav@2, select.wav@1, chop.wav@1, hit.wav@0]", recorder.played.toString());
+  }
+
+  /**
+   * Tests that a full step makes room for an important cue, but not for more chatter.
+   */
+  @Test
+  public void testFullKeepsImportant() {
+    SoundRequests sounds = new SoundRequests();
+    for (int nC = 0; nC < SoundRequests.MAX_SAMPLES; nC++) {
+      sounds.request("chatter" + nC + ".wav", Sound.PRIORITY_LOW);
+    }
+    sounds.request("more.wav", Sound.PRIORITY_LOW);
+    sounds.request("gameover.wav", Sound.PRIORITY_HIGH);
+    assertEquals(SoundRequests.MAX_SAMPLES, sounds.getPending());
+    assertEquals(2, sounds.getDropped());
+
+    Recorder recorder = new Recorder();
+    sounds.flush(recorder);
+    assertEquals("gameover.wav@2", recorder.played.get(0));
+    assertFalse(recorder.played.contains("more.wav@0"));
+  }
+
+  /**
+   * Tests that a world's hits in one step ask for the hit sound once.
+   */
+  @Test
+  public void testVolleyIsOneEffect() {
+    boolean bEnabled = Sound.isEnabled();
+    Sound.setEnabled(true);
+    GameWorld world = new GameWorld(1);
+    GameWorld previous = world.enter();
+    try {
+      for (int nC = 0; nC < 20; nC++) {
+        world.events.publish(GameEvents.HIT, null, 500, 300, 3);
+      }
+      world.events.drain();
+      assertEquals(1, world.sounds.getPending());
+      Recorder recorder = new Recorder();
+      world.sounds.flush(recorder);
+      assertEquals("[music/woodchopping.wav@0]", recorder.played.toString());
+      assertEquals(SoundRequests.MAX_BOOST_DB, recorder.gains.get(0), 0.001);
+    } finally {
+      GameWorld.exit(previous);
+      Sound.setEnabled(bEnabled);
+    }
+  }
+}
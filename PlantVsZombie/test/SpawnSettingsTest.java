@@ -0,0 +1,77 @@
+import model.CommandCenter;
+import model.SpawnSettings;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for SpawnSettings.
+ * These tests check the defaults, copying with changes and the level-up score in play.
+ */
+public class SpawnSettingsTest {
+
+  /**
+   * Restores the default settings and a clean game after each test.
+   */
+  @After
+  public void tearDown() {
+    CommandCenter.setSpawnSettings(SpawnSettings.DEFAULT);
+    CommandCenter.initGame();
+  }
+
+  /**
+   * Tests that the defaults are the pace the game was designed with.
+   */
+  @Test
+  public void testDefaults() {
+    SpawnSettings settings = SpawnSettings.DEFAULT;
+    assertEquals(13, settings.getSunInterval());
+    assertEquals(50, settings.getZombieInterval());
+    assertEquals(20, settings.getLateZombieInterval());
+    assertEquals(15, settings.getCrazyInterval());
+    assertEquals(7, settings.getSpawnOdds());
+    assertEquals(300, settings.getLevelUpScore());
+  }
+
+  /**
+   * Tests that with changes a copy and leaves the original alone.
+   */
+  @Test
+  public void testWithCopies() {
+    SpawnSettings settings = SpawnSettings.DEFAULT.with(SpawnSettings.indexOf("sun"), 9);
+    assertEquals(9, settings.getSunInterval());
+    assertEquals(13, SpawnSettings.DEFAULT.getSunInterval());
+    assertEquals(settings.toString(), SpawnSettings.fromArray(settings.toArray()).toString());
+  }
+
+  /**
+   * Tests that zero or negative values are rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectsZero() {
+    SpawnSettings.DEFAULT.with(SpawnSettings.ZOMBIE, 0);
+  }
+
+  /**
+   * Tests that unknown parameter names are rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectsUnknownName() {
+    SpawnSettings.indexOf("tree");
+  }
+
+  /**
+   * Tests that the level goes up at the configured score step.
+   */
+  @Test
+  public void testLevelUpScore() {
+    CommandCenter.initGame();
+    CommandCenter.setSpawnSettings(SpawnSettings.DEFAULT.with(SpawnSettings.LEVEL_UP, 20));
+    int nLevel = CommandCenter.getLevel();
+    CommandCenter.addScore(10);
+    assertEquals(nLevel, CommandCenter.getLevel());
+    CommandCenter.addScore(10);
+    assertEquals(nLevel + 1, CommandCenter.getLevel());
+  }
+}
@@ -0,0 +1,172 @@
+import controller.GameController;
+import model.CrazyZombie;
+import model.GameWorld;
+import model.LawnGrid;
+import model.Movable;
+import model.SpawnSettings;
+import model.SpawnTimeline;
+import model.Sun;
+import model.WaveSchedule;
+import model.Zombie;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for SpawnTimeline.
+ * These tests run the timeline of a private world against small schedules.
+ */
+public class SpawnTimelineTest {
+
+  private GameWorld world;
+  private GameWorld previous;
+
+  /**
+   * Enters a fresh world.
+   */
+  @Before
+  public void setUp() {
+    world = new GameWorld(42);
+    previous = world.enter();
+  }
+
+  /**
+   * Leaves the world.
+   */
+  @After
+  public void tearDown() {
+    GameWorld.exit(previous);
+  }
+
+  private static WaveSchedule parse(String strText) throws IOException {
+    return WaveSchedule.parse(new StringReader(strText), "test");
+  }
+
+  /**
+   * Tests that a sure rule spawns exactly on the multiples of its interval, in its lanes.
+   */
+  @Test
+  public void testSureRuleSpawnsOnInterval() throws IOException {
+    world.setWaveSchedule(parse("level 0\nspawn zombie every=10 count=2 lanes=3-4\n"));
+    SpawnTimeline timeline = world.spawnTimeline;
+    for (int nTick = 1; nTick <= 35; nTick++) {
+      int nSpawned = timeline.spawnDue(nTick);
+      assertEquals("tick " + nTick, nTick % 10 == 0 ? 2 : 0, nSpawned);
+    }
+    world.flushAll();
+    assertEquals(6, world.movFoes.size());
+    for (Movable mov : world.movFoes) {
+      assertTrue(mov instanceof Zombie);
+      int nLane = LawnGrid.laneOf(mov.getPointCenter().y);
+      assertTrue("lane " + nLane, nLane == 3 || nLane == 4);
+    }
+    assertEquals(40, timeline.getNextTick());
+  }
+
+  /**
+   * Tests that the spawns of several rules come out in tick order, each on its own interval.
+   */
+  @Test
+  public void testRulesMerge() throws IOException {
+    world.setWaveSchedule(parse("level 0\nspawn crazy every=7\nspawn sun every=3\n"));
+    for (int nTick = 1; nTick <= 21; nTick++) {
+      world.spawnTimeline.spawnDue(nTick);
+      world.flushAll();
+      assertEquals(nTick / 3, world.movSun.size());
+      assertEquals(nTick / 7, world.movFoes.size());
+    }
+    for (Movable mov : world.movFoes) {
+      assertTrue(mov instanceof CrazyZombie);
+    }
+    for (Movable mov : world.movSun) {
+      assertTrue(mov instanceof Sun);
+    }
+  }
+
+  /**
+   * Tests that a level change switches to the new level's rules.
+   */
+  @Test
+  public void testLevelChangeRecompiles() throws IOException {
+    world.setWaveSchedule(parse("level 0\nspawn zombie every=5\nlevel 1\nspawn crazy every=5\n"));
+    world.spawnTimeline.spawnDue(5);
+    world.setLevel(1);
+    world.spawnTimeline.spawnDue(10);
+    world.flushAll();
+    assertEquals(2, world.movFoes.size());
+    int nCrazy = 0;
+    for (Movable mov : world.movFoes) {
+      nCrazy += mov instanceof CrazyZombie ? 1 : 0;
+    }
+    assertEquals(1, nCrazy);
+  }
+
+  /**
+   * Tests that changing the spawn settings takes effect on the next tick.
+   */
+  @Test
+  public void testSettingsChangeRecompiles() throws IOException {
+    world.setWaveSchedule(parse("level 0\nspawn zombie every=zombie\n"));
+    assertEquals(0, world.spawnTimeline.spawnDue(4));
+    world.setSpawnSettings(SpawnSettings.DEFAULT.with(SpawnSettings.ZOMBIE, 5));
+    assertEquals(1, world.spawnTimeline.spawnDue(5));
+    world.setSpawnSettings(SpawnSettings.DEFAULT);
+  }
+
+  /**
+   * Tests that the timeline keeps spawning past its compiled horizon and after the tick goes back.
+   */
+  @Test
+  public void testHorizonAndRewind() throws IOException {
+    world.setWaveSchedule(parse("level 0\nspawn zombie every=" + SpawnTimeline.HORIZON + "\n"));
+    assertEquals(1, world.spawnTimeline.spawnDue(SpawnTimeline.HORIZON));
+    assertEquals(1, world.spawnTimeline.spawnDue(2 * SpawnTimeline.HORIZON));
+    assertEquals(0, world.spawnTimeline.spawnDue(2 * SpawnTimeline.HORIZON));
+    assertEquals(1, world.spawnTimeline.spawnDue(SpawnTimeline.HORIZON));
+  }
+
+  /**
+   * Tests that a spawn never comes of a zero chance, whatever the interval.
+   */
+  @Test
+  public void testZeroChance() throws IOException {
+    world.setWaveSchedule(parse("level 0\nspawn zombie every=1 chance=0\n"));
+    for (int nTick = 1; nTick <= 100; nTick++) {
+      assertEquals(0, world.spawnTimeline.spawnDue(nTick));
+    }
+  }
+
+  /**
+   * Tests that the same seed compiles the same spawns.
+   */
+  @Test
+  public void testSameSeedSameSpawns() {
+    StringBuilder sbFirst = new StringBuilder();
+    for (int nC = 0; nC < 2; nC++) {
+      GameWorld other = new GameWorld(7);
+      other.enter();
+      StringBuilder sb = new StringBuilder();
+      for (int nTick = 1; nTick <= 500; nTick++) {
+        GameController.tick();
+        other.flushAll();
+      }
+      for (Movable mov : other.movFoes) {
+        sb.append(mov.getPointCenter()).append(';');
+      }
+      for (Movable mov : other.movSun) {
+        sb.append(mov.getPointCenter().x).append(';');
+      }
+      if (nC == 0) {
+        sbFirst = sb;
+      } else {
+        assertEquals(sbFirst.toString(), sb.toString());
+      }
+    }
+    assertTrue(sbFirst.length() > 0);
+  }
+}
@@ -0,0 +1,122 @@
+import model.Peashooter;
+import model.SpriteAtlas;
+import model.Sun;
+import model.Zombie;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for SpriteAtlas.
+ * Verifies that variants are rasterized once, drawn identically to their primitives, and bounded in number.
+ */
+public class SpriteAtlasTest {
+
+  /**
+   * Starts every test with an empty, enabled atlas.
+   */
+  @Before
+  public void setUp() {
+    SpriteAtlas.setEnabled(true);
+    SpriteAtlas.clear();
+  }
+
+  /**
+   * Leaves the atlas enabled for other tests.
+   */
+  @After
+  public void tearDown() {
+    SpriteAtlas.setEnabled(true);
+  }
+
+  /**
+   * Draws into a fresh transparent image.
+   */
+  private static BufferedImage canvas() {
+    return new BufferedImage(200, 200, BufferedImage.TYPE_INT_ARGB);
+  }
+
+  /**
+   * Tests that the same variant at another position is served from the cache.
+   */
+  @Test
+  public void testSameVariantIsCached() {
+    Peashooter peashooter = new Peashooter(100, 100);
+    peashooter.draw(canvas().getGraphics());
+    peashooter.setPointCenter(new Point(60, 80));
+    peashooter.draw(canvas().getGraphics());
+
+    assertEquals(1, SpriteAtlas.getMisses());
+    assertEquals(1, SpriteAtlas.getHits());
+    assertEquals(1, SpriteAtlas.size());
+  }
+
+  /**
+   * Tests that a different look is a different variant.
+   */
+  @Test
+  public void testVariantsAreDistinct() {
+    Zombie zombie = new Zombie(100);
+    long lKey = zombie.getAtlasKey();
+    zombie.frozen();
+    assertNotEquals(lKey, zombie.getAtlasKey());
+
+    Sun sun = new Sun(100, 100);
+    lKey = sun.getAtlasKey();
+    sun.setOrientation(sun.getOrientation() + 1);
+    assertNotEquals(lKey, sun.getAtlasKey());
+    sun.setOrientation(sun.getOrientation() + 359);
+    assertEquals(lKey, sun.getAtlasKey());
+  }
+
+  /**
+   * Tests that a blit from the atlas gives the same pixels as drawing the primitives.
+   */
+  @Test
+  public void testBlitMatchesPrimitives() {
+    Zombie zombie = new Zombie(100);
+    zombie.setPointCenter(new Point(100, 100));
+
+    BufferedImage imgDirect = canvas();
+    zombie.drawPrimitives(imgDirect.getGraphics());
+    BufferedImage imgAtlas = canvas();
+    zombie.draw(imgAtlas.getGraphics());
+
+    for (int x = 0; x < 200; x++) {
+      for (int y = 0; y < 200; y++) {
+        assertEquals("pixel " + x + "," + y, imgDirect.getRGB(x, y), imgAtlas.getRGB(x, y));
+      }
+    }
+  }
+
+  /**
+   * Tests that a disabled atlas draws directly and caches nothing.
+   */
+  @Test
+  public void testDisabled() {
+    SpriteAtlas.setEnabled(false);
+    new Peashooter(100, 100).draw(canvas().getGraphics());
+    assertEquals(0, SpriteAtlas.size());
+    assertEquals(0, SpriteAtlas.getMisses());
+  }
+
+  /**
+   * Tests that the least recently used images are dropped once the atlas is full.
+   */
+  @Test
+  public void testBoundedSize() {
+    Sun sun = new Sun(100, 100);
+    Graphics g = canvas().getGraphics();
+    for (int nC = 0; nC < SpriteAtlas.MAX_IMAGES + 20; nC++) {
+      sun.setOrientation(nC);
+      sun.draw(g);
+    }
+    assertEquals(SpriteAtlas.MAX_IMAGES, SpriteAtlas.size());
+    assertEquals(20, SpriteAtlas.getEvictions());
+  }
+}
@@ -0,0 +1,145 @@
+import model.LawnGrid;
+import model.SpawnSettings;
+import model.WaveSchedule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for WaveSchedule.
+ * These tests parse schedules, check the shipped one and check that mistakes name their line.
+ */
+public class WaveScheduleTest {
+
+  private static WaveSchedule parse(String strText) throws IOException {
+    return WaveSchedule.parse(new StringReader(strText), "test");
+  }
+
+  /**
+   * Tests that the shipped schedule has the three levels of the game and the hard-wired pace.
+   */
+  @Test
+  public void testDefaultSchedule() {
+    WaveSchedule schedule = WaveSchedule.DEFAULT;
+    assertEquals(4, schedule.getLevelCount());
+    assertNull(schedule.getLevel(0).getMusic());
+    assertEquals("music/level1.wav", schedule.getLevel(1).getMusic());
+    assertEquals("Level Two", schedule.getLevel(2).getBanner());
+    assertEquals(2, schedule.getLevel(1).getRules().size());
+    assertEquals(3, schedule.getLevel(2).getRules().size());
+
+    WaveSchedule.Rule crazy = schedule.getLevel(2).getRules().get(2);
+    assertEquals(WaveSchedule.CRAZY, crazy.getKind());
+    assertEquals(SpawnSettings.DEFAULT.getCrazyInterval(), crazy.getEvery(SpawnSettings.DEFAULT));
+    assertEquals(20, crazy.getChance(SpawnSettings.DEFAULT));
+  }
+
+  /**
+   * Tests that levels past the last one keep its rules.
+   */
+  @Test
+  public void testLevelsPastTheLast() {
+    WaveSchedule schedule = WaveSchedule.DEFAULT;
+    assertSame(schedule.getLevel(3), schedule.getLevel(9));
+  }
+
+  /**
+   * Tests a schedule with numbers, settings, counts and lanes.
+   */
+  @Test
+  public void testParse() throws IOException {
+    WaveSchedule schedule = parse("# comment\n"
+        + "level 0\n"
+        + "level 1 music=music/level1.wav banner=Here they come\n"
+        + "  spawn zombie every=30 chance=50 count=2 lanes=3-4\n"
+        + "spawn sun every=sun\n"
+        + "level 2\n"
+        + "spawn crazy every=5 lanes=6\n");
+    assertEquals(3, schedule.getLevelCount());
+    assertTrue(schedule.getLevel(0).getRules().isEmpty());
+    assertEquals("Here they come", schedule.getLevel(1).getBanner());
+
+    WaveSchedule.Rule zombie = schedule.getLevel(1).getRules().get(0);
+    assertEquals(30, zombie.getEvery(SpawnSettings.DEFAULT));
+    assertEquals(50, zombie.getChance(SpawnSettings.DEFAULT));
+    assertEquals(2, zombie.getCount());
+    assertEquals(3, zombie.getFirstLane());
+    assertEquals(4, zombie.getLastLane());
+
+    WaveSchedule.Rule sun = schedule.getLevel(1).getRules().get(1);
+    assertEquals(9, sun.getEvery(SpawnSettings.DEFAULT.with(SpawnSettings.SUN, 9)));
+    assertEquals(100, sun.getChance(SpawnSettings.DEFAULT));
+
+    WaveSchedule.Rule crazy = schedule.getLevel(2).getRules().get(0);
+    assertEquals(6, crazy.getFirstLane());
+    assertEquals(6, crazy.getLastLane());
+  }
+
+  /**
+   * Tests that odds convert to the chance the old roll gave.
+   */
+  @Test
+  public void testOddsPercent() {
+    assertEquals(100, WaveSchedule.oddsPercent(1));
+    assertEquals(50, WaveSchedule.oddsPercent(2));
+    assertEquals(40, WaveSchedule.oddsPercent(3));
+    assertEquals(20, WaveSchedule.oddsPercent(7));
+    assertEquals(10, WaveSchedule.oddsPercent(10));
+  }
+
+  /**
+   * Tests that a mistake is reported with its line.
+   */
+  @Test
+  public void testErrorNamesLine() {
+    try {
+      parse("level 0\nspawn zombie every=10 chance=250\n");
+      fail("Expected an error");
+    } catch (IOException e) {
+      assertTrue(e.getMessage(), e.getMessage().startsWith("test:2: "));
+    }
+  }
+
+  /**
+   * Tests that levels must be numbered in order.
+   */
+  @Test(expected = IOException.class)
+  public void testLevelsOutOfOrder() throws IOException {
+    parse("level 0\nlevel 2\n");
+  }
+
+  /**
+   * Tests that a rule needs an interval.
+   */
+  @Test(expected = IOException.class)
+  public void testRuleNeedsEvery() throws IOException {
+    parse("level 0\nspawn zombie chance=10\n");
+  }
+
+  /**
+   * Tests that unknown settings and kinds are rejected.
+   */
+  @Test(expected = IOException.class)
+  public void testUnknownSetting() throws IOException {
+    parse("level 0\nspawn zombie every=tree\n");
+  }
+
+  /**
+   * Tests that lanes must lie on the lawn.
+   */
+  @Test(expected = IOException.class)
+  public void testLanesOffLawn() throws IOException {
+    parse("level 0\nspawn zombie every=10 lanes=2-" + LawnGrid.LANES + "\n");
+  }
+
+  /**
+   * Tests that a schedule needs a level.
+   */
+  @Test(expected = IOException.class)
+  public void testEmpty() throws IOException {
+    parse("# nothing\n");
+  }
+}
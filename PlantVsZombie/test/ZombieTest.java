@@ -91,13 +91,13 @@ public class ZombieTest {
     zombie2.frozen();
 
     // Verify frozen state for both instances
-    assertEquals(0, zombie1.speed);
+    assertEquals(0, zombie1.getSpeed());
     assertEquals(0, zombie1.getDeltaX(), 0.01);
-    assertTrue(zombie1.isFozen);
+    assertTrue(zombie1.isFrozen());
 
-    assertEquals(0, zombie2.speed);
+    assertEquals(0, zombie2.getSpeed());
     assertEquals(0, zombie2.getDeltaX(), 0.01);
-    assertTrue(zombie2.isFozen);
+    assertTrue(zombie2.isFrozen());
   }
 
   /**
@@ -113,11 +113,11 @@ public class ZombieTest {
     zombie2.recover();
 
     // Verify recovery state
-    assertEquals(0, zombie1.speed);
-    assertTrue(zombie1.isFozen);
+    assertEquals(0, zombie1.getSpeed());
+    assertTrue(zombie1.isFrozen());
 
-    assertEquals(0, zombie2.speed);
-    assertTrue(zombie2.isFozen);
+    assertEquals(0, zombie2.getSpeed());
+    assertTrue(zombie2.isFrozen());
   }
 
   /**
@@ -139,10 +139,10 @@ public class ZombieTest {
     zombie1.isHit(1);
     zombie2.isHit(1);
     assertEquals(initialSize1 - 2, zombie1.getSize());
-    assertTrue(zombie1.isFozen);
+    assertTrue(zombie1.isFrozen());
 
     assertEquals(initialSize2 - 2, zombie2.getSize());
-    assertTrue(zombie2.isFozen);
+    assertTrue(zombie2.isFrozen());
   }
 
   /**
@@ -151,17 +151,17 @@ public class ZombieTest {
    */
   @Test
   public void testUpdateSpeed() {
-    zombie1.speedRatio = 2;
-    zombie2.speedRatio = 3;
+    zombie1.setSpeedRatio(2);
+    zombie2.setSpeedRatio(3);
 
     zombie1.updateSpeed();
     zombie2.updateSpeed();
 
     // Verify updated speed and delta values
-    assertEquals(2, zombie1.speed);
+    assertEquals(2, zombie1.getSpeed());
     assertEquals(-1, zombie1.getDeltaX(), 0.01);
 
-    assertEquals(3, zombie2.speed);
+    assertEquals(3, zombie2.getSpeed());
     assertEquals(-1.5, zombie2.getDeltaX(), 0.01);
   }
 